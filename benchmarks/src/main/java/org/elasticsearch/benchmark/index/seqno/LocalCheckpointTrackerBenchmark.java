@@ -0,0 +1,76 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.index.seqno;
+
+import org.elasticsearch.index.seqno.LocalCheckpointTracker;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the {@link LocalCheckpointTracker} when many write threads of the same shard generate sequence numbers
+ * and mark them as processed and persisted concurrently, as they do when indexing into a hot shard.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+public class LocalCheckpointTrackerBenchmark {
+
+    private LocalCheckpointTracker tracker;
+
+    @Setup
+    public void setUp() {
+        tracker = new LocalCheckpointTracker(SequenceNumbers.NO_OPS_PERFORMED, SequenceNumbers.NO_OPS_PERFORMED);
+    }
+
+    private long markSeqNo() {
+        final long seqNo = tracker.generateSeqNo();
+        tracker.markSeqNoAsProcessed(seqNo);
+        tracker.markSeqNoAsPersisted(seqNo);
+        return tracker.getProcessedCheckpoint();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long markSeqNo1Thread() {
+        return markSeqNo();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long markSeqNo4Threads() {
+        return markSeqNo();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long markSeqNo16Threads() {
+        return markSeqNo();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public long markSeqNo32Threads() {
+        return markSeqNo();
+    }
+}
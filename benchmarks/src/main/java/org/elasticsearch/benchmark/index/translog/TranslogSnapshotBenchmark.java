@@ -0,0 +1,124 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.index.translog;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogConfig;
+import org.elasticsearch.index.translog.TranslogDeletionPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading all operations of sealed translog generations through positional reads on the file channel with reading them
+ * from a memory mapping of the translog files, see {@code index.translog.mmap_reads}.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1)
+public class TranslogSnapshotBenchmark {
+
+    @Param({ "false", "true" })
+    private boolean mmapReads;
+
+    @Param({ "100000" })
+    private int numOperations;
+
+    @Param({ "256", "4096" })
+    private int sourceSize;
+
+    @Param({ "4" })
+    private int generations;
+
+    private Path translogPath;
+
+    private Translog translog;
+
+    @Setup
+    public void setUp() throws IOException {
+        translogPath = Files.createTempDirectory("translog");
+        final Settings settings = Settings.builder()
+            .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+            .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0)
+            .put(IndexSettings.INDEX_TRANSLOG_MMAP_READS_SETTING.getKey(), mmapReads)
+            .build();
+        final IndexMetadata indexMetadata = IndexMetadata.builder("index").settings(settings).build();
+        final IndexSettings indexSettings = new IndexSettings(indexMetadata, settings);
+        final ShardId shardId = new ShardId(indexMetadata.getIndex(), 0);
+        final TranslogConfig config = new TranslogConfig(shardId, translogPath, indexSettings, BigArrays.NON_RECYCLING_INSTANCE);
+        final String translogUUID = Translog.createEmptyTranslog(translogPath, SequenceNumbers.NO_OPS_PERFORMED, shardId, 1L);
+        translog = new Translog(
+            config,
+            translogUUID,
+            new TranslogDeletionPolicy(),
+            () -> SequenceNumbers.NO_OPS_PERFORMED,
+            () -> 1L,
+            seqNo -> {}
+        );
+        final Random random = new Random(42);
+        final byte[] source = new byte[sourceSize];
+        final int opsPerGeneration = Math.max(1, numOperations / generations);
+        for (int seqNo = 0; seqNo < numOperations; seqNo++) {
+            random.nextBytes(source);
+            translog.add(new Translog.Index(Integer.toString(seqNo), seqNo, 1L, source));
+            if ((seqNo + 1) % opsPerGeneration == 0) {
+                translog.rollGeneration();
+            }
+        }
+        // make sure that all operations are in sealed generations
+        translog.rollGeneration();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        IOUtils.close(translog);
+        IOUtils.rm(translogPath);
+    }
+
+    @Benchmark
+    public int readAllOperations(Blackhole blackhole) throws IOException {
+        int count = 0;
+        try (Translog.Snapshot snapshot = translog.newSnapshot()) {
+            Translog.Operation operation;
+            while ((operation = snapshot.next()) != null) {
+                blackhole.consume(operation);
+                count++;
+            }
+        }
+        return count;
+    }
+}
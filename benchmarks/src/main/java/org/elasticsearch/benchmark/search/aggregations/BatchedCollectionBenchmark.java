@@ -0,0 +1,205 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.search.aggregations;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+import org.elasticsearch.search.aggregations.metrics.CompensatedSum;
+import org.elasticsearch.search.aggregations.support.DoubleValuesBatch;
+import org.elasticsearch.search.aggregations.support.ValuesSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares collecting numeric values for aggregations one doc at a time with
+ * collecting them in batches of docs, the way the {@code sum} and {@code histogram}
+ * aggregations do.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BatchedCollectionBenchmark {
+    private static final int NUM_DOCS = 1_000_000;
+    private static final int BATCH_SIZE = 256;
+    private static final double INTERVAL = 100;
+
+    /**
+     * The number of values of each doc.
+     */
+    @Param({ "1", "3" })
+    public int valuesPerDoc;
+
+    private Directory directory;
+    private DirectoryReader reader;
+    private ValuesSource.Numeric valuesSource;
+    private final int[] docs = new int[BATCH_SIZE];
+
+    @Setup
+    public void setup() throws IOException {
+        directory = new ByteBuffersDirectory();
+        Random random = new Random(0);
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+            for (int i = 0; i < NUM_DOCS; i++) {
+                Document doc = new Document();
+                for (int v = 0; v < valuesPerDoc; v++) {
+                    doc.add(new SortedNumericDocValuesField("f", random.nextInt(100_000)));
+                }
+                writer.addDocument(doc);
+            }
+            writer.forceMerge(1);
+        }
+        reader = DirectoryReader.open(directory);
+        valuesSource = new ValuesSource.Numeric() {
+            @Override
+            public boolean isFloatingPoint() {
+                return false;
+            }
+
+            @Override
+            public SortedNumericDocValues longValues(LeafReaderContext context) throws IOException {
+                return DocValues.getSortedNumeric(context.reader(), "f");
+            }
+
+            @Override
+            public SortedNumericDoubleValues doubleValues(LeafReaderContext context) throws IOException {
+                return FieldData.castToDouble(longValues(context));
+            }
+
+            @Override
+            public SortedBinaryDocValues bytesValues(LeafReaderContext context) throws IOException {
+                return FieldData.toString(doubleValues(context));
+            }
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    @Benchmark
+    public double sumPerDoc() throws IOException {
+        CompensatedSum sum = new CompensatedSum(0, 0);
+        for (LeafReaderContext ctx : reader.leaves()) {
+            SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
+            for (int doc = 0; doc < ctx.reader().maxDoc(); doc++) {
+                if (values.advanceExact(doc)) {
+                    for (int i = 0; i < values.docValueCount(); i++) {
+                        sum.add(values.nextValue());
+                    }
+                }
+            }
+        }
+        return sum.value();
+    }
+
+    @Benchmark
+    public double sumBatched() throws IOException {
+        CompensatedSum sum = new CompensatedSum(0, 0);
+        for (LeafReaderContext ctx : reader.leaves()) {
+            DoubleValuesBatch batch = valuesSource.doubleValuesBatch(ctx);
+            for (int start = 0; start < ctx.reader().maxDoc(); start += BATCH_SIZE) {
+                int count = fillBatch(start, ctx.reader().maxDoc());
+                int numValues = batch.read(docs, count);
+                double[] values = batch.values();
+                for (int i = 0; i < numValues; i++) {
+                    sum.add(values[i]);
+                }
+            }
+        }
+        return sum.value();
+    }
+
+    @Benchmark
+    public long histogramKeysPerDoc() throws IOException {
+        long keys = 0;
+        for (LeafReaderContext ctx : reader.leaves()) {
+            SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
+            for (int doc = 0; doc < ctx.reader().maxDoc(); doc++) {
+                if (values.advanceExact(doc)) {
+                    double previousKey = Double.NEGATIVE_INFINITY;
+                    for (int i = 0; i < values.docValueCount(); i++) {
+                        double key = Math.floor(values.nextValue() / INTERVAL);
+                        if (key != previousKey) {
+                            keys += (long) key;
+                            previousKey = key;
+                        }
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+
+    @Benchmark
+    public long histogramKeysBatched() throws IOException {
+        long keys = 0;
+        for (LeafReaderContext ctx : reader.leaves()) {
+            DoubleValuesBatch batch = valuesSource.doubleValuesBatch(ctx);
+            for (int start = 0; start < ctx.reader().maxDoc(); start += BATCH_SIZE) {
+                int count = fillBatch(start, ctx.reader().maxDoc());
+                int numValues = batch.read(docs, count);
+                double[] values = batch.values();
+                for (int i = 0; i < numValues; i++) {
+                    values[i] = Math.floor(values[i] / INTERVAL);
+                }
+                int[] valueCounts = batch.valueCounts();
+                int v = 0;
+                for (int d = 0; d < count; d++) {
+                    double previousKey = Double.NEGATIVE_INFINITY;
+                    for (int end = v + valueCounts[d]; v < end; v++) {
+                        if (values[v] != previousKey) {
+                            keys += (long) values[v];
+                            previousKey = values[v];
+                        }
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+
+    private int fillBatch(int start, int maxDoc) {
+        int count = Math.min(BATCH_SIZE, maxDoc - start);
+        for (int i = 0; i < count; i++) {
+            docs[i] = start + i;
+        }
+        return count;
+    }
+}
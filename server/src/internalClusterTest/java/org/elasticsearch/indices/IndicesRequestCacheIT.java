@@ -10,14 +10,19 @@ package org.elasticsearch.indices;
 
 import org.elasticsearch.action.admin.indices.alias.Alias;
 import org.elasticsearch.action.admin.indices.forcemerge.ForceMergeResponse;
+import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.client.internal.Client;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.time.DateFormatter;
+import org.elasticsearch.index.MergePolicyConfig;
 import org.elasticsearch.index.cache.request.RequestCacheStats;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.BucketOrder;
 import org.elasticsearch.search.aggregations.bucket.global.GlobalAggregationBuilder;
 import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
 import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
@@ -31,10 +36,16 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
+import static org.elasticsearch.search.aggregations.AggregationBuilders.avg;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.dateHistogram;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.dateRange;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.filter;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.histogram;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.stats;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.sum;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.terms;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchResponse;
 import static org.hamcrest.Matchers.equalTo;
@@ -586,6 +597,73 @@ public class IndicesRequestCacheIT extends ESIntegTestCase {
         }
     }
 
+    public void testSegmentReuseReturnsSameAggregations() throws Exception {
+        Client client = client();
+        for (boolean segmentReuse : new boolean[] { true, false }) {
+            assertAcked(
+                client.admin()
+                    .indices()
+                    .prepareCreate(segmentReuse ? "reuse" : "no-reuse")
+                    .setMapping("k", "type=keyword", "n", "type=long", "d", "type=date")
+                    .setSettings(
+                        Settings.builder()
+                            .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1)
+                            .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0)
+                            .put(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING.getKey(), true)
+                            .put(IndicesRequestCache.INDEX_CACHE_REQUEST_SEGMENT_REUSE_SETTING.getKey(), segmentReuse)
+                            .put(MergePolicyConfig.INDEX_MERGE_ENABLED, false)
+                    )
+                    .get()
+            );
+        }
+        ensureGreen("reuse", "no-reuse");
+
+        final List<AggregationBuilder> aggregations = randomSubsetOf(
+            between(1, 4),
+            List.of(
+                terms("terms").field("k")
+                    .order(BucketOrder.key(randomBoolean()))
+                    .size(between(1, 20))
+                    .subAggregation(sum("sum").field("n")),
+                histogram("histogram").field("n").interval(between(1, 50)).subAggregation(stats("stats").field("n")),
+                dateHistogram("date_histogram").field("d").fixedInterval(DateHistogramInterval.hours(between(1, 12))),
+                avg("avg").field("n"),
+                // selects its terms by count, the request never reuses segments
+                terms("top_terms").field("k").size(between(1, 5))
+            )
+        );
+
+        int id = 0;
+        for (int round = 0; round < 10; round++) {
+            // every round adds a segment, the cached result of the previous round covers the older ones
+            final int numDocs = between(1, 30);
+            for (int i = 0; i < numDocs; i++) {
+                final String docId = Integer.toString(id++);
+                final Map<String, Object> source = Map.of(
+                    "k",
+                    "term-" + between(0, 30),
+                    "n",
+                    between(-100, 100),
+                    "d",
+                    randomLongBetween(0, 48 * 3600 * 1000L)
+                );
+                client.prepareIndex("reuse").setId(docId).setSource(source).get();
+                client.prepareIndex("no-reuse").setId(docId).setSource(source).get();
+            }
+            refresh("reuse", "no-reuse");
+
+            final String[] results = new String[2];
+            for (int i = 0; i < 2; i++) {
+                final SearchRequestBuilder search = client.prepareSearch(i == 0 ? "reuse" : "no-reuse").setSize(0).setRequestCache(true);
+                aggregations.forEach(search::addAggregation);
+                final SearchResponse response = search.get();
+                assertSearchResponse(response);
+                results[i] = Strings.toString(response.getAggregations());
+            }
+            assertThat(results[0], equalTo(results[1]));
+        }
+    }
+
     private static void assertCacheState(Client client, String index, long expectedHits, long expectedMisses) {
         RequestCacheStats requestCacheStats = client.admin()
             .indices()
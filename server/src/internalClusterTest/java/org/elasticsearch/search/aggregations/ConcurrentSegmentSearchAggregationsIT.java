@@ -0,0 +1,134 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.MergePolicyConfig;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
+import org.elasticsearch.test.ESIntegTestCase;
+
+import java.util.List;
+
+import static org.elasticsearch.search.aggregations.AggregationBuilders.avg;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.count;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.dateHistogram;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.histogram;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.max;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.min;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.stats;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.sum;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.terms;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailures;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ConcurrentSegmentSearchAggregationsIT extends ESIntegTestCase {
+
+    public void testSameAggregationsAsSequentialCollection() throws Exception {
+        assertAcked(
+            prepareCreate("idx").setSettings(
+                Settings.builder()
+                    .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1)
+                    .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0)
+                    .put(MergePolicyConfig.INDEX_MERGE_ENABLED, false)
+            )
+                .setMapping("keyword", "type=keyword", "number", "type=long", "date", "type=date")
+        );
+        // every refresh creates a segment so that the shard is split into several slices
+        final int numSegments = randomIntBetween(8, 20);
+        for (int i = 0; i < numSegments; i++) {
+            final BulkRequestBuilder bulk = client().prepareBulk();
+            final int numDocs = randomIntBetween(1, 50);
+            for (int j = 0; j < numDocs; j++) {
+                bulk.add(
+                    client().prepareIndex("idx")
+                        .setSource(
+                            "keyword",
+                            "term-" + randomIntBetween(0, 30),
+                            "number",
+                            randomIntBetween(-100, 100),
+                            "date",
+                            randomLongBetween(0, 48 * 3600 * 1000L)
+                        )
+                );
+            }
+            assertNoFailures(bulk.get());
+            refresh("idx");
+        }
+
+        final List<AggregationBuilder> decomposable = List.of(
+            terms("terms").field("keyword")
+                .order(BucketOrder.key(randomBoolean()))
+                .size(randomIntBetween(1, 40))
+                .subAggregation(sum("sum").field("number")),
+            histogram("histogram").field("number").interval(randomIntBetween(1, 50)).subAggregation(stats("stats").field("number")),
+            dateHistogram("date_histogram").field("date")
+                .fixedInterval(DateHistogramInterval.hours(randomIntBetween(1, 12)))
+                .subAggregation(avg("avg").field("number")),
+            min("min").field("number"),
+            max("max").field("number"),
+            count("count").field("keyword")
+        );
+        // selects its top terms by count, the whole request is collected sequentially
+        final AggregationBuilder topTerms = terms("top_terms").field("keyword").size(randomIntBetween(1, 5));
+
+        for (int i = 0; i < 10; i++) {
+            final QueryBuilder query = randomBoolean()
+                ? QueryBuilders.matchAllQuery()
+                : QueryBuilders.rangeQuery("number").gte(randomIntBetween(-100, 100));
+            final List<AggregationBuilder> aggregations = randomSubsetOf(randomIntBetween(1, decomposable.size()), decomposable);
+            final boolean withTopTerms = randomBoolean();
+
+            final String expected = searchAggregations(false, query, aggregations, withTopTerms ? topTerms : null);
+            final String actual = searchAggregations(true, query, aggregations, withTopTerms ? topTerms : null);
+            assertThat(actual, equalTo(expected));
+        }
+    }
+
+    private String searchAggregations(
+        boolean concurrentSegmentSearch,
+        QueryBuilder query,
+        List<AggregationBuilder> aggregations,
+        AggregationBuilder extraAggregation
+    ) {
+        assertAcked(
+            client().admin()
+                .cluster()
+                .prepareUpdateSettings()
+                .setPersistentSettings(
+                    Settings.builder().put(SearchService.CONCURRENT_SEGMENT_SEARCH_SETTING.getKey(), concurrentSegmentSearch)
+                )
+        );
+        try {
+            // the request cache would return the response of the first search
+            final var search = client().prepareSearch("idx").setQuery(query).setSize(0).setRequestCache(false);
+            aggregations.forEach(search::addAggregation);
+            if (extraAggregation != null) {
+                search.addAggregation(extraAggregation);
+            }
+            final SearchResponse response = search.get();
+            assertNoFailures(response);
+            return Strings.toString(response.getAggregations());
+        } finally {
+            assertAcked(
+                client().admin()
+                    .cluster()
+                    .prepareUpdateSettings()
+                    .setPersistentSettings(Settings.builder().putNull(SearchService.CONCURRENT_SEGMENT_SEARCH_SETTING.getKey()))
+            );
+        }
+    }
+}
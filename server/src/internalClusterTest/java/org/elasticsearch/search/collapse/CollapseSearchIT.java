@@ -0,0 +1,112 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.collapse;
+
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.query.InnerHitBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.test.ESIntegTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.elasticsearch.index.query.QueryBuilders.rangeQuery;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailures;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class CollapseSearchIT extends ESIntegTestCase {
+
+    /**
+     * Compares the inner hits that the shards expand, with one search per shard that carries all the groups, to the inner hits that
+     * the coordinating node expands with one search per collapsed hit, which it does for DFS searches.
+     */
+    public void testExpandOnShardsMatchesExpandWithMultiSearch() throws Exception {
+        assertAcked(
+            client().admin()
+                .indices()
+                .prepareCreate("test")
+                .setSettings(
+                    Settings.builder()
+                        .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, randomIntBetween(2, 5))
+                        .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0)
+                )
+                .setMapping("group", "type=keyword", "n", "type=long")
+        );
+        ensureGreen("test");
+
+        final int numGroups = randomIntBetween(1, 20);
+        final int numDocs = randomIntBetween(numGroups, 200);
+        final List<IndexRequestBuilder> requests = new ArrayList<>(numDocs);
+        for (int i = 0; i < numDocs; i++) {
+            // some docs don't have a group and are collapsed together
+            requests.add(
+                randomBoolean() && i > 0
+                    ? client().prepareIndex("test").setSource("n", i)
+                    : client().prepareIndex("test").setSource("group", "group-" + randomIntBetween(0, numGroups - 1), "n", i)
+            );
+        }
+        indexRandom(true, requests);
+
+        final int from = randomIntBetween(0, 3);
+        final int size = randomIntBetween(1, 5);
+        final CollapseBuilder collapse = new CollapseBuilder("group").setInnerHits(
+            Arrays.asList(
+                new InnerHitBuilder("asc").setFrom(from).setSize(size).addSort(SortBuilders.fieldSort("n")),
+                new InnerHitBuilder("desc").setFrom(from).setSize(size).addSort(SortBuilders.fieldSort("n").order(SortOrder.DESC))
+            )
+        );
+        final int minN = randomIntBetween(0, numDocs / 2);
+        final SearchResponse onShards = client().prepareSearch("test")
+            .setQuery(rangeQuery("n").gte(minN))
+            .setCollapse(collapse)
+            .addSort("n", SortOrder.DESC)
+            .setSize(numGroups + 1)
+            .get();
+        final SearchResponse withMultiSearch = client().prepareSearch("test")
+            .setSearchType(SearchType.DFS_QUERY_THEN_FETCH)
+            .setQuery(rangeQuery("n").gte(minN))
+            .setCollapse(collapse)
+            .addSort("n", SortOrder.DESC)
+            .setSize(numGroups + 1)
+            .get();
+        assertNoFailures(onShards);
+        assertNoFailures(withMultiSearch);
+
+        final SearchHit[] expected = withMultiSearch.getHits().getHits();
+        final SearchHit[] actual = onShards.getHits().getHits();
+        assertThat(actual.length, greaterThan(0));
+        assertThat(actual.length, equalTo(expected.length));
+        for (int i = 0; i < expected.length; i++) {
+            assertThat(actual[i].getId(), equalTo(expected[i].getId()));
+            for (String name : List.of("asc", "desc")) {
+                final SearchHits expectedInnerHits = expected[i].getInnerHits().get(name);
+                final SearchHits actualInnerHits = actual[i].getInnerHits().get(name);
+                assertThat(actualInnerHits.getTotalHits(), equalTo(expectedInnerHits.getTotalHits()));
+                assertThat(ids(actualInnerHits), equalTo(ids(expectedInnerHits)));
+                for (SearchHit innerHit : actualInnerHits.getHits()) {
+                    assertThat(innerHit.getIndex(), equalTo("test"));
+                }
+            }
+        }
+    }
+
+    private static List<String> ids(SearchHits hits) {
+        return Arrays.stream(hits.getHits()).map(SearchHit::getId).toList();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+
+package org.elasticsearch.action.admin.cluster.allocation;
+
+import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.master.TransportMasterNodeReadAction;
+import org.elasticsearch.cluster.ClusterModule;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlockException;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.routing.allocation.allocator.DesiredBalanceShardsAllocator;
+import org.elasticsearch.cluster.routing.allocation.allocator.ShardsAllocator;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+public class TransportGetDesiredBalanceAction extends TransportMasterNodeReadAction<
+    GetDesiredBalanceAction.Request,
+    GetDesiredBalanceAction.Response> {
+
+    private final ShardsAllocator shardsAllocator;
+
+    @Inject
+    public TransportGetDesiredBalanceAction(
+        TransportService transportService,
+        ClusterService clusterService,
+        ThreadPool threadPool,
+        ActionFilters actionFilters,
+        IndexNameExpressionResolver indexNameExpressionResolver,
+        ShardsAllocator shardsAllocator
+    ) {
+        super(
+            GetDesiredBalanceAction.NAME,
+            transportService,
+            clusterService,
+            threadPool,
+            actionFilters,
+            GetDesiredBalanceAction.Request::new,
+            indexNameExpressionResolver,
+            GetDesiredBalanceAction.Response::new,
+            ThreadPool.Names.SAME
+        );
+        this.shardsAllocator = shardsAllocator;
+    }
+
+    @Override
+    protected void masterOperation(
+        Task task,
+        GetDesiredBalanceAction.Request request,
+        ClusterState state,
+        ActionListener<GetDesiredBalanceAction.Response> listener
+    ) throws Exception {
+        if (shardsAllocator instanceof DesiredBalanceShardsAllocator desiredBalanceShardsAllocator) {
+            listener.onResponse(new GetDesiredBalanceAction.Response(desiredBalanceShardsAllocator.getStats()));
+        } else {
+            listener.onFailure(
+                new ResourceNotFoundException(
+                    "Desired balance allocator is not in use, set [{}] to [{}] to use it",
+                    ClusterModule.SHARDS_ALLOCATOR_TYPE_SETTING.getKey(),
+                    ClusterModule.DESIRED_BALANCE_ALLOCATOR
+                )
+            );
+        }
+    }
+
+    @Override
+    protected ClusterBlockException checkBlock(GetDesiredBalanceAction.Request request, ClusterState state) {
+        return state.blocks().globalBlockedException(ClusterBlockLevel.METADATA_READ);
+    }
+}
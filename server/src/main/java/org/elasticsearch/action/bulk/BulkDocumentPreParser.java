@@ -0,0 +1,224 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.RefCounted;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.index.IndexingPressure;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.index.shard.IndexShard;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Parses the documents of the index requests of a shard level bulk request on the {@code bulk_parse} pool ahead of the item that is
+ * currently executed on the primary, so that parsing a large bulk request is not bound by a single thread. Indexing into the engine
+ * still happens in order on the thread executing the bulk request, which picks up the parsed documents via {@link #take}. If the
+ * parsing pool is saturated and rejects a document, it is parsed inline by the thread that takes it.
+ * <p>
+ * At most {@code window} documents are parsed ahead, and the memory they hold on to is accounted for in {@link IndexingPressure}.
+ * If that memory is not available no further documents are parsed ahead until the documents that are already parsed are taken.
+ * A document that is taken before a parsing thread picked it up is parsed on the taking thread, so this never waits for a
+ * parsing task to be scheduled. A parsed document is only handed out if it was parsed with the current mapping of the shard and
+ * did not require a mapping update; in all other cases, including parsing failures, the caller parses the document itself so
+ * that mapping updates and failures are handled exactly as without parallel parsing.
+ * <p>
+ * The sources of the documents may be slices of pooled network buffers that are released with the {@link BulkShardRequest}. Each
+ * parsing task therefore holds a reference to the request until it is done, so that a task that is still running when this
+ * pre-parser is closed keeps the buffers alive until it finishes.
+ * <p>
+ * This class is not thread safe, it must only be accessed by the thread that currently executes the bulk request.
+ */
+final class BulkDocumentPreParser implements Releasable {
+
+    private static final Logger logger = LogManager.getLogger(BulkDocumentPreParser.class);
+
+    private final BulkShardRequest request;
+    private final BulkItemRequest[] items;
+    private final IndexShard primary;
+    private final Executor executor;
+    private final IndexingPressure indexingPressure;
+    private final int window;
+    private final Map<IndexRequest, ParseTask> tasks = new IdentityHashMap<>();
+    private int nextItem = 0;
+
+    BulkDocumentPreParser(BulkShardRequest request, IndexShard primary, Executor executor, IndexingPressure indexingPressure, int window) {
+        assert window > 0 : window;
+        this.request = request;
+        this.items = request.items();
+        this.primary = primary;
+        this.executor = executor;
+        this.indexingPressure = indexingPressure;
+        this.window = window;
+        fill();
+    }
+
+    /**
+     * Returns the parsed document of the given request, or {@code null} if the caller needs to parse the document itself.
+     */
+    @Nullable
+    ParseResult take(IndexRequest request) {
+        final ParseTask task = tasks.remove(request);
+        try {
+            if (task == null) {
+                return null;
+            }
+            // runs the task on this thread unless a parsing thread already picked it up, in which case it waits for it to finish
+            task.run();
+            final Parsed parsed;
+            try {
+                parsed = task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                // parse again on the calling thread, the failure might have been caused by an outdated mapping
+                logger.trace("failed to parse document ahead of time", e);
+                return null;
+            }
+            if (parsed.doc().dynamicMappingsUpdate() != null || primary.mapperService().documentMapper() != task.mapper) {
+                return null;
+            }
+            return new ParseResult(parsed.doc(), System.nanoTime() - parsed.tookInNanos());
+        } finally {
+            if (task != null) {
+                task.release();
+            }
+            fill();
+        }
+    }
+
+    private void fill() {
+        while (tasks.size() < window && nextItem < items.length) {
+            final BulkItemRequest item = items[nextItem];
+            if (item.getPrimaryResponse() == null && item.request()instanceof IndexRequest indexRequest) {
+                final DocumentMapper mapper = primary.mapperService().documentMapper();
+                if (mapper == null) {
+                    // the first document creates the mapping
+                    return;
+                }
+                final Releasable releasable = indexingPressure.tryMarkPrimaryOperationLookaheadStarted(indexRequest.source().length());
+                if (releasable == null) {
+                    return;
+                }
+                // released by the task once it is done parsing, or when the task is skipped because this pre-parser is closed
+                request.incRef();
+                final ParseTask task = ParseTask.create(mapper, toSourceToParse(indexRequest), releasable, request);
+                tasks.put(indexRequest, task);
+                try {
+                    executor.execute(task);
+                } catch (Exception e) {
+                    // the thread taking the document will parse it
+                    logger.trace("failed to schedule parsing of document", e);
+                }
+            }
+            nextItem++;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ParseTask task : tasks.values()) {
+            task.cancel(false);
+            // a task that is running already keeps the source alive until it is done
+            task.skip();
+            task.release();
+        }
+        tasks.clear();
+        nextItem = items.length;
+    }
+
+    static SourceToParse toSourceToParse(IndexRequest request) {
+        return new SourceToParse(
+            request.id(),
+            request.source(),
+            request.getContentType(),
+            request.routing(),
+            request.getDynamicTemplates()
+        );
+    }
+
+    /**
+     * A document parsed ahead of time together with the time in nanos at which parsing started, adjusted so that it does not
+     * include the time the document waited to be taken.
+     */
+    record ParseResult(ParsedDocument doc, long startTime) {}
+
+    private record Parsed(ParsedDocument doc, long tookInNanos) {}
+
+    private static final class ParseTask extends FutureTask<Parsed> {
+
+        private final DocumentMapper mapper;
+        private final Releasable releasable;
+        private final AtomicBoolean claimed;
+        private final RefCounted source;
+
+        private ParseTask(
+            DocumentMapper mapper,
+            Callable<Parsed> parser,
+            Releasable releasable,
+            AtomicBoolean claimed,
+            RefCounted source
+        ) {
+            super(parser);
+            this.mapper = mapper;
+            this.releasable = Releasables.releaseOnce(releasable);
+            this.claimed = claimed;
+            this.source = source;
+        }
+
+        /**
+         * Creates a task that parses the given source, which must be kept alive by a reference on {@code sourceRef} that the task
+         * releases once it is done or skipped.
+         */
+        static ParseTask create(DocumentMapper mapper, SourceToParse source, Releasable releasable, RefCounted sourceRef) {
+            // claimed either by the thread that parses the document or by skip(), whichever comes first
+            final AtomicBoolean claimed = new AtomicBoolean();
+            return new ParseTask(mapper, () -> {
+                if (claimed.compareAndSet(false, true) == false) {
+                    throw new CancellationException("parsing of the document was skipped");
+                }
+                try {
+                    final long startTime = System.nanoTime();
+                    final ParsedDocument doc = mapper.parse(source);
+                    return new Parsed(doc, System.nanoTime() - startTime);
+                } finally {
+                    sourceRef.decRef();
+                }
+            }, releasable, claimed, sourceRef);
+        }
+
+        /**
+         * Makes sure the document is not parsed if that has not started yet, and releases the source in that case.
+         */
+        void skip() {
+            if (claimed.compareAndSet(false, true)) {
+                source.decRef();
+            }
+        }
+
+        void release() {
+            releasable.close();
+        }
+    }
+}
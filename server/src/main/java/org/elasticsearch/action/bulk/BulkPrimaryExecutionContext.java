@@ -11,14 +11,18 @@ package org.elasticsearch.action.bulk;
 import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.DocWriteResponse;
 import org.elasticsearch.action.delete.DeleteResponse;
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.support.replication.ReplicationResponse;
 import org.elasticsearch.action.support.replication.TransportWriteAction;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.translog.Translog;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * This is a utility class that holds the per request state needed to perform bulk operations on the primary.
@@ -57,6 +61,8 @@ class BulkPrimaryExecutionContext {
 
     private final BulkShardRequest request;
     private final IndexShard primary;
+    @Nullable
+    private final BulkDocumentPreParser documentPreParser;
     private Translog.Location locationToSync = null;
     private int currentIndex = -1;
 
@@ -66,8 +72,13 @@ class BulkPrimaryExecutionContext {
     private int retryCounter;
 
     BulkPrimaryExecutionContext(BulkShardRequest request, IndexShard primary) {
+        this(request, primary, null);
+    }
+
+    BulkPrimaryExecutionContext(BulkShardRequest request, IndexShard primary, @Nullable BulkDocumentPreParser documentPreParser) {
         this.request = request;
         this.primary = primary;
+        this.documentPreParser = documentPreParser;
         advance();
     }
 
@@ -170,11 +181,42 @@ class BulkPrimaryExecutionContext {
         return request.items()[currentIndex];
     }
 
+    /**
+     * returns the current request and the requests that directly follow it for as long as they are index requests with auto
+     * generated ids that are not retries, up to {@code maxCount} requests. Such requests always create a new document and can
+     * therefore be indexed as a single batch, see {@link Engine#indexBatch}.
+     */
+    List<IndexRequest> getAppendOnlyIndexRequests(int maxCount) {
+        assert assertInvariants(ItemProcessingState.INITIAL);
+        final List<IndexRequest> requests = new ArrayList<>();
+        final BulkItemRequest[] items = request.items();
+        for (int i = currentIndex; i < items.length && requests.size() < maxCount; i = findNextNonAborted(i + 1)) {
+            if (items[i].request()instanceof IndexRequest indexRequest && isAppendOnly(indexRequest)) {
+                requests.add(indexRequest);
+            } else {
+                break;
+            }
+        }
+        return requests;
+    }
+
+    private static boolean isAppendOnly(IndexRequest request) {
+        return request.opType() == DocWriteRequest.OpType.CREATE
+            && request.getAutoGeneratedTimestamp() != IndexRequest.UNSET_AUTO_GENERATED_TIMESTAMP
+            && request.isRetry() == false;
+    }
+
     /** returns the primary shard */
     public IndexShard getPrimary() {
         return primary;
     }
 
+    /** returns the parser that parses the documents of this request ahead of time, or {@code null} if they are parsed inline */
+    @Nullable
+    BulkDocumentPreParser getDocumentPreParser() {
+        return documentPreParser;
+    }
+
     /**
      * sets the request that should actually be executed on the primary. This can be different then the request
      * received from the user (specifically, an update request is translated to an indexing or delete request).
@@ -15,13 +15,20 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.replication.ReplicatedWriteRequest;
 import org.elasticsearch.action.support.replication.ReplicationRequest;
 import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.FilterStreamInput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.core.AbstractRefCounted;
+import org.elasticsearch.core.RefCounted;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.transport.RawIndexingDataTransportRequest;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class BulkShardRequest extends ReplicatedWriteRequest<BulkShardRequest> implements Accountable, RawIndexingDataTransportRequest {
@@ -30,17 +37,68 @@ public class BulkShardRequest extends ReplicatedWriteRequest<BulkShardRequest> i
 
     private final BulkItemRequest[] items;
 
+    /**
+     * The sources of the items that were read from the network. They are slices of the buffers the request was received in and are
+     * released once this request is no longer referenced, see {@link #decRef()}.
+     */
+    private final List<ReleasableBytesReference> retainedSources;
+    private final RefCounted refCounted;
+
     public BulkShardRequest(StreamInput in) throws IOException {
         super(in);
-        items = in.readArray(i -> i.readOptionalWriteable(inpt -> new BulkItemRequest(shardId, inpt)), BulkItemRequest[]::new);
+        final List<ReleasableBytesReference> retained = new ArrayList<>();
+        final StreamInput retainingInput = new FilterStreamInput(in) {
+            @Override
+            public ReleasableBytesReference readReleasableBytesReference() throws IOException {
+                final ReleasableBytesReference bytes = super.readReleasableBytesReference();
+                retained.add(bytes);
+                return bytes;
+            }
+        };
+        boolean success = false;
+        try {
+            items = retainingInput.readArray(
+                i -> i.readOptionalWriteable(inpt -> new BulkItemRequest(shardId, inpt)),
+                BulkItemRequest[]::new
+            );
+            success = true;
+        } finally {
+            if (success == false) {
+                Releasables.close(retained);
+            }
+        }
+        retainedSources = retained;
+        refCounted = AbstractRefCounted.of(() -> Releasables.close(retainedSources));
     }
 
     public BulkShardRequest(ShardId shardId, RefreshPolicy refreshPolicy, BulkItemRequest[] items) {
         super(shardId);
         this.items = items;
+        this.retainedSources = List.of();
+        this.refCounted = AbstractRefCounted.of(() -> {});
         setRefreshPolicy(refreshPolicy);
     }
 
+    @Override
+    public void incRef() {
+        refCounted.incRef();
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return refCounted.tryIncRef();
+    }
+
+    @Override
+    public boolean decRef() {
+        return refCounted.decRef();
+    }
+
+    @Override
+    public boolean hasReferences() {
+        return refCounted.hasReferences();
+    }
+
     public long totalSizeInBytes() {
         long totalSizeInBytes = 0;
         for (int i = 0; i < items.length; i++) {
@@ -38,15 +38,19 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Strings;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.core.Tuple;
+import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.MapperException;
 import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.mapper.SourceToParse;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexShard;
@@ -61,6 +65,8 @@ import org.elasticsearch.transport.TransportService;
 import org.elasticsearch.xcontent.XContentType;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.function.Consumer;
@@ -76,6 +82,11 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
 
     private static final Logger logger = LogManager.getLogger(TransportShardBulkAction.class);
 
+    /**
+     * The maximum number of append only index requests that are indexed into the engine as a single batch.
+     */
+    static final int MAX_APPEND_ONLY_BATCH_SIZE = 128;
+
     private final UpdateHelper updateHelper;
     private final MappingUpdatedAction mappingUpdatedAction;
 
@@ -149,7 +160,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             public void onTimeout(TimeValue timeout) {
                 mappingUpdateListener.onFailure(new MapperException("timed out while waiting for a dynamic mapping update"));
             }
-        }), listener, threadPool, executor(primary));
+        }), listener, threadPool, executor(primary), indexingPressure);
     }
 
     @Override
@@ -173,17 +184,60 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         ThreadPool threadPool,
         String executorName
     ) {
-        new ActionRunnable<>(listener) {
+        performOnPrimary(
+            request,
+            primary,
+            updateHelper,
+            nowInMillisSupplier,
+            mappingUpdater,
+            waitForMappingUpdate,
+            listener,
+            threadPool,
+            executorName,
+            null
+        );
+    }
 
-            private final Executor executor = threadPool.executor(executorName);
+    /**
+     * @param indexingPressure used to account for the documents that are parsed ahead of time if parallel parsing is enabled
+     *                         through {@link IndexSettings#INDEX_BULK_PARALLEL_PARSING_WINDOW_SETTING}, {@code null} disables
+     *                         parallel parsing
+     */
+    public static void performOnPrimary(
+        BulkShardRequest request,
+        IndexShard primary,
+        UpdateHelper updateHelper,
+        LongSupplier nowInMillisSupplier,
+        MappingUpdatePerformer mappingUpdater,
+        Consumer<ActionListener<Void>> waitForMappingUpdate,
+        ActionListener<PrimaryResult<BulkShardRequest, BulkShardResponse>> listener,
+        ThreadPool threadPool,
+        String executorName,
+        @Nullable IndexingPressure indexingPressure
+    ) {
+        final Executor executor = threadPool.executor(executorName);
+        final BulkDocumentPreParser documentPreParser = newDocumentPreParser(
+            request,
+            primary,
+            threadPool.executor(ThreadPool.Names.BULK_PARSE),
+            indexingPressure
+        );
+        final ActionListener<PrimaryResult<BulkShardRequest, BulkShardResponse>> resultListener = documentPreParser == null
+            ? listener
+            : ActionListener.runBefore(listener, documentPreParser::close);
+        new ActionRunnable<>(resultListener) {
 
-            private final BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(request, primary);
+            private final BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(request, primary, documentPreParser);
 
             final long startBulkTime = System.nanoTime();
 
             @Override
             protected void doRun() throws Exception {
                 while (context.hasMoreOperationsToExecute()) {
+                    if (executeAppendOnlyBatch(context)) {
+                        assert context.isInitial();
+                        continue;
+                    }
                     if (executeBulkItemRequest(
                         context,
                         updateHelper,
@@ -207,7 +261,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             public void onRejection(Exception e) {
                 // We must finish the outstanding request. Finishing the outstanding request can include
                 // refreshing and fsyncing. Therefore, we must force execution on the WRITE thread.
-                executor.execute(new ActionRunnable<>(listener) {
+                executor.execute(new ActionRunnable<>(resultListener) {
 
                     @Override
                     protected void doRun() {
@@ -239,7 +293,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
 
             private void finishRequest() {
                 ActionListener.completeWith(
-                    listener,
+                    resultListener,
                     () -> new WritePrimaryResult<>(
                         context.getBulkShardRequest(),
                         context.buildShardResponse(),
@@ -253,6 +307,102 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         }.run();
     }
 
+    @Nullable
+    private static BulkDocumentPreParser newDocumentPreParser(
+        BulkShardRequest request,
+        IndexShard primary,
+        Executor executor,
+        @Nullable IndexingPressure indexingPressure
+    ) {
+        final int window = primary.indexSettings().getBulkParallelParsingWindow();
+        if (indexingPressure == null || window == 0 || request.items().length < 2) {
+            return null;
+        }
+        return new BulkDocumentPreParser(request, primary, executor, indexingPressure, window);
+    }
+
+    /**
+     * Indexes the current item together with the append only index requests that directly follow it as a single batch, see
+     * {@link IndexShard#applyIndexOperationsOnPrimary}. The batch ends before the first document that fails to parse or requires a
+     * mapping update; that document is left to {@link #executeBulkItemRequest} so that its failure or mapping update is handled
+     * exactly as for any other item.
+     *
+     * @return {@code true} if at least the current item was executed and completed, {@code false} if the current item must be executed
+     *                      by {@link #executeBulkItemRequest}
+     */
+    static boolean executeAppendOnlyBatch(BulkPrimaryExecutionContext context) throws IOException {
+        final List<IndexRequest> requests = context.getAppendOnlyIndexRequests(MAX_APPEND_ONLY_BATCH_SIZE);
+        if (requests.size() < 2) {
+            return false;
+        }
+        final IndexShard primary = context.getPrimary();
+        final List<Engine.Index> operations = new ArrayList<>(requests.size());
+        for (IndexRequest request : requests) {
+            final Engine.Index operation = prepareAppendOnlyOperation(primary, context.getDocumentPreParser(), request);
+            if (operation == null) {
+                break;
+            }
+            operations.add(operation);
+        }
+        if (operations.isEmpty()) {
+            return false;
+        }
+        final List<Engine.IndexResult> results = primary.applyIndexOperationsOnPrimary(operations);
+        for (int i = 0; i < results.size(); i++) {
+            final Engine.IndexResult result = results.get(i);
+            assert context.getCurrent() == requests.get(i) : "batch is out of order";
+            assert result.getResultType() != Engine.Result.Type.MAPPING_UPDATE_REQUIRED : "batched document requires a mapping update";
+            context.setRequestToExecute(context.getCurrent());
+            onComplete(result, context, null);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the primary operation of an append only index request, or {@code null} if its document could not be parsed or requires
+     * a mapping update, in which case the request must be executed on its own.
+     */
+    @Nullable
+    private static Engine.Index prepareAppendOnlyOperation(
+        IndexShard primary,
+        @Nullable BulkDocumentPreParser documentPreParser,
+        IndexRequest request
+    ) {
+        final BulkDocumentPreParser.ParseResult parsed = documentPreParser == null ? null : documentPreParser.take(request);
+        final ParsedDocument doc;
+        final long startTime;
+        if (parsed != null) {
+            doc = parsed.doc();
+            startTime = parsed.startTime();
+        } else {
+            final DocumentMapper mapper = primary.mapperService().documentMapper();
+            if (mapper == null) {
+                // the first document creates the mapping
+                return null;
+            }
+            startTime = System.nanoTime();
+            try {
+                doc = mapper.parse(BulkDocumentPreParser.toSourceToParse(request));
+            } catch (Exception e) {
+                logger.trace("failed to parse document of batch, indexing it on its own", e);
+                return null;
+            }
+            if (doc.dynamicMappingsUpdate() != null) {
+                return null;
+            }
+        }
+        return primary.prepareParsedIndexOperationOnPrimary(
+            request.version(),
+            request.versionType(),
+            doc,
+            startTime,
+            request.ifSeqNo(),
+            request.ifPrimaryTerm(),
+            request.getAutoGeneratedTimestamp(),
+            request.isRetry()
+        );
+    }
+
     /**
      * Executes bulk item requests and handles request execution exceptions.
      * @return {@code true} if request completed on this thread and the listener was invoked, {@code false} if the request triggered
@@ -311,22 +461,30 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             );
         } else {
             final IndexRequest request = context.getRequestToExecute();
-            final SourceToParse sourceToParse = new SourceToParse(
-                request.id(),
-                request.source(),
-                request.getContentType(),
-                request.routing(),
-                request.getDynamicTemplates()
-            );
-            result = primary.applyIndexOperationOnPrimary(
-                version,
-                request.versionType(),
-                sourceToParse,
-                request.ifSeqNo(),
-                request.ifPrimaryTerm(),
-                request.getAutoGeneratedTimestamp(),
-                request.isRetry()
-            );
+            final BulkDocumentPreParser documentPreParser = context.getDocumentPreParser();
+            final BulkDocumentPreParser.ParseResult parsed = documentPreParser == null ? null : documentPreParser.take(request);
+            if (parsed != null) {
+                result = primary.applyParsedIndexOperationOnPrimary(
+                    version,
+                    request.versionType(),
+                    parsed.doc(),
+                    parsed.startTime(),
+                    request.ifSeqNo(),
+                    request.ifPrimaryTerm(),
+                    request.getAutoGeneratedTimestamp(),
+                    request.isRetry()
+                );
+            } else {
+                result = primary.applyIndexOperationOnPrimary(
+                    version,
+                    request.versionType(),
+                    BulkDocumentPreParser.toSourceToParse(request),
+                    request.ifSeqNo(),
+                    request.ifPrimaryTerm(),
+                    request.getAutoGeneratedTimestamp(),
+                    request.isRetry()
+                );
+            }
         }
         if (result.getResultType() == Engine.Result.Type.MAPPING_UPDATE_REQUIRED) {
 
@@ -134,7 +134,8 @@ public class IndexRequest extends ReplicatedWriteRequest<IndexRequest> implement
         }
         id = in.readOptionalString();
         routing = in.readOptionalString();
-        source = in.readBytesReference();
+        // shard level requests are read as part of a BulkShardRequest, which releases the source once it is done with it
+        source = shardId == null ? in.readBytesReference() : in.readReleasableBytesReference();
         opType = OpType.fromId(in.readByte());
         version = in.readLong();
         versionType = VersionType.fromValue(in.readByte());
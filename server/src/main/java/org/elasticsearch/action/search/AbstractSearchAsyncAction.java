@@ -26,7 +26,9 @@ import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.search.SearchContextMissingException;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
@@ -38,6 +40,8 @@ import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchContextId;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.tasks.TaskCancelledException;
+import org.elasticsearch.threadpool.Scheduler;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.Transport;
 
 import java.util.ArrayDeque;
@@ -62,6 +66,8 @@ import static org.elasticsearch.core.Strings.format;
  * referred to as the {@code shardIndex}.
  * The fan out and collect algorithm is traditionally used as the initial phase which can either be a query execution or collection of
  * distributed frequencies
+ * If {@link #enableHedging hedging} is enabled, a shard level request that hasn't responded within a delay is also sent to the next
+ * replica of the shard, and the result of whichever replica responds first is used.
  */
 abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> extends SearchPhase implements SearchPhaseContext {
     private static final float DEFAULT_INDEX_BOOST = 1.0f;
@@ -101,6 +107,11 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
 
     private final List<Releasable> releasables = new ArrayList<>();
 
+    private TimeValue hedgeDelay;
+    private ThreadPool threadPool;
+    private ResponseCollectorService responseCollectorService;
+    private ShardAttempts[] shardAttempts;
+
     AbstractSearchAsyncAction(
         String name,
         Logger logger,
@@ -180,6 +191,21 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
         );
     }
 
+    /**
+     * Sends a shard level request to the next replica of the shard as well if it didn't respond within the given delay, and uses the
+     * result of whichever replica responds first. The search contexts that the other replicas open are released when they respond. Must
+     * be called before the search is {@link #start() started}.
+     */
+    void enableHedging(TimeValue delay, ThreadPool threadPool, ResponseCollectorService responseCollectorService) {
+        this.hedgeDelay = delay;
+        this.threadPool = threadPool;
+        this.responseCollectorService = responseCollectorService;
+        this.shardAttempts = new ShardAttempts[shardIterators.length];
+        for (int i = 0; i < shardAttempts.length; i++) {
+            shardAttempts[i] = new ShardAttempts();
+        }
+    }
+
     @Override
     public void addReleasable(Releasable releasable) {
         releasables.add(releasable);
@@ -328,6 +354,9 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
             final PendingExecutions pendingExecutions = throttleConcurrentRequests
                 ? pendingExecutionsPerNode.computeIfAbsent(shard.getNodeId(), n -> new PendingExecutions(maxConcurrentRequestsPerNode))
                 : null;
+            if (shardAttempts != null) {
+                onShardAttemptStarted(shardIndex, shardIt, shard);
+            }
             Runnable r = () -> {
                 final Thread thread = Thread.currentThread();
                 try {
@@ -335,7 +364,11 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
                         @Override
                         public void innerOnResponse(Result result) {
                             try {
-                                onShardResult(result, shardIt);
+                                if (shardAttempts == null || onHedgedShardResponse(shardIndex, shard)) {
+                                    onShardResult(result, shardIt);
+                                } else {
+                                    releaseHedgedShardResult(result, shardIndex);
+                                }
                             } catch (Exception exc) {
                                 onShardFailure(shardIndex, shard, shardIt, exc);
                             } finally {
@@ -346,7 +379,7 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
                         @Override
                         public void onFailure(Exception t) {
                             try {
-                                onShardFailure(shardIndex, shard, shardIt, t);
+                                onShardAttemptFailure(shardIndex, shard, shardIt, t);
                             } finally {
                                 executeNext(pendingExecutions, thread);
                             }
@@ -358,7 +391,7 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
                          * It is possible to run into connection exceptions here because we are getting the connection early and might
                          * run into nodes that are not connected. In this case, on shard failure will move us to the next shard copy.
                          */
-                        fork(() -> onShardFailure(shardIndex, shard, shardIt, e));
+                        fork(() -> onShardAttemptFailure(shardIndex, shard, shardIt, e));
                     } finally {
                         executeNext(pendingExecutions, thread);
                     }
@@ -372,6 +405,138 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
         }
     }
 
+    private void onShardAttemptFailure(int shardIndex, SearchShardTarget shard, SearchShardIterator shardIt, Exception e) {
+        if (shardAttempts == null || onHedgedShardFailure(shardIndex, shard, e)) {
+            onShardFailure(shardIndex, shard, shardIt, e);
+        }
+    }
+
+    /**
+     * Registers a request to a replica of a shard and, unless it is the hedge request itself, schedules the hedge request to the next
+     * replica if there is one. A request that retries the shard on the next replica after all previous ones failed gets a full delay of
+     * its own, so the timer of the failed request is replaced.
+     */
+    private void onShardAttemptStarted(int shardIndex, SearchShardIterator shardIt, SearchShardTarget shard) {
+        final ShardAttempts attempts = shardAttempts[shardIndex];
+        synchronized (attempts) {
+            if (attempts.running.contains(shard)) {
+                return;
+            }
+            attempts.running.add(shard);
+            if (attempts.running.size() == 1) {
+                if (attempts.hedgeTimer != null) {
+                    attempts.hedgeTimer.cancel();
+                    attempts.hedgeTimer = null;
+                }
+                if (shardIt.remaining() > 0) {
+                    attempts.hedgeTimer = threadPool.schedule(
+                        () -> fork(() -> hedge(shardIndex, shardIt, shard)),
+                        hedgeDelay,
+                        ThreadPool.Names.SAME
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the request to the next replica of a shard if the request to the given replica is still the only one running.
+     */
+    private void hedge(int shardIndex, SearchShardIterator shardIt, SearchShardTarget slowShard) {
+        final ShardAttempts attempts = shardAttempts[shardIndex];
+        final SearchShardTarget hedgeShard;
+        synchronized (attempts) {
+            // the timer may have fired just before the slow request failed and another replica was tried with a timer of its own
+            if (attempts.running.size() != 1 || attempts.running.get(0).equals(slowShard) == false || shardIt.remaining() == 0) {
+                return;
+            }
+            hedgeShard = shardIt.nextOrNull();
+            if (hedgeShard == null) {
+                return;
+            }
+            attempts.hedgeShard = hedgeShard;
+            attempts.running.add(hedgeShard);
+        }
+        logger.trace("{}: hedging slow request to [{}] with [{}]", shardIt.shardId(), slowShard, hedgeShard);
+        responseCollectorService.addHedgedRequest(slowShard.getNodeId(), hedgeShard.getNodeId());
+        performPhaseOnShard(shardIndex, shardIt, hedgeShard);
+    }
+
+    /**
+     * Returns whether the response of the given replica should be used, which is the case unless another replica of the same shard
+     * responded first. The other replicas that are still running are counted as done.
+     */
+    private boolean onHedgedShardResponse(int shardIndex, SearchShardTarget shard) {
+        final ShardAttempts attempts = shardAttempts[shardIndex];
+        final int losers;
+        synchronized (attempts) {
+            if (attempts.running.remove(shard) == false) {
+                return false;
+            }
+            losers = attempts.running.size();
+            attempts.running.clear();
+            if (attempts.hedgeTimer != null) {
+                attempts.hedgeTimer.cancel();
+            }
+            if (losers > 0 && shard.equals(attempts.hedgeShard)) {
+                responseCollectorService.addHedgeWin(shard.getNodeId());
+            }
+        }
+        if (losers > 0) {
+            // this shard still has to count its own result, so this can't complete the phase
+            final int xTotalOps = totalOps.addAndGet(losers);
+            assert xTotalOps < expectedTotalOps : "unexpected total ops [" + xTotalOps + "] expected less than [" + expectedTotalOps + "]";
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the failure of the given replica should move on to the next replica of the shard, which is not the case if
+     * another replica of the same shard is still running or already responded.
+     */
+    private boolean onHedgedShardFailure(int shardIndex, SearchShardTarget shard, Exception e) {
+        final ShardAttempts attempts = shardAttempts[shardIndex];
+        synchronized (attempts) {
+            if (attempts.running.remove(shard) == false) {
+                return false;
+            }
+            if (attempts.running.isEmpty()) {
+                return true;
+            }
+        }
+        logger.debug(() -> format("%s: Failed to execute [%s] while another replica is still running", shard, request), e);
+        onShardFailure(shardIndex, shard, e);
+        // the replica that is still running counts the rest of the shard, so this can't complete the phase
+        final int xTotalOps = totalOps.incrementAndGet();
+        assert xTotalOps < expectedTotalOps : "unexpected total ops [" + xTotalOps + "] expected less than [" + expectedTotalOps + "]";
+        return false;
+    }
+
+    /**
+     * Releases the search context of a replica that responded after another replica of the same shard.
+     */
+    private void releaseHedgedShardResult(Result result, int shardIndex) {
+        final ShardSearchContextId contextId = result.getContextId();
+        if (contextId != null) {
+            try {
+                final SearchShardTarget shard = result.getSearchShardTarget();
+                Transport.Connection connection = getConnection(shard.getClusterAlias(), shard.getNodeId());
+                sendReleaseSearchContext(contextId, connection, getOriginalIndices(shardIndex));
+            } catch (Exception e) {
+                logger.trace("failed to release context", e);
+            }
+        }
+    }
+
+    /**
+     * Tracks the requests to the replicas of a shard if hedging is enabled.
+     */
+    private static final class ShardAttempts {
+        private final List<SearchShardTarget> running = new ArrayList<>(2);
+        private SearchShardTarget hedgeShard;
+        private Scheduler.Cancellable hedgeTimer;
+    }
+
     /**
      * Sends the request to the actual shard.
      * @param shardIt the shards iterator
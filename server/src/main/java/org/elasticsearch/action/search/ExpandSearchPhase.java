@@ -8,22 +8,47 @@
 
 package org.elasticsearch.action.search;
 
+import org.apache.lucene.search.TotalHits;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.common.util.Maps;
+import org.elasticsearch.common.util.concurrent.AtomicArray;
+import org.elasticsearch.common.util.concurrent.CountDown;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.InnerHitBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.collapse.CollapseBuilder;
 import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.SortBuilder;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.transport.Transport;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
+import static org.elasticsearch.core.Strings.format;
+
 /**
  * This search phase is an optional phase that will be executed once all hits are fetched from the shards that executes
  * field-collapsing on the inner hits. This phase only executes if field collapsing is requested in the search request and otherwise
@@ -32,12 +57,19 @@ import java.util.function.Supplier;
 final class ExpandSearchPhase extends SearchPhase {
     private final SearchPhaseContext context;
     private final InternalSearchResponse searchResponse;
+    private final AtomicArray<SearchPhaseResult> queryResults;
     private final Supplier<SearchPhase> nextPhase;
 
-    ExpandSearchPhase(SearchPhaseContext context, InternalSearchResponse searchResponse, Supplier<SearchPhase> nextPhase) {
+    ExpandSearchPhase(
+        SearchPhaseContext context,
+        InternalSearchResponse searchResponse,
+        AtomicArray<SearchPhaseResult> queryResults,
+        Supplier<SearchPhase> nextPhase
+    ) {
         super("expand");
         this.context = context;
         this.searchResponse = searchResponse;
+        this.queryResults = queryResults;
         this.nextPhase = nextPhase;
     }
 
@@ -51,61 +83,369 @@ final class ExpandSearchPhase extends SearchPhase {
             && searchRequest.source().collapse().getInnerHits().isEmpty() == false;
     }
 
+    /**
+     * Returns <code>true</code> iff the shard of a single shard search already expanded all the hits with the inner hits when it
+     * fetched them, see {@link CollapseBuilder#canExpandOnShard}. Shards on older nodes leave it to this phase.
+     */
+    private boolean isExpandedOnShard() {
+        CollapseBuilder collapseBuilder = context.getRequest().source().collapse();
+        if (context.getNumShards() != 1 || collapseBuilder.canExpandOnShard() == false) {
+            return false;
+        }
+        for (SearchHit hit : searchResponse.hits().getHits()) {
+            if (hit.getInnerHits() == null) {
+                return false;
+            }
+            for (InnerHitBuilder innerHitBuilder : collapseBuilder.getInnerHits()) {
+                if (hit.getInnerHits().containsKey(innerHitBuilder.getName()) == false) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     @Override
     public void run() {
-        if (isCollapseRequest() && searchResponse.hits().getHits().length > 0) {
-            SearchRequest searchRequest = context.getRequest();
-            CollapseBuilder collapseBuilder = searchRequest.source().collapse();
-            final List<InnerHitBuilder> innerHitBuilders = collapseBuilder.getInnerHits();
-            MultiSearchRequest multiRequest = new MultiSearchRequest();
-            if (collapseBuilder.getMaxConcurrentGroupRequests() > 0) {
-                multiRequest.maxConcurrentSearchRequests(collapseBuilder.getMaxConcurrentGroupRequests());
+        if (isCollapseRequest() && searchResponse.hits().getHits().length > 0 && isExpandedOnShard() == false) {
+            List<SearchPhaseResult> shardResults = getExpandableShardResults();
+            if (shardResults != null) {
+                new ShardExpansion(shardResults).start();
+            } else {
+                expandWithMultiSearch();
             }
-            for (SearchHit hit : searchResponse.hits().getHits()) {
-                BoolQueryBuilder groupQuery = new BoolQueryBuilder();
-                Object collapseValue = hit.field(collapseBuilder.getField()).getValue();
-                if (collapseValue != null) {
-                    groupQuery.filter(QueryBuilders.matchQuery(collapseBuilder.getField(), collapseValue));
-                } else {
-                    groupQuery.mustNot(QueryBuilders.existsQuery(collapseBuilder.getField()));
+        } else {
+            onPhaseDone();
+        }
+    }
+
+    /**
+     * Returns the query results of the shards that expand the hits of a search on several shards, or <code>null</code> if this phase
+     * expands them with one search per hit. Only the shards that have hits for the query can have inner hits.
+     */
+    @Nullable
+    private List<SearchPhaseResult> getExpandableShardResults() {
+        final SearchRequest searchRequest = context.getRequest();
+        // the shard of a single shard search expands the hits when it can, and DFS searches score the inner hits with global stats
+        if (context.getNumShards() == 1
+            || searchRequest.searchType() != SearchType.QUERY_THEN_FETCH
+            || searchRequest.source().collapse().canExpandOnShard() == false) {
+            return null;
+        }
+        final List<SearchPhaseResult> shardResults = new ArrayList<>();
+        for (SearchPhaseResult result : queryResults.asList()) {
+            if (result.queryResult() == null || result.queryResult().isNull()) {
+                continue;
+            }
+            if (result.queryResult().getShardSearchRequest() == null) {
+                return null;
+            }
+            shardResults.add(result);
+        }
+        return shardResults.isEmpty() ? null : shardResults;
+    }
+
+    private void expandWithMultiSearch() {
+        SearchRequest searchRequest = context.getRequest();
+        CollapseBuilder collapseBuilder = searchRequest.source().collapse();
+        final List<InnerHitBuilder> innerHitBuilders = collapseBuilder.getInnerHits();
+        MultiSearchRequest multiRequest = new MultiSearchRequest();
+        if (collapseBuilder.getMaxConcurrentGroupRequests() > 0) {
+            multiRequest.maxConcurrentSearchRequests(collapseBuilder.getMaxConcurrentGroupRequests());
+        }
+        for (SearchHit hit : searchResponse.hits().getHits()) {
+            BoolQueryBuilder groupQuery = new BoolQueryBuilder();
+            Object collapseValue = getCollapseValue(hit, collapseBuilder.getField());
+            if (collapseValue != null) {
+                groupQuery.filter(QueryBuilders.matchQuery(collapseBuilder.getField(), collapseValue));
+            } else {
+                groupQuery.mustNot(QueryBuilders.existsQuery(collapseBuilder.getField()));
+            }
+            QueryBuilder origQuery = searchRequest.source().query();
+            if (origQuery != null) {
+                groupQuery.must(origQuery);
+            }
+            for (InnerHitBuilder innerHitBuilder : innerHitBuilders) {
+                CollapseBuilder innerCollapseBuilder = innerHitBuilder.getInnerCollapseBuilder();
+                SearchSourceBuilder sourceBuilder = buildExpandSearchSourceBuilder(innerHitBuilder, innerCollapseBuilder).query(groupQuery)
+                    .postFilter(searchRequest.source().postFilter())
+                    .runtimeMappings(searchRequest.source().runtimeMappings());
+                SearchRequest groupRequest = new SearchRequest(searchRequest);
+                groupRequest.source(sourceBuilder);
+                multiRequest.add(groupRequest);
+            }
+        }
+        context.getSearchTransport().sendExecuteMultiSearch(multiRequest, context.getTask(), ActionListener.wrap(response -> {
+            Iterator<MultiSearchResponse.Item> it = response.iterator();
+            for (SearchHit hit : searchResponse.hits.getHits()) {
+                for (InnerHitBuilder innerHitBuilder : innerHitBuilders) {
+                    MultiSearchResponse.Item item = it.next();
+                    if (item.isFailure()) {
+                        context.onPhaseFailure(this, "failed to expand hits", item.getFailure());
+                        return;
+                    }
+                    SearchHits innerHits = item.getResponse().getHits();
+                    if (hit.getInnerHits() == null) {
+                        hit.setInnerHits(Maps.newMapWithExpectedSize(innerHitBuilders.size()));
+                    }
+                    hit.getInnerHits().put(innerHitBuilder.getName(), innerHits);
                 }
-                QueryBuilder origQuery = searchRequest.source().query();
-                if (origQuery != null) {
-                    groupQuery.must(origQuery);
+            }
+            onPhaseDone();
+        }, context::onFailure));
+    }
+
+    @Nullable
+    private static Object getCollapseValue(SearchHit hit, String collapseField) {
+        DocumentField field = hit.field(collapseField);
+        return field != null ? field.getValue() : null;
+    }
+
+    /**
+     * Expands the hits of a search on several shards with a single shard search per shard that has hits for the query, which carries
+     * all the collapsed groups and returns the top inner hits of each group on that shard, see {@link CollapseBuilder#canExpandOnShard}.
+     * The inner hits of each group are then merged over the shards. The hits are expanded with one search per hit instead if one of the
+     * shards fails or returns its hits without inner hits, because it is on an older node or the inner hits don't fit in its inner
+     * result window.
+     */
+    private final class ShardExpansion {
+        private final List<SearchPhaseResult> shardResults;
+        private final AtomicArray<SearchPhaseResult> expandResults;
+        private final CountDown countDown;
+        private final AtomicInteger nextShard = new AtomicInteger();
+        private SearchSourceBuilder expandSource;
+
+        ShardExpansion(List<SearchPhaseResult> shardResults) {
+            this.shardResults = shardResults;
+            this.expandResults = new AtomicArray<>(shardResults.size());
+            this.countDown = new CountDown(shardResults.size());
+        }
+
+        void start() {
+            final Set<Object> collapseValues = new LinkedHashSet<>();
+            for (SearchHit hit : searchResponse.hits().getHits()) {
+                collapseValues.add(getCollapseValue(hit, context.getRequest().source().collapse().getField()));
+            }
+            expandSource = buildShardExpandSourceBuilder(context.getRequest().source(), collapseValues);
+            final int maxConcurrentRequests = Math.min(context.getRequest().getMaxConcurrentShardRequests(), shardResults.size());
+            for (int i = 0; i < maxConcurrentRequests; i++) {
+                sendNextRequest();
+            }
+        }
+
+        private void sendNextRequest() {
+            final int index = nextShard.getAndIncrement();
+            if (index >= shardResults.size()) {
+                return;
+            }
+            final SearchPhaseResult shardResult = shardResults.get(index);
+            final SearchShardTarget shardTarget = shardResult.getSearchShardTarget();
+            final SearchActionListener<SearchPhaseResult> listener = new SearchActionListener<>(shardTarget, index) {
+                @Override
+                protected void innerOnResponse(SearchPhaseResult response) {
+                    expandResults.set(index, response);
+                    onShardDone();
                 }
-                for (InnerHitBuilder innerHitBuilder : innerHitBuilders) {
-                    CollapseBuilder innerCollapseBuilder = innerHitBuilder.getInnerCollapseBuilder();
-                    SearchSourceBuilder sourceBuilder = buildExpandSearchSourceBuilder(innerHitBuilder, innerCollapseBuilder).query(
-                        groupQuery
-                    ).postFilter(searchRequest.source().postFilter()).runtimeMappings(searchRequest.source().runtimeMappings());
-                    SearchRequest groupRequest = new SearchRequest(searchRequest);
-                    groupRequest.source(sourceBuilder);
-                    multiRequest.add(groupRequest);
+
+                @Override
+                public void onFailure(Exception e) {
+                    context.getLogger().debug(() -> format("%s failed to expand the collapsed hits", shardTarget), e);
+                    onShardDone();
                 }
+            };
+            final Transport.Connection connection;
+            try {
+                connection = context.getConnection(shardTarget.getClusterAlias(), shardTarget.getNodeId());
+            } catch (Exception e) {
+                listener.onFailure(e);
+                return;
+            }
+            final ShardSearchRequest request = buildShardExpandRequest(shardResult.queryResult().getShardSearchRequest(), expandSource);
+            context.getSearchTransport().sendExecuteQuery(connection, request, context.getTask(), listener);
+        }
+
+        private void onShardDone() {
+            if (countDown.countDown()) {
+                onShardsDone();
+            } else {
+                sendNextRequest();
             }
-            context.getSearchTransport().sendExecuteMultiSearch(multiRequest, context.getTask(), ActionListener.wrap(response -> {
-                Iterator<MultiSearchResponse.Item> it = response.iterator();
-                for (SearchHit hit : searchResponse.hits.getHits()) {
+        }
+
+        private void onShardsDone() {
+            final CollapseBuilder collapseBuilder = context.getRequest().source().collapse();
+            final List<InnerHitBuilder> innerHitBuilders = collapseBuilder.getInnerHits();
+            // the inner hits of each shard by inner hits name and collapse value, in the order of the shards
+            final Map<String, Map<Object, List<SearchHits>>> shardInnerHits = new HashMap<>();
+            for (int i = 0; i < shardResults.size(); i++) {
+                final SearchPhaseResult result = expandResults.get(i);
+                if (result == null || result.fetchResult() == null) {
+                    expandWithMultiSearch();
+                    return;
+                }
+                for (SearchHit hit : result.fetchResult().hits().getHits()) {
+                    hit.shard(result.getSearchShardTarget());
+                    final Object collapseValue = getCollapseValue(hit, collapseBuilder.getField());
                     for (InnerHitBuilder innerHitBuilder : innerHitBuilders) {
-                        MultiSearchResponse.Item item = it.next();
-                        if (item.isFailure()) {
-                            context.onPhaseFailure(this, "failed to expand hits", item.getFailure());
+                        final SearchHits innerHits = hit.getInnerHits() != null ? hit.getInnerHits().get(innerHitBuilder.getName()) : null;
+                        if (innerHits == null) {
+                            expandWithMultiSearch();
                             return;
                         }
-                        SearchHits innerHits = item.getResponse().getHits();
-                        if (hit.getInnerHits() == null) {
-                            hit.setInnerHits(Maps.newMapWithExpectedSize(innerHitBuilders.size()));
-                        }
-                        hit.getInnerHits().put(innerHitBuilder.getName(), innerHits);
+                        shardInnerHits.computeIfAbsent(innerHitBuilder.getName(), n -> new HashMap<>())
+                            .computeIfAbsent(collapseValue, v -> new ArrayList<>())
+                            .add(innerHits);
                     }
                 }
-                onPhaseDone();
-            }, context::onFailure));
-        } else {
+            }
+            final SearchHit[] hits = searchResponse.hits().getHits();
+            final List<Map<String, SearchHits>> mergedInnerHits = new ArrayList<>(hits.length);
+            for (SearchHit hit : hits) {
+                final Object collapseValue = getCollapseValue(hit, collapseBuilder.getField());
+                final Map<String, SearchHits> innerHits = Maps.newMapWithExpectedSize(innerHitBuilders.size());
+                for (InnerHitBuilder innerHitBuilder : innerHitBuilders) {
+                    final List<SearchHits> groupInnerHits = shardInnerHits.getOrDefault(innerHitBuilder.getName(), Map.of())
+                        .get(collapseValue);
+                    if (groupInnerHits == null) {
+                        // the shards return the hit itself in the inner hits of its group
+                        expandWithMultiSearch();
+                        return;
+                    }
+                    innerHits.put(innerHitBuilder.getName(), mergeInnerHits(innerHitBuilder, groupInnerHits));
+                }
+                mergedInnerHits.add(innerHits);
+            }
+            for (int i = 0; i < hits.length; i++) {
+                if (hits[i].getInnerHits() == null) {
+                    hits[i].setInnerHits(Maps.newMapWithExpectedSize(innerHitBuilders.size()));
+                }
+                hits[i].getInnerHits().putAll(mergedInnerHits.get(i));
+            }
             onPhaseDone();
         }
     }
 
+    /**
+     * Builds the single shard search that each shard runs to expand the hits of a search on several shards. It collapses the hits
+     * of the given groups and expands them on the shard with the top inner hits up to the last requested one, since the inner hits of
+     * a group are only paged once they are merged over the shards.
+     */
+    private static SearchSourceBuilder buildShardExpandSourceBuilder(SearchSourceBuilder source, Collection<Object> collapseValues) {
+        final CollapseBuilder collapseBuilder = source.collapse();
+        final String field = collapseBuilder.getField();
+        final List<Object> values = collapseValues.stream().filter(Objects::nonNull).toList();
+        final BoolQueryBuilder groupsQuery = new BoolQueryBuilder().minimumShouldMatch(1);
+        if (values.isEmpty() == false) {
+            groupsQuery.should(QueryBuilders.termsQuery(field, values));
+        }
+        if (values.size() < collapseValues.size()) {
+            groupsQuery.should(new BoolQueryBuilder().mustNot(QueryBuilders.existsQuery(field)));
+        }
+        final BoolQueryBuilder query = new BoolQueryBuilder().filter(groupsQuery);
+        if (source.query() != null) {
+            query.must(source.query());
+        }
+        final List<InnerHitBuilder> innerHitBuilders = new ArrayList<>(collapseBuilder.getInnerHits().size());
+        for (InnerHitBuilder innerHitBuilder : collapseBuilder.getInnerHits()) {
+            innerHitBuilders.add(innerHitBuilder.shallowCopy().setFrom(0).setSize(innerHitBuilder.getFrom() + innerHitBuilder.getSize()));
+        }
+        return new SearchSourceBuilder().query(query)
+            .postFilter(source.postFilter())
+            .runtimeMappings(source.runtimeMappings())
+            .collapse(new CollapseBuilder(field).setInnerHits(innerHitBuilders))
+            .size(collapseValues.size())
+            .fetchSource(false)
+            .trackTotalHits(false);
+    }
+
+    /**
+     * Builds the shard request of the single shard search that expands the hits of the given shard, which fetches the collapsed hits
+     * along with their inner hits. The index boost is left out, like in the searches per hit.
+     */
+    private static ShardSearchRequest buildShardExpandRequest(ShardSearchRequest queryRequest, SearchSourceBuilder expandSource) {
+        return new ShardSearchRequest(
+            new OriginalIndices(queryRequest),
+            queryRequest.shardId(),
+            queryRequest.shardRequestIndex(),
+            1,
+            SearchType.QUERY_THEN_FETCH,
+            expandSource,
+            false,
+            queryRequest.getAliasFilter(),
+            1.0f,
+            queryRequest.allowPartialSearchResults(),
+            null,
+            queryRequest.nowInMillis(),
+            queryRequest.getClusterAlias(),
+            queryRequest.readerId(),
+            queryRequest.keepAlive(),
+            queryRequest.waitForCheckpoint(),
+            queryRequest.getWaitForCheckpointsTimeout(),
+            queryRequest.isForceSyntheticSource()
+        );
+    }
+
+    /**
+     * Merges the top inner hits of a group on each shard, in the order of the shards, and pages them.
+     */
+    static SearchHits mergeInnerHits(InnerHitBuilder innerHitBuilder, List<SearchHits> shardInnerHits) {
+        final List<SearchHit> hits = new ArrayList<>();
+        long totalHits = 0;
+        TotalHits.Relation relation = TotalHits.Relation.EQUAL_TO;
+        float maxScore = Float.NaN;
+        for (SearchHits innerHits : shardInnerHits) {
+            Collections.addAll(hits, innerHits.getHits());
+            if (innerHits.getTotalHits() != null) {
+                totalHits += innerHits.getTotalHits().value;
+                if (innerHits.getTotalHits().relation == TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO) {
+                    relation = TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO;
+                }
+            }
+            if (Float.isNaN(innerHits.getMaxScore()) == false) {
+                maxScore = Float.isNaN(maxScore) ? innerHits.getMaxScore() : Math.max(maxScore, innerHits.getMaxScore());
+            }
+        }
+        // the sort is stable, so ties are broken by shard and then by the order of each shard, like when merging top docs
+        hits.sort(innerHitsOrder(innerHitBuilder.getSorts()));
+        final int from = Math.min(innerHitBuilder.getFrom(), hits.size());
+        final int to = (int) Math.min((long) from + innerHitBuilder.getSize(), hits.size());
+        return new SearchHits(hits.subList(from, to).toArray(new SearchHit[0]), new TotalHits(totalHits, relation), maxScore);
+    }
+
+    private static Comparator<SearchHit> innerHitsOrder(@Nullable List<SortBuilder<?>> sorts) {
+        if (sorts == null || sorts.isEmpty()) {
+            return (a, b) -> Float.compare(b.getScore(), a.getScore());
+        }
+        return (a, b) -> {
+            for (int i = 0; i < sorts.size(); i++) {
+                int cmp = compareSortValues(sorts.get(i), a.getRawSortValues()[i], b.getRawSortValues()[i]);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return 0;
+        };
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int compareSortValues(SortBuilder<?> sort, Object a, Object b) {
+        if (a == null || b == null) {
+            if (a == b) {
+                return 0;
+            }
+            // missing values are only sorted first when requested, whatever the order
+            final boolean missingFirst = sort instanceof FieldSortBuilder fieldSort && "_first".equals(fieldSort.missing());
+            return (a == null) == missingFirst ? -1 : 1;
+        }
+        final int cmp;
+        if (a instanceof Number na && b instanceof Number nb && a.getClass() != b.getClass()) {
+            cmp = Double.compare(na.doubleValue(), nb.doubleValue());
+        } else {
+            cmp = ((Comparable) a).compareTo(b);
+        }
+        return sort.order() == SortOrder.DESC ? -cmp : cmp;
+    }
+
     private static SearchSourceBuilder buildExpandSearchSourceBuilder(InnerHitBuilder options, CollapseBuilder innerCollapseBuilder) {
         SearchSourceBuilder groupSource = new SearchSourceBuilder();
         groupSource.from(options.getFrom());
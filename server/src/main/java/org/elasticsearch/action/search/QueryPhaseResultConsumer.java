@@ -228,6 +228,17 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         return pendingMerges.numReducePhases;
     }
 
+    /**
+     * Returns the progress of the partial reduces of this consumer, see {@link SearchTask#setStatusSupplier}.
+     */
+    public SearchTask.Status getReduceStatus() {
+        return new SearchTask.Status(
+            pendingMerges.numReducePhases,
+            pendingMerges.partialReduceTimeInNanos,
+            pendingMerges.maxAggsCurrentBufferSize
+        );
+    }
+
     private class PendingMerges implements Releasable {
         private final int batchReduceSize;
         private final List<QuerySearchResult> buffer = new ArrayList<>();
@@ -246,6 +257,8 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         private volatile MergeResult mergeResult;
         private volatile boolean hasPartialReduce;
         private volatile int numReducePhases;
+        // only one partial reduce runs at a time, see tryExecuteNext
+        private volatile long partialReduceTimeInNanos;
 
         PendingMerges(int batchReduceSize, int trackTotalHitsUpTo) {
             this.batchReduceSize = batchReduceSize;
@@ -444,7 +457,12 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
                         addEstimateAndMaybeBreak(estimatedMergeSize);
                         estimatedTotalSize += estimatedMergeSize;
                         ++numReducePhases;
-                        newMerge = partialReduce(toConsume, task.emptyResults, topDocsStats, thisMergeResult, numReducePhases);
+                        final long startTimeInNanos = System.nanoTime();
+                        try {
+                            newMerge = partialReduce(toConsume, task.emptyResults, topDocsStats, thisMergeResult, numReducePhases);
+                        } finally {
+                            partialReduceTimeInNanos += System.nanoTime() - startTimeInNanos;
+                        }
                     } catch (Exception t) {
                         for (QuerySearchResult result : toConsume) {
                             result.releaseAggs();
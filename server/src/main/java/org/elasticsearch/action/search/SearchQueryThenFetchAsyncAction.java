@@ -10,11 +10,15 @@ package org.elasticsearch.action.search;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.search.TopFieldDocs;
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.SearchSortValuesAndFormats;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchRequest;
@@ -23,6 +27,9 @@ import org.elasticsearch.transport.Transport;
 
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 
 import static org.elasticsearch.action.search.SearchPhaseController.getTopDocsSize;
@@ -36,6 +43,11 @@ class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<SearchPh
     private final int trackTotalHitsUpTo;
     private volatile BottomSortValuesCollector bottomSortCollector;
 
+    // the nodes that still run the query phase of some shards, which get the best bottom top doc whenever it changes
+    private boolean propagateBottomSortValues;
+    private final Map<String, RunningQueries> runningQueriesPerNode = ConcurrentCollections.newConcurrentMap();
+    private final AtomicLong bottomSortValuesVersion = new AtomicLong();
+
     SearchQueryThenFetchAsyncAction(
         final Logger logger,
         final SearchTransportService searchTransportService,
@@ -83,13 +95,48 @@ class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<SearchPh
         }
     }
 
+    /**
+     * Sends the best bottom top doc to the nodes that still run the query phase of some shards whenever it changes, so that these
+     * shards can skip the documents that can't be top hits anymore, rather than only to the shards that start after it changed. Must be
+     * called before the search is {@link #start() started}.
+     */
+    void enableBottomSortValuesPropagation() {
+        this.propagateBottomSortValues = true;
+    }
+
     protected void executePhaseOnShard(
         final SearchShardIterator shardIt,
         final SearchShardTarget shard,
         final SearchActionListener<SearchPhaseResult> listener
     ) {
         ShardSearchRequest request = rewriteShardSearchRequest(super.buildShardSearchRequest(shardIt, listener.requestIndex));
-        getSearchTransport().sendExecuteQuery(getConnection(shard.getClusterAlias(), shard.getNodeId()), request, getTask(), listener);
+        Transport.Connection connection = getConnection(shard.getClusterAlias(), shard.getNodeId());
+        getSearchTransport().sendExecuteQuery(connection, request, getTask(), trackRunningQuery(shard, listener));
+    }
+
+    private SearchActionListener<SearchPhaseResult> trackRunningQuery(
+        SearchShardTarget shard,
+        SearchActionListener<SearchPhaseResult> listener
+    ) {
+        // the bottom sort values are not sent to remote clusters
+        if (propagateBottomSortValues == false || shard.getClusterAlias() != null) {
+            return listener;
+        }
+        final RunningQueries runningQueries = runningQueriesPerNode.computeIfAbsent(shard.getNodeId(), n -> new RunningQueries());
+        runningQueries.count.incrementAndGet();
+        return new SearchActionListener<>(shard, listener.requestIndex) {
+            @Override
+            protected void innerOnResponse(SearchPhaseResult response) {
+                runningQueries.count.decrementAndGet();
+                listener.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                runningQueries.count.decrementAndGet();
+                listener.onFailure(e);
+            }
+        };
     }
 
     @Override
@@ -115,7 +162,11 @@ class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<SearchPh
                     }
                 }
             }
+            final SearchSortValuesAndFormats previousBottomSortValues = bottomSortCollector.getBottomSortValues();
             bottomSortCollector.consumeTopDocs(topDocs, queryResult.sortValueFormats());
+            if (propagateBottomSortValues && bottomSortCollector.getBottomSortValues() != previousBottomSortValues) {
+                propagateBottomSortValues();
+            }
         }
         super.onShardResult(result, shardIt);
     }
@@ -125,6 +176,48 @@ class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<SearchPh
         return new FetchSearchPhase(results, null, this);
     }
 
+    private void propagateBottomSortValues() {
+        runningQueriesPerNode.forEach((nodeId, runningQueries) -> {
+            if (runningQueries.count.get() > 0 && runningQueries.sending.compareAndSet(false, true)) {
+                sendBottomSortValues(nodeId, runningQueries);
+            }
+        });
+    }
+
+    /**
+     * Sends the current bottom sort values to the given node, and then the values that changed in the meantime if any. There is
+     * at most one request in flight per node so that a node doesn't get flooded with updates while many shards respond.
+     */
+    private void sendBottomSortValues(String nodeId, RunningQueries runningQueries) {
+        final SearchSortValuesAndFormats bottomSortValues = bottomSortCollector.getBottomSortValues();
+        final Transport.Connection connection;
+        try {
+            connection = getConnection(null, nodeId);
+        } catch (Exception e) {
+            runningQueries.sending.set(false);
+            return;
+        }
+        if (connection.getVersion().before(Version.V_8_4_0)) {
+            // the node can't receive the bottom sort values, so we keep the flag set to never send to it
+            return;
+        }
+        getSearchTransport().sendBottomSortValues(
+            connection,
+            getTask(),
+            new OriginalIndices(getRequest()),
+            bottomSortValuesVersion.incrementAndGet(),
+            bottomSortValues,
+            ActionListener.wrap(() -> {
+                runningQueries.sending.set(false);
+                if (runningQueries.count.get() > 0
+                    && bottomSortCollector.getBottomSortValues() != bottomSortValues
+                    && runningQueries.sending.compareAndSet(false, true)) {
+                    sendBottomSortValues(nodeId, runningQueries);
+                }
+            })
+        );
+    }
+
     private ShardSearchRequest rewriteShardSearchRequest(ShardSearchRequest request) {
         if (bottomSortCollector == null) {
             return request;
@@ -141,4 +234,9 @@ class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<SearchPh
         }
         return request;
     }
+
+    private static class RunningQueries {
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicBoolean sending = new AtomicBoolean();
+    }
 }
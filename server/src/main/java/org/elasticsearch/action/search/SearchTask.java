@@ -8,10 +8,21 @@
 
 package org.elasticsearch.action.search;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.VersionedNamedWriteable;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.tasks.CancellableTask;
+import org.elasticsearch.tasks.Task;
 import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.xcontent.XContentBuilder;
 
+import java.io.IOException;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Supplier;
 
 /**
@@ -21,6 +32,7 @@ public class SearchTask extends CancellableTask {
     // generating description in a lazy way since source can be quite big
     private final Supplier<String> descriptionSupplier;
     private SearchProgressListener progressListener = SearchProgressListener.NOOP;
+    private volatile Supplier<Status> statusSupplier = () -> null;
 
     public SearchTask(
         long id,
@@ -53,4 +65,118 @@ public class SearchTask extends CancellableTask {
         return progressListener;
     }
 
+    /**
+     * Attach the source of the {@link Status} of this task, which is read whenever the status of the task is requested.
+     */
+    public final void setStatusSupplier(Supplier<Status> statusSupplier) {
+        this.statusSupplier = Objects.requireNonNull(statusSupplier);
+    }
+
+    @Override
+    public Status getStatus() {
+        return statusSupplier.get();
+    }
+
+    /**
+     * The progress of the reduction of the shard results of a search on the coordinating node.
+     */
+    public static class Status implements Task.Status, VersionedNamedWriteable {
+        public static final String NAME = "search";
+
+        private final int numReducePhases;
+        private final long partialReduceTimeInNanos;
+        private final long peakReduceMemoryInBytes;
+
+        public Status(int numReducePhases, long partialReduceTimeInNanos, long peakReduceMemoryInBytes) {
+            this.numReducePhases = numReducePhases;
+            this.partialReduceTimeInNanos = partialReduceTimeInNanos;
+            this.peakReduceMemoryInBytes = peakReduceMemoryInBytes;
+        }
+
+        public Status(StreamInput in) throws IOException {
+            numReducePhases = in.readVInt();
+            partialReduceTimeInNanos = in.readVLong();
+            peakReduceMemoryInBytes = in.readVLong();
+        }
+
+        /**
+         * The number of partial reduces that ran so far.
+         */
+        public int getNumReducePhases() {
+            return numReducePhases;
+        }
+
+        /**
+         * The total time spent in partial reduces so far, in nanoseconds.
+         */
+        public long getPartialReduceTimeInNanos() {
+            return partialReduceTimeInNanos;
+        }
+
+        /**
+         * The peak of the memory that the buffered and reduced shard results held in the request circuit breaker so far.
+         */
+        public long getPeakReduceMemoryInBytes() {
+            return peakReduceMemoryInBytes;
+        }
+
+        @Override
+        public String getWriteableName() {
+            return NAME;
+        }
+
+        @Override
+        public Version getMinimalSupportedVersion() {
+            return Version.V_8_4_0;
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVInt(numReducePhases);
+            out.writeVLong(partialReduceTimeInNanos);
+            out.writeVLong(peakReduceMemoryInBytes);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("num_reduce_phases", numReducePhases);
+            builder.humanReadableField(
+                "partial_reduce_time_in_millis",
+                "partial_reduce_time",
+                TimeValue.timeValueNanos(partialReduceTimeInNanos)
+            );
+            builder.humanReadableField(
+                "peak_reduce_memory_in_bytes",
+                "peak_reduce_memory",
+                ByteSizeValue.ofBytes(peakReduceMemoryInBytes)
+            );
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        public String toString() {
+            return Strings.toString(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Status status = (Status) o;
+            return numReducePhases == status.numReducePhases
+                && partialReduceTimeInNanos == status.partialReduceTimeInNanos
+                && peakReduceMemoryInBytes == status.peakReduceMemoryInBytes;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(numReducePhases, partialReduceTimeInNanos, peakReduceMemoryInBytes);
+        }
+    }
 }
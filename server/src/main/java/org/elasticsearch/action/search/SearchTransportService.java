@@ -30,6 +30,7 @@ import org.elasticsearch.core.Nullable;
 import org.elasticsearch.search.CanMatchShardResponse;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.SearchSortValuesAndFormats;
 import org.elasticsearch.search.dfs.DfsSearchResult;
 import org.elasticsearch.search.fetch.FetchSearchResult;
 import org.elasticsearch.search.fetch.QueryFetchSearchResult;
@@ -80,6 +81,7 @@ public class SearchTransportService {
     public static final String FETCH_ID_ACTION_NAME = "indices:data/read/search[phase/fetch/id]";
     public static final String QUERY_CAN_MATCH_NAME = "indices:data/read/search[can_match]";
     public static final String QUERY_CAN_MATCH_NODE_NAME = "indices:data/read/search[can_match][n]";
+    public static final String QUERY_BOTTOM_SORT_VALUES_ACTION_NAME = "indices:data/read/search[phase/query/bottom_sort_values]";
 
     private final TransportService transportService;
     private final NodeClient client;
@@ -211,6 +213,32 @@ public class SearchTransportService {
         );
     }
 
+    /**
+     * Sends the bottom sort values of the top hits that the coordinating node collected so far to a node that still runs the query
+     * phase of some shards of the search.
+     */
+    public void sendBottomSortValues(
+        Transport.Connection connection,
+        SearchTask task,
+        OriginalIndices originalIndices,
+        long version,
+        SearchSortValuesAndFormats bottomSortValues,
+        ActionListener<TransportResponse> listener
+    ) {
+        transportService.sendRequest(
+            connection,
+            QUERY_BOTTOM_SORT_VALUES_ACTION_NAME,
+            new BottomSortValuesRequest(
+                new TaskId(transportService.getLocalNode().getId(), task.getId()),
+                originalIndices,
+                version,
+                bottomSortValues
+            ),
+            TransportRequestOptions.EMPTY,
+            new ActionListenerResponseHandler<>(listener, (in) -> TransportResponse.Empty.INSTANCE)
+        );
+    }
+
     public void sendExecuteDfs(
         Transport.Connection connection,
         final ShardSearchRequest request,
@@ -413,6 +441,64 @@ public class SearchTransportService {
 
     }
 
+    static class BottomSortValuesRequest extends TransportRequest implements IndicesRequest {
+        private final TaskId searchTaskId;
+        private final OriginalIndices originalIndices;
+        private final long version;
+        private final SearchSortValuesAndFormats bottomSortValues;
+
+        BottomSortValuesRequest(
+            TaskId searchTaskId,
+            OriginalIndices originalIndices,
+            long version,
+            SearchSortValuesAndFormats bottomSortValues
+        ) {
+            this.searchTaskId = Objects.requireNonNull(searchTaskId);
+            this.originalIndices = originalIndices;
+            this.version = version;
+            this.bottomSortValues = Objects.requireNonNull(bottomSortValues);
+        }
+
+        BottomSortValuesRequest(StreamInput in) throws IOException {
+            super(in);
+            searchTaskId = TaskId.readFromStream(in);
+            originalIndices = OriginalIndices.readOriginalIndices(in);
+            version = in.readVLong();
+            bottomSortValues = new SearchSortValuesAndFormats(in);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            searchTaskId.writeTo(out);
+            OriginalIndices.writeOriginalIndices(originalIndices, out);
+            out.writeVLong(version);
+            bottomSortValues.writeTo(out);
+        }
+
+        TaskId searchTaskId() {
+            return searchTaskId;
+        }
+
+        long version() {
+            return version;
+        }
+
+        SearchSortValuesAndFormats bottomSortValues() {
+            return bottomSortValues;
+        }
+
+        @Override
+        public String[] indices() {
+            return originalIndices.indices();
+        }
+
+        @Override
+        public IndicesOptions indicesOptions() {
+            return originalIndices.indicesOptions();
+        }
+    }
+
     public static class SearchFreeContextResponse extends TransportResponse {
 
         private boolean freed;
@@ -516,6 +602,17 @@ public class SearchTransportService {
         );
         TransportActionProxy.registerProxyAction(transportService, QUERY_ID_ACTION_NAME, true, QuerySearchResult::new);
 
+        // this only updates a few volatile fields, so we can let it quickly execute on a networking thread
+        transportService.registerRequestHandler(
+            QUERY_BOTTOM_SORT_VALUES_ACTION_NAME,
+            ThreadPool.Names.SAME,
+            BottomSortValuesRequest::new,
+            (request, channel, task) -> {
+                searchService.updateBottomSortValues(request.searchTaskId(), request.version(), request.bottomSortValues());
+                channel.sendResponse(TransportResponse.Empty.INSTANCE);
+            }
+        );
+
         transportService.registerRequestHandler(
             QUERY_SCROLL_ACTION_NAME,
             ThreadPool.Names.SAME,
@@ -38,6 +38,7 @@ import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.logging.DeprecationCategory;
 import org.elasticsearch.common.logging.DeprecationLogger;
+import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.util.Maps;
@@ -52,6 +53,7 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardNotFoundException;
 import org.elasticsearch.indices.ExecutorSelector;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.SearchShardTarget;
@@ -115,6 +117,49 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         Property.NodeScope
     );
 
+    /**
+     * Whether shard level search requests that are slow to respond are also sent to another replica of the shard.
+     */
+    public static final Setting<Boolean> HEDGED_REQUESTS_ENABLED_SETTING = Setting.boolSetting(
+        "search.hedged_requests.enabled",
+        false,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    /**
+     * The percentile of the recent shard level response times after which a shard level search request is hedged.
+     */
+    public static final Setting<Double> HEDGED_REQUESTS_PERCENTILE_SETTING = Setting.doubleSetting(
+        "search.hedged_requests.percentile",
+        95.0,
+        0.0,
+        100.0,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    /**
+     * The minimum time after which a shard level search request is hedged.
+     */
+    public static final Setting<TimeValue> HEDGED_REQUESTS_MIN_DELAY_SETTING = Setting.timeSetting(
+        "search.hedged_requests.min_delay",
+        TimeValue.timeValueMillis(10),
+        TimeValue.ZERO,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    /**
+     * Whether the best bottom sort values are sent to the shards that are still running the query phase of a sorted search.
+     */
+    public static final Setting<Boolean> BOTTOM_SORT_VALUES_PROPAGATION_ENABLED_SETTING = Setting.boolSetting(
+        "search.bottom_sort_values_propagation.enabled",
+        false,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
     public static final Setting<Integer> DEFAULT_PRE_FILTER_SHARD_SIZE = Setting.intSetting(
         "action.search.pre_filter_shard_size.default",
         SearchRequest.DEFAULT_PRE_FILTER_SHARD_SIZE,
@@ -1044,6 +1089,18 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         return threadPool.executor(ThreadPool.Names.SEARCH);
     }
 
+    /**
+     * Returns the executor to run the partial reduces of a search on, whose shard responses are handled on the given executor. Partial
+     * reduces of large aggregations are expensive, so they run on a dedicated thread pool rather than taking up the threads that
+     * execute shard level searches. Searches of system or throttled indices keep their own executor.
+     */
+    Executor partialReduceExecutor(Executor searchExecutor) {
+        if (searchExecutor == threadPool.executor(ThreadPool.Names.SEARCH)) {
+            return threadPool.executor(ThreadPool.Names.SEARCH_REDUCE);
+        }
+        return searchExecutor;
+    }
+
     static BiFunction<String, String, Transport.Connection> buildConnectionLookup(
         String requestClusterAlias,
         Function<String, DiscoveryNode> localNodes,
@@ -1176,7 +1233,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
             );
         } else {
             final QueryPhaseResultConsumer queryResultConsumer = searchPhaseController.newSearchPhaseResults(
-                executor,
+                partialReduceExecutor(executor),
                 circuitBreaker,
                 task::isCancelled,
                 task.getProgressListener(),
@@ -1184,6 +1241,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 shardIterators.size(),
                 exc -> searchTransportService.cancelSearchTask(task, "failed to merge result [" + exc.getMessage() + "]")
             );
+            task.setStatusSupplier(queryResultConsumer::getReduceStatus);
             AbstractSearchAsyncAction<? extends SearchPhaseResult> searchAsyncAction = switch (searchRequest.searchType()) {
                 case DFS_QUERY_THEN_FETCH -> new SearchDfsQueryThenFetchAsyncAction(
                     logger,
@@ -1201,27 +1259,60 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                     task,
                     clusters
                 );
-                case QUERY_THEN_FETCH -> new SearchQueryThenFetchAsyncAction(
-                    logger,
-                    searchTransportService,
-                    connectionLookup,
-                    aliasFilter,
-                    concreteIndexBoosts,
-                    executor,
-                    queryResultConsumer,
-                    searchRequest,
-                    listener,
-                    shardIterators,
-                    timeProvider,
-                    clusterState,
-                    task,
-                    clusters
-                );
+                case QUERY_THEN_FETCH -> {
+                    SearchQueryThenFetchAsyncAction queryThenFetch = new SearchQueryThenFetchAsyncAction(
+                        logger,
+                        searchTransportService,
+                        connectionLookup,
+                        aliasFilter,
+                        concreteIndexBoosts,
+                        executor,
+                        queryResultConsumer,
+                        searchRequest,
+                        listener,
+                        shardIterators,
+                        timeProvider,
+                        clusterState,
+                        task,
+                        clusters
+                    );
+                    // scroll searches need all the hits of each shard
+                    if (searchRequest.scroll() == null
+                        && clusterService.getClusterSettings().get(BOTTOM_SORT_VALUES_PROPAGATION_ENABLED_SETTING)) {
+                        queryThenFetch.enableBottomSortValuesPropagation();
+                    }
+                    yield queryThenFetch;
+                }
             };
+            maybeEnableHedging(searchAsyncAction, searchRequest, threadPool);
             return searchAsyncAction;
         }
     }
 
+    /**
+     * Enables hedged shard level requests if they are enabled and enough response times were collected to derive their delay. Scroll
+     * and point in time searches keep the search contexts of the replicas that they search, so they are never hedged.
+     */
+    private void maybeEnableHedging(AbstractSearchAsyncAction<?> searchAsyncAction, SearchRequest searchRequest, ThreadPool threadPool) {
+        final ClusterSettings clusterSettings = clusterService.getClusterSettings();
+        if (clusterSettings.get(HEDGED_REQUESTS_ENABLED_SETTING) == false
+            || searchRequest.scroll() != null
+            || searchRequest.pointInTimeBuilder() != null) {
+            return;
+        }
+        final ResponseCollectorService responseCollectorService = searchService.getResponseCollectorService();
+        final double percentile = clusterSettings.get(HEDGED_REQUESTS_PERCENTILE_SETTING);
+        final long percentileNanos = responseCollectorService.responseTimePercentile(percentile);
+        if (percentileNanos >= 0) {
+            final long minDelayNanos = clusterSettings.get(HEDGED_REQUESTS_MIN_DELAY_SETTING).nanos();
+            searchAsyncAction.enableHedging(
+                TimeValue.timeValueNanos(Math.max(percentileNanos, minDelayNanos)),
+                threadPool,
+                responseCollectorService
+            );
+        }
+    }
+
     private static void validateAndResolveWaitForCheckpoint(
         ClusterState clusterState,
         IndexNameExpressionResolver resolver,
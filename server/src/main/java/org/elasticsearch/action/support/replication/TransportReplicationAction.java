@@ -329,9 +329,11 @@ public abstract class TransportReplicationAction<
 
     private void handleOperationRequest(final Request request, final TransportChannel channel, Task task) {
         Releasable releasable = checkOperationLimits(request);
-        ActionListener<Response> listener = ActionListener.runBefore(
-            new ChannelActionListener<>(channel, actionName, request),
-            releasable::close
+        // the request may hold on to the network buffers it was read from, keep them until the operation completed
+        request.incRef();
+        ActionListener<Response> listener = ActionListener.runAfter(
+            ActionListener.runBefore(new ChannelActionListener<>(channel, actionName, request), releasable::close),
+            request::decRef
         );
         runReroutePhase(task, request, listener, false);
     }
@@ -346,9 +348,10 @@ public abstract class TransportReplicationAction<
             request.sentFromLocalReroute(),
             request.localRerouteInitiatedByNodeClient()
         );
-        ActionListener<Response> listener = ActionListener.runBefore(
-            new ChannelActionListener<>(channel, transportPrimaryAction, request),
-            releasable::close
+        request.incRef();
+        ActionListener<Response> listener = ActionListener.runAfter(
+            ActionListener.runBefore(new ChannelActionListener<>(channel, transportPrimaryAction, request), releasable::close),
+            request::decRef
         );
 
         try {
@@ -606,9 +609,10 @@ public abstract class TransportReplicationAction<
         final Task task
     ) {
         Releasable releasable = checkReplicaLimits(replicaRequest.getRequest());
-        ActionListener<ReplicaResponse> listener = ActionListener.runBefore(
-            new ChannelActionListener<>(channel, transportReplicaAction, replicaRequest),
-            releasable::close
+        replicaRequest.incRef();
+        ActionListener<ReplicaResponse> listener = ActionListener.runAfter(
+            ActionListener.runBefore(new ChannelActionListener<>(channel, transportReplicaAction, replicaRequest), releasable::close),
+            replicaRequest::decRef
         );
 
         try {
@@ -1371,6 +1375,26 @@ public abstract class TransportReplicationAction<
             return "[" + request.getDescription() + "] for aID [" + targetAllocationID + "] and term [" + primaryTerm + "]";
         }
 
+        @Override
+        public void incRef() {
+            request.incRef();
+        }
+
+        @Override
+        public boolean tryIncRef() {
+            return request.tryIncRef();
+        }
+
+        @Override
+        public boolean decRef() {
+            return request.decRef();
+        }
+
+        @Override
+        public boolean hasReferences() {
+            return request.hasReferences();
+        }
+
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             // If sentFromLocalReroute is marked true, then this request should just be looped back through
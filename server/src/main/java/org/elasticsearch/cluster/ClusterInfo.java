@@ -20,6 +20,7 @@ import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
@@ -34,6 +35,7 @@ import java.util.Optional;
 public class ClusterInfo implements ToXContentFragment, Writeable {
 
     public static final Version DATA_SET_SIZE_SIZE_VERSION = Version.V_7_13_0;
+    public static final Version SHARD_WRITE_LOAD_VERSION = Version.V_8_4_0;
 
     private final Map<String, DiskUsage> leastAvailableSpaceUsage;
     private final Map<String, DiskUsage> mostAvailableSpaceUsage;
@@ -42,6 +44,7 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
     public static final ClusterInfo EMPTY = new ClusterInfo();
     final Map<ShardRouting, String> routingToDataPath;
     final Map<NodeAndPath, ReservedSpace> reservedSpace;
+    final Map<ShardId, Double> shardWriteLoads;
 
     protected ClusterInfo() {
         this(Map.of(), Map.of(), Map.of(), Map.of(), Map.of(), Map.of());
@@ -65,6 +68,30 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
         Map<ShardId, Long> shardDataSetSizes,
         Map<ShardRouting, String> routingToDataPath,
         Map<NodeAndPath, ReservedSpace> reservedSpace
+    ) {
+        this(leastAvailableSpaceUsage, mostAvailableSpaceUsage, shardSizes, shardDataSetSizes, routingToDataPath, reservedSpace, Map.of());
+    }
+
+    /**
+     * Creates a new ClusterInfo instance.
+     *
+     * @param leastAvailableSpaceUsage a node id to disk usage mapping for the path that has the least available space on the node.
+     * @param mostAvailableSpaceUsage  a node id to disk usage mapping for the path that has the most available space on the node.
+     * @param shardSizes a shardkey to size in bytes mapping per shard.
+     * @param shardDataSetSizes a shard id to data set size in bytes mapping per shard
+     * @param routingToDataPath the shard routing to datapath mapping
+     * @param reservedSpace reserved space per shard broken down by node and data path
+     * @param shardWriteLoads a shard id to write load mapping per shard, see {@link #getShardWriteLoad(ShardId)}
+     * @see #shardIdentifierFromRouting
+     */
+    public ClusterInfo(
+        Map<String, DiskUsage> leastAvailableSpaceUsage,
+        Map<String, DiskUsage> mostAvailableSpaceUsage,
+        Map<String, Long> shardSizes,
+        Map<ShardId, Long> shardDataSetSizes,
+        Map<ShardRouting, String> routingToDataPath,
+        Map<NodeAndPath, ReservedSpace> reservedSpace,
+        Map<ShardId, Double> shardWriteLoads
     ) {
         this.leastAvailableSpaceUsage = leastAvailableSpaceUsage;
         this.shardSizes = shardSizes;
@@ -72,6 +99,7 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
         this.mostAvailableSpaceUsage = mostAvailableSpaceUsage;
         this.routingToDataPath = routingToDataPath;
         this.reservedSpace = reservedSpace;
+        this.shardWriteLoads = shardWriteLoads;
     }
 
     public ClusterInfo(StreamInput in) throws IOException {
@@ -89,6 +117,11 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
         } else {
             this.reservedSpace = Map.of();
         }
+        if (in.getVersion().onOrAfter(SHARD_WRITE_LOAD_VERSION)) {
+            this.shardWriteLoads = in.readImmutableMap(ShardId::new, StreamInput::readDouble);
+        } else {
+            this.shardWriteLoads = Map.of();
+        }
     }
 
     @Override
@@ -103,6 +136,9 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
         if (out.getVersion().onOrAfter(StoreStats.RESERVED_BYTES_VERSION)) {
             out.writeMap(this.reservedSpace);
         }
+        if (out.getVersion().onOrAfter(SHARD_WRITE_LOAD_VERSION)) {
+            out.writeMap(this.shardWriteLoads, (o, s) -> s.writeTo(o), StreamOutput::writeDouble);
+        }
     }
 
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
@@ -164,6 +200,13 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
             }
         }
         builder.endArray(); // end "reserved_sizes"
+        builder.startObject("shard_write_loads");
+        {
+            for (Map.Entry<ShardId, Double> c : this.shardWriteLoads.entrySet()) {
+                builder.field(c.getKey().toString(), c.getValue());
+            }
+        }
+        builder.endObject(); // end "shard_write_loads"
         return builder;
     }
 
@@ -209,6 +252,42 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
         return Optional.ofNullable(shardDataSetSizes.get(shardId));
     }
 
+    /**
+     * Returns the write load of the given shard, the average number of threads that were busy indexing into its busiest copy between the
+     * two latest refreshes of the cluster info, or {@code 0.0} if that metric is not available.
+     */
+    public double getShardWriteLoad(ShardId shardId) {
+        Double writeLoad = shardWriteLoads.get(shardId);
+        return writeLoad == null ? 0.0 : writeLoad;
+    }
+
+    /**
+     * Returns a copy of this cluster info with the given disk usages of the nodes, and with the given sizes of shards added to the known
+     * ones, see {@link #shardIdentifierFromRouting}. Used to simulate how the disk usage of the nodes changes as shards move around.
+     */
+    public ClusterInfo withDiskUsages(
+        Map<String, DiskUsage> leastAvailableSpaceUsage,
+        Map<String, DiskUsage> mostAvailableSpaceUsage,
+        Map<String, Long> additionalShardSizes
+    ) {
+        final Map<String, Long> shardSizes;
+        if (additionalShardSizes.isEmpty()) {
+            shardSizes = this.shardSizes;
+        } else {
+            shardSizes = new HashMap<>(this.shardSizes);
+            shardSizes.putAll(additionalShardSizes);
+        }
+        return new ClusterInfo(
+            leastAvailableSpaceUsage,
+            mostAvailableSpaceUsage,
+            shardSizes,
+            shardDataSetSizes,
+            routingToDataPath,
+            reservedSpace,
+            shardWriteLoads
+        );
+    }
+
     /**
      * Returns the reserved space for each shard on the given node/path pair
      */
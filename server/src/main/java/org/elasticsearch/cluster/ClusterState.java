@@ -49,6 +49,7 @@ import org.elasticsearch.xcontent.XContent;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
@@ -768,6 +769,33 @@ public class ClusterState implements ToXContentFragment, Diffable<ClusterState>
         builder.uuid = in.readString();
         builder.metadata = Metadata.readFrom(in);
         builder.routingTable = RoutingTable.readFrom(in);
+        return readRemainingFrom(in, localNode, builder);
+    }
+
+    /**
+     * Reads a cluster state that was written by {@link #writeToWithoutIndices} and adds the given index metadata and index routing tables
+     * to it.
+     */
+    public static ClusterState readFromWithoutIndices(
+        StreamInput in,
+        DiscoveryNode localNode,
+        Collection<IndexMetadata> indices,
+        Collection<IndexRoutingTable> indexRoutingTables
+    ) throws IOException {
+        ClusterName clusterName = new ClusterName(in);
+        Builder builder = new Builder(clusterName);
+        builder.version = in.readLong();
+        builder.uuid = in.readString();
+        builder.metadata = Metadata.readFromWithoutIndices(in, indices);
+        final RoutingTable.Builder routingTableBuilder = RoutingTable.builder().version(in.readLong());
+        for (IndexRoutingTable indexRoutingTable : indexRoutingTables) {
+            routingTableBuilder.add(indexRoutingTable);
+        }
+        builder.routingTable = routingTableBuilder.build();
+        return readRemainingFrom(in, localNode, builder);
+    }
+
+    private static ClusterState readRemainingFrom(StreamInput in, DiscoveryNode localNode, Builder builder) throws IOException {
         builder.nodes = DiscoveryNodes.readFrom(in, localNode);
         builder.blocks = ClusterBlocks.readFrom(in);
         int customSize = in.readVInt();
@@ -788,6 +816,23 @@ public class ClusterState implements ToXContentFragment, Diffable<ClusterState>
         out.writeString(stateUUID);
         metadata.writeTo(out);
         routingTable.writeTo(out);
+        writeRemainingTo(out);
+    }
+
+    /**
+     * Writes this cluster state like {@link #writeTo(StreamOutput)} but without the index metadata and the index routing tables, for
+     * callers that send those separately. Read it back with {@link #readFromWithoutIndices}.
+     */
+    public void writeToWithoutIndices(StreamOutput out) throws IOException {
+        clusterName.writeTo(out);
+        out.writeLong(version);
+        out.writeString(stateUUID);
+        metadata.writeToWithoutIndices(out);
+        out.writeLong(routingTable.version());
+        writeRemainingTo(out);
+    }
+
+    private void writeRemainingTo(StreamOutput out) throws IOException {
         nodes.writeTo(out);
         blocks.writeTo(out);
         VersionedNamedWriteable.writeVersionedWritables(out, customs);
@@ -26,6 +26,7 @@ import org.elasticsearch.cluster.block.ClusterBlockException;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.allocation.DiskThresholdSettings;
+import org.elasticsearch.cluster.routing.allocation.allocator.BalancedShardsAllocator;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.settings.ClusterSettings;
@@ -58,8 +59,10 @@ import static org.elasticsearch.core.Strings.format;
  * Listens for changes in the number of data nodes and immediately submits a
  * ClusterInfoUpdateJob if a node has been added.
  *
- * Every time the timer runs, gathers information about the disk usage and
- * shard sizes across the cluster.
+ * Every time the timer runs, gathers information about the disk usage,
+ * shard sizes and shard write loads across the cluster. The disk usage is only
+ * gathered while the disk threshold decider is enabled, and the shard sizes and
+ * write loads while either it or a load-aware balance factor is enabled.
  */
 public class InternalClusterInfoService implements ClusterInfoService, ClusterStateListener {
 
@@ -79,7 +82,8 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
         Property.NodeScope
     );
 
-    private volatile boolean enabled;
+    private volatile boolean diskThresholdEnabled;
+    private volatile boolean loadAwareBalancingEnabled;
     private volatile TimeValue updateFrequency;
     private volatile TimeValue fetchTimeout;
 
@@ -89,6 +93,7 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
 
     private final ThreadPool threadPool;
     private final Client client;
+    private final WriteLoadTracker writeLoadTracker = new WriteLoadTracker();
     private final List<Consumer<ClusterInfo>> listeners = new CopyOnWriteArrayList<>();
 
     private final Object mutex = new Object();
@@ -104,18 +109,31 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
         this.client = client;
         this.updateFrequency = INTERNAL_CLUSTER_INFO_UPDATE_INTERVAL_SETTING.get(settings);
         this.fetchTimeout = INTERNAL_CLUSTER_INFO_TIMEOUT_SETTING.get(settings);
-        this.enabled = DiskThresholdSettings.CLUSTER_ROUTING_ALLOCATION_DISK_THRESHOLD_ENABLED_SETTING.get(settings);
+        this.diskThresholdEnabled = DiskThresholdSettings.CLUSTER_ROUTING_ALLOCATION_DISK_THRESHOLD_ENABLED_SETTING.get(settings);
+        setLoadAwareBalanceFactors(
+            BalancedShardsAllocator.WRITE_LOAD_BALANCE_FACTOR_SETTING.get(settings),
+            BalancedShardsAllocator.DISK_USAGE_BALANCE_FACTOR_SETTING.get(settings)
+        );
         ClusterSettings clusterSettings = clusterService.getClusterSettings();
         clusterSettings.addSettingsUpdateConsumer(INTERNAL_CLUSTER_INFO_TIMEOUT_SETTING, this::setFetchTimeout);
         clusterSettings.addSettingsUpdateConsumer(INTERNAL_CLUSTER_INFO_UPDATE_INTERVAL_SETTING, this::setUpdateFrequency);
         clusterSettings.addSettingsUpdateConsumer(
             DiskThresholdSettings.CLUSTER_ROUTING_ALLOCATION_DISK_THRESHOLD_ENABLED_SETTING,
-            this::setEnabled
+            this::setDiskThresholdEnabled
+        );
+        clusterSettings.addSettingsUpdateConsumer(
+            BalancedShardsAllocator.WRITE_LOAD_BALANCE_FACTOR_SETTING,
+            BalancedShardsAllocator.DISK_USAGE_BALANCE_FACTOR_SETTING,
+            this::setLoadAwareBalanceFactors
         );
     }
 
-    private void setEnabled(boolean enabled) {
-        this.enabled = enabled;
+    private void setDiskThresholdEnabled(boolean diskThresholdEnabled) {
+        this.diskThresholdEnabled = diskThresholdEnabled;
+    }
+
+    private void setLoadAwareBalanceFactors(float writeLoadBalanceFactor, float diskUsageBalanceFactor) {
+        this.loadAwareBalancingEnabled = writeLoadBalanceFactor > 0.0f || diskUsageBalanceFactor > 0.0f;
     }
 
     private void setFetchTimeout(TimeValue fetchTimeout) {
@@ -157,10 +175,13 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
     private class AsyncRefresh {
 
         private final List<ActionListener<ClusterInfo>> thisRefreshListeners;
-        private final CountDown countDown = new CountDown(2);
+        private final boolean fetchDiskUsages;
+        private final CountDown countDown;
 
-        AsyncRefresh(List<ActionListener<ClusterInfo>> thisRefreshListeners) {
+        AsyncRefresh(List<ActionListener<ClusterInfo>> thisRefreshListeners, boolean fetchDiskUsages) {
             this.thisRefreshListeners = thisRefreshListeners;
+            this.fetchDiskUsages = fetchDiskUsages;
+            this.countDown = new CountDown(fetchDiskUsages ? 2 : 1);
         }
 
         void execute() {
@@ -168,6 +189,16 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
 
             logger.trace("starting async refresh");
 
+            if (fetchDiskUsages) {
+                fetchNodesStats();
+            } else {
+                leastAvailableSpaceUsages = ImmutableOpenMap.of();
+                mostAvailableSpaceUsages = ImmutableOpenMap.of();
+            }
+            fetchIndicesStats();
+        }
+
+        private void fetchNodesStats() {
             final NodesStatsRequest nodesStatsRequest = new NodesStatsRequest("data:true");
             nodesStatsRequest.clear();
             nodesStatsRequest.addMetric(NodesStatsRequest.Metric.FS.metricName());
@@ -203,10 +234,13 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
                     mostAvailableSpaceUsages = ImmutableOpenMap.of();
                 }
             }, this::onStatsProcessed));
+        }
 
+        private void fetchIndicesStats() {
             final IndicesStatsRequest indicesStatsRequest = new IndicesStatsRequest();
             indicesStatsRequest.clear();
             indicesStatsRequest.store(true);
+            indicesStatsRequest.indexing(true);
             indicesStatsRequest.indicesOptions(IndicesOptions.STRICT_EXPAND_OPEN_CLOSED_HIDDEN);
             indicesStatsRequest.timeout(fetchTimeout);
             client.admin().indices().stats(indicesStatsRequest, ActionListener.runAfter(new ActionListener<>() {
@@ -266,7 +300,8 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
                         shardSizeByIdentifierBuilder.build(),
                         shardDataSetSizeBuilder.build(),
                         dataPathByShardRoutingBuilder.build(),
-                        rsrvdSpace.build()
+                        rsrvdSpace.build(),
+                        writeLoadTracker.onShardStats(stats, threadPool.relativeTimeInMillis())
                     );
                 }
 
@@ -337,8 +372,9 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
         final ArrayList<ActionListener<ClusterInfo>> thisRefreshListeners = new ArrayList<>(nextRefreshListeners);
         nextRefreshListeners.clear();
 
-        if (enabled) {
-            currentRefresh = new AsyncRefresh(thisRefreshListeners);
+        // the balancer needs the shard sizes and write loads even if the disk threshold decider does not need the disk usages
+        if (diskThresholdEnabled || loadAwareBalancingEnabled) {
+            currentRefresh = new AsyncRefresh(thisRefreshListeners, diskThresholdEnabled);
             return currentRefresh::execute;
         } else {
             return () -> {
@@ -387,7 +423,8 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
             indicesStatsSummary.shardSizes,
             indicesStatsSummary.shardDataSetSizes,
             indicesStatsSummary.shardRoutingToDataPath,
-            indicesStatsSummary.reservedSpace
+            indicesStatsSummary.reservedSpace,
+            indicesStatsSummary.shardWriteLoads
         );
     }
 
@@ -537,12 +574,14 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
         ImmutableOpenMap<String, Long> shardSizes,
         ImmutableOpenMap<ShardId, Long> shardDataSetSizes,
         ImmutableOpenMap<ShardRouting, String> shardRoutingToDataPath,
-        ImmutableOpenMap<ClusterInfo.NodeAndPath, ClusterInfo.ReservedSpace> reservedSpace
+        ImmutableOpenMap<ClusterInfo.NodeAndPath, ClusterInfo.ReservedSpace> reservedSpace,
+        ImmutableOpenMap<ShardId, Double> shardWriteLoads
     ) {
         static final IndicesStatsSummary EMPTY = new IndicesStatsSummary(
             ImmutableOpenMap.of(),
             ImmutableOpenMap.of(),
             ImmutableOpenMap.of(),
+            ImmutableOpenMap.of(),
             ImmutableOpenMap.of()
         );
 
@@ -0,0 +1,89 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster;
+
+import org.elasticsearch.action.admin.indices.stats.ShardStats;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
+import org.elasticsearch.index.shard.IndexingStats;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tracks the write load of the shards in the cluster from the total indexing time that each shard copy reports in successive
+ * indices stats. The write load of a shard copy over an interval is the indexing time that it spent between two samples divided
+ * by the time that elapsed between them, which is the average number of threads that were busy indexing into the copy. Each
+ * interval a shard observes the write load of its busiest copy, and its write load is the exponentially weighted moving average
+ * of these observations. The average is kept per shard rather than per copy so that a shard keeps its write load while its copies
+ * relocate or recover, until the new copies report a second sample of their own.
+ */
+final class WriteLoadTracker {
+
+    static final double ALPHA = 0.3;
+
+    private Map<String, Sample> previousSamples = Map.of();
+    private Map<ShardId, ExponentiallyWeightedMovingAverage> writeLoads = Map.of();
+
+    /**
+     * Records the indexing time of the shard copies in the given stats and returns the smoothed write load of each shard that had
+     * a copy in the stats and was observed at least once since. Shards without any copy in the stats are forgotten.
+     *
+     * @param stats             the shard level stats, with indexing stats
+     * @param relativeTimeMillis the relative time at which the stats were received
+     */
+    synchronized ImmutableOpenMap<ShardId, Double> onShardStats(ShardStats[] stats, long relativeTimeMillis) {
+        final Map<String, Sample> samples = new HashMap<>(stats.length);
+        final Map<ShardId, Double> observedWriteLoads = new HashMap<>();
+        for (ShardStats s : stats) {
+            final ShardRouting shardRouting = s.getShardRouting();
+            final IndexingStats indexingStats = s.getStats().getIndexing();
+            if (indexingStats == null || shardRouting.allocationId() == null) {
+                continue;
+            }
+            final String allocationId = shardRouting.allocationId().getId();
+            final Sample sample = new Sample(indexingStats.getTotal().getIndexTime().millis(), relativeTimeMillis);
+            samples.put(allocationId, sample);
+            observedWriteLoads.putIfAbsent(shardRouting.shardId(), null);
+            final Sample previous = previousSamples.get(allocationId);
+            // the indexing time goes backwards if the copy was closed and reopened on the same node, skip it until the next sample
+            if (previous != null
+                && sample.relativeTimeMillis > previous.relativeTimeMillis
+                && sample.indexTimeMillis >= previous.indexTimeMillis) {
+                final long indexTimeMillis = sample.indexTimeMillis - previous.indexTimeMillis;
+                final double writeLoad = (double) indexTimeMillis / (sample.relativeTimeMillis - previous.relativeTimeMillis);
+                observedWriteLoads.merge(shardRouting.shardId(), writeLoad, Math::max);
+            }
+        }
+
+        final Map<ShardId, ExponentiallyWeightedMovingAverage> newWriteLoads = new HashMap<>(observedWriteLoads.size());
+        final ImmutableOpenMap.Builder<ShardId, Double> result = ImmutableOpenMap.builder();
+        observedWriteLoads.forEach((shardId, observedWriteLoad) -> {
+            ExponentiallyWeightedMovingAverage writeLoad = writeLoads.get(shardId);
+            if (observedWriteLoad != null) {
+                if (writeLoad == null) {
+                    writeLoad = new ExponentiallyWeightedMovingAverage(ALPHA, observedWriteLoad);
+                } else {
+                    writeLoad.addValue(observedWriteLoad);
+                }
+            }
+            if (writeLoad != null) {
+                newWriteLoads.put(shardId, writeLoad);
+                result.put(shardId, writeLoad.getAverage());
+            }
+        });
+        previousSamples = samples;
+        writeLoads = newWriteLoads;
+        return result.build();
+    }
+
+    private record Sample(long indexTimeMillis, long relativeTimeMillis) {}
+}
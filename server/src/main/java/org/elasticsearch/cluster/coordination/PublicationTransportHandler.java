@@ -18,9 +18,12 @@ import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ClusterStatePublicationEvent;
 import org.elasticsearch.cluster.Diff;
 import org.elasticsearch.cluster.IncompatibleClusterStateVersionException;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.MappingMetadata;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodeRole;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.compress.CompressorFactory;
@@ -32,19 +35,28 @@ import org.elasticsearch.common.io.stream.PositionTrackingOutputStreamStreamOutp
 import org.elasticsearch.common.io.stream.RecyclerBytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.LazyInitializable;
+import org.elasticsearch.core.CheckedConsumer;
 import org.elasticsearch.core.AbstractRefCounted;
 import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.core.Tuple;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BytesTransportRequest;
 import org.elasticsearch.transport.TransportException;
 import org.elasticsearch.transport.TransportRequestOptions;
+import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -61,18 +73,35 @@ import static org.elasticsearch.core.Strings.format;
  * <p>
  * It also uses the {@link Diff} mechanism to reduce the data to be transferred wherever possible. This is only a best-effort mechanism so
  * we fall back to sending a full cluster state if the diff cannot be applied for some reason.
+ * <p>
+ * A full cluster state with many indices is sent in chunks to nodes that support it, so that the receiving node never has to hold the whole
+ * serialized state in memory: each chunk carries the metadata and routing tables of a batch of indices and is deserialized as soon as it
+ * arrives, and the last message carries the rest of the state.
  */
 public class PublicationTransportHandler {
 
     private static final Logger logger = LogManager.getLogger(PublicationTransportHandler.class);
 
     public static final String PUBLISH_STATE_ACTION_NAME = "internal:cluster/coordination/publish_state";
+    public static final String PUBLISH_STATE_CHUNK_ACTION_NAME = "internal:cluster/coordination/publish_state_chunk";
+
+    // the number of indices whose metadata and routing tables are sent in each chunk of a full cluster state
+    public static final Setting<Integer> PUBLISH_INDICES_PER_CHUNK_SETTING = Setting.intSetting(
+        "cluster.publish.indices_per_chunk",
+        1000,
+        1,
+        Setting.Property.NodeScope
+    );
+
+    static final Version CHUNKED_PUBLICATION_VERSION = Version.V_8_4_0;
 
     private final TransportService transportService;
     private final NamedWriteableRegistry namedWriteableRegistry;
     private final Function<PublishRequest, PublishWithJoinResponse> handlePublishRequest;
+    private final int indicesPerChunk;
 
     private final AtomicReference<ClusterState> lastSeenClusterState = new AtomicReference<>();
+    private final AtomicReference<ChunkedClusterStateReader> chunkedClusterStateReader = new AtomicReference<>();
 
     private final AtomicLong fullClusterStateReceivedCount = new AtomicLong();
     private final AtomicLong incompatibleClusterStateDiffReceivedCount = new AtomicLong();
@@ -87,6 +116,7 @@ public class PublicationTransportHandler {
     private final SerializationStatsTracker serializationStatsTracker = new SerializationStatsTracker();
 
     public PublicationTransportHandler(
+        Settings settings,
         TransportService transportService,
         NamedWriteableRegistry namedWriteableRegistry,
         Function<PublishRequest, PublishWithJoinResponse> handlePublishRequest
@@ -94,6 +124,7 @@ public class PublicationTransportHandler {
         this.transportService = transportService;
         this.namedWriteableRegistry = namedWriteableRegistry;
         this.handlePublishRequest = handlePublishRequest;
+        this.indicesPerChunk = PUBLISH_INDICES_PER_CHUNK_SETTING.get(settings);
 
         transportService.registerRequestHandler(
             PUBLISH_STATE_ACTION_NAME,
@@ -103,6 +134,14 @@ public class PublicationTransportHandler {
             BytesTransportRequest::new,
             (request, channel, task) -> channel.sendResponse(handleIncomingPublishRequest(request))
         );
+        transportService.registerRequestHandler(
+            PUBLISH_STATE_CHUNK_ACTION_NAME,
+            ThreadPool.Names.CLUSTER_COORDINATION,
+            false,
+            false,
+            BytesTransportRequest::new,
+            (request, channel, task) -> channel.sendResponse(handleIncomingPublishChunk(request))
+        );
     }
 
     public PublishClusterStateStats stats() {
@@ -114,21 +153,68 @@ public class PublicationTransportHandler {
         );
     }
 
-    private PublishWithJoinResponse handleIncomingPublishRequest(BytesTransportRequest request) throws IOException {
+    private StreamInput requestStreamInput(BytesTransportRequest request) throws IOException {
         final Compressor compressor = CompressorFactory.compressor(request.bytes());
         StreamInput in = request.bytes().streamInput();
-        try {
-            if (compressor != null) {
-                in = new InputStreamStreamInput(compressor.threadLocalInputStream(in));
+        if (compressor != null) {
+            in = new InputStreamStreamInput(compressor.threadLocalInputStream(in));
+        }
+        in = new NamedWriteableAwareStreamInput(in, namedWriteableRegistry);
+        in.setVersion(request.version());
+        return in;
+    }
+
+    private TransportResponse.Empty handleIncomingPublishChunk(BytesTransportRequest request) throws IOException {
+        try (StreamInput in = requestStreamInput(request)) {
+            final String stateUUID = in.readString();
+            final int chunk = in.readVInt();
+            final ChunkedClusterStateReader reader;
+            if (chunk == 0) {
+                reader = new ChunkedClusterStateReader(stateUUID);
+                chunkedClusterStateReader.set(reader);
+            } else {
+                reader = chunkedClusterStateReader.get();
+                if (reader == null || reader.stateUUID.equals(stateUUID) == false) {
+                    throw new IllegalStateException(
+                        "received chunk [" + chunk + "] of cluster state [" + stateUUID + "] without the chunks before it"
+                    );
+                }
             }
-            in = new NamedWriteableAwareStreamInput(in, namedWriteableRegistry);
-            in.setVersion(request.version());
+            reader.readChunk(chunk, in);
+            logger.trace("received chunk [{}] of cluster state [{}] with size [{}]", chunk, stateUUID, request.bytes().length());
+        }
+        return TransportResponse.Empty.INSTANCE;
+    }
+
+    private PublishWithJoinResponse handleIncomingPublishRequest(BytesTransportRequest request) throws IOException {
+        // the chunks of a full cluster state are only ever followed by the rest of that state, so drop any chunks of an earlier state
+        final ChunkedClusterStateReader chunkedReader = chunkedClusterStateReader.getAndSet(null);
+        StreamInput in = requestStreamInput(request);
+        try {
             // If true we received full cluster state - otherwise diffs
             if (in.readBoolean()) {
+                // If true the indices were sent ahead in chunks
+                final boolean chunked = in.getVersion().onOrAfter(CHUNKED_PUBLICATION_VERSION) && in.readBoolean();
+                if (chunked) {
+                    final String stateUUID = in.readString();
+                    final int chunks = in.readVInt();
+                    if (chunkedReader == null || chunkedReader.hasRead(stateUUID, chunks) == false) {
+                        throw new IllegalStateException("received cluster state [" + stateUUID + "] without its [" + chunks + "] chunks");
+                    }
+                }
                 final ClusterState incomingState;
                 // Close early to release resources used by the de-compression as early as possible
                 try (StreamInput input = in) {
-                    incomingState = ClusterState.readFrom(input, transportService.getLocalNode());
+                    if (chunked) {
+                        incomingState = ClusterState.readFromWithoutIndices(
+                            input,
+                            transportService.getLocalNode(),
+                            chunkedReader.indices,
+                            chunkedReader.indexRoutingTables
+                        );
+                    } else {
+                        incomingState = ClusterState.readFrom(input, transportService.getLocalNode());
+                    }
                 } catch (Exception e) {
                     logger.warn("unexpected error while deserializing an incoming cluster state", e);
                     assert false : e;
@@ -215,6 +301,9 @@ public class PublicationTransportHandler {
             ) {
                 stream.setVersion(nodeVersion);
                 stream.writeBoolean(true);
+                if (nodeVersion.onOrAfter(CHUNKED_PUBLICATION_VERSION)) {
+                    stream.writeBoolean(false);
+                }
                 clusterState.writeTo(stream);
                 uncompressedBytes = stream.position();
             } catch (IOException e) {
@@ -237,6 +326,117 @@ public class PublicationTransportHandler {
         }
     }
 
+    private boolean sendInChunks(ClusterState clusterState, DiscoveryNode node) {
+        return node.getVersion().onOrAfter(CHUNKED_PUBLICATION_VERSION) && clusterState.metadata().indices().size() > indicesPerChunk;
+    }
+
+    /**
+     * Serializes the given full cluster state into chunks of {@link #indicesPerChunk} index metadata and routing tables, followed by the
+     * publish request which carries the rest of the state.
+     */
+    private List<ReleasableBytesReference> serializeChunkedClusterState(ClusterState clusterState, DiscoveryNode node) {
+        final List<ReleasableBytesReference> messages = new ArrayList<>();
+        boolean success = false;
+        try {
+            final List<IndexMetadata> indices = new ArrayList<>(clusterState.metadata().indices().values());
+            final Set<String> remainingRoutingTables = new HashSet<>(clusterState.routingTable().indicesRouting().keySet());
+            final Set<String> sentMappings = new HashSet<>();
+            long uncompressedBytes = 0;
+            int compressedBytes = 0;
+            for (int start = 0; start < indices.size(); start += indicesPerChunk) {
+                final int chunk = messages.size();
+                final List<IndexMetadata> chunkIndices = indices.subList(start, Math.min(start + indicesPerChunk, indices.size()));
+                final List<MappingMetadata> chunkMappings = new ArrayList<>();
+                final List<IndexRoutingTable> chunkRoutingTables = new ArrayList<>();
+                for (IndexMetadata indexMetadata : chunkIndices) {
+                    final MappingMetadata mapping = indexMetadata.mapping();
+                    if (mapping != null && sentMappings.add(mapping.getSha256())) {
+                        chunkMappings.add(mapping);
+                    }
+                    final IndexRoutingTable indexRoutingTable = clusterState.routingTable().index(indexMetadata.getIndex());
+                    if (indexRoutingTable != null && remainingRoutingTables.remove(indexMetadata.getIndex().getName())) {
+                        chunkRoutingTables.add(indexRoutingTable);
+                    }
+                }
+                if (start + indicesPerChunk >= indices.size()) {
+                    // routing tables of indices without metadata should not exist, but send them with the last chunk just in case
+                    for (String index : remainingRoutingTables) {
+                        chunkRoutingTables.add(clusterState.routingTable().index(index));
+                    }
+                }
+                final Tuple<ReleasableBytesReference, Long> message = serializeCompressed(node, stream -> {
+                    stream.writeString(clusterState.stateUUID());
+                    stream.writeVInt(chunk);
+                    stream.writeCollection(chunkMappings);
+                    stream.writeVInt(chunkIndices.size());
+                    for (IndexMetadata indexMetadata : chunkIndices) {
+                        indexMetadata.writeTo(stream, true);
+                    }
+                    stream.writeCollection(chunkRoutingTables);
+                });
+                messages.add(message.v1());
+                uncompressedBytes += message.v2();
+                compressedBytes += message.v1().length();
+            }
+            final int chunks = messages.size();
+            final Tuple<ReleasableBytesReference, Long> message = serializeCompressed(node, stream -> {
+                stream.writeBoolean(true);
+                stream.writeBoolean(true);
+                stream.writeString(clusterState.stateUUID());
+                stream.writeVInt(chunks);
+                clusterState.writeToWithoutIndices(stream);
+            });
+            messages.add(message.v1());
+            uncompressedBytes += message.v2();
+            compressedBytes += message.v1().length();
+            serializationStatsTracker.serializedFullState(uncompressedBytes, compressedBytes);
+            logger.trace(
+                "serialized full cluster state version [{}] for node version [{}] in [{}] chunks with total size [{}]",
+                clusterState.version(),
+                node.getVersion(),
+                chunks,
+                compressedBytes
+            );
+            success = true;
+            return messages;
+        } finally {
+            if (success == false) {
+                Releasables.close(messages);
+            }
+        }
+    }
+
+    /**
+     * Serializes and compresses a message for the given node, returning the compressed bytes and the number of uncompressed bytes.
+     */
+    private Tuple<ReleasableBytesReference, Long> serializeCompressed(
+        DiscoveryNode node,
+        CheckedConsumer<StreamOutput, IOException> writer
+    ) {
+        final RecyclerBytesStreamOutput bytesStream = transportService.newNetworkBytesStream();
+        boolean success = false;
+        try {
+            final long uncompressedBytes;
+            try (
+                StreamOutput stream = new PositionTrackingOutputStreamStreamOutput(
+                    CompressorFactory.COMPRESSOR.threadLocalOutputStream(Streams.flushOnCloseStream(bytesStream))
+                )
+            ) {
+                stream.setVersion(node.getVersion());
+                writer.accept(stream);
+                uncompressedBytes = stream.position();
+            } catch (IOException e) {
+                throw new ElasticsearchException("failed to serialize cluster state for publishing to node {}", e, node);
+            }
+            success = true;
+            return Tuple.tuple(new ReleasableBytesReference(bytesStream.bytes(), bytesStream), uncompressedBytes);
+        } finally {
+            if (success == false) {
+                bytesStream.close();
+            }
+        }
+    }
+
     private ReleasableBytesReference serializeDiffClusterState(long clusterStateVersion, Diff<ClusterState> diff, DiscoveryNode node) {
         final Version nodeVersion = node.getVersion();
         final RecyclerBytesStreamOutput bytesStream = transportService.newNetworkBytesStream();
@@ -289,6 +489,7 @@ public class PublicationTransportHandler {
         // All the values of these maps have one ref for the context (while it's open) and one for each in-flight message.
         private final Map<Version, ReleasableBytesReference> serializedStates = new ConcurrentHashMap<>();
         private final Map<Version, ReleasableBytesReference> serializedDiffs = new HashMap<>();
+        private final Map<Version, List<ReleasableBytesReference>> serializedChunkedStates = new ConcurrentHashMap<>();
 
         PublicationContext(ClusterStatePublicationEvent clusterStatePublicationEvent) {
             discoveryNodes = clusterStatePublicationEvent.getNewState().nodes();
@@ -308,7 +509,11 @@ public class PublicationTransportHandler {
                     continue;
                 }
                 if (sendFullVersion || previousState.nodes().nodeExists(node) == false) {
-                    serializedStates.computeIfAbsent(node.getVersion(), v -> serializeFullClusterState(newState, node));
+                    if (sendInChunks(newState, node)) {
+                        serializedChunkedStates.computeIfAbsent(node.getVersion(), v -> serializeChunkedClusterState(newState, node));
+                    } else {
+                        serializedStates.computeIfAbsent(node.getVersion(), v -> serializeFullClusterState(newState, node));
+                    }
                 } else {
                     serializedDiffs.computeIfAbsent(
                         node.getVersion(),
@@ -362,6 +567,10 @@ public class PublicationTransportHandler {
 
         private void sendFullClusterState(DiscoveryNode destination, ActionListener<PublishWithJoinResponse> listener) {
             assert refCount() > 0;
+            if (sendInChunks(newState, destination)) {
+                sendChunkedClusterState(destination, listener);
+                return;
+            }
             ReleasableBytesReference bytes = serializedStates.get(destination.getVersion());
             if (bytes == null) {
                 try {
@@ -378,6 +587,70 @@ public class PublicationTransportHandler {
             sendClusterState(destination, bytes, listener);
         }
 
+        private void sendChunkedClusterState(DiscoveryNode destination, ActionListener<PublishWithJoinResponse> listener) {
+            List<ReleasableBytesReference> messages = serializedChunkedStates.get(destination.getVersion());
+            if (messages == null) {
+                try {
+                    messages = serializedChunkedStates.computeIfAbsent(
+                        destination.getVersion(),
+                        v -> serializeChunkedClusterState(newState, destination)
+                    );
+                } catch (Exception e) {
+                    logger.warn(() -> format("failed to serialize cluster state before publishing it to node %s", destination), e);
+                    listener.onFailure(e);
+                    return;
+                }
+            }
+
+            // acquire a ref to the context while the chunks are sent one after the other
+            if (tryIncRef() == false) {
+                assert false;
+                listener.onFailure(new IllegalStateException("publication context released before transmission"));
+                return;
+            }
+            sendChunk(destination, messages, 0, ActionListener.runAfter(listener, this::decRef));
+        }
+
+        private void sendChunk(
+            DiscoveryNode destination,
+            List<ReleasableBytesReference> messages,
+            int chunk,
+            ActionListener<PublishWithJoinResponse> listener
+        ) {
+            assert refCount() > 0;
+            final ReleasableBytesReference bytes = messages.get(chunk);
+            if (chunk == messages.size() - 1) {
+                // the last message is the publish request that carries the rest of the state
+                sendClusterState(destination, bytes, listener);
+                return;
+            }
+            if (bytes.tryIncRef() == false) {
+                assert false;
+                listener.onFailure(new IllegalStateException("serialized cluster state released before transmission"));
+                return;
+            }
+            try {
+                transportService.sendRequest(
+                    destination,
+                    PUBLISH_STATE_CHUNK_ACTION_NAME,
+                    new BytesTransportRequest(bytes, destination.getVersion()),
+                    STATE_REQUEST_OPTIONS,
+                    new ActionListenerResponseHandler<>(
+                        ActionListener.runAfter(
+                            listener.<TransportResponse.Empty>delegateFailure((l, r) -> sendChunk(destination, messages, chunk + 1, l)),
+                            bytes::decRef
+                        ),
+                        in -> TransportResponse.Empty.INSTANCE,
+                        ThreadPool.Names.CLUSTER_COORDINATION
+                    )
+                );
+            } catch (Exception e) {
+                assert false : e;
+                logger.warn(() -> format("error sending cluster state chunk to %s", destination), e);
+                listener.onFailure(e);
+            }
+        }
+
         private void sendClusterStateDiff(DiscoveryNode destination, ActionListener<PublishWithJoinResponse> listener) {
             final ReleasableBytesReference bytes = serializedDiffs.get(destination.getVersion());
             assert bytes != null
@@ -443,6 +716,45 @@ public class PublicationTransportHandler {
         protected void closeInternal() {
             serializedDiffs.values().forEach(Releasables::closeExpectNoException);
             serializedStates.values().forEach(Releasables::closeExpectNoException);
+            serializedChunkedStates.values().forEach(Releasables::close);
+        }
+    }
+
+    /**
+     * Accumulates the index metadata and routing tables of a full cluster state that is received in chunks, until the publish request
+     * with the rest of the state arrives.
+     */
+    private static class ChunkedClusterStateReader {
+
+        private final String stateUUID;
+        private final Map<String, MappingMetadata> mappingsByHash = new HashMap<>();
+        private final List<IndexMetadata> indices = new ArrayList<>();
+        private final List<IndexRoutingTable> indexRoutingTables = new ArrayList<>();
+        private int chunksRead;
+
+        ChunkedClusterStateReader(String stateUUID) {
+            this.stateUUID = stateUUID;
+        }
+
+        synchronized void readChunk(int chunk, StreamInput in) throws IOException {
+            if (chunk != chunksRead) {
+                throw new IllegalStateException(
+                    "expected chunk [" + chunksRead + "] of cluster state [" + stateUUID + "] but received chunk [" + chunk + "]"
+                );
+            }
+            for (MappingMetadata mapping : in.readList(MappingMetadata::new)) {
+                mappingsByHash.put(mapping.getSha256(), mapping);
+            }
+            final int size = in.readVInt();
+            for (int i = 0; i < size; i++) {
+                indices.add(IndexMetadata.readFrom(in, mappingsByHash::get));
+            }
+            indexRoutingTables.addAll(in.readList(IndexRoutingTable::readFrom));
+            chunksRead += 1;
+        }
+
+        synchronized boolean hasRead(String stateUUID, int chunks) {
+            return this.stateUUID.equals(stateUUID) && chunksRead == chunks;
         }
     }
 
@@ -478,6 +478,7 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
     static final String KEY_SETTINGS = "settings";
     static final String KEY_STATE = "state";
     static final String KEY_MAPPINGS = "mappings";
+    static final String KEY_MAPPINGS_HASH = "mappings_hash";
     static final String KEY_ALIASES = "aliases";
     static final String KEY_ROLLOVER_INFOS = "rollover_info";
     static final String KEY_SYSTEM = "system";
@@ -486,6 +487,12 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
 
     public static final String INDEX_STATE_FILE_PREFIX = "state-";
 
+    /**
+     * If set to {@code true} in the params of a non-API {@link #toXContent} call, the mapping is not written out in full but only
+     * referenced by its hash. Such content must be read back with {@link Builder#fromXContent(XContentParser, Map)}.
+     */
+    public static final String DEDUPLICATED_MAPPINGS_PARAM = "deduplicated_mappings";
+
     static final Version SYSTEM_INDEX_FLAG_ADDED = Version.V_7_10_0;
 
     private final int routingNumShards;
@@ -1817,16 +1824,21 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
             builder.endObject();
 
             if (context != Metadata.XContentContext.API) {
-                builder.startArray(KEY_MAPPINGS);
                 MappingMetadata mmd = indexMetadata.mapping();
-                if (mmd != null) {
-                    if (binary) {
-                        builder.value(mmd.source().compressed());
-                    } else {
-                        mmd.source().copyTo(builder);
+                if (mmd != null && params.paramAsBoolean(DEDUPLICATED_MAPPINGS_PARAM, false)) {
+                    // the mapping source is stored once per distinct hash by the caller
+                    builder.field(KEY_MAPPINGS_HASH, mmd.getSha256());
+                } else {
+                    builder.startArray(KEY_MAPPINGS);
+                    if (mmd != null) {
+                        if (binary) {
+                            builder.value(mmd.source().compressed());
+                        } else {
+                            mmd.source().copyTo(builder);
+                        }
                     }
+                    builder.endArray();
                 }
-                builder.endArray();
             } else {
                 builder.startObject(KEY_MAPPINGS);
                 MappingMetadata mmd = indexMetadata.mapping();
@@ -1897,6 +1909,15 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
         }
 
         public static IndexMetadata fromXContent(XContentParser parser) throws IOException {
+            return fromXContent(parser, null);
+        }
+
+        /**
+         * Parses index metadata, resolving a mapping that was written by hash (see {@link IndexMetadata#DEDUPLICATED_MAPPINGS_PARAM})
+         * against the given mappings.
+         */
+        public static IndexMetadata fromXContent(XContentParser parser, @Nullable Map<String, MappingMetadata> mappingsByHash)
+            throws IOException {
             if (parser.currentToken() == null) { // fresh parser? move to the first token
                 parser.nextToken();
             }
@@ -2012,6 +2033,13 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
                         }
                         case KEY_ROUTING_NUM_SHARDS -> builder.setRoutingNumShards(parser.intValue());
                         case KEY_SYSTEM -> builder.system(parser.booleanValue());
+                        case KEY_MAPPINGS_HASH -> {
+                            final MappingMetadata mapping = mappingsByHash == null ? null : mappingsByHash.get(parser.text());
+                            if (mapping == null) {
+                                throw new IllegalArgumentException("mapping with hash [" + parser.text() + "] not found");
+                            }
+                            builder.putMapping(mapping);
+                        }
                         default -> throw new IllegalArgumentException("Unexpected field [" + currentFieldName + "]");
                     }
                 } else {
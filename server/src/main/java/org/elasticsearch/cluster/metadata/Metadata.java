@@ -54,6 +54,7 @@ import java.io.IOException;
 import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
@@ -1153,6 +1154,17 @@ public class Metadata extends AbstractCollection<IndexMetadata> implements Diffa
     public static final Version MAPPINGS_AS_HASH_VERSION = Version.V_8_1_0;
 
     public static Metadata readFrom(StreamInput in) throws IOException {
+        return readFrom(in, null);
+    }
+
+    /**
+     * Reads metadata that was written by {@link #writeToWithoutIndices} and adds the given indices to it.
+     */
+    public static Metadata readFromWithoutIndices(StreamInput in, Collection<IndexMetadata> indices) throws IOException {
+        return readFrom(in, Objects.requireNonNull(indices));
+    }
+
+    private static Metadata readFrom(StreamInput in, @Nullable Collection<IndexMetadata> indices) throws IOException {
         Builder builder = new Builder();
         builder.version = in.readLong();
         builder.clusterUUID = in.readString();
@@ -1163,22 +1175,28 @@ public class Metadata extends AbstractCollection<IndexMetadata> implements Diffa
         if (in.getVersion().onOrAfter(Version.V_7_3_0)) {
             builder.hashesOfConsistentSettings(DiffableStringMap.readFrom(in));
         }
-        final Function<String, MappingMetadata> mappingLookup;
-        if (in.getVersion().onOrAfter(MAPPINGS_AS_HASH_VERSION)) {
-            final Map<String, MappingMetadata> mappingMetadataMap = in.readMapValues(MappingMetadata::new, MappingMetadata::getSha256);
-            if (mappingMetadataMap.size() > 0) {
-                mappingLookup = mappingMetadataMap::get;
+        if (indices == null) {
+            final Function<String, MappingMetadata> mappingLookup;
+            if (in.getVersion().onOrAfter(MAPPINGS_AS_HASH_VERSION)) {
+                final Map<String, MappingMetadata> mappingMetadataMap = in.readMapValues(MappingMetadata::new, MappingMetadata::getSha256);
+                if (mappingMetadataMap.size() > 0) {
+                    mappingLookup = mappingMetadataMap::get;
+                } else {
+                    mappingLookup = null;
+                }
             } else {
                 mappingLookup = null;
             }
+            int size = in.readVInt();
+            for (int i = 0; i < size; i++) {
+                builder.put(IndexMetadata.readFrom(in, mappingLookup), false);
+            }
         } else {
-            mappingLookup = null;
+            for (IndexMetadata indexMetadata : indices) {
+                builder.put(indexMetadata, false);
+            }
         }
         int size = in.readVInt();
-        for (int i = 0; i < size; i++) {
-            builder.put(IndexMetadata.readFrom(in, mappingLookup), false);
-        }
-        size = in.readVInt();
         for (int i = 0; i < size; i++) {
             builder.put(IndexTemplateMetadata.readFrom(in));
         }
@@ -1193,6 +1211,18 @@ public class Metadata extends AbstractCollection<IndexMetadata> implements Diffa
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
+        writeTo(out, true);
+    }
+
+    /**
+     * Writes this metadata like {@link #writeTo(StreamOutput)} but without its indices, for callers that send the indices separately.
+     * Read it back with {@link #readFromWithoutIndices}.
+     */
+    public void writeToWithoutIndices(StreamOutput out) throws IOException {
+        writeTo(out, false);
+    }
+
+    private void writeTo(StreamOutput out, boolean writeIndices) throws IOException {
         out.writeLong(version);
         out.writeString(clusterUUID);
         out.writeBoolean(clusterUUIDCommitted);
@@ -1204,13 +1234,15 @@ public class Metadata extends AbstractCollection<IndexMetadata> implements Diffa
         }
         // Starting in #MAPPINGS_AS_HASH_VERSION we write the mapping metadata first and then write the indices without metadata so that
         // we avoid writing duplicate mappings twice
-        if (out.getVersion().onOrAfter(MAPPINGS_AS_HASH_VERSION)) {
-            out.writeMapValues(mappingsByHash);
-        }
-        out.writeVInt(indices.size());
-        final boolean writeMappingsHash = out.getVersion().onOrAfter(MAPPINGS_AS_HASH_VERSION);
-        for (IndexMetadata indexMetadata : this) {
-            indexMetadata.writeTo(out, writeMappingsHash);
+        if (writeIndices) {
+            if (out.getVersion().onOrAfter(MAPPINGS_AS_HASH_VERSION)) {
+                out.writeMapValues(mappingsByHash);
+            }
+            out.writeVInt(indices.size());
+            final boolean writeMappingsHash = out.getVersion().onOrAfter(MAPPINGS_AS_HASH_VERSION);
+            for (IndexMetadata indexMetadata : this) {
+                indexMetadata.writeTo(out, writeMappingsHash);
+            }
         }
         out.writeCollection(templates.values());
         VersionedNamedWriteable.writeVersionedWritables(out, customs);
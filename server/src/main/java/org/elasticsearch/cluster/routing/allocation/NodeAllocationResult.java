@@ -9,6 +9,7 @@
 package org.elasticsearch.cluster.routing.allocation;
 
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.allocation.decider.Decision;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -30,6 +31,8 @@ import static org.elasticsearch.cluster.routing.allocation.AbstractAllocationDec
  */
 public class NodeAllocationResult implements ToXContentObject, Writeable, Comparable<NodeAllocationResult> {
 
+    public static final Version WEIGHT_BREAKDOWN_VERSION = Version.V_8_4_0;
+
     private static final Comparator<NodeAllocationResult> nodeResultComparator = Comparator.comparing(NodeAllocationResult::getNodeDecision)
         .thenComparingInt(NodeAllocationResult::getWeightRanking)
         .thenComparing(r -> r.getNode().getId());
@@ -41,6 +44,8 @@ public class NodeAllocationResult implements ToXContentObject, Writeable, Compar
     @Nullable
     private final Decision canAllocateDecision;
     private final int weightRanking;
+    @Nullable
+    private final WeightBreakdown weightBreakdown;
 
     public NodeAllocationResult(DiscoveryNode node, ShardStoreInfo shardStoreInfo, @Nullable Decision decision) {
         this.node = node;
@@ -48,22 +53,34 @@ public class NodeAllocationResult implements ToXContentObject, Writeable, Compar
         this.canAllocateDecision = decision;
         this.nodeDecision = decision != null ? AllocationDecision.fromDecisionType(canAllocateDecision.type()) : AllocationDecision.NO;
         this.weightRanking = 0;
+        this.weightBreakdown = null;
     }
 
     public NodeAllocationResult(DiscoveryNode node, AllocationDecision nodeDecision, Decision canAllocate, int weightRanking) {
+        this(node, nodeDecision, canAllocate, weightRanking, null);
+    }
+
+    public NodeAllocationResult(
+        DiscoveryNode node,
+        AllocationDecision nodeDecision,
+        Decision canAllocate,
+        int weightRanking,
+        @Nullable WeightBreakdown weightBreakdown
+    ) {
         this.node = node;
         this.shardStoreInfo = null;
         this.canAllocateDecision = canAllocate;
         this.nodeDecision = nodeDecision;
         this.weightRanking = weightRanking;
+        this.weightBreakdown = weightBreakdown;
     }
 
     public NodeAllocationResult(DiscoveryNode node, Decision decision, int weightRanking) {
-        this.node = node;
-        this.shardStoreInfo = null;
-        this.canAllocateDecision = decision;
-        this.nodeDecision = AllocationDecision.fromDecisionType(decision.type());
-        this.weightRanking = weightRanking;
+        this(node, decision, weightRanking, null);
+    }
+
+    public NodeAllocationResult(DiscoveryNode node, Decision decision, int weightRanking, @Nullable WeightBreakdown weightBreakdown) {
+        this(node, AllocationDecision.fromDecisionType(decision.type()), decision, weightRanking, weightBreakdown);
     }
 
     public NodeAllocationResult(StreamInput in) throws IOException {
@@ -72,6 +89,11 @@ public class NodeAllocationResult implements ToXContentObject, Writeable, Compar
         canAllocateDecision = in.readOptionalWriteable(Decision::readFrom);
         nodeDecision = AllocationDecision.readFrom(in);
         weightRanking = in.readVInt();
+        if (in.getVersion().onOrAfter(WEIGHT_BREAKDOWN_VERSION)) {
+            weightBreakdown = in.readOptionalWriteable(WeightBreakdown::new);
+        } else {
+            weightBreakdown = null;
+        }
     }
 
     @Override
@@ -81,6 +103,9 @@ public class NodeAllocationResult implements ToXContentObject, Writeable, Compar
         out.writeOptionalWriteable(canAllocateDecision);
         nodeDecision.writeTo(out);
         out.writeVInt(weightRanking);
+        if (out.getVersion().onOrAfter(WEIGHT_BREAKDOWN_VERSION)) {
+            out.writeOptionalWriteable(weightBreakdown);
+        }
     }
 
     /**
@@ -128,6 +153,14 @@ public class NodeAllocationResult implements ToXContentObject, Writeable, Compar
         return weightRanking;
     }
 
+    /**
+     * The components of the weight of the node for holding the shard, or {@code null} if they were not recorded.
+     */
+    @Nullable
+    public WeightBreakdown getWeightBreakdown() {
+        return weightBreakdown;
+    }
+
     /**
      * Gets the {@link AllocationDecision} for allocating to this node.
      */
@@ -147,6 +180,9 @@ public class NodeAllocationResult implements ToXContentObject, Writeable, Compar
             if (isWeightRanked()) {
                 builder.field("weight_ranking", getWeightRanking());
             }
+            if (weightBreakdown != null) {
+                weightBreakdown.toXContent(builder, params);
+            }
             if (canAllocateDecision != null && canAllocateDecision.getDecisions().isEmpty() == false) {
                 builder.startArray("deciders");
                 canAllocateDecision.toXContent(builder, params);
@@ -279,4 +315,85 @@ public class NodeAllocationResult implements ToXContentObject, Writeable, Compar
         }
     }
 
+    /**
+     * The components of the weight of a node for holding a shard, as computed by the balancer. Each component is already
+     * multiplied by its balance factor, so that the components add up to the total weight. A lower weight is better.
+     */
+    public static final class WeightBreakdown implements ToXContentFragment, Writeable {
+        private final float shardBalance;
+        private final float indexBalance;
+        private final float writeLoadBalance;
+        private final float diskUsageBalance;
+
+        public WeightBreakdown(float shardBalance, float indexBalance, float writeLoadBalance, float diskUsageBalance) {
+            this.shardBalance = shardBalance;
+            this.indexBalance = indexBalance;
+            this.writeLoadBalance = writeLoadBalance;
+            this.diskUsageBalance = diskUsageBalance;
+        }
+
+        public WeightBreakdown(StreamInput in) throws IOException {
+            this.shardBalance = in.readFloat();
+            this.indexBalance = in.readFloat();
+            this.writeLoadBalance = in.readFloat();
+            this.diskUsageBalance = in.readFloat();
+        }
+
+        /**
+         * The total weight of the node.
+         */
+        public float getWeight() {
+            return shardBalance + indexBalance + writeLoadBalance + diskUsageBalance;
+        }
+
+        /**
+         * The component of the weight for the number of shards on the node.
+         */
+        public float getShardBalance() {
+            return shardBalance;
+        }
+
+        /**
+         * The component of the weight for the number of shards of the index on the node.
+         */
+        public float getIndexBalance() {
+            return indexBalance;
+        }
+
+        /**
+         * The component of the weight for the write load of the shards on the node.
+         */
+        public float getWriteLoadBalance() {
+            return writeLoadBalance;
+        }
+
+        /**
+         * The component of the weight for the size of the shards on the node.
+         */
+        public float getDiskUsageBalance() {
+            return diskUsageBalance;
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeFloat(shardBalance);
+            out.writeFloat(indexBalance);
+            out.writeFloat(writeLoadBalance);
+            out.writeFloat(diskUsageBalance);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject("weight");
+            {
+                builder.field("total", getWeight());
+                builder.field("shard_balance", shardBalance);
+                builder.field("index_balance", indexBalance);
+                builder.field("write_load_balance", writeLoadBalance);
+                builder.field("disk_usage_balance", diskUsageBalance);
+            }
+            builder.endObject();
+            return builder;
+        }
+    }
 }
@@ -59,6 +59,8 @@ public class RoutingAllocation {
 
     private boolean hasPendingAsyncFetch = false;
 
+    private boolean isSimulating = false;
+
     private final long currentNanoTime;
 
     private final IndexMetadataUpdater indexMetadataUpdater = new IndexMetadataUpdater();
@@ -125,6 +127,14 @@ public class RoutingAllocation {
         return this.deciders;
     }
 
+    /**
+     * Get the cluster state before rerouting
+     * @return cluster state before rerouting
+     */
+    public ClusterState getClusterState() {
+        return clusterState;
+    }
+
     /**
      * Get routing table of current nodes
      * @return current routing table
@@ -319,6 +329,22 @@ public class RoutingAllocation {
         this.hasPendingAsyncFetch = true;
     }
 
+    /**
+     * Returns {@code true} iff this allocation runs on a copy of the routing nodes to simulate where the shards should be allocated,
+     * instead of actually allocating them, see {@link #setSimulating()}.
+     */
+    public boolean isSimulating() {
+        return isSimulating;
+    }
+
+    /**
+     * Marks this allocation as a simulation of the allocation of the shards, in which the shards are started without any recovery so
+     * that the deciders which only throttle recoveries should not hold back any allocation.
+     */
+    public void setSimulating() {
+        this.isSimulating = true;
+    }
+
     public enum DebugMode {
         /**
          * debug mode is off
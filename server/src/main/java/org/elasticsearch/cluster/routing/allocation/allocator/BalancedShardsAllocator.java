@@ -12,6 +12,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.IntroSorter;
+import org.elasticsearch.cluster.ClusterInfo;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.cluster.metadata.SingleNodeShutdownMetadata;
@@ -25,6 +26,7 @@ import org.elasticsearch.cluster.routing.allocation.AllocateUnassignedDecision;
 import org.elasticsearch.cluster.routing.allocation.AllocationDecision;
 import org.elasticsearch.cluster.routing.allocation.MoveDecision;
 import org.elasticsearch.cluster.routing.allocation.NodeAllocationResult;
+import org.elasticsearch.cluster.routing.allocation.NodeAllocationResult.WeightBreakdown;
 import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
 import org.elasticsearch.cluster.routing.allocation.ShardAllocationDecision;
 import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
@@ -36,6 +38,7 @@ import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.gateway.PriorityComparator;
 
@@ -55,12 +58,16 @@ import static org.elasticsearch.cluster.routing.ShardRoutingState.RELOCATING;
 
 /**
  * The {@link BalancedShardsAllocator} re-balances the nodes allocations
- * within an cluster based on a {@link WeightFunction}. The clusters balance is defined by four parameters which can be set
+ * within an cluster based on a {@link WeightFunction}. The clusters balance is defined by five parameters which can be set
  * in the cluster update API that allows changes in real-time:
  * <ul><li><code>cluster.routing.allocation.balance.shard</code> - The <b>shard balance</b> defines the weight factor
  * for shards allocated on a {@link RoutingNode}</li>
  * <li><code>cluster.routing.allocation.balance.index</code> - The <b>index balance</b> defines a factor to the number
  * of {@link org.elasticsearch.cluster.routing.ShardRouting}s per index allocated on a specific node</li>
+ * <li><code>cluster.routing.allocation.balance.write_load</code> - The <b>write load balance</b> defines a factor to the
+ * write load of the shards allocated on a specific node, see {@link ClusterInfo#getShardWriteLoad}</li>
+ * <li><code>cluster.routing.allocation.balance.disk_usage</code> - The <b>disk usage balance</b> defines a factor to the
+ * size of the shards allocated on a specific node, measured in average shard sizes</li>
  * <li><code>cluster.routing.allocation.balance.threshold</code> - A <b>threshold</b> to set the minimal optimization
  * value of operations that should be performed</li>
  * </ul>
@@ -86,6 +93,20 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         Property.Dynamic,
         Property.NodeScope
     );
+    public static final Setting<Float> WRITE_LOAD_BALANCE_FACTOR_SETTING = Setting.floatSetting(
+        "cluster.routing.allocation.balance.write_load",
+        0.0f,
+        0.0f,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+    public static final Setting<Float> DISK_USAGE_BALANCE_FACTOR_SETTING = Setting.floatSetting(
+        "cluster.routing.allocation.balance.disk_usage",
+        0.0f,
+        0.0f,
+        Property.Dynamic,
+        Property.NodeScope
+    );
     public static final Setting<Float> THRESHOLD_SETTING = Setting.floatSetting(
         "cluster.routing.allocation.balance.threshold",
         1.0f,
@@ -103,14 +124,27 @@ public class BalancedShardsAllocator implements ShardsAllocator {
 
     @Inject
     public BalancedShardsAllocator(Settings settings, ClusterSettings clusterSettings) {
-        setWeightFunction(INDEX_BALANCE_FACTOR_SETTING.get(settings), SHARD_BALANCE_FACTOR_SETTING.get(settings));
+        setWeightFunction(settings);
         setThreshold(THRESHOLD_SETTING.get(settings));
-        clusterSettings.addSettingsUpdateConsumer(INDEX_BALANCE_FACTOR_SETTING, SHARD_BALANCE_FACTOR_SETTING, this::setWeightFunction);
+        clusterSettings.addSettingsUpdateConsumer(
+            this::setWeightFunction,
+            List.of(
+                INDEX_BALANCE_FACTOR_SETTING,
+                SHARD_BALANCE_FACTOR_SETTING,
+                WRITE_LOAD_BALANCE_FACTOR_SETTING,
+                DISK_USAGE_BALANCE_FACTOR_SETTING
+            )
+        );
         clusterSettings.addSettingsUpdateConsumer(THRESHOLD_SETTING, this::setThreshold);
     }
 
-    private void setWeightFunction(float indexBalance, float shardBalanceFactor) {
-        weightFunction = new WeightFunction(indexBalance, shardBalanceFactor);
+    private void setWeightFunction(Settings settings) {
+        weightFunction = new WeightFunction(
+            INDEX_BALANCE_FACTOR_SETTING.get(settings),
+            SHARD_BALANCE_FACTOR_SETTING.get(settings),
+            WRITE_LOAD_BALANCE_FACTOR_SETTING.get(settings),
+            DISK_USAGE_BALANCE_FACTOR_SETTING.get(settings)
+        );
     }
 
     private void setThreshold(float threshold) {
@@ -129,6 +163,20 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         balancer.balance();
     }
 
+    /**
+     * Allocates the unassigned shards and moves the shards that can no longer remain on their nodes like {@link #allocate} does, but
+     * leaves the rebalancing of the shards to the caller, see {@link DesiredBalanceShardsAllocator}.
+     */
+    void allocateUnassignedAndMoveShards(RoutingAllocation allocation) {
+        if (allocation.routingNodes().size() == 0) {
+            failAllocationOfNewPrimaries(allocation);
+            return;
+        }
+        final Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold);
+        balancer.allocateUnassigned();
+        balancer.moveShards();
+    }
+
     @Override
     public ShardAllocationDecision decideShardAllocation(final ShardRouting shard, final RoutingAllocation allocation) {
         Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold);
@@ -195,12 +243,28 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         return weightFunction.shardBalance;
     }
 
+    /**
+     * Returns the write load related weight factor.
+     */
+    public float getWriteLoadBalance() {
+        return weightFunction.writeLoadBalance;
+    }
+
+    /**
+     * Returns the disk usage related weight factor.
+     */
+    public float getDiskUsageBalance() {
+        return weightFunction.diskUsageBalance;
+    }
+
     /**
      * This class is the primary weight function used to create balanced over nodes and shards in the cluster.
-     * Currently this function has 3 properties:
+     * Currently this function has 4 properties:
      * <ul>
      * <li><code>index balance</code> - balance property over shards per index</li>
      * <li><code>shard balance</code> - balance property over shards per cluster</li>
+     * <li><code>write load balance</code> - balance property over the write load of the shards per cluster</li>
+     * <li><code>disk usage balance</code> - balance property over the size of the shards per cluster</li>
      * </ul>
      * <p>
      * Each of these properties are expressed as factor such that the properties factor defines the relative
@@ -216,31 +280,101 @@ public class BalancedShardsAllocator implements ShardsAllocator {
      * <li>
      * <code>weight<sub>node</sub>(node, index) = shardBalance * (node.numShards() - avgShardsPerNode)</code>
      * </li>
+     * <li>
+     * <code>weight<sub>writeLoad</sub>(node, index) = writeLoadBalance * (node.writeLoad() - avgWriteLoadPerNode)</code>
+     * </li>
+     * <li>
+     * <code>weight<sub>diskUsage</sub>(node, index) = diskUsageBalance * (node.diskUsageInBytes() - avgDiskUsageInBytesPerNode)
+     * / avgShardSizeInBytes</code>
+     * </li>
      * </ul>
-     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index)</code>
+     * Dividing the disk usage by the average size of a shard expresses it in shards, like the index and shard balance, so that
+     * the disk usage balance is comparable to the other factors and to the threshold.
+     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index)
+     * + weight<sub>writeLoad</sub>(node, index) + weight<sub>diskUsage</sub>(node, index)</code>
      */
     private static class WeightFunction {
 
         private final float indexBalance;
         private final float shardBalance;
+        private final float writeLoadBalance;
+        private final float diskUsageBalance;
         private final float theta0;
         private final float theta1;
+        private final float theta2;
+        private final float theta3;
 
-        WeightFunction(float indexBalance, float shardBalance) {
-            float sum = indexBalance + shardBalance;
+        WeightFunction(float indexBalance, float shardBalance, float writeLoadBalance, float diskUsageBalance) {
+            float sum = indexBalance + shardBalance + writeLoadBalance + diskUsageBalance;
             if (sum <= 0.0f) {
                 throw new IllegalArgumentException("Balance factors must sum to a value > 0 but was: " + sum);
             }
             theta0 = shardBalance / sum;
             theta1 = indexBalance / sum;
+            theta2 = writeLoadBalance / sum;
+            theta3 = diskUsageBalance / sum;
             this.indexBalance = indexBalance;
             this.shardBalance = shardBalance;
+            this.writeLoadBalance = writeLoadBalance;
+            this.diskUsageBalance = diskUsageBalance;
+        }
+
+        /**
+         * Whether the weights depend on the write load and size of the shards, rather than only on their number.
+         */
+        boolean isLoadAware() {
+            return theta2 > 0.0f || theta3 > 0.0f;
         }
 
         float weight(Balancer balancer, ModelNode node, String index) {
-            final float weightShard = node.numShards() - balancer.avgShardsPerNode();
-            final float weightIndex = node.numShards(index) - balancer.avgShardsPerNode(index);
-            return theta0 * weightShard + theta1 * weightIndex;
+            return weight(balancer, node, index, 0, 0.0, 0L);
+        }
+
+        /**
+         * Returns the weight of the given node if the given shard was relocated to it ({@code shardDelta} 1) or away from it
+         * ({@code shardDelta} -1), including the write load and the size of that shard.
+         */
+        float weightWithShard(Balancer balancer, ModelNode node, ShardRouting shard, int shardDelta) {
+            double writeLoadDelta = 0.0;
+            long diskUsageInBytesDelta = 0L;
+            if (isLoadAware()) {
+                final ClusterInfo clusterInfo = balancer.allocation.clusterInfo();
+                writeLoadDelta = shardDelta * clusterInfo.getShardWriteLoad(shard.shardId());
+                diskUsageInBytesDelta = shardDelta * clusterInfo.getShardSize(shard, 0L);
+            }
+            return weight(balancer, node, shard.getIndexName(), shardDelta, writeLoadDelta, diskUsageInBytesDelta);
+        }
+
+        private float weight(
+            Balancer balancer,
+            ModelNode node,
+            String index,
+            int shardDelta,
+            double writeLoadDelta,
+            long diskUsageInBytesDelta
+        ) {
+            final float weightShard = node.numShards() + shardDelta - balancer.avgShardsPerNode();
+            final float weightIndex = node.numShards(index) + shardDelta - balancer.avgShardsPerNode(index);
+            float weight = theta0 * weightShard + theta1 * weightIndex;
+            if (theta2 > 0.0f) {
+                weight += theta2 * (float) (node.writeLoad() + writeLoadDelta - balancer.avgWriteLoadPerNode());
+            }
+            if (theta3 > 0.0f) {
+                weight += theta3 * balancer.diskUsageInShards(node.diskUsageInBytes() + diskUsageInBytesDelta);
+            }
+            return weight;
+        }
+
+        /**
+         * Returns the components of the {@link #weight} of the given node, for the allocation explain API.
+         */
+        WeightBreakdown weightBreakdown(Balancer balancer, ModelNode node, String index) {
+            return new WeightBreakdown(
+                theta0 * (node.numShards() - balancer.avgShardsPerNode()),
+                theta1 * (node.numShards(index) - balancer.avgShardsPerNode(index)),
+                theta2 * (float) (node.writeLoad() - balancer.avgWriteLoadPerNode()),
+                theta3 * balancer.diskUsageInShards(node.diskUsageInBytes())
+            );
         }
     }
 
@@ -257,6 +391,9 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private final float threshold;
         private final Metadata metadata;
         private final float avgShardsPerNode;
+        private final double avgWriteLoadPerNode;
+        private final double avgDiskUsageInBytesPerNode;
+        private final double avgShardSizeInBytes;
         private final NodeSorter sorter;
 
         public Balancer(Logger logger, RoutingAllocation allocation, WeightFunction weight, float threshold) {
@@ -267,6 +404,24 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             this.routingNodes = allocation.routingNodes();
             this.metadata = allocation.metadata();
             avgShardsPerNode = ((float) metadata.getTotalNumberOfShards()) / routingNodes.size();
+            if (weight.isLoadAware()) {
+                final ClusterInfo clusterInfo = allocation.clusterInfo();
+                double totalWriteLoad = 0.0;
+                long totalDiskUsageInBytes = 0L;
+                int totalShards = 0;
+                for (ShardRouting shard : allocation.routingTable().allShards()) {
+                    totalWriteLoad += clusterInfo.getShardWriteLoad(shard.shardId());
+                    totalDiskUsageInBytes += clusterInfo.getShardSize(shard, 0L);
+                    totalShards++;
+                }
+                avgWriteLoadPerNode = totalWriteLoad / routingNodes.size();
+                avgDiskUsageInBytesPerNode = ((double) totalDiskUsageInBytes) / routingNodes.size();
+                avgShardSizeInBytes = totalDiskUsageInBytes > 0L ? ((double) totalDiskUsageInBytes) / totalShards : 1.0;
+            } else {
+                avgWriteLoadPerNode = 0.0;
+                avgDiskUsageInBytesPerNode = 0.0;
+                avgShardSizeInBytes = 1.0;
+            }
             nodes = Collections.unmodifiableMap(buildModelFromAssigned());
             sorter = newNodeSorter();
         }
@@ -292,6 +447,36 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return avgShardsPerNode;
         }
 
+        /**
+         * Returns the global average of the write load per node, or {@code 0.0} if the weight function ignores write load
+         */
+        public double avgWriteLoadPerNode() {
+            return avgWriteLoadPerNode;
+        }
+
+        /**
+         * Returns the global average of the size in bytes of the shards per node, or {@code 0.0} if the weight function ignores
+         * disk usage
+         */
+        public double avgDiskUsageInBytesPerNode() {
+            return avgDiskUsageInBytesPerNode;
+        }
+
+        /**
+         * Returns how far the given disk usage of a node is from the average disk usage per node, in average shard sizes.
+         */
+        float diskUsageInShards(long diskUsageInBytes) {
+            return (float) ((diskUsageInBytes - avgDiskUsageInBytesPerNode) / avgShardSizeInBytes);
+        }
+
+        /**
+         * Returns the components of the weight of the given node for the allocation explain API, or {@code null} if the weight
+         * only depends on the number of shards.
+         */
+        private WeightBreakdown weightBreakdown(ModelNode node, String index) {
+            return weight.isLoadAware() ? weight.weightBreakdown(this, node, index) : null;
+        }
+
         /**
          * Returns a new {@link NodeSorter} that sorts the nodes based on their
          * current weight with respect to the index passed to the sorter. The
@@ -321,6 +506,21 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return delta <= (threshold + 0.001f);
         }
 
+        /**
+         * Returns {@code true} iff relocating the given shard from one node to the other brings the weights of the two nodes closer
+         * together. Shards don't weigh the same once the write load or the disk usage balance factors are set, so the weights of both
+         * nodes are computed with the shard moved rather than assuming that a shard shifts each weight by one. Deltas that barely
+         * shrink are rounded like in {@link #lessThan} so that floating point errors can't make shards move back and forth.
+         */
+        private boolean relocationShrinksDelta(ShardRouting shard, ModelNode fromNode, ModelNode toNode) {
+            final String index = shard.getIndexName();
+            final float currentDelta = Math.abs(weight.weight(this, fromNode, index) - weight.weight(this, toNode, index));
+            final float newDelta = Math.abs(
+                weight.weightWithShard(this, fromNode, shard, -1) - weight.weightWithShard(this, toNode, shard, 1)
+            );
+            return newDelta < currentDelta - 0.001f;
+        }
+
         /**
          * Balances the nodes on the cluster model according to the weight function.
          * The actual balancing is delegated to {@link #balanceByWeights()}
@@ -411,7 +611,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                     boolean deltaAboveThreshold = lessThan(currentDelta, threshold) == false;
                     // calculate the delta of the weights of the two nodes if we were to add the shard to the
                     // node in question and move it away from the node that currently holds it.
-                    boolean betterWeightWithShardAdded = nodeWeight + 1.0f < currentWeight;
+                    boolean betterWeightWithShardAdded = relocationShrinksDelta(shard, currentNode, node);
                     rebalanceConditionsMet = deltaAboveThreshold && betterWeightWithShardAdded;
                     // if the simulated weight delta with the shard moved away is better than the weight delta
                     // with the shard remaining on the current node, and we are allowed to allocate to the
@@ -441,7 +641,8 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                         result.v1().routingNode.node(),
                         AllocationDecision.fromDecisionType(result.v2().type()),
                         result.v2(),
-                        ++weightRanking
+                        ++weightRanking,
+                        weightBreakdown(result.v1(), idxName)
                     )
                 );
             }
@@ -449,12 +650,26 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             for (Tuple<ModelNode, Decision> result : sameBalanceNodes) {
                 AllocationDecision nodeDecision = result.v2().type() == Type.NO ? AllocationDecision.NO : AllocationDecision.WORSE_BALANCE;
                 nodeDecisions.add(
-                    new NodeAllocationResult(result.v1().routingNode.node(), nodeDecision, result.v2(), currentNodeWeightRanking)
+                    new NodeAllocationResult(
+                        result.v1().routingNode.node(),
+                        nodeDecision,
+                        result.v2(),
+                        currentNodeWeightRanking,
+                        weightBreakdown(result.v1(), idxName)
+                    )
                 );
             }
             for (Tuple<ModelNode, Decision> result : worseBalanceNodes) {
                 AllocationDecision nodeDecision = result.v2().type() == Type.NO ? AllocationDecision.NO : AllocationDecision.WORSE_BALANCE;
-                nodeDecisions.add(new NodeAllocationResult(result.v1().routingNode.node(), nodeDecision, result.v2(), ++weightRanking));
+                nodeDecisions.add(
+                    new NodeAllocationResult(
+                        result.v1().routingNode.node(),
+                        nodeDecision,
+                        result.v2(),
+                        ++weightRanking,
+                        weightBreakdown(result.v1(), idxName)
+                    )
+                );
             }
 
             if (canRebalance.type() != Type.YES || allocation.hasPendingAsyncFetch()) {
@@ -557,21 +772,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                                 delta
                             );
                         }
-                        if (delta <= 1.0f) {
-                            /*
-                             * prevent relocations that only swap the weights of the two nodes. a relocation must bring us closer to the
-                             * balance if we only achieve the same delta the relocation is useless
-                             *
-                             * NB this comment above was preserved from an earlier version but doesn't obviously describe the code today. We
-                             * already know that lessThan(delta, threshold) == false and threshold defaults to 1.0, so by default we never
-                             * hit this case anyway.
-                             */
-                            logger.trace(
-                                "Couldn't find shard to relocate from node [{}] to node [{}]",
-                                maxNode.getNodeId(),
-                                minNode.getNodeId()
-                            );
-                        } else if (tryRelocateShard(minNode, maxNode, index)) {
+                        if (tryRelocateShard(minNode, maxNode, index)) {
                             /*
                              * TODO we could be a bit smarter here, we don't need to fully sort necessarily
                              * we could just find the place to insert linearly but the win might be minor
@@ -756,7 +957,12 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                     Decision allocationDecision = decider.apply(shardRouting, target);
                     if (explain) {
                         nodeExplanationMap.add(
-                            new NodeAllocationResult(currentNode.getRoutingNode().node(), allocationDecision, ++weightRanking)
+                            new NodeAllocationResult(
+                                currentNode.getRoutingNode().node(),
+                                allocationDecision,
+                                ++weightRanking,
+                                weightBreakdown(currentNode, shardRouting.getIndexName())
+                            )
                         );
                     }
                     // TODO maybe we can respect throttling here too?
@@ -802,8 +1008,10 @@ public class BalancedShardsAllocator implements ShardsAllocator {
          */
         private Map<String, ModelNode> buildModelFromAssigned() {
             Map<String, ModelNode> nodes = new HashMap<>();
+            // only track the write load and size of the shards on each node if the weight function needs them
+            final ClusterInfo clusterInfo = weight.isLoadAware() ? allocation.clusterInfo() : null;
             for (RoutingNode rn : routingNodes) {
-                ModelNode node = new ModelNode(rn);
+                ModelNode node = new ModelNode(rn, clusterInfo);
                 nodes.put(rn.nodeId(), node);
                 for (ShardRouting shard : rn) {
                     assert rn.nodeId().equals(shard.currentNodeId());
@@ -1034,7 +1242,14 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                 int weightRanking = 0;
                 for (Tuple<String, Float> nodeWeight : nodeWeights) {
                     NodeAllocationResult current = nodeExplanationMap.get(nodeWeight.v1());
-                    nodeDecisions.add(new NodeAllocationResult(current.getNode(), current.getCanAllocateDecision(), ++weightRanking));
+                    nodeDecisions.add(
+                        new NodeAllocationResult(
+                            current.getNode(),
+                            current.getCanAllocateDecision(),
+                            ++weightRanking,
+                            weightBreakdown(nodes.get(nodeWeight.v1()), shard.getIndexName())
+                        )
+                    );
                 }
             }
             return AllocateUnassignedDecision.fromDecision(decision, minNode != null ? minNode.routingNode.node() : null, nodeDecisions);
@@ -1059,6 +1274,10 @@ public class BalancedShardsAllocator implements ShardsAllocator {
 
                 final AllocationDeciders deciders = allocation.deciders();
                 for (ShardRouting shard : shardRoutings) {
+                    if (relocationShrinksDelta(shard, maxNode, minNode) == false) {
+                        // a relocation that only swaps the weights of the two nodes, or overshoots, doesn't bring us closer to the balance
+                        continue;
+                    }
                     final Decision rebalanceDecision = deciders.canRebalance(shard, allocation);
                     if (rebalanceDecision.type() == Type.NO) {
                         continue;
@@ -1096,10 +1315,15 @@ public class BalancedShardsAllocator implements ShardsAllocator {
     static class ModelNode implements Iterable<ModelIndex> {
         private final Map<String, ModelIndex> indices = new HashMap<>();
         private int numShards = 0;
+        private double writeLoad = 0.0;
+        private long diskUsageInBytes = 0L;
         private final RoutingNode routingNode;
+        @Nullable
+        private final ClusterInfo clusterInfo;
 
-        ModelNode(RoutingNode routingNode) {
+        ModelNode(RoutingNode routingNode, @Nullable ClusterInfo clusterInfo) {
             this.routingNode = routingNode;
+            this.clusterInfo = clusterInfo;
         }
 
         public ModelIndex getIndex(String indexName) {
@@ -1123,6 +1347,20 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return index == null ? 0 : index.numShards();
         }
 
+        /**
+         * The sum of the write loads of the shards on this node
+         */
+        public double writeLoad() {
+            return writeLoad;
+        }
+
+        /**
+         * The sum of the sizes in bytes of the shards on this node
+         */
+        public long diskUsageInBytes() {
+            return diskUsageInBytes;
+        }
+
         public int highestPrimary(String index) {
             ModelIndex idx = indices.get(index);
             if (idx != null) {
@@ -1134,6 +1372,10 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         public void addShard(ShardRouting shard) {
             indices.computeIfAbsent(shard.getIndexName(), t -> new ModelIndex()).addShard(shard);
             numShards++;
+            if (clusterInfo != null) {
+                writeLoad += clusterInfo.getShardWriteLoad(shard.shardId());
+                diskUsageInBytes += clusterInfo.getShardSize(shard, 0L);
+            }
         }
 
         public void removeShard(ShardRouting shard) {
@@ -1145,6 +1387,10 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                 }
             }
             numShards--;
+            if (clusterInfo != null) {
+                writeLoad -= clusterInfo.getShardWriteLoad(shard.shardId());
+                diskUsageInBytes -= clusterInfo.getShardSize(shard, 0L);
+            }
         }
 
         @Override
@@ -0,0 +1,80 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.allocator;
+
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.DiskUsage;
+import org.elasticsearch.cluster.routing.ShardRouting;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tracks the disk usage of the nodes while the {@link DesiredBalanceShardsAllocator} simulates the recoveries of the shards, so that the
+ * disk based allocation deciders see the nodes fill up and free up as the shards move between them. The disk usages of the cluster info
+ * only account for the shards that were started when it was collected, and the deciders only add the shards that are still recovering.
+ */
+class ClusterInfoSimulator {
+
+    private final ClusterInfo clusterInfo;
+    private final Map<String, DiskUsage> leastAvailableSpaceUsage;
+    private final Map<String, DiskUsage> mostAvailableSpaceUsage;
+    private final Map<String, Long> shardSizes = new HashMap<>();
+
+    ClusterInfoSimulator(ClusterInfo clusterInfo) {
+        this.clusterInfo = clusterInfo;
+        this.leastAvailableSpaceUsage = new HashMap<>(clusterInfo.getNodeLeastAvailableDiskUsages());
+        this.mostAvailableSpaceUsage = new HashMap<>(clusterInfo.getNodeMostAvailableDiskUsages());
+    }
+
+    /**
+     * Accounts for the given initializing shard being started: its size moves to its node, from the node it relocates from if any.
+     * Shards of unknown size keep their expected size from then on, so that they count when they move again.
+     */
+    void simulateShardStarted(ShardRouting shard) {
+        assert shard.initializing() : shard;
+        final String shardIdentifier = ClusterInfo.shardIdentifierFromRouting(shard);
+        Long shardSize = shardSizes.get(shardIdentifier);
+        if (shardSize == null) {
+            shardSize = clusterInfo.getShardSize(shard);
+        }
+        if (shardSize == null) {
+            if (shard.getExpectedShardSize() == ShardRouting.UNAVAILABLE_EXPECTED_SHARD_SIZE) {
+                return;
+            }
+            shardSize = shard.getExpectedShardSize();
+            shardSizes.put(shardIdentifier, shardSize);
+        }
+        if (shard.relocatingNodeId() != null) {
+            updateFreeBytes(shard.relocatingNodeId(), shardSize);
+        }
+        updateFreeBytes(shard.currentNodeId(), -shardSize);
+    }
+
+    private void updateFreeBytes(String nodeId, long delta) {
+        leastAvailableSpaceUsage.computeIfPresent(nodeId, (ignored, diskUsage) -> withFreeBytes(diskUsage, delta));
+        mostAvailableSpaceUsage.computeIfPresent(nodeId, (ignored, diskUsage) -> withFreeBytes(diskUsage, delta));
+    }
+
+    private static DiskUsage withFreeBytes(DiskUsage diskUsage, long delta) {
+        final long freeBytes = Math.max(0L, Math.min(diskUsage.getTotalBytes(), diskUsage.getFreeBytes() + delta));
+        return new DiskUsage(diskUsage.getNodeId(), diskUsage.getNodeName(), diskUsage.getPath(), diskUsage.getTotalBytes(), freeBytes);
+    }
+
+    /**
+     * Returns the cluster info with the disk usages of the nodes after the shards that were started so far.
+     */
+    ClusterInfo getClusterInfo() {
+        return clusterInfo.withDiskUsages(
+            Map.copyOf(leastAvailableSpaceUsage),
+            Map.copyOf(mostAvailableSpaceUsage),
+            Map.copyOf(shardSizes)
+        );
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+
+package org.elasticsearch.cluster.routing.allocation.allocator;
+
+import org.elasticsearch.cluster.routing.RoutingNode;
+import org.elasticsearch.cluster.routing.RoutingNodes;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The assignment of the shards to the nodes that the {@link DesiredBalanceShardsAllocator} is moving the shards towards.
+ *
+ * @param assignments the ids of the nodes that should hold the copies of each shard
+ */
+record DesiredBalance(Map<ShardId, Set<String>> assignments) {
+
+    static final DesiredBalance INITIAL = new DesiredBalance(Map.of());
+
+    /**
+     * Returns the ids of the nodes that should hold the copies of the given shard, which is empty if the shard was not assigned when the
+     * desired balance was computed.
+     */
+    Set<String> getNodeIds(ShardId shardId) {
+        return assignments.getOrDefault(shardId, Set.of());
+    }
+
+    /**
+     * Returns the desired balance of the shards as they are assigned in the given routing nodes.
+     */
+    static DesiredBalance of(RoutingNodes routingNodes) {
+        final Map<ShardId, Set<String>> assignments = new HashMap<>();
+        for (RoutingNode routingNode : routingNodes) {
+            for (ShardRouting shardRouting : routingNode) {
+                assignments.computeIfAbsent(shardRouting.shardId(), k -> new HashSet<>()).add(routingNode.nodeId());
+            }
+        }
+        return new DesiredBalance(assignments);
+    }
+}
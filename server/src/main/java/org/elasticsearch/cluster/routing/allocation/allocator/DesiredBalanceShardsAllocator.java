@@ -0,0 +1,381 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+
+package org.elasticsearch.cluster.routing.allocation.allocator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.routing.RerouteService;
+import org.elasticsearch.cluster.routing.RoutingNode;
+import org.elasticsearch.cluster.routing.RoutingNodes;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.UnassignedInfo.AllocationStatus;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.cluster.routing.allocation.ShardAllocationDecision;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
+import org.elasticsearch.cluster.routing.allocation.decider.Decision;
+import org.elasticsearch.common.Priority;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.snapshots.SnapshotShardSizeInfo;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ShardsAllocator} that computes the desired balance of the shards in the background and only moves a bounded number of shards
+ * towards it on each reroute, so that the reroutes on the master do not have to wait for the balancer to walk all the shards of a large
+ * cluster.
+ * <p>
+ * The unassigned shards and the shards that can no longer remain on their nodes are still allocated synchronously by the
+ * {@link BalancedShardsAllocator}. The rebalancing runs on a copy of the routing nodes of the cluster state of the latest reroute, on the
+ * generic thread pool: it repeatedly runs the {@link BalancedShardsAllocator} on the copy and starts all the shards that it initialized,
+ * without throttling the recoveries, until the balancer does not move any shard anymore or until
+ * {@code cluster.routing.allocation.desired_balance.max_iterations} iterations ran. Each computation starts from the previous desired
+ * balance so that the balancer only has to account for the changes to the cluster since then. Only one computation runs at a time and the
+ * reroutes that happen while it runs only keep the latest input for the next computation. Once a computation changes the desired
+ * balance, a reroute moves up to {@code cluster.routing.allocation.desired_balance.max_moves_per_reroute} started shards to their
+ * desired nodes, as far as the deciders allow it, and further reroutes move the remaining ones.
+ * <p>
+ * The simulation moves the sizes of the shards between the disk usages of the nodes of a copy of the {@link ClusterInfo} as it starts
+ * them, see {@link ClusterInfoSimulator}, so that the disk based deciders don't let the desired balance fill up a node. Note that each
+ * reroute still walks all the shards synchronously on the master to allocate the unassigned ones and to move the ones that can't remain
+ * on their nodes, see {@link BalancedShardsAllocator#allocateUnassignedAndMoveShards}, only the rebalancing runs in the background.
+ */
+public class DesiredBalanceShardsAllocator implements ShardsAllocator {
+
+    private static final Logger logger = LogManager.getLogger(DesiredBalanceShardsAllocator.class);
+
+    public static final Setting<Integer> MAX_MOVES_PER_REROUTE_SETTING = Setting.intSetting(
+        "cluster.routing.allocation.desired_balance.max_moves_per_reroute",
+        10,
+        0,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+    public static final Setting<Integer> MAX_ITERATIONS_SETTING = Setting.intSetting(
+        "cluster.routing.allocation.desired_balance.max_iterations",
+        100,
+        1,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    private static final ActionListener<ClusterState> REROUTE_LISTENER = ActionListener.wrap(
+        r -> logger.trace("reroute after computing the desired balance completed"),
+        e -> logger.debug("reroute after computing the desired balance failed", e)
+    );
+
+    private final BalancedShardsAllocator delegate;
+    private final ThreadPool threadPool;
+    private final Supplier<RerouteService> rerouteService;
+    private final AtomicReference<ComputationInput> pendingInput = new AtomicReference<>();
+    private volatile DesiredBalance desiredBalance = DesiredBalance.INITIAL;
+    private volatile int maxMovesPerReroute;
+    private volatile int maxIterations;
+
+    private final CounterMetric computationsSubmitted = new CounterMetric();
+    private final CounterMetric computationsExecuted = new CounterMetric();
+    private final CounterMetric computationsConverged = new CounterMetric();
+    private final CounterMetric computationIterations = new CounterMetric();
+    private final CounterMetric computationTimeInMillis = new CounterMetric();
+    private final CounterMetric shardsMoved = new CounterMetric();
+    private volatile boolean lastComputationConverged;
+    private volatile long undesiredShards;
+
+    public DesiredBalanceShardsAllocator(
+        Settings settings,
+        ClusterSettings clusterSettings,
+        ThreadPool threadPool,
+        Supplier<RerouteService> rerouteService
+    ) {
+        this(new BalancedShardsAllocator(settings, clusterSettings), settings, clusterSettings, threadPool, rerouteService);
+    }
+
+    DesiredBalanceShardsAllocator(
+        BalancedShardsAllocator delegate,
+        Settings settings,
+        ClusterSettings clusterSettings,
+        ThreadPool threadPool,
+        Supplier<RerouteService> rerouteService
+    ) {
+        this.delegate = delegate;
+        this.threadPool = threadPool;
+        this.rerouteService = rerouteService;
+        setMaxMovesPerReroute(MAX_MOVES_PER_REROUTE_SETTING.get(settings));
+        setMaxIterations(MAX_ITERATIONS_SETTING.get(settings));
+        clusterSettings.addSettingsUpdateConsumer(MAX_MOVES_PER_REROUTE_SETTING, this::setMaxMovesPerReroute);
+        clusterSettings.addSettingsUpdateConsumer(MAX_ITERATIONS_SETTING, this::setMaxIterations);
+    }
+
+    private void setMaxMovesPerReroute(int maxMovesPerReroute) {
+        this.maxMovesPerReroute = maxMovesPerReroute;
+    }
+
+    private void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    @Override
+    public void allocate(RoutingAllocation allocation) {
+        delegate.allocateUnassignedAndMoveShards(allocation);
+        if (allocation.routingNodes().size() > 0) {
+            moveShardsToDesiredNodes(allocation);
+        }
+        submitComputation(
+            new ComputationInput(
+                allocation.getClusterState(),
+                allocation.clusterInfo(),
+                allocation.snapshotShardSizeInfo(),
+                allocation.deciders()
+            )
+        );
+    }
+
+    @Override
+    public ShardAllocationDecision decideShardAllocation(ShardRouting shard, RoutingAllocation allocation) {
+        return delegate.decideShardAllocation(shard, allocation);
+    }
+
+    public DesiredBalanceStats getStats() {
+        return new DesiredBalanceStats(
+            pendingInput.get() != null,
+            computationsSubmitted.count(),
+            computationsExecuted.count(),
+            computationsConverged.count(),
+            computationIterations.count(),
+            computationTimeInMillis.count(),
+            lastComputationConverged,
+            shardsMoved.count(),
+            undesiredShards
+        );
+    }
+
+    // pkg private for tests
+    DesiredBalance getDesiredBalance() {
+        return desiredBalance;
+    }
+
+    /**
+     * Starts the relocation of up to {@link #MAX_MOVES_PER_REROUTE_SETTING} started shards that are not on their desired nodes.
+     */
+    private void moveShardsToDesiredNodes(RoutingAllocation allocation) {
+        final DesiredBalance desiredBalance = this.desiredBalance;
+        final RoutingNodes routingNodes = allocation.routingNodes();
+        int remainingMoves = maxMovesPerReroute;
+        if (allocation.hasPendingAsyncFetch()) {
+            // like the balancer, do not move shards before knowing where the copies of the unassigned shards are going to be allocated
+            logger.debug("skipping moves to the desired balance due to in-flight shard/store fetches");
+            remainingMoves = 0;
+        } else if (allocation.deciders().canRebalance(allocation).type() != Decision.Type.YES) {
+            logger.trace("skipping moves to the desired balance since rebalancing is not allowed");
+            remainingMoves = 0;
+        }
+        long undesiredShards = 0;
+        int moves = 0;
+        for (Map.Entry<ShardId, Set<String>> entry : desiredBalance.assignments().entrySet()) {
+            final Set<String> desiredNodeIds = entry.getValue();
+            // copy the list of the shard copies since relocating one of them modifies it
+            for (ShardRouting shardRouting : List.copyOf(routingNodes.assignedShards(entry.getKey()))) {
+                if (shardRouting.started() == false || desiredNodeIds.contains(shardRouting.currentNodeId())) {
+                    continue;
+                }
+                undesiredShards++;
+                if (moves < remainingMoves && moveToDesiredNode(shardRouting, desiredNodeIds, allocation)) {
+                    moves++;
+                }
+            }
+        }
+        logger.trace("started [{}] moves to the desired balance, [{}] shards are not on their desired nodes", moves, undesiredShards);
+        shardsMoved.inc(moves);
+        this.undesiredShards = undesiredShards;
+    }
+
+    private static boolean moveToDesiredNode(ShardRouting shardRouting, Set<String> desiredNodeIds, RoutingAllocation allocation) {
+        final AllocationDeciders deciders = allocation.deciders();
+        if (deciders.canRebalance(shardRouting, allocation).type() != Decision.Type.YES) {
+            return false;
+        }
+        final RoutingNodes routingNodes = allocation.routingNodes();
+        for (String nodeId : desiredNodeIds) {
+            final RoutingNode routingNode = routingNodes.node(nodeId);
+            if (routingNode == null || routingNode.getByShardId(shardRouting.shardId()) != null) {
+                continue;
+            }
+            if (deciders.canAllocate(shardRouting, routingNode, allocation).type() == Decision.Type.YES) {
+                logger.debug("Relocate [{}] from [{}] to desired node [{}]", shardRouting, shardRouting.currentNodeId(), nodeId);
+                routingNodes.relocateShard(
+                    shardRouting,
+                    nodeId,
+                    allocation.clusterInfo().getShardSize(shardRouting, ShardRouting.UNAVAILABLE_EXPECTED_SHARD_SIZE),
+                    allocation.changes()
+                );
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void submitComputation(ComputationInput input) {
+        computationsSubmitted.inc();
+        if (pendingInput.getAndSet(input) == null) {
+            threadPool.generic().execute(new ComputationRunner());
+        }
+    }
+
+    /**
+     * Computes the desired balance for the latest input, and again as long as new inputs arrived while computing.
+     */
+    private class ComputationRunner extends AbstractRunnable {
+        @Override
+        protected void doRun() {
+            final ComputationInput input = pendingInput.get();
+            assert input != null;
+            try {
+                computeDesiredBalance(input);
+            } finally {
+                if (pendingInput.compareAndSet(input, null) == false) {
+                    threadPool.generic().execute(this);
+                }
+            }
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            logger.warn("failed to compute the desired balance", e);
+        }
+    }
+
+    private void computeDesiredBalance(ComputationInput input) {
+        final long startTimeInMillis = threadPool.rawRelativeTimeInMillis();
+        final DesiredBalance previousDesiredBalance = desiredBalance;
+        final ClusterInfoSimulator clusterInfoSimulator = new ClusterInfoSimulator(input.clusterInfo());
+        RoutingAllocation allocation = newSimulation(input, input.clusterState().mutableRoutingNodes(), input.clusterInfo());
+
+        // the unassigned shards are allocated synchronously on each reroute, the next computation will take them into account
+        final RoutingNodes.UnassignedShards.UnassignedIterator unassignedIterator = allocation.routingNodes().unassigned().iterator();
+        while (unassignedIterator.hasNext()) {
+            unassignedIterator.next();
+            unassignedIterator.removeAndIgnore(AllocationStatus.NO_ATTEMPT, allocation.changes());
+        }
+        moveToPreviousDesiredNodes(previousDesiredBalance, allocation);
+        startInitializingShards(allocation, clusterInfoSimulator);
+
+        int iterations = 0;
+        boolean converged = false;
+        final int maxIterations = this.maxIterations;
+        while (converged == false && iterations < maxIterations) {
+            iterations++;
+            // the deciders see the disk usage of the nodes with the shards that the previous iterations moved
+            allocation = newSimulation(input, allocation.routingNodes(), clusterInfoSimulator.getClusterInfo());
+            delegate.allocate(allocation);
+            converged = startInitializingShards(allocation, clusterInfoSimulator) == 0;
+        }
+        final DesiredBalance newDesiredBalance = DesiredBalance.of(allocation.routingNodes());
+        final long tookInMillis = threadPool.rawRelativeTimeInMillis() - startTimeInMillis;
+        logger.debug("computed the desired balance in [{}] iterations and [{}ms], converged: [{}]", iterations, tookInMillis, converged);
+
+        computationsExecuted.inc();
+        if (converged) {
+            computationsConverged.inc();
+        }
+        computationIterations.inc(iterations);
+        computationTimeInMillis.inc(tookInMillis);
+        lastComputationConverged = converged;
+
+        desiredBalance = newDesiredBalance;
+        if (newDesiredBalance.equals(previousDesiredBalance) == false) {
+            rerouteService.get().reroute("desired balance changed", Priority.NORMAL, REROUTE_LISTENER);
+        }
+    }
+
+    private static RoutingAllocation newSimulation(ComputationInput input, RoutingNodes routingNodes, ClusterInfo clusterInfo) {
+        final RoutingAllocation allocation = new RoutingAllocation(
+            input.deciders(),
+            routingNodes,
+            input.clusterState(),
+            clusterInfo,
+            input.snapshotShardSizeInfo(),
+            System.nanoTime()
+        );
+        allocation.setSimulating();
+        return allocation;
+    }
+
+    /**
+     * Moves the shards in the simulation to the nodes of the previous desired balance, so that the balancer starts from where the
+     * previous computation ended. The shards that can no longer be allocated there are moved elsewhere by the balancer.
+     */
+    private static void moveToPreviousDesiredNodes(DesiredBalance previousDesiredBalance, RoutingAllocation allocation) {
+        final RoutingNodes routingNodes = allocation.routingNodes();
+        for (Map.Entry<ShardId, Set<String>> entry : previousDesiredBalance.assignments().entrySet()) {
+            final Set<String> desiredNodeIds = entry.getValue();
+            for (ShardRouting shardRouting : List.copyOf(routingNodes.assignedShards(entry.getKey()))) {
+                if (shardRouting.started() == false || desiredNodeIds.contains(shardRouting.currentNodeId())) {
+                    continue;
+                }
+                for (String nodeId : desiredNodeIds) {
+                    final RoutingNode routingNode = routingNodes.node(nodeId);
+                    if (routingNode != null
+                        && routingNode.getByShardId(shardRouting.shardId()) == null
+                        && allocation.deciders().canAllocate(shardRouting, routingNode, allocation).type() != Decision.Type.NO) {
+                        routingNodes.relocateShard(
+                            shardRouting,
+                            nodeId,
+                            allocation.clusterInfo().getShardSize(shardRouting, ShardRouting.UNAVAILABLE_EXPECTED_SHARD_SIZE),
+                            allocation.changes()
+                        );
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts all the initializing shards in the simulation, the primaries first since starting a relocated primary reinitializes the
+     * recoveries of its replicas, and moves their sizes between the disk usages of the nodes.
+     *
+     * @return the number of shards that were started
+     */
+    private static int startInitializingShards(RoutingAllocation allocation, ClusterInfoSimulator clusterInfoSimulator) {
+        final RoutingNodes routingNodes = allocation.routingNodes();
+        int startedShards = 0;
+        for (ShardRouting shardRouting : routingNodes.shards(s -> s.initializing() && s.primary())) {
+            clusterInfoSimulator.simulateShardStarted(shardRouting);
+            routingNodes.startShard(logger, shardRouting, allocation.changes());
+            startedShards++;
+        }
+        for (ShardRouting shardRouting : routingNodes.shards(ShardRouting::initializing)) {
+            clusterInfoSimulator.simulateShardStarted(shardRouting);
+            routingNodes.startShard(logger, shardRouting, allocation.changes());
+            startedShards++;
+        }
+        return startedShards;
+    }
+
+    private record ComputationInput(
+        ClusterState clusterState,
+        ClusterInfo clusterInfo,
+        SnapshotShardSizeInfo snapshotShardSizeInfo,
+        AllocationDeciders deciders
+    ) {}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+
+package org.elasticsearch.cluster.routing.allocation.allocator;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.xcontent.ToXContentObject;
+import org.elasticsearch.xcontent.XContentBuilder;
+
+import java.io.IOException;
+
+/**
+ * Statistics about the computation of the desired balance by the {@link DesiredBalanceShardsAllocator} and about the moves towards it.
+ *
+ * @param computationActive whether a computation of the desired balance is running or waiting to run
+ * @param computationsSubmitted the number of times that a new input was submitted for computing the desired balance
+ * @param computationsExecuted the number of computations that ran, which is lower than the number of submitted computations since the
+ *                             inputs that arrive while a computation is running are replaced by the latest one
+ * @param computationsConverged the number of computations that reached a balance that the balancer would not change anymore
+ * @param computationIterations the total number of iterations of the balancer that the computations ran
+ * @param computationTimeInMillis the total time spent computing the desired balance
+ * @param lastComputationConverged whether the last computation converged, as opposed to stopping after the maximum number of iterations
+ * @param shardsMoved the number of relocations started to move shards to their desired nodes
+ * @param undesiredShards the number of started shards that were not on their desired nodes on the last reroute
+ */
+public record DesiredBalanceStats(
+    boolean computationActive,
+    long computationsSubmitted,
+    long computationsExecuted,
+    long computationsConverged,
+    long computationIterations,
+    long computationTimeInMillis,
+    boolean lastComputationConverged,
+    long shardsMoved,
+    long undesiredShards
+) implements Writeable, ToXContentObject {
+
+    public static DesiredBalanceStats readFrom(StreamInput in) throws IOException {
+        return new DesiredBalanceStats(
+            in.readBoolean(),
+            in.readVLong(),
+            in.readVLong(),
+            in.readVLong(),
+            in.readVLong(),
+            in.readVLong(),
+            in.readBoolean(),
+            in.readVLong(),
+            in.readVLong()
+        );
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeBoolean(computationActive);
+        out.writeVLong(computationsSubmitted);
+        out.writeVLong(computationsExecuted);
+        out.writeVLong(computationsConverged);
+        out.writeVLong(computationIterations);
+        out.writeVLong(computationTimeInMillis);
+        out.writeBoolean(lastComputationConverged);
+        out.writeVLong(shardsMoved);
+        out.writeVLong(undesiredShards);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        builder.startObject("computation");
+        builder.field("active", computationActive);
+        builder.field("submitted", computationsSubmitted);
+        builder.field("executed", computationsExecuted);
+        builder.field("converged", computationsConverged);
+        builder.field("iterations", computationIterations);
+        builder.humanReadableField("time_in_millis", "time", new TimeValue(computationTimeInMillis));
+        builder.field("last_converged", lastComputationConverged);
+        builder.endObject();
+        builder.startObject("reconciliation");
+        builder.field("shards_moved", shardsMoved);
+        builder.field("undesired_shards", undesiredShards);
+        builder.endObject();
+        return builder.endObject();
+    }
+}
@@ -122,6 +122,9 @@ public class ThrottlingAllocationDecider extends AllocationDecider {
 
     @Override
     public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
+        if (allocation.isSimulating()) {
+            return allocation.decision(YES, NAME, "recoveries are not throttled when simulating the allocation");
+        }
         if (shardRouting.primary() && shardRouting.unassigned()) {
             assert initializingShard(shardRouting, node.nodeId()).recoverySource().getType() != RecoverySource.Type.PEER;
             // primary is unassigned, means we are going to do recovery from store, snapshot or local shards
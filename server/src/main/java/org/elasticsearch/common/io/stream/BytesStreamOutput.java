@@ -54,7 +54,7 @@ public class BytesStreamOutput extends BytesStream {
     protected BytesStreamOutput(int expectedSize, BigArrays bigArrays) {
         this.bigArrays = bigArrays;
         if (expectedSize != 0) {
-            this.bytes = bigArrays.newByteArray(expectedSize, false);
+            this.bytes = bigArrays.newHeapByteArray(expectedSize, false);
         }
     }
 
@@ -176,7 +176,7 @@ public class BytesStreamOutput extends BytesStream {
             throw new IllegalArgumentException(getClass().getSimpleName() + " cannot hold more than 2GB of data");
         }
         if (bytes == null) {
-            this.bytes = bigArrays.newByteArray(BigArrays.overSize(offset, PageCacheRecycler.PAGE_SIZE_IN_BYTES, 1), false);
+            this.bytes = bigArrays.newHeapByteArray(BigArrays.overSize(offset, PageCacheRecycler.PAGE_SIZE_IN_BYTES, 1), false);
         } else {
             bytes = bigArrays.grow(bytes, offset);
         }
@@ -14,6 +14,8 @@ import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.core.Releasables;
 
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 
 /** Common implementation for array lists that slice data into fixed-size blocks. */
@@ -94,10 +96,14 @@ abstract class AbstractBigArray extends AbstractArray {
     }
 
     private <T> T registerNewPage(Recycler.V<T> v, int page, int expectedSize) {
+        assert Array.getLength(v.v()) == expectedSize;
+        return registerNewPage(v, page);
+    }
+
+    private <T> T registerNewPage(Recycler.V<T> v, int page) {
         cache = grow(cache, page + 1);
         assert cache[page] == null;
         cache[page] = v;
-        assert Array.getLength(v.v()) == expectedSize;
         return v.v();
     }
 
@@ -110,6 +116,24 @@ abstract class AbstractBigArray extends AbstractArray {
         }
     }
 
+    /**
+     * A page of {@link PageCacheRecycler#BYTE_PAGE_SIZE} bytes in native byte order, in direct memory if the recycler has a direct
+     * page to spare. Direct pages are returned to the recycler's pool when the array is closed. Once all direct pages are in use,
+     * and without a recycler, the page is a heap buffer instead, so direct memory never grows beyond the recycler's limit.
+     */
+    protected final ByteBuffer newDirectBytePage(int page) {
+        if (recycler != null) {
+            final Recycler.V<ByteBuffer> v = recycler.directBytePage(clearOnResize);
+            if (v != null) {
+                assert v.v().capacity() == PageCacheRecycler.BYTE_PAGE_SIZE;
+                return registerNewPage(v, page);
+            }
+            return ByteBuffer.wrap(newBytePage(page)).order(ByteOrder.nativeOrder());
+        } else {
+            return ByteBuffer.allocate(PageCacheRecycler.BYTE_PAGE_SIZE).order(ByteOrder.nativeOrder());
+        }
+    }
+
     protected final Object[] newObjectPage(int page) {
         if (recycler != null) {
             final Recycler.V<Object[]> v = recycler.objectPage();
@@ -168,4 +192,22 @@ abstract class AbstractBigArray extends AbstractArray {
         }
     }
 
+    /**
+     * Bulk copies array to direct pages
+     */
+    public void set(long index, byte[] buf, int offset, int len, ByteBuffer[] pages, int shift) {
+        assert index + len <= size();
+        int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        int copyLen = Math.min(len, pageSize() - indexInPage);
+        pages[pageIndex].put(indexInPage << shift, buf, offset << shift, copyLen << shift);
+        while (len > copyLen) {
+            ++pageIndex;
+            offset += copyLen;
+            len -= copyLen;
+            copyLen = Math.min(len, pageSize());
+            pages[pageIndex].put(0, buf, offset << shift, copyLen << shift);
+        }
+    }
+
 }
@@ -94,10 +94,20 @@ public class BigArrays {
     private static class ByteArrayWrapper extends AbstractArrayWrapper implements ByteArray {
 
         private final byte[] array;
-
-        ByteArrayWrapper(BigArrays bigArrays, byte[] array, long size, Recycler.V<byte[]> releasable, boolean clearOnResize) {
+        // whether the array may move off-heap when it grows past a page
+        private final boolean offHeap;
+
+        ByteArrayWrapper(
+            BigArrays bigArrays,
+            byte[] array,
+            long size,
+            Recycler.V<byte[]> releasable,
+            boolean clearOnResize,
+            boolean offHeap
+        ) {
             super(bigArrays, size, releasable, clearOnResize);
             this.array = array;
+            this.offHeap = offHeap;
         }
 
         @Override
@@ -383,6 +393,7 @@ public class BigArrays {
     }
 
     final PageCacheRecycler recycler;
+    private final boolean offHeap;
     @Nullable
     private final CircuitBreakerService breakerService;
     @Nullable
@@ -404,6 +415,7 @@ public class BigArrays {
     ) {
         this.checkBreaker = checkBreaker;
         this.recycler = recycler;
+        this.offHeap = recycler != null && recycler.isOffHeap();
         this.breakerService = breakerService;
         if (breakerService != null) {
             breaker = breakerService.getBreaker(breakerName);
@@ -507,16 +519,35 @@ public class BigArrays {
      * @param clearOnResize whether values should be set to 0 on initialization and resize
      */
     public ByteArray newByteArray(long size, boolean clearOnResize) {
+        return newByteArray(size, clearOnResize, offHeap);
+    }
+
+    /**
+     * Allocate a new {@link ByteArray} that stays on the heap when it grows, even if big arrays are allocated off-heap. Use it
+     * for arrays that are read with {@link ByteArray#get(long, int, BytesRef)}: heap arrays return references into their pages,
+     * while off-heap arrays have to copy the bytes into a new array on every call.
+     * @param size          the initial length of the array
+     * @param clearOnResize whether values should be set to 0 on initialization and resize
+     */
+    public ByteArray newHeapByteArray(long size, boolean clearOnResize) {
+        return newByteArray(size, clearOnResize, false);
+    }
+
+    private ByteArray newByteArray(long size, boolean clearOnResize, boolean offHeap) {
         if (size > PageCacheRecycler.BYTE_PAGE_SIZE) {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
+            if (offHeap) {
+                adjustBreaker(DirectBigByteArray.estimateRamBytes(size), false);
+                return new DirectBigByteArray(size, this, clearOnResize);
+            }
             adjustBreaker(BigByteArray.estimateRamBytes(size), false);
             return new BigByteArray(size, this, clearOnResize);
         } else if (size >= PageCacheRecycler.BYTE_PAGE_SIZE / 2 && recycler != null) {
             final Recycler.V<byte[]> page = recycler.bytePage(clearOnResize);
-            return validate(new ByteArrayWrapper(this, page.v(), size, page, clearOnResize));
+            return validate(new ByteArrayWrapper(this, page.v(), size, page, clearOnResize, offHeap));
         } else {
-            return validate(new ByteArrayWrapper(this, new byte[(int) size], size, null, clearOnResize));
+            return validate(new ByteArrayWrapper(this, new byte[(int) size], size, null, clearOnResize, offHeap));
         }
     }
 
@@ -532,10 +563,12 @@ public class BigArrays {
     public ByteArray resize(ByteArray array, long size) {
         if (array instanceof BigByteArray) {
             return resizeInPlace((BigByteArray) array, size);
+        } else if (array instanceof DirectBigByteArray) {
+            return resizeInPlace((DirectBigByteArray) array, size);
         } else {
-            AbstractArray arr = (AbstractArray) array;
-            final ByteArray newArray = newByteArray(size, arr.clearOnResize);
-            final byte[] rawArray = ((ByteArrayWrapper) array).array;
+            final ByteArrayWrapper arr = (ByteArrayWrapper) array;
+            final ByteArray newArray = newByteArray(size, arr.clearOnResize, arr.offHeap);
+            final byte[] rawArray = arr.array;
             newArray.set(0, rawArray, 0, (int) Math.min(rawArray.length, newArray.size()));
             arr.close();
             return newArray;
@@ -641,6 +674,10 @@ public class BigArrays {
         if (size > PageCacheRecycler.LONG_PAGE_SIZE || (size >= PageCacheRecycler.LONG_PAGE_SIZE / 2 && recycler != null)) {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
+            if (offHeap) {
+                adjustBreaker(DirectBigLongArray.estimateRamBytes(size), false);
+                return new DirectBigLongArray(size, this, clearOnResize);
+            }
             adjustBreaker(BigLongArray.estimateRamBytes(size), false);
             return new BigLongArray(size, this, clearOnResize);
         } else {
@@ -660,6 +697,8 @@ public class BigArrays {
     public LongArray resize(LongArray array, long size) {
         if (array instanceof BigLongArray) {
             return resizeInPlace((BigLongArray) array, size);
+        } else if (array instanceof DirectBigLongArray) {
+            return resizeInPlace((DirectBigLongArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final LongArray newArray = newLongArray(size, arr.clearOnResize);
@@ -688,6 +727,10 @@ public class BigArrays {
         if (size > PageCacheRecycler.DOUBLE_PAGE_SIZE || (size >= PageCacheRecycler.DOUBLE_PAGE_SIZE / 2 && recycler != null)) {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
+            if (offHeap) {
+                adjustBreaker(DirectBigDoubleArray.estimateRamBytes(size), false);
+                return new DirectBigDoubleArray(size, this, clearOnResize);
+            }
             adjustBreaker(BigDoubleArray.estimateRamBytes(size), false);
             return new BigDoubleArray(size, this, clearOnResize);
         } else {
@@ -704,6 +747,8 @@ public class BigArrays {
     public DoubleArray resize(DoubleArray array, long size) {
         if (array instanceof BigDoubleArray) {
             return resizeInPlace((BigDoubleArray) array, size);
+        } else if (array instanceof DirectBigDoubleArray) {
+            return resizeInPlace((DirectBigDoubleArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final DoubleArray newArray = newDoubleArray(size, arr.clearOnResize);
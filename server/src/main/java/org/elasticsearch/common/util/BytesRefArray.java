@@ -38,7 +38,7 @@ public class BytesRefArray implements Accountable, Releasable, Writeable {
         try {
             startOffsets = bigArrays.newLongArray(capacity + 1, false);
             startOffsets.set(0, 0);
-            bytes = bigArrays.newByteArray(capacity * 3, false);
+            bytes = bigArrays.newHeapByteArray(capacity * 3, false);
             success = true;
         } finally {
             if (false == success) {
@@ -63,7 +63,7 @@ public class BytesRefArray implements Accountable, Releasable, Writeable {
 
             // bytes
             long sizeOfBytes = in.readVLong();
-            bytes = bigArrays.newByteArray(sizeOfBytes, true);
+            bytes = bigArrays.newHeapByteArray(sizeOfBytes, true);
 
             for (long i = 0; i < sizeOfBytes; ++i) {
                 bytes.set(i, in.readByte());
@@ -16,9 +16,14 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.monitor.jvm.JvmInfo;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.elasticsearch.common.recycler.Recyclers.concurrent;
 import static org.elasticsearch.common.recycler.Recyclers.concurrentDeque;
@@ -67,6 +72,19 @@ public class PageCacheRecycler {
         Property.NodeScope
     );
 
+    /**
+     * Whether big byte, long and double arrays keep their pages in direct memory rather than on the heap, which keeps them
+     * out of the old generation during heavy aggregations. The pages are still accounted in the request circuit breaker. At most
+     * {@link #LIMIT_OFF_HEAP_SETTING} of direct pages are allocated, they are all pooled and reused, and arrays get heap pages
+     * once all of them are in use. The limit may not exceed the maximum direct memory of the JVM.
+     */
+    public static final Setting<Boolean> OFF_HEAP_SETTING = Setting.boolSetting("cache.recycler.page.off_heap", false, Property.NodeScope);
+    public static final Setting<ByteSizeValue> LIMIT_OFF_HEAP_SETTING = Setting.memorySizeSetting(
+        "cache.recycler.page.limit.off_heap",
+        "10%",
+        Property.NodeScope
+    );
+
     /** Page size in bytes: 16KB */
     public static final int PAGE_SIZE_IN_BYTES = 1 << 14;
     public static final int OBJECT_PAGE_SIZE = PAGE_SIZE_IN_BYTES / RamUsageEstimator.NUM_BYTES_OBJECT_REF;
@@ -78,6 +96,12 @@ public class PageCacheRecycler {
 
     private final Recycler<byte[]> bytePage;
     private final Recycler<Object[]> objectPage;
+    @Nullable
+    private final Recycler<ByteBuffer> directBytePage;
+    private final int maxDirectBytePageCount;
+    private final AtomicInteger directBytePagesInUse = new AtomicInteger();
+
+    private static final byte[] ZERO_PAGE = new byte[BYTE_PAGE_SIZE];
 
     public static final PageCacheRecycler NON_RECYCLING_INSTANCE;
 
@@ -125,6 +149,88 @@ public class PageCacheRecycler {
         });
 
         assert PAGE_SIZE_IN_BYTES * (maxBytePageCount + maxObjectPageCount) <= limit;
+
+        if (OFF_HEAP_SETTING.get(settings)) {
+            final long offHeapLimit = LIMIT_OFF_HEAP_SETTING.get(settings).getBytes();
+            final long maxDirectMemory = maxDirectMemory();
+            if (offHeapLimit > maxDirectMemory) {
+                throw new IllegalArgumentException(
+                    "["
+                        + LIMIT_OFF_HEAP_SETTING.getKey()
+                        + "] of ["
+                        + LIMIT_OFF_HEAP_SETTING.get(settings)
+                        + "] exceeds the maximum direct memory of the JVM ["
+                        + new ByteSizeValue(maxDirectMemory)
+                        + "]"
+                );
+            }
+            maxDirectBytePageCount = (int) Math.min(Integer.MAX_VALUE, offHeapLimit / PAGE_SIZE_IN_BYTES);
+            // the pool can hold all pages that may be in use, so released pages are always reused and never left to the garbage collector
+            directBytePage = concurrentDeque(new AbstractRecyclerC<ByteBuffer>() {
+                @Override
+                public ByteBuffer newInstance() {
+                    return ByteBuffer.allocateDirect(BYTE_PAGE_SIZE).order(ByteOrder.nativeOrder());
+                }
+
+                @Override
+                public void recycle(ByteBuffer value) {
+                    // nothing to do
+                }
+            }, maxDirectBytePageCount);
+        } else {
+            maxDirectBytePageCount = 0;
+            directBytePage = null;
+        }
+    }
+
+    /**
+     * The maximum direct memory of the JVM, which defaults to the maximum heap size unless {@code -XX:MaxDirectMemorySize} is set.
+     */
+    private static long maxDirectMemory() {
+        final JvmInfo jvmInfo = JvmInfo.jvmInfo();
+        final long configured = jvmInfo.getConfiguredMaxDirectMemorySize();
+        return configured > 0 ? configured : Runtime.getRuntime().maxMemory();
+    }
+
+    /**
+     * Whether big arrays should be backed by {@link #directBytePage direct pages}.
+     */
+    public boolean isOffHeap() {
+        return directBytePage != null;
+    }
+
+    /**
+     * Obtain a page of {@link #BYTE_PAGE_SIZE} bytes in direct memory, in native byte order, or {@code null} if all the direct
+     * pages that {@link #LIMIT_OFF_HEAP_SETTING} allows are in use. Only available if {@link #isOffHeap()}.
+     */
+    @Nullable
+    public Recycler.V<ByteBuffer> directBytePage(boolean clear) {
+        assert directBytePage != null : "off heap pages are disabled";
+        if (directBytePagesInUse.incrementAndGet() > maxDirectBytePageCount) {
+            directBytePagesInUse.decrementAndGet();
+            return null;
+        }
+        final Recycler.V<ByteBuffer> v = directBytePage.obtain();
+        if (v.isRecycled() && clear) {
+            v.v().put(0, ZERO_PAGE);
+        }
+        return new Recycler.V<>() {
+            @Override
+            public ByteBuffer v() {
+                return v.v();
+            }
+
+            @Override
+            public boolean isRecycled() {
+                return v.isRecycled();
+            }
+
+            @Override
+            public void close() {
+                v.close();
+                directBytePagesInUse.decrementAndGet();
+            }
+        };
     }
 
     public Recycler.V<byte[]> bytePage(boolean clear) {
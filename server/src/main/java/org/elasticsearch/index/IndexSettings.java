@@ -100,6 +100,15 @@ public final class IndexSettings {
         Property.Dynamic,
         Property.IndexScope
     );
+    /**
+     * Whether snapshots of sealed translog generations read operations from a memory mapping of the translog file instead of
+     * through positional reads on the file channel.
+     */
+    public static final Setting<Boolean> INDEX_TRANSLOG_MMAP_READS_SETTING = Setting.boolSetting(
+        "index.translog.mmap_reads",
+        false,
+        Property.IndexScope
+    );
     public static final Setting<Boolean> INDEX_WARMER_ENABLED_SETTING = Setting.boolSetting(
         "index.warmer.enabled",
         true,
@@ -303,6 +312,17 @@ public final class IndexSettings {
         Property.IndexScope
     );
 
+    /**
+     * Whether batches of operations that are added to the translog together are compressed together. Compressing costs CPU when
+     * indexing but saves translog disk bandwidth, which tends to be the bottleneck when indexing log like documents.
+     */
+    public static final Setting<Boolean> INDEX_TRANSLOG_COMPRESSION_ENABLED_SETTING = Setting.boolSetting(
+        "index.translog.compression.enabled",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+
     /**
      * Index setting to enable / disable deletes garbage collection.
      * This setting is realtime updateable
@@ -389,6 +409,19 @@ public final class IndexSettings {
         Property.IndexScope
     );
 
+    /**
+     * The number of documents of a shard level bulk request that may be parsed on other threads ahead of the document that is
+     * currently being indexed on the primary. {@code 0} disables parallel parsing.
+     */
+    public static final Setting<Integer> INDEX_BULK_PARALLEL_PARSING_WINDOW_SETTING = Setting.intSetting(
+        "index.bulk.parallel_parsing.window",
+        0,
+        0,
+        256,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+
     /**
      * The maximum number of slices allowed in a scroll request
      */
@@ -576,6 +609,7 @@ public final class IndexSettings {
     private volatile TimeValue refreshInterval;
     private volatile ByteSizeValue flushThresholdSize;
     private volatile ByteSizeValue generationThresholdSize;
+    private volatile boolean translogCompressionEnabled;
     private volatile ByteSizeValue flushAfterMergeThresholdSize;
     private final MergeSchedulerConfig mergeSchedulerConfig;
     private final MergePolicyConfig mergePolicyConfig;
@@ -626,6 +660,10 @@ public final class IndexSettings {
      * The maximum number of refresh listeners allows on this shard.
      */
     private volatile int maxRefreshListeners;
+    /**
+     * The number of documents of a shard level bulk request that may be parsed ahead of the document that is being indexed.
+     */
+    private volatile int bulkParallelParsingWindow;
     /**
      * The maximum number of slices allowed in a scroll request.
      */
@@ -718,6 +756,7 @@ public final class IndexSettings {
         refreshInterval = scopedSettings.get(INDEX_REFRESH_INTERVAL_SETTING);
         flushThresholdSize = scopedSettings.get(INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING);
         generationThresholdSize = scopedSettings.get(INDEX_TRANSLOG_GENERATION_THRESHOLD_SIZE_SETTING);
+        translogCompressionEnabled = scopedSettings.get(INDEX_TRANSLOG_COMPRESSION_ENABLED_SETTING);
         flushAfterMergeThresholdSize = scopedSettings.get(INDEX_FLUSH_AFTER_MERGE_THRESHOLD_SIZE_SETTING);
         mergeSchedulerConfig = new MergeSchedulerConfig(this);
         gcDeletesInMillis = scopedSettings.get(INDEX_GC_DELETES_SETTING).getMillis();
@@ -735,6 +774,7 @@ public final class IndexSettings {
         maxNgramDiff = scopedSettings.get(MAX_NGRAM_DIFF_SETTING);
         maxShingleDiff = scopedSettings.get(MAX_SHINGLE_DIFF_SETTING);
         maxRefreshListeners = scopedSettings.get(MAX_REFRESH_LISTENERS_PER_SHARD);
+        bulkParallelParsingWindow = scopedSettings.get(INDEX_BULK_PARALLEL_PARSING_WINDOW_SETTING);
         maxSlicesPerScroll = scopedSettings.get(MAX_SLICES_PER_SCROLL);
         maxAnalyzedOffset = scopedSettings.get(MAX_ANALYZED_OFFSET_SETTING);
         maxTermsCount = scopedSettings.get(MAX_TERMS_COUNT_SETTING);
@@ -799,8 +839,10 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING, this::setTranslogFlushThresholdSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_FLUSH_AFTER_MERGE_THRESHOLD_SIZE_SETTING, this::setFlushAfterMergeThresholdSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_GENERATION_THRESHOLD_SIZE_SETTING, this::setGenerationThresholdSize);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_COMPRESSION_ENABLED_SETTING, this::setTranslogCompressionEnabled);
         scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_INTERVAL_SETTING, this::setRefreshInterval);
         scopedSettings.addSettingsUpdateConsumer(MAX_REFRESH_LISTENERS_PER_SHARD, this::setMaxRefreshListeners);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_BULK_PARALLEL_PARSING_WINDOW_SETTING, this::setBulkParallelParsingWindow);
         scopedSettings.addSettingsUpdateConsumer(MAX_ANALYZED_OFFSET_SETTING, this::setHighlightMaxAnalyzedOffset);
         scopedSettings.addSettingsUpdateConsumer(MAX_TERMS_COUNT_SETTING, this::setMaxTermsCount);
         scopedSettings.addSettingsUpdateConsumer(MAX_SLICES_PER_SCROLL, this::setMaxSlicesPerScroll);
@@ -836,6 +878,10 @@ public final class IndexSettings {
         this.generationThresholdSize = generationThresholdSize;
     }
 
+    private void setTranslogCompressionEnabled(boolean translogCompressionEnabled) {
+        this.translogCompressionEnabled = translogCompressionEnabled;
+    }
+
     private void setGCDeletes(TimeValue timeValue) {
         this.gcDeletesInMillis = timeValue.getMillis();
     }
@@ -1057,6 +1103,13 @@ public final class IndexSettings {
         return generationThresholdSize;
     }
 
+    /**
+     * Returns <code>true</code> iff batches of operations that are added to the translog together are compressed together.
+     */
+    public boolean isTranslogCompressionEnabled() {
+        return translogCompressionEnabled;
+    }
+
     /**
      * Returns the {@link MergeSchedulerConfig}
      */
@@ -1203,6 +1256,18 @@ public final class IndexSettings {
         this.maxRefreshListeners = maxRefreshListeners;
     }
 
+    /**
+     * The number of documents of a shard level bulk request that may be parsed ahead of the document that is being indexed on the
+     * primary. {@code 0} means that documents are parsed one after the other on the thread that indexes them.
+     */
+    public int getBulkParallelParsingWindow() {
+        return bulkParallelParsingWindow;
+    }
+
+    private void setBulkParallelParsingWindow(int bulkParallelParsingWindow) {
+        this.bulkParallelParsingWindow = bulkParallelParsingWindow;
+    }
+
     /**
      * The maximum number of slices allowed in a scroll request.
      */
@@ -14,6 +14,7 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.index.stats.IndexingPressureStats;
 
@@ -165,6 +166,26 @@ public class IndexingPressure {
         });
     }
 
+    /**
+     * Accounts for memory that a primary operation which is already accounted for holds on to in addition to its request, like the
+     * documents of a shard level bulk request that are parsed before it is their turn to be indexed. Unlike
+     * {@link #markPrimaryOperationStarted} this never rejects but returns {@code null} if the additional bytes would exceed the limit,
+     * so that the caller can fall back to doing the work without holding on to the additional memory.
+     */
+    @Nullable
+    public Releasable tryMarkPrimaryOperationLookaheadStarted(long bytes) {
+        long combinedBytes = this.currentCombinedCoordinatingAndPrimaryBytes.addAndGet(bytes);
+        if (combinedBytes + this.currentReplicaBytes.get() > primaryAndCoordinatingLimits) {
+            this.currentCombinedCoordinatingAndPrimaryBytes.getAndAdd(-bytes);
+            return null;
+        }
+        currentPrimaryBytes.getAndAdd(bytes);
+        return wrapReleasable(() -> {
+            this.currentCombinedCoordinatingAndPrimaryBytes.getAndAdd(-bytes);
+            this.currentPrimaryBytes.getAndAdd(-bytes);
+        });
+    }
+
     public Releasable markReplicaOperationStarted(int operations, long bytes, boolean forceExecution) {
         long replicaWriteBytes = this.currentReplicaBytes.addAndGet(bytes);
         if (forceExecution == false && replicaWriteBytes > replicaLimits) {
@@ -12,6 +12,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.ConcurrentMergeScheduler;
 import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.MergeScheduler;
+import org.apache.lucene.store.Directory;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
@@ -19,6 +20,8 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.MergeSchedulerConfig;
@@ -33,7 +36,8 @@ import java.util.Set;
 
 /**
  * An extension to the {@link ConcurrentMergeScheduler} that provides tracking on merge times, total
- * and current merges.
+ * and current merges. If a {@link NodeMergeLimiter} is given, merges additionally wait for and are
+ * throttled by the node wide limits.
  */
 class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
 
@@ -49,13 +53,19 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
     private final CounterMetric currentMergesSizeInBytes = new CounterMetric();
     private final CounterMetric totalMergeStoppedTime = new CounterMetric();
     private final CounterMetric totalMergeThrottledTime = new CounterMetric();
+    private final CounterMetric queuedMerges = new CounterMetric();
+    private final CounterMetric totalMergeQueuedTimeInNanos = new CounterMetric();
+    private final CounterMetric totalMergeNodeThrottledTimeInNanos = new CounterMetric();
 
     private final Set<OnGoingMerge> onGoingMerges = ConcurrentCollections.newConcurrentSet();
     private final Set<OnGoingMerge> readOnlyOnGoingMerges = Collections.unmodifiableSet(onGoingMerges);
     private final MergeSchedulerConfig config;
+    @Nullable
+    private final NodeMergeLimiter nodeMergeLimiter;
 
-    ElasticsearchConcurrentMergeScheduler(ShardId shardId, IndexSettings indexSettings) {
+    ElasticsearchConcurrentMergeScheduler(ShardId shardId, IndexSettings indexSettings, @Nullable NodeMergeLimiter nodeMergeLimiter) {
         this.config = indexSettings.getMergeSchedulerConfig();
+        this.nodeMergeLimiter = nodeMergeLimiter;
         this.shardId = shardId;
         this.indexSettings = indexSettings.getSettings();
         this.logger = Loggers.getLogger(getClass(), shardId);
@@ -113,11 +123,15 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
                 new ByteSizeValue(merge.estimatedMergeBytes)
             );
         }
+        long queuedNS = 0;
         try {
             beforeMerge(onGoingMerge);
-            super.doMerge(mergeSource, merge);
+            try (Releasable ignored = acquireNodeMergeSlot(merge)) {
+                queuedNS = System.nanoTime() - timeNS;
+                super.doMerge(mergeSource, merge);
+            }
         } finally {
-            long tookMS = TimeValue.nsecToMSec(System.nanoTime() - timeNS);
+            long tookMS = TimeValue.nsecToMSec(System.nanoTime() - timeNS - queuedNS);
 
             onGoingMerges.remove(onGoingMerge);
             afterMerge(onGoingMerge);
@@ -137,16 +151,18 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
             );
             totalMergeStoppedTime.inc(stoppedMS);
             totalMergeThrottledTime.inc(throttledMS);
+            totalMergeQueuedTimeInNanos.inc(queuedNS);
 
             String message = String.format(
                 Locale.ROOT,
-                "merge segment [%s] done: took [%s], [%,.1f MB], [%,d docs], [%s stopped], " + "[%s throttled]",
+                "merge segment [%s] done: took [%s], [%,.1f MB], [%,d docs], [%s stopped], " + "[%s throttled], [%s queued]",
                 getSegmentName(merge),
                 TimeValue.timeValueMillis(tookMS),
                 totalSizeInBytes / 1024f / 1024f,
                 totalNumDocs,
                 TimeValue.timeValueMillis(stoppedMS),
-                TimeValue.timeValueMillis(throttledMS)
+                TimeValue.timeValueMillis(throttledMS),
+                TimeValue.timeValueNanos(queuedNS)
             );
 
             if (tookMS > 20000) { // if more than 20 seconds, DEBUG log it
@@ -157,6 +173,24 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
         }
     }
 
+    private Releasable acquireNodeMergeSlot(MergePolicy.OneMerge merge) {
+        if (nodeMergeLimiter == null) {
+            return () -> {};
+        }
+        queuedMerges.inc();
+        try {
+            return nodeMergeLimiter.acquire(merge.totalBytesSize(), merge::isAborted);
+        } finally {
+            queuedMerges.dec();
+        }
+    }
+
+    @Override
+    public Directory wrapForMerge(MergePolicy.OneMerge merge, Directory in) {
+        final Directory wrapped = super.wrapForMerge(merge, in);
+        return nodeMergeLimiter == null ? wrapped : nodeMergeLimiter.wrapForMerge(wrapped, totalMergeNodeThrottledTimeInNanos);
+    }
+
     /**
      * A callback allowing for custom logic before an actual merge starts.
      */
@@ -200,8 +234,10 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
             currentMergesNumDocs.count(),
             currentMergesSizeInBytes.count(),
             totalMergeStoppedTime.count(),
-            totalMergeThrottledTime.count(),
-            config.isAutoThrottle() ? getIORateLimitMBPerSec() : Double.POSITIVE_INFINITY
+            totalMergeThrottledTime.count() + TimeValue.nsecToMSec(totalMergeNodeThrottledTimeInNanos.count()),
+            config.isAutoThrottle() ? getIORateLimitMBPerSec() : Double.POSITIVE_INFINITY,
+            queuedMerges.count(),
+            TimeValue.nsecToMSec(totalMergeQueuedTimeInNanos.count())
         );
         return mergeStats;
     }
@@ -65,6 +65,7 @@ import org.elasticsearch.transport.Transports;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -332,6 +333,24 @@ public abstract class Engine implements Closeable {
      */
     public abstract IndexResult index(Index index) throws IOException;
 
+    /**
+     * Perform a batch of document index operations on the engine. The outcome is the same as performing the operations one by one
+     * with {@link #index(Index)}, in order, but implementations may process certain batches more efficiently.
+     *
+     * @param operations the operations to perform
+     * @return the {@link IndexResult} of each operation, in the same order as the operations
+     *
+     * Note: engine level failures (i.e. persistent engine failures) are thrown, in which case the operations before the one that
+     * failed may have been performed.
+     */
+    public List<IndexResult> indexBatch(List<Index> operations) throws IOException {
+        final List<IndexResult> results = new ArrayList<>(operations.size());
+        for (Index operation : operations) {
+            results.add(index(operation));
+        }
+        return results;
+    }
+
     /**
      * Perform document delete operation on the engine
      * @param delete operation to perform
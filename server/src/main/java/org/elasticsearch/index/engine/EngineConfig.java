@@ -108,8 +108,39 @@ public final class EngineConfig {
         }
     }, Property.IndexScope, Property.NodeScope);
 
+    /**
+     * The data structure used to track the versions of documents that were indexed since the last refresh.
+     */
+    public enum VersionMapType {
+        /**
+         * Versions are tracked in concurrent hash maps and documents are locked with a lock per document id.
+         */
+        DEFAULT,
+        /**
+         * Versions are tracked in paged hash tables allocated from {@link org.elasticsearch.common.util.BigArrays} which are
+         * accounted for in the circuit breakers, and documents are locked with a fixed number of striped locks. This creates
+         * far fewer objects per indexed document which reduces the garbage collection overhead of indexing with custom ids.
+         */
+        PAGED
+    }
+
+    /**
+     * Index setting to select the {@link VersionMapType} of the engine. This setting is <b>not</b> realtime updateable.
+     */
+    public static final Setting<VersionMapType> INDEX_VERSION_MAP_TYPE_SETTING = Setting.enumSetting(
+        VersionMapType.class,
+        "index.engine.version_map.type",
+        VersionMapType.DEFAULT,
+        Property.IndexScope
+    );
+
+    private final VersionMapType versionMapType;
+
     private final TranslogConfig translogConfig;
 
+    @Nullable
+    private final NodeMergeLimiter nodeMergeLimiter;
+
     /**
      * Creates a new {@link org.elasticsearch.index.engine.EngineConfig}
      */
@@ -137,6 +168,63 @@ public final class EngineConfig {
         LongSupplier primaryTermSupplier,
         IndexStorePlugin.SnapshotCommitSupplier snapshotCommitSupplier,
         Comparator<LeafReader> leafSorter
+    ) {
+        this(
+            shardId,
+            threadPool,
+            indexSettings,
+            warmer,
+            store,
+            mergePolicy,
+            analyzer,
+            similarity,
+            codecService,
+            eventListener,
+            queryCache,
+            queryCachingPolicy,
+            translogConfig,
+            flushMergesAfter,
+            externalRefreshListener,
+            internalRefreshListener,
+            indexSort,
+            circuitBreakerService,
+            globalCheckpointSupplier,
+            retentionLeasesSupplier,
+            primaryTermSupplier,
+            snapshotCommitSupplier,
+            leafSorter,
+            null
+        );
+    }
+
+    /**
+     * Creates a new {@link org.elasticsearch.index.engine.EngineConfig} whose merges are subject to the given node wide limits
+     */
+    public EngineConfig(
+        ShardId shardId,
+        ThreadPool threadPool,
+        IndexSettings indexSettings,
+        Engine.Warmer warmer,
+        Store store,
+        MergePolicy mergePolicy,
+        Analyzer analyzer,
+        Similarity similarity,
+        CodecService codecService,
+        Engine.EventListener eventListener,
+        QueryCache queryCache,
+        QueryCachingPolicy queryCachingPolicy,
+        TranslogConfig translogConfig,
+        TimeValue flushMergesAfter,
+        List<ReferenceManager.RefreshListener> externalRefreshListener,
+        List<ReferenceManager.RefreshListener> internalRefreshListener,
+        Sort indexSort,
+        CircuitBreakerService circuitBreakerService,
+        LongSupplier globalCheckpointSupplier,
+        Supplier<RetentionLeases> retentionLeasesSupplier,
+        LongSupplier primaryTermSupplier,
+        IndexStorePlugin.SnapshotCommitSupplier snapshotCommitSupplier,
+        Comparator<LeafReader> leafSorter,
+        @Nullable NodeMergeLimiter nodeMergeLimiter
     ) {
         this.shardId = shardId;
         this.indexSettings = indexSettings;
@@ -149,6 +237,7 @@ public final class EngineConfig {
         this.codecService = codecService;
         this.eventListener = eventListener;
         codecName = indexSettings.getValue(INDEX_CODEC_SETTING);
+        versionMapType = indexSettings.getValue(INDEX_VERSION_MAP_TYPE_SETTING);
         // We need to make the indexing buffer for this shard at least as large
         // as the amount of memory that is available for all engines on the
         // local node so that decisions to flush segments to disk are made by
@@ -176,6 +265,7 @@ public final class EngineConfig {
         this.primaryTermSupplier = primaryTermSupplier;
         this.snapshotCommitSupplier = snapshotCommitSupplier;
         this.leafSorter = leafSorter;
+        this.nodeMergeLimiter = nodeMergeLimiter;
     }
 
     /**
@@ -219,6 +309,16 @@ public final class EngineConfig {
         return codecService.codec(codecName);
     }
 
+    /**
+     * Returns the {@link VersionMapType} of the engine's version map
+     * <p>
+     *     Note: this settings is only read on startup.
+     * </p>
+     */
+    public VersionMapType getVersionMapType() {
+        return versionMapType;
+    }
+
     /**
      * Returns a thread-pool mainly used to get estimated time stamps from
      * {@link org.elasticsearch.threadpool.ThreadPool#relativeTimeInMillis()} and to schedule
@@ -374,4 +474,12 @@ public final class EngineConfig {
     public Comparator<LeafReader> getLeafSorter() {
         return leafSorter;
     }
+
+    /**
+     * Returns the node wide limits that the merges of the engine are subject to, or {@code null} if there are none.
+     */
+    @Nullable
+    public NodeMergeLimiter getNodeMergeLimiter() {
+        return nodeMergeLimiter;
+    }
 }
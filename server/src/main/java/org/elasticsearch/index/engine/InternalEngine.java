@@ -58,6 +58,7 @@ import org.elasticsearch.core.Booleans;
 import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.SuppressForbidden;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.VersionType;
@@ -87,6 +88,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
@@ -130,7 +132,7 @@ public class InternalEngine extends Engine {
 
     // A uid (in the form of BytesRef) to the version map
     // we use the hashed variant since we iterate over it and check removal and additions on existing keys
-    private final LiveVersionMap versionMap = new LiveVersionMap();
+    private final LiveVersionMap versionMap;
 
     private volatile SegmentInfos lastCommittedSegmentInfos;
 
@@ -195,6 +197,7 @@ public class InternalEngine extends Engine {
     InternalEngine(EngineConfig engineConfig, int maxDocs, BiFunction<Long, Long, LocalCheckpointTracker> localCheckpointTrackerSupplier) {
         super(engineConfig);
         this.maxDocs = maxDocs;
+        this.versionMap = new LiveVersionMap(engineConfig.getVersionMapType(), engineConfig.getTranslogConfig().getBigArrays());
         final TranslogDeletionPolicy translogDeletionPolicy = new TranslogDeletionPolicy();
         store.incRef();
         IndexWriter writer = null;
@@ -205,7 +208,11 @@ public class InternalEngine extends Engine {
         boolean success = false;
         try {
             this.lastDeleteVersionPruneTimeMSec = engineConfig.getThreadPool().relativeTimeInMillis();
-            mergeScheduler = scheduler = new EngineMergeScheduler(engineConfig.getShardId(), engineConfig.getIndexSettings());
+            mergeScheduler = scheduler = new EngineMergeScheduler(
+                engineConfig.getShardId(),
+                engineConfig.getIndexSettings(),
+                engineConfig.getNodeMergeLimiter()
+            );
             throttle = new IndexThrottle();
             try {
                 store.trimUnsafeCommits(config().getTranslogConfig().getTranslogPath());
@@ -714,7 +721,7 @@ public class InternalEngine extends Engine {
                         // the update call doesn't need the consistency since it's source only + _parent but parent can go away in 7.0
                         if (versionValue.getLocation() != null) {
                             try {
-                                final Translog.Operation operation = translog.readOperation(versionValue.getLocation());
+                                final Translog.Operation operation = translog.readOperation(versionValue.getLocation(), versionValue.seqNo);
                                 if (operation != null) {
                                     return getFromTranslog(get, (Translog.Index) operation, mappingLookup, documentParser, searcherWrapper);
                                 }
@@ -1044,6 +1051,207 @@ public class InternalEngine extends Engine {
         }
     }
 
+    /**
+     * Indexes batches of append only operations on the primary, i.e. new documents with auto-generated ids that are not retries,
+     * in one go: they are planned together, added to Lucene with a single {@link IndexWriter#addDocuments} call, written to the
+     * translog as a single write and marked as processed together, see {@link LocalCheckpointTracker#markSeqNosAsProcessed}. All
+     * other batches are indexed one operation at a time.
+     */
+    @Override
+    public List<IndexResult> indexBatch(List<Index> operations) throws IOException {
+        if (operations.size() > 1 && operations.stream().allMatch(this::canIndexAsAppendOnlyBatch)) {
+            final List<IndexResult> results = tryIndexAppendOnlyBatch(operations);
+            if (results != null) {
+                return results;
+            }
+        }
+        return super.indexBatch(operations);
+    }
+
+    private boolean canIndexAsAppendOnlyBatch(Index index) {
+        return index.origin() == Operation.Origin.PRIMARY && index.isRetry() == false && canOptimizeAddDocument(index);
+    }
+
+    /**
+     * Returns the results of the batch or {@code null} if the lock of any of the _uids is held by another thread, which means that
+     * a retry of one of the operations is processed concurrently and the operations must be indexed one by one.
+     */
+    private List<IndexResult> tryIndexAppendOnlyBatch(List<Index> operations) throws IOException {
+        final List<Releasable> uidLocks = new ArrayList<>(operations.size());
+        try (ReleasableLock releasableLock = readLock.acquire()) {
+            ensureOpen();
+            for (Index index : operations) {
+                final Releasable uidLock = versionMap.tryAcquireLock(index.uid().bytes());
+                if (uidLock == null) {
+                    return null;
+                }
+                uidLocks.add(uidLock);
+            }
+            return indexAppendOnlyBatchUnderLock(operations);
+        } catch (RuntimeException | IOException e) {
+            try {
+                maybeFailEngine("index batch of [" + operations.size() + "] operations", e);
+            } catch (Exception inner) {
+                e.addSuppressed(inner);
+            }
+            throw e;
+        } finally {
+            Releasables.close(uidLocks);
+        }
+    }
+
+    private List<IndexResult> indexAppendOnlyBatchUnderLock(List<Index> operations) throws IOException {
+        final int numOps = operations.size();
+        final Index[] indices = operations.toArray(new Index[0]);
+        final IndexingStrategy[] plans = new IndexingStrategy[numOps];
+        final IndexResult[] results = new IndexResult[numOps];
+        int reservedDocs = 0;
+        try (Releasable indexThrottle = throttle.acquireThrottle()) {
+            final List<LuceneDocument> appendDocs = new ArrayList<>();
+            for (int i = 0; i < numOps; i++) {
+                Index index = indices[i];
+                assert Objects.equals(index.uid().field(), IdFieldMapper.NAME) : index.uid().field();
+                assert assertIncomingSequenceNumber(index.origin(), index.seqNo());
+                lastWriteNanos = index.startTime();
+                // see the note about append only optimizations in #index
+                final IndexingStrategy plan = indexingStrategyForOperation(index);
+                reservedDocs += plan.reservedDocs;
+                plans[i] = plan;
+                if (plan.earlyResultOnPreFlightError.isPresent()) {
+                    results[i] = plan.earlyResultOnPreFlightError.get();
+                    assert results[i].getResultType() == Result.Type.FAILURE : results[i].getResultType();
+                    continue;
+                }
+                index = indices[i] = new Index(
+                    index.uid(),
+                    index.parsedDoc(),
+                    generateSeqNoForOperationOnPrimary(index),
+                    index.primaryTerm(),
+                    index.version(),
+                    index.versionType(),
+                    index.origin(),
+                    index.startTime(),
+                    index.getAutoGeneratedIdTimestamp(),
+                    index.isRetry(),
+                    index.getIfSeqNo(),
+                    index.getIfPrimaryTerm()
+                );
+                final boolean toAppend = plan.indexIntoLucene && plan.useLuceneUpdateDocument == false;
+                if (toAppend == false) {
+                    advanceMaxSeqNoOfUpdatesOnPrimary(index.seqNo());
+                }
+                assert index.seqNo() >= 0 : "ops should have an assigned seq no.; origin: " + index.origin();
+                if (toAppend) {
+                    assert assertDocDoesNotExist(index, false);
+                    index.parsedDoc().updateSeqID(index.seqNo(), index.primaryTerm());
+                    index.parsedDoc().version().setLongValue(plan.versionForIndexing);
+                    appendDocs.addAll(index.docs());
+                } else if (plan.indexIntoLucene || plan.addStaleOpToLucene) {
+                    results[i] = indexIntoLucene(index, plan);
+                } else {
+                    results[i] = new IndexResult(
+                        plan.versionForIndexing,
+                        index.primaryTerm(),
+                        index.seqNo(),
+                        plan.currentNotFoundOrDeleted,
+                        index.id()
+                    );
+                }
+            }
+            addAppendOnlyDocs(indices, plans, results, appendDocs);
+
+            // all operations that got a result by now were added to Lucene or failed, record them in the translog
+            final List<Translog.Operation> translogOps = new ArrayList<>(numOps);
+            final List<IndexResult> translogResults = new ArrayList<>(numOps);
+            for (int i = 0; i < numOps; i++) {
+                final IndexResult indexResult = results[i];
+                if (indexResult.getResultType() == Result.Type.SUCCESS) {
+                    translogOps.add(new Translog.Index(indices[i], indexResult));
+                    translogResults.add(indexResult);
+                } else if (indexResult.getSeqNo() != SequenceNumbers.UNASSIGNED_SEQ_NO) {
+                    // if we have document failure, record it as a no-op in the translog and Lucene with the generated seq_no
+                    final NoOp noOp = new NoOp(
+                        indexResult.getSeqNo(),
+                        indices[i].primaryTerm(),
+                        indices[i].origin(),
+                        indices[i].startTime(),
+                        indexResult.getFailure().toString()
+                    );
+                    indexResult.setTranslogLocation(innerNoOp(noOp).getTranslogLocation());
+                }
+            }
+            if (translogOps.isEmpty() == false) {
+                final List<Translog.Location> locations = translog.add(translogOps);
+                for (int i = 0; i < locations.size(); i++) {
+                    translogResults.get(i).setTranslogLocation(locations.get(i));
+                }
+            }
+
+            final long[] seqNos = new long[numOps];
+            for (int i = 0; i < numOps; i++) {
+                final IndexResult indexResult = results[i];
+                if (plans[i].indexIntoLucene && indexResult.getResultType() == Result.Type.SUCCESS) {
+                    final Translog.Location translogLocation = trackTranslogLocation.get() ? indexResult.getTranslogLocation() : null;
+                    versionMap.maybePutIndexUnderLock(
+                        indices[i].uid().bytes(),
+                        new IndexVersionValue(translogLocation, plans[i].versionForIndexing, indices[i].seqNo(), indices[i].primaryTerm())
+                    );
+                }
+                seqNos[i] = indexResult.getSeqNo();
+            }
+            localCheckpointTracker.markSeqNosAsProcessed(seqNos);
+            for (int i = 0; i < numOps; i++) {
+                final IndexResult indexResult = results[i];
+                if (indexResult.getTranslogLocation() == null) {
+                    // the op does not have a sequence number
+                    assert indexResult.getSeqNo() == SequenceNumbers.UNASSIGNED_SEQ_NO;
+                    localCheckpointTracker.markSeqNoAsPersisted(indexResult.getSeqNo());
+                }
+                indexResult.setTook(System.nanoTime() - indices[i].startTime());
+                indexResult.freeze();
+            }
+            return Arrays.asList(results);
+        } finally {
+            releaseInFlightDocs(reservedDocs);
+        }
+    }
+
+    /**
+     * Adds the documents of all append only operations of a batch to Lucene in one go. If that fails with a document failure, the
+     * whole block of documents is discarded by Lucene and the operations are added one by one so that the failure is attributed to
+     * the operation that caused it.
+     */
+    private void addAppendOnlyDocs(Index[] indices, IndexingStrategy[] plans, IndexResult[] results, List<LuceneDocument> docs)
+        throws IOException {
+        if (docs.isEmpty()) {
+            return;
+        }
+        try {
+            addDocs(docs, indexWriter);
+        } catch (Exception ex) {
+            if (ex instanceof AlreadyClosedException == false && indexWriter.getTragicException() == null) {
+                for (int i = 0; i < indices.length; i++) {
+                    if (results[i] == null) {
+                        results[i] = indexIntoLucene(indices[i], plans[i]);
+                    }
+                }
+                return;
+            }
+            throw ex;
+        }
+        for (int i = 0; i < indices.length; i++) {
+            if (results[i] == null) {
+                results[i] = new IndexResult(
+                    plans[i].versionForIndexing,
+                    indices[i].primaryTerm(),
+                    indices[i].seqNo(),
+                    plans[i].currentNotFoundOrDeleted,
+                    indices[i].id()
+                );
+            }
+        }
+    }
+
     protected final IndexingStrategy planIndexingAsNonPrimary(Index index) throws IOException {
         assert assertNonPrimaryOrigin(index);
         // needs to maintain the auto_id timestamp in case this replica becomes primary
@@ -2493,8 +2701,8 @@ public class InternalEngine extends Engine {
         private final AtomicInteger numMergesInFlight = new AtomicInteger(0);
         private final AtomicBoolean isThrottling = new AtomicBoolean();
 
-        EngineMergeScheduler(ShardId shardId, IndexSettings indexSettings) {
-            super(shardId, indexSettings);
+        EngineMergeScheduler(ShardId shardId, IndexSettings indexSettings, @Nullable NodeMergeLimiter nodeMergeLimiter) {
+            super(shardId, indexSettings, nodeMergeLimiter);
         }
 
         @Override
@@ -12,6 +12,7 @@ import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.KeyedLock;
 import org.elasticsearch.core.Releasable;
@@ -21,11 +22,15 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
 
 /** Maps _uid value to its version information. */
 final class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
 
-    private final KeyedLock<BytesRef> keyedLock = new KeyedLock<>();
+    private final UidLock uidLock;
+
+    private final IntFunction<Map<BytesRef, VersionValue>> mapFactory;
 
     private static final class VersionLookup {
 
@@ -90,6 +95,15 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
             minDeleteTimestamp.updateAndGet(prev -> Math.min(time, prev));
         }
 
+        /**
+         * Releases the memory held by the underlying map if it isn't managed by the garbage collector. Lookups that race with
+         * this call see an empty map.
+         */
+        void release() {
+            if (map instanceof Releasable releasable) {
+                releasable.close();
+            }
+        }
     }
 
     private static final class Maps {
@@ -105,14 +119,23 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         boolean needsSafeAccess;
         final boolean previousMapsNeededSafeAccess;
 
-        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess) {
+        // creates the map backing a new version lookup given its expected size
+        private final IntFunction<Map<BytesRef, VersionValue>> mapFactory;
+
+        Maps(
+            VersionLookup current,
+            VersionLookup old,
+            boolean previousMapsNeededSafeAccess,
+            IntFunction<Map<BytesRef, VersionValue>> mapFactory
+        ) {
             this.current = current;
             this.old = old;
             this.previousMapsNeededSafeAccess = previousMapsNeededSafeAccess;
+            this.mapFactory = mapFactory;
         }
 
-        Maps() {
-            this(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()), VersionLookup.EMPTY, false);
+        Maps(IntFunction<Map<BytesRef, VersionValue>> mapFactory) {
+            this(new VersionLookup(mapFactory.apply(0)), VersionLookup.EMPTY, false, mapFactory);
         }
 
         boolean isSafeAccessMode() {
@@ -130,18 +153,14 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
          * Builds a new map for the refresh transition this should be called in beforeRefresh()
          */
         Maps buildTransitionMap() {
-            return new Maps(
-                new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(current.size())),
-                current,
-                shouldInheritSafeAccess()
-            );
+            return new Maps(new VersionLookup(mapFactory.apply(current.size())), current, shouldInheritSafeAccess(), mapFactory);
         }
 
         /**
          * builds a new map that invalidates the old map but maintains the current. This should be called in afterRefresh()
          */
         Maps invalidateOldMap() {
-            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
+            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess, mapFactory);
         }
 
         void put(BytesRef uid, VersionValue version) {
@@ -181,10 +200,39 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
     // All deletes also go here, and delete "tombstones" are retained after refresh:
     private final Map<BytesRef, DeleteVersionValue> tombstones = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
-    private volatile Maps maps = new Maps();
+    private volatile Maps maps;
     // we maintain a second map that only receives the updates that we skip on the actual map (unsafe ops)
     // this map is only maintained if assertions are enabled
-    private volatile Maps unsafeKeysMap = new Maps();
+    private volatile Maps unsafeKeysMap = new Maps(LiveVersionMap::newConcurrentMap);
+
+    LiveVersionMap() {
+        this(EngineConfig.VersionMapType.DEFAULT, BigArrays.NON_RECYCLING_INSTANCE);
+    }
+
+    /**
+     * @param type      the type of maps used to track the versions between refreshes
+     * @param bigArrays used to allocate the maps if the type is {@link EngineConfig.VersionMapType#PAGED}
+     */
+    LiveVersionMap(EngineConfig.VersionMapType type, BigArrays bigArrays) {
+        switch (type) {
+            case DEFAULT -> {
+                this.uidLock = new KeyedUidLock();
+                this.mapFactory = LiveVersionMap::newConcurrentMap;
+            }
+            case PAGED -> {
+                this.uidLock = new StripedUidLock(NUM_UID_LOCK_STRIPES);
+                this.mapFactory = expectedSize -> new PagedVersionLookupMap(bigArrays, expectedSize);
+            }
+            default -> throw new IllegalArgumentException("unknown version map type [" + type + "]");
+        }
+        this.maps = new Maps(mapFactory);
+    }
+
+    private static Map<BytesRef, VersionValue> newConcurrentMap(int expectedSize) {
+        return expectedSize == 0
+            ? ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()
+            : ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(expectedSize);
+    }
 
     /**
      * Bytes consumed for each BytesRef UID:
@@ -247,7 +295,9 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         // reopen, and so any concurrent indexing requests can still sneak in a few additions to that current map that are in fact
         // reflected in the previous reader. We don't touch tombstones here: they expire on their own index.gc_deletes timeframe:
 
-        maps = maps.invalidateOldMap();
+        final Maps previousMaps = maps;
+        maps = previousMaps.invalidateOldMap();
+        previousMaps.old.release();
         assert (unsafeKeysMap = unsafeKeysMap.invalidateOldMap()) != null;
 
     }
@@ -383,7 +433,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
             // we won't collect the tombstone below since it must be newer than this one.
             if (canRemoveTombstone(maxTimestampToPrune, maxSeqNoToPrune, entry.getValue())) {
                 final BytesRef uid = entry.getKey();
-                try (Releasable lock = keyedLock.tryAcquire(uid)) {
+                try (Releasable lock = uidLock.tryAcquire(uid)) {
                     // we use tryAcquire here since this is a best effort and we try to be least disruptive
                     // this method is also called under lock in the engine under certain situations such that this can lead to deadlocks
                     // if we do use a blocking acquire. see #28714
@@ -405,7 +455,10 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * Called when this index is closed.
      */
     synchronized void clear() {
-        maps = new Maps();
+        final Maps previousMaps = maps;
+        maps = new Maps(mapFactory);
+        previousMaps.current.release();
+        previousMaps.old.release();
         tombstones.clear();
         // NOTE: we can't zero this here, because a refresh thread could be calling InternalEngine.pruneDeletedTombstones at the same time,
         // and this will lead to an assert trip. Presumably it's fine if our ramBytesUsedTombstones is non-zero after clear since the
@@ -460,11 +513,104 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * @see KeyedLock
      */
     Releasable acquireLock(BytesRef uid) {
-        return keyedLock.acquire(uid);
+        return uidLock.acquire(uid);
+    }
+
+    /**
+     * Tries to acquire the lock for the given uId without blocking.
+     *
+     * @return the lock or <code>null</code> if the lock is held by another thread
+     * @see #acquireLock(BytesRef)
+     */
+    Releasable tryAcquireLock(BytesRef uid) {
+        return uidLock.tryAcquire(uid);
     }
 
     boolean assertKeyedLockHeldByCurrentThread(BytesRef uid) {
-        assert keyedLock.isHeldByCurrentThread(uid) : "Thread [" + Thread.currentThread().getName() + "], uid [" + uid.utf8ToString() + "]";
+        assert uidLock.isHeldByCurrentThread(uid) : "Thread [" + Thread.currentThread().getName() + "], uid [" + uid.utf8ToString() + "]";
         return true;
     }
+
+    /**
+     * The number of locks used by {@link EngineConfig.VersionMapType#PAGED} version maps. Two ids that hash to the same lock are
+     * serialized, this must be large enough to make that unlikely with many concurrent write threads.
+     */
+    static final int NUM_UID_LOCK_STRIPES = 256;
+
+    private interface UidLock {
+
+        Releasable acquire(BytesRef uid);
+
+        /**
+         * @return the lock or <code>null</code> if the lock is held by another thread
+         */
+        Releasable tryAcquire(BytesRef uid);
+
+        boolean isHeldByCurrentThread(BytesRef uid);
+    }
+
+    /**
+     * A lock per _uid, the lock is created on first acquisition and removed again once it's released by all threads.
+     */
+    private static final class KeyedUidLock implements UidLock {
+
+        private final KeyedLock<BytesRef> keyedLock = new KeyedLock<>();
+
+        @Override
+        public Releasable acquire(BytesRef uid) {
+            return keyedLock.acquire(uid);
+        }
+
+        @Override
+        public Releasable tryAcquire(BytesRef uid) {
+            return keyedLock.tryAcquire(uid);
+        }
+
+        @Override
+        public boolean isHeldByCurrentThread(BytesRef uid) {
+            return keyedLock.isHeldByCurrentThread(uid);
+        }
+    }
+
+    /**
+     * A fixed number of locks shared by all _uids that hash to the same stripe. Unlike {@link KeyedLock} this doesn't allocate
+     * any objects when acquiring or releasing a lock.
+     */
+    private static final class StripedUidLock implements UidLock {
+
+        private final ReentrantLock[] locks;
+        private final Releasable[] releasables;
+
+        StripedUidLock(int numStripes) {
+            locks = new ReentrantLock[numStripes];
+            releasables = new Releasable[numStripes];
+            for (int i = 0; i < numStripes; i++) {
+                final ReentrantLock lock = new ReentrantLock();
+                locks[i] = lock;
+                releasables[i] = lock::unlock;
+            }
+        }
+
+        private int stripe(BytesRef uid) {
+            return Math.floorMod(uid.hashCode(), locks.length);
+        }
+
+        @Override
+        public Releasable acquire(BytesRef uid) {
+            final int stripe = stripe(uid);
+            locks[stripe].lock();
+            return releasables[stripe];
+        }
+
+        @Override
+        public Releasable tryAcquire(BytesRef uid) {
+            final int stripe = stripe(uid);
+            return locks[stripe].tryLock() ? releasables[stripe] : null;
+        }
+
+        @Override
+        public boolean isHeldByCurrentThread(BytesRef uid) {
+            return locks[stripe(uid)].isHeldByCurrentThread();
+        }
+    }
 }
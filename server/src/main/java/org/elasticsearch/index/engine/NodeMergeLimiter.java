@@ -0,0 +1,273 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RateLimitedIndexOutput;
+import org.apache.lucene.store.RateLimiter;
+import org.apache.lucene.store.RateLimiter.SimpleRateLimiter;
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.core.TimeValue;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the merges of all shards on a node. Every shard schedules its merges with its own {@link ElasticsearchConcurrentMergeScheduler}
+ * whose limits and auto-throttling only consider the merges of that shard, so a node with many actively indexing shards may run far
+ * more concurrent merges than its disks sustain. This limiter adds two node wide limits on top:
+ * <ul>
+ *     <li>{@link #MAX_CONCURRENT_MERGES_SETTING} bounds the number of merges that run at the same time. Further merges wait in a queue
+ *     that admits the smallest merges first, since they finish quickly and keep the number of segments low. So that a steady stream of
+ *     small merges cannot starve the large ones, a merge that waited longer than {@link #MAX_QUEUE_TIME_SETTING} is admitted before
+ *     any merge that arrived after it.</li>
+ *     <li>{@link #MAX_BYTES_PER_SEC_SETTING} bounds the rate at which all merges on the node together write to disk.</li>
+ * </ul>
+ * Both are disabled by default.
+ */
+public final class NodeMergeLimiter {
+
+    public static final Setting<Integer> MAX_CONCURRENT_MERGES_SETTING = Setting.intSetting(
+        "indices.merge.scheduler.max_concurrent_merges",
+        0,
+        0,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    public static final Setting<TimeValue> MAX_QUEUE_TIME_SETTING = Setting.positiveTimeSetting(
+        "indices.merge.scheduler.max_queue_time",
+        TimeValue.timeValueMinutes(1),
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    public static final Setting<ByteSizeValue> MAX_BYTES_PER_SEC_SETTING = Setting.byteSizeSetting(
+        "indices.merge.scheduler.max_bytes_per_sec",
+        ByteSizeValue.ZERO,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    // how often a queued merge checks whether it got aborted
+    private static final long ABORT_CHECK_INTERVAL_MILLIS = 100;
+
+    // how often merges check the rate limit while it is disabled, so that enabling it applies to running merges too
+    private static final long UNLIMITED_PAUSE_CHECK_BYTES = 1024 * 1024;
+
+    private final LongSupplier relativeTimeInNanosSupplier;
+    // the waiters by size, and by arrival so that the oldest one can be admitted once it waited too long
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+        Comparator.comparingLong((Waiter waiter) -> waiter.mergeBytes).thenComparingLong(waiter -> waiter.seqNo)
+    );
+    private final Deque<Waiter> waitersByArrival = new ArrayDeque<>();
+    private long nextSeqNo;
+    private int running;
+    private int maxConcurrentMerges;
+    private long maxQueueTimeInNanos;
+    private volatile SimpleRateLimiter rateLimiter;
+
+    public NodeMergeLimiter(Settings settings, ClusterSettings clusterSettings) {
+        this(settings, clusterSettings, System::nanoTime);
+    }
+
+    NodeMergeLimiter(Settings settings, ClusterSettings clusterSettings, LongSupplier relativeTimeInNanosSupplier) {
+        this.relativeTimeInNanosSupplier = relativeTimeInNanosSupplier;
+        this.maxConcurrentMerges = MAX_CONCURRENT_MERGES_SETTING.get(settings);
+        this.maxQueueTimeInNanos = MAX_QUEUE_TIME_SETTING.get(settings).nanos();
+        setMaxBytesPerSec(MAX_BYTES_PER_SEC_SETTING.get(settings));
+        clusterSettings.addSettingsUpdateConsumer(MAX_CONCURRENT_MERGES_SETTING, this::setMaxConcurrentMerges);
+        clusterSettings.addSettingsUpdateConsumer(MAX_QUEUE_TIME_SETTING, this::setMaxQueueTime);
+        clusterSettings.addSettingsUpdateConsumer(MAX_BYTES_PER_SEC_SETTING, this::setMaxBytesPerSec);
+    }
+
+    synchronized void setMaxConcurrentMerges(int maxConcurrentMerges) {
+        this.maxConcurrentMerges = maxConcurrentMerges;
+        admitWaiters();
+    }
+
+    synchronized void setMaxQueueTime(TimeValue maxQueueTime) {
+        this.maxQueueTimeInNanos = maxQueueTime.nanos();
+    }
+
+    void setMaxBytesPerSec(ByteSizeValue maxBytesPerSec) {
+        if (maxBytesPerSec.getBytes() <= 0) {
+            rateLimiter = null;
+        } else if (rateLimiter != null) {
+            rateLimiter.setMBPerSec(maxBytesPerSec.getMbFrac());
+        } else {
+            rateLimiter = new SimpleRateLimiter(maxBytesPerSec.getMbFrac());
+        }
+    }
+
+    /**
+     * Blocks until a merge of the given size may run and returns a {@link Releasable} that must be closed once the merge finished.
+     * Returns early, without taking up a slot, if the merge gets aborted while it waits.
+     */
+    Releasable acquire(long mergeBytes, BooleanSupplier aborted) {
+        final Waiter waiter;
+        synchronized (this) {
+            if (waiters.isEmpty() && hasCapacity()) {
+                running++;
+                return Releasables.releaseOnce(this::release);
+            }
+            waiter = new Waiter(mergeBytes, nextSeqNo++, relativeTimeInNanosSupplier.getAsLong());
+            waiters.add(waiter);
+            waitersByArrival.add(waiter);
+            try {
+                while (waiter.admitted == false) {
+                    if (aborted.getAsBoolean()) {
+                        // the merge will fail as soon as it starts, no need to hold up the merges of other shards for it
+                        removeWaiter(waiter);
+                        return () -> {};
+                    }
+                    wait(ABORT_CHECK_INTERVAL_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.admitted) {
+                    release();
+                } else {
+                    removeWaiter(waiter);
+                }
+                Thread.currentThread().interrupt();
+                throw new ThreadInterruptedException(e);
+            }
+        }
+        return Releasables.releaseOnce(this::release);
+    }
+
+    private synchronized void release() {
+        assert running > 0 : running;
+        running--;
+        admitWaiters();
+    }
+
+    private void admitWaiters() {
+        assert Thread.holdsLock(this);
+        boolean admitted = false;
+        while (waiters.isEmpty() == false && hasCapacity()) {
+            final Waiter oldest = waitersByArrival.peekFirst();
+            final Waiter next;
+            if (relativeTimeInNanosSupplier.getAsLong() - oldest.queuedAtNanos >= maxQueueTimeInNanos) {
+                next = oldest;
+            } else {
+                next = waiters.peek();
+            }
+            removeWaiter(next);
+            next.admitted = true;
+            running++;
+            admitted = true;
+        }
+        if (admitted) {
+            notifyAll();
+        }
+    }
+
+    private void removeWaiter(Waiter waiter) {
+        assert Thread.holdsLock(this);
+        waiters.remove(waiter);
+        waitersByArrival.remove(waiter);
+    }
+
+    private boolean hasCapacity() {
+        return maxConcurrentMerges == 0 || running < maxConcurrentMerges;
+    }
+
+    /**
+     * Returns the number of merges that currently wait for other merges on the node to finish.
+     */
+    synchronized int queued() {
+        return waiters.size();
+    }
+
+    /**
+     * Wraps the directory a merge writes to so that its writes count against the node wide rate limit. The time the merge is paused
+     * to stay within the limit is added to the given metric, in nanoseconds.
+     */
+    Directory wrapForMerge(Directory in, CounterMetric throttledTimeInNanos) {
+        final RateLimiter limiter = new NodeRateLimiter(throttledTimeInNanos);
+        return new FilterDirectory(in) {
+            @Override
+            public IndexOutput createOutput(String name, IOContext context) throws IOException {
+                return new RateLimitedIndexOutput(limiter, in.createOutput(name, context));
+            }
+        };
+    }
+
+    private static final class Waiter {
+        private final long mergeBytes;
+        private final long seqNo;
+        private final long queuedAtNanos;
+        private boolean admitted;
+
+        Waiter(long mergeBytes, long seqNo, long queuedAtNanos) {
+            this.mergeBytes = mergeBytes;
+            this.seqNo = seqNo;
+            this.queuedAtNanos = queuedAtNanos;
+        }
+    }
+
+    /**
+     * Delegates to the current node wide rate limiter, which may change or get disabled while a merge is running.
+     */
+    private final class NodeRateLimiter extends RateLimiter {
+
+        private final CounterMetric throttledTimeInNanos;
+
+        NodeRateLimiter(CounterMetric throttledTimeInNanos) {
+            this.throttledTimeInNanos = throttledTimeInNanos;
+        }
+
+        @Override
+        public void setMBPerSec(double mbPerSec) {
+            throw new UnsupportedOperationException(
+                "the node wide merge rate limit is controlled by [" + MAX_BYTES_PER_SEC_SETTING.getKey() + "]"
+            );
+        }
+
+        @Override
+        public double getMBPerSec() {
+            final SimpleRateLimiter limiter = rateLimiter;
+            return limiter == null ? Double.POSITIVE_INFINITY : limiter.getMBPerSec();
+        }
+
+        @Override
+        public long pause(long bytes) throws IOException {
+            final SimpleRateLimiter limiter = rateLimiter;
+            if (limiter == null) {
+                return 0;
+            }
+            final long pausedNanos = limiter.pause(bytes);
+            throttledTimeInNanos.inc(pausedNanos);
+            return pausedNanos;
+        }
+
+        @Override
+        public long getMinPauseCheckBytes() {
+            final SimpleRateLimiter limiter = rateLimiter;
+            return limiter == null ? UNLIMITED_PAUSE_CHECK_BYTES : limiter.getMinPauseCheckBytes();
+        }
+    }
+}
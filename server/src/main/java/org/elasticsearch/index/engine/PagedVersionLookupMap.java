@@ -0,0 +1,227 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.index.translog.Translog;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A map from _uid to {@link IndexVersionValue} used by the {@link LiveVersionMap} in place of a
+ * {@link java.util.concurrent.ConcurrentHashMap} when the index uses {@link EngineConfig.VersionMapType#PAGED}. Keys are stored
+ * in paged {@link BytesRefHash}es and values are flattened into paged {@link LongArray}s, both allocated from {@link BigArrays},
+ * so that an entry does not create any objects that outlive the indexing request. The map is split into stripes that are each
+ * guarded by their own monitor. Since the engine already serializes all access to a single _uid these monitors are uncontended
+ * in practice.
+ * <p>
+ * Entries can not be removed from a {@link BytesRefHash}, a removed entry is therefore only marked as absent and its slot is
+ * reused if the same _uid is added again. The memory is released in one go once the map is {@link #close() closed}, which
+ * happens once the refresh that made its entries visible completed. Accessing a closed map behaves like accessing an empty map.
+ */
+final class PagedVersionLookupMap extends AbstractMap<BytesRef, VersionValue> implements Releasable {
+
+    private static final int NUM_STRIPES = 16;
+
+    // layout of the values of a single entry
+    private static final int FLAGS = 0;
+    private static final int VERSION = 1;
+    private static final int SEQ_NO = 2;
+    private static final int TERM = 3;
+    private static final int TRANSLOG_GENERATION = 4;
+    private static final int TRANSLOG_OFFSET = 5;
+    private static final int TRANSLOG_SIZE = 6;
+    private static final int VALUES_PER_ENTRY = 7;
+
+    private static final long FLAG_PRESENT = 1;
+    private static final long FLAG_HAS_LOCATION = 2;
+
+    private final BigArrays bigArrays;
+    private final Stripe[] stripes;
+    private final AtomicInteger size = new AtomicInteger();
+
+    PagedVersionLookupMap(BigArrays bigArrays, int expectedSize) {
+        this.bigArrays = bigArrays;
+        this.stripes = new Stripe[NUM_STRIPES];
+        final int capacityPerStripe = Math.max(16, expectedSize / NUM_STRIPES);
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(capacityPerStripe);
+        }
+    }
+
+    private Stripe stripe(BytesRef uid) {
+        return stripes[Math.floorMod(uid.hashCode(), NUM_STRIPES)];
+    }
+
+    @Override
+    public VersionValue get(Object key) {
+        final BytesRef uid = (BytesRef) key;
+        return stripe(uid).get(uid);
+    }
+
+    @Override
+    public VersionValue put(BytesRef uid, VersionValue value) {
+        if (value instanceof IndexVersionValue == false) {
+            throw new IllegalArgumentException("only index versions can be stored in a paged version map but got [" + value + "]");
+        }
+        return stripe(uid).put(uid, (IndexVersionValue) value);
+    }
+
+    @Override
+    public VersionValue remove(Object key) {
+        final BytesRef uid = (BytesRef) key;
+        return stripe(uid).remove(uid);
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /**
+     * Returns a point in time copy of the entries of this map. This is expensive and only meant to be used by tests.
+     */
+    @Override
+    public Set<Entry<BytesRef, VersionValue>> entrySet() {
+        final Map<BytesRef, VersionValue> copy = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            stripe.copyTo(copy);
+        }
+        return copy.entrySet();
+    }
+
+    @Override
+    public void close() {
+        for (Stripe stripe : stripes) {
+            stripe.close();
+        }
+    }
+
+    private final class Stripe implements Releasable {
+
+        private BytesRefHash uids;
+        private LongArray values;
+
+        Stripe(int capacity) {
+            boolean success = false;
+            try {
+                uids = new BytesRefHash(capacity, bigArrays);
+                values = bigArrays.newLongArray((long) capacity * VALUES_PER_ENTRY, false);
+                success = true;
+            } finally {
+                if (success == false) {
+                    close();
+                }
+            }
+        }
+
+        synchronized VersionValue get(BytesRef uid) {
+            if (uids == null) {
+                return null;
+            }
+            final long id = uids.find(uid);
+            return id < 0 ? null : read(id);
+        }
+
+        synchronized VersionValue put(BytesRef uid, IndexVersionValue value) {
+            if (uids == null) {
+                return null;
+            }
+            long id = uids.add(uid);
+            final VersionValue previous;
+            if (id < 0) {
+                id = -1 - id;
+                previous = read(id);
+            } else {
+                values = bigArrays.grow(values, (id + 1) * VALUES_PER_ENTRY);
+                previous = null;
+            }
+            final long offset = id * VALUES_PER_ENTRY;
+            final Translog.Location location = value.getLocation();
+            values.set(offset + FLAGS, location == null ? FLAG_PRESENT : FLAG_PRESENT | FLAG_HAS_LOCATION);
+            values.set(offset + VERSION, value.version);
+            values.set(offset + SEQ_NO, value.seqNo);
+            values.set(offset + TERM, value.term);
+            if (location != null) {
+                values.set(offset + TRANSLOG_GENERATION, location.generation);
+                values.set(offset + TRANSLOG_OFFSET, location.translogLocation);
+                values.set(offset + TRANSLOG_SIZE, location.size);
+            }
+            if (previous == null) {
+                size.incrementAndGet();
+            }
+            return previous;
+        }
+
+        synchronized VersionValue remove(BytesRef uid) {
+            if (uids == null) {
+                return null;
+            }
+            final long id = uids.find(uid);
+            if (id < 0) {
+                return null;
+            }
+            final VersionValue previous = read(id);
+            if (previous != null) {
+                values.set(id * VALUES_PER_ENTRY + FLAGS, 0L);
+                size.decrementAndGet();
+            }
+            return previous;
+        }
+
+        private IndexVersionValue read(long id) {
+            final long offset = id * VALUES_PER_ENTRY;
+            final long flags = values.get(offset + FLAGS);
+            if ((flags & FLAG_PRESENT) == 0) {
+                return null;
+            }
+            final Translog.Location location = (flags & FLAG_HAS_LOCATION) == 0
+                ? null
+                : new Translog.Location(
+                    values.get(offset + TRANSLOG_GENERATION),
+                    values.get(offset + TRANSLOG_OFFSET),
+                    (int) values.get(offset + TRANSLOG_SIZE)
+                );
+            return new IndexVersionValue(location, values.get(offset + VERSION), values.get(offset + SEQ_NO), values.get(offset + TERM));
+        }
+
+        synchronized void copyTo(Map<BytesRef, VersionValue> copy) {
+            if (uids == null) {
+                return;
+            }
+            for (long id = 0; id < uids.size(); id++) {
+                final VersionValue value = read(id);
+                if (value != null) {
+                    copy.put(BytesRef.deepCopyOf(uids.get(id, new BytesRef())), value);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            Releasables.close(uids, values);
+            uids = null;
+            values = null;
+        }
+    }
+}
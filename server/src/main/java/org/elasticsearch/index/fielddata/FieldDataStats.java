@@ -8,6 +8,7 @@
 
 package org.elasticsearch.index.fielddata;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.FieldMemoryStats;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -31,21 +32,32 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
     private long evictions;
     @Nullable
     private FieldMemoryStats fields;
+    private final GlobalOrdinalsStats globalOrdinals;
 
     public FieldDataStats() {
-
+        globalOrdinals = new GlobalOrdinalsStats();
     }
 
     public FieldDataStats(StreamInput in) throws IOException {
         memorySize = in.readVLong();
         evictions = in.readVLong();
         fields = in.readOptionalWriteable(FieldMemoryStats::new);
+        if (in.getVersion().onOrAfter(Version.V_8_4_0)) {
+            globalOrdinals = new GlobalOrdinalsStats(in);
+        } else {
+            globalOrdinals = new GlobalOrdinalsStats();
+        }
     }
 
     public FieldDataStats(long memorySize, long evictions, @Nullable FieldMemoryStats fields) {
+        this(memorySize, evictions, fields, new GlobalOrdinalsStats());
+    }
+
+    public FieldDataStats(long memorySize, long evictions, @Nullable FieldMemoryStats fields, GlobalOrdinalsStats globalOrdinals) {
         this.memorySize = memorySize;
         this.evictions = evictions;
         this.fields = fields;
+        this.globalOrdinals = globalOrdinals;
     }
 
     public void add(FieldDataStats stats) {
@@ -58,6 +70,7 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
                 fields.add(stats.fields);
             }
         }
+        this.globalOrdinals.add(stats.globalOrdinals);
     }
 
     public long getMemorySizeInBytes() {
@@ -77,11 +90,18 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         return fields;
     }
 
+    public GlobalOrdinalsStats getGlobalOrdinals() {
+        return globalOrdinals;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(memorySize);
         out.writeVLong(evictions);
         out.writeOptionalWriteable(fields);
+        if (out.getVersion().onOrAfter(Version.V_8_4_0)) {
+            globalOrdinals.writeTo(out);
+        }
     }
 
     @Override
@@ -92,6 +112,7 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         if (fields != null) {
             fields.toXContent(builder, FIELDS, MEMORY_SIZE_IN_BYTES, MEMORY_SIZE);
         }
+        globalOrdinals.toXContent(builder, params);
         builder.endObject();
         return builder;
     }
@@ -101,11 +122,14 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         FieldDataStats that = (FieldDataStats) o;
-        return memorySize == that.memorySize && evictions == that.evictions && Objects.equals(fields, that.fields);
+        return memorySize == that.memorySize
+            && evictions == that.evictions
+            && Objects.equals(fields, that.fields)
+            && globalOrdinals.equals(that.globalOrdinals);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(memorySize, evictions, fields);
+        return Objects.hash(memorySize, evictions, fields, globalOrdinals);
     }
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.fielddata;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.xcontent.ToXContentFragment;
+import org.elasticsearch.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Statistics about the global ordinals that were built, as part of the {@link FieldDataStats}.
+ */
+public class GlobalOrdinalsStats implements Writeable, ToXContentFragment {
+
+    private static final String GLOBAL_ORDINALS = "global_ordinals";
+    private static final String FIELDS = "fields";
+
+    private final Stats total;
+    @Nullable
+    private Map<String, Stats> fields;
+
+    public GlobalOrdinalsStats() {
+        this(new Stats(0, 0, 0, 0), null);
+    }
+
+    public GlobalOrdinalsStats(StreamInput in) throws IOException {
+        total = new Stats(in);
+        fields = in.readBoolean() ? in.readMap(StreamInput::readString, Stats::new) : null;
+    }
+
+    public GlobalOrdinalsStats(Stats total, @Nullable Map<String, Stats> fields) {
+        this.total = total;
+        this.fields = fields;
+    }
+
+    public void add(GlobalOrdinalsStats stats) {
+        total.add(stats.total);
+        if (stats.fields != null) {
+            if (fields == null) {
+                fields = new HashMap<>();
+            }
+            for (Map.Entry<String, Stats> entry : stats.fields.entrySet()) {
+                fields.computeIfAbsent(entry.getKey(), k -> new Stats(0, 0, 0, 0)).add(entry.getValue());
+            }
+        }
+    }
+
+    public Stats getTotal() {
+        return total;
+    }
+
+    @Nullable
+    public Map<String, Stats> getFields() {
+        return fields;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        total.writeTo(out);
+        if (fields != null) {
+            out.writeBoolean(true);
+            out.writeMap(fields, StreamOutput::writeString, (o, stats) -> stats.writeTo(o));
+        } else {
+            out.writeBoolean(false);
+        }
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(GLOBAL_ORDINALS);
+        total.toXContent(builder, params);
+        if (fields != null) {
+            builder.startObject(FIELDS);
+            for (Map.Entry<String, Stats> entry : fields.entrySet()) {
+                builder.startObject(entry.getKey());
+                entry.getValue().toXContent(builder, params);
+                builder.endObject();
+            }
+            builder.endObject();
+        }
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        GlobalOrdinalsStats that = (GlobalOrdinalsStats) o;
+        return total.equals(that.total) && Objects.equals(fields, that.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(total, fields);
+    }
+
+    /**
+     * The number of times global ordinals were built, how many of them reused the global ordinals of an earlier reader, how
+     * long building them took and how much memory the global ordinals that are currently loaded use.
+     */
+    public static class Stats implements Writeable, ToXContentFragment {
+
+        private static final String BUILDS = "builds";
+        private static final String INCREMENTAL_BUILDS = "incremental_builds";
+        private static final String BUILD_TIME = "build_time";
+        private static final String BUILD_TIME_IN_MILLIS = "build_time_in_millis";
+        private static final String MEMORY_SIZE = "memory_size";
+        private static final String MEMORY_SIZE_IN_BYTES = "memory_size_in_bytes";
+
+        private long builds;
+        private long incrementalBuilds;
+        private long buildTimeInMillis;
+        private long memorySize;
+
+        public Stats(long builds, long incrementalBuilds, long buildTimeInMillis, long memorySize) {
+            this.builds = builds;
+            this.incrementalBuilds = incrementalBuilds;
+            this.buildTimeInMillis = buildTimeInMillis;
+            this.memorySize = memorySize;
+        }
+
+        public Stats(StreamInput in) throws IOException {
+            builds = in.readVLong();
+            incrementalBuilds = in.readVLong();
+            buildTimeInMillis = in.readVLong();
+            memorySize = in.readVLong();
+        }
+
+        void add(Stats stats) {
+            builds += stats.builds;
+            incrementalBuilds += stats.incrementalBuilds;
+            buildTimeInMillis += stats.buildTimeInMillis;
+            memorySize += stats.memorySize;
+        }
+
+        public long getBuilds() {
+            return builds;
+        }
+
+        public long getIncrementalBuilds() {
+            return incrementalBuilds;
+        }
+
+        public TimeValue getBuildTime() {
+            return new TimeValue(buildTimeInMillis);
+        }
+
+        public long getMemorySizeInBytes() {
+            return memorySize;
+        }
+
+        public ByteSizeValue getMemorySize() {
+            return new ByteSizeValue(memorySize);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(builds);
+            out.writeVLong(incrementalBuilds);
+            out.writeVLong(buildTimeInMillis);
+            out.writeVLong(memorySize);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field(BUILDS, builds);
+            builder.field(INCREMENTAL_BUILDS, incrementalBuilds);
+            builder.humanReadableField(BUILD_TIME_IN_MILLIS, BUILD_TIME, getBuildTime());
+            builder.humanReadableField(MEMORY_SIZE_IN_BYTES, MEMORY_SIZE, getMemorySize());
+            return builder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Stats that = (Stats) o;
+            return builds == that.builds
+                && incrementalBuilds == that.incrementalBuilds
+                && buildTimeInMillis == that.buildTimeInMillis
+                && memorySize == that.memorySize;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(builds, incrementalBuilds, buildTimeInMillis, memorySize);
+        }
+    }
+}
@@ -251,5 +251,13 @@ public interface IndexFieldData<FD extends LeafFieldData> {
 
         IndexFieldData<FD> loadGlobalDirect(DirectoryReader indexReader) throws Exception;
 
+        /**
+         * Like {@link #loadGlobalDirect(DirectoryReader)} but may reuse the parts of {@code previous}, the global view that was
+         * loaded for an earlier reader of the same shard, that belong to segments the earlier reader shares with this one.
+         */
+        default IndexFieldData<FD> loadGlobalDirect(DirectoryReader indexReader, @Nullable IndexFieldData<?> previous) throws Exception {
+            return loadGlobalDirect(indexReader);
+        }
+
     }
 }
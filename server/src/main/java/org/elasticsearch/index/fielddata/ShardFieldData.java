@@ -14,17 +14,20 @@ import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.util.CollectionUtils;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
 import org.elasticsearch.index.shard.ShardId;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 public class ShardFieldData implements IndexFieldDataCache.Listener {
 
     private final CounterMetric evictionsMetric = new CounterMetric();
     private final CounterMetric totalMetric = new CounterMetric();
     private final ConcurrentMap<String, CounterMetric> perFieldTotals = ConcurrentCollections.newConcurrentMap();
+    private final ConcurrentMap<String, GlobalOrdinalsMetrics> perFieldGlobalOrdinals = ConcurrentCollections.newConcurrentMap();
 
     public FieldDataStats stats(String... fields) {
         Map<String, Long> fieldTotals = null;
@@ -36,10 +39,20 @@ public class ShardFieldData implements IndexFieldDataCache.Listener {
                 }
             }
         }
+        final GlobalOrdinalsStats.Stats globalOrdinalsTotal = new GlobalOrdinalsStats.Stats(0, 0, 0, 0);
+        final Map<String, GlobalOrdinalsStats.Stats> globalOrdinalsFields = fieldTotals == null ? null : new HashMap<>();
+        for (Map.Entry<String, GlobalOrdinalsMetrics> entry : perFieldGlobalOrdinals.entrySet()) {
+            final GlobalOrdinalsStats.Stats fieldStats = entry.getValue().stats();
+            globalOrdinalsTotal.add(fieldStats);
+            if (globalOrdinalsFields != null && Regex.simpleMatch(fields, entry.getKey())) {
+                globalOrdinalsFields.put(entry.getKey(), fieldStats);
+            }
+        }
         return new FieldDataStats(
             totalMetric.count(),
             evictionsMetric.count(),
-            fieldTotals == null ? null : new FieldMemoryStats(fieldTotals)
+            fieldTotals == null ? null : new FieldMemoryStats(fieldTotals),
+            new GlobalOrdinalsStats(globalOrdinalsTotal, globalOrdinalsFields)
         );
     }
 
@@ -57,6 +70,20 @@ public class ShardFieldData implements IndexFieldDataCache.Listener {
                 prev.inc(ramUsage.ramBytesUsed());
             }
         }
+        if (ramUsage instanceof GlobalOrdinalsIndexFieldData globalOrdinals) {
+            perFieldGlobalOrdinals.computeIfAbsent(fieldName, k -> new GlobalOrdinalsMetrics()).onBuild(globalOrdinals);
+        }
+    }
+
+    @Override
+    public void onRemoval(ShardId shardId, String fieldName, boolean wasEvicted, Accountable ramUsage) {
+        if (ramUsage instanceof GlobalOrdinalsIndexFieldData globalOrdinals) {
+            final GlobalOrdinalsMetrics metrics = perFieldGlobalOrdinals.get(fieldName);
+            if (metrics != null) {
+                metrics.memorySize.dec(globalOrdinals.ramBytesUsed());
+            }
+        }
+        onRemoval(shardId, fieldName, wasEvicted, ramUsage.ramBytesUsed());
     }
 
     @Override
@@ -73,4 +100,29 @@ public class ShardFieldData implements IndexFieldDataCache.Listener {
             }
         }
     }
+
+    private static class GlobalOrdinalsMetrics {
+        final CounterMetric builds = new CounterMetric();
+        final CounterMetric incrementalBuilds = new CounterMetric();
+        final CounterMetric buildTimeInNanos = new CounterMetric();
+        final CounterMetric memorySize = new CounterMetric();
+
+        void onBuild(GlobalOrdinalsIndexFieldData globalOrdinals) {
+            builds.inc();
+            if (globalOrdinals.isIncremental()) {
+                incrementalBuilds.inc();
+            }
+            buildTimeInNanos.inc(globalOrdinals.getBuildTime().nanos());
+            memorySize.inc(globalOrdinals.ramBytesUsed());
+        }
+
+        GlobalOrdinalsStats.Stats stats() {
+            return new GlobalOrdinalsStats.Stats(
+                builds.count(),
+                incrementalBuilds.count(),
+                TimeUnit.NANOSECONDS.toMillis(buildTimeInNanos.count()),
+                memorySize.count()
+            );
+        }
+    }
 }
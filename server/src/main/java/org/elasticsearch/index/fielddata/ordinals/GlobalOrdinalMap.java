@@ -0,0 +1,69 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.fielddata.ordinals;
+
+import org.apache.lucene.index.OrdinalMap;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.LongValues;
+
+/**
+ * Maps the ordinals of the segments of a reader to the global ordinals of the reader and back, like Lucene's {@link OrdinalMap}
+ * which can only be built from scratch.
+ */
+interface GlobalOrdinalMap extends Accountable {
+
+    /**
+     * Returns the total number of unique terms in the reader.
+     */
+    long getValueCount();
+
+    /**
+     * Returns the mapping from the ordinals of the segment with the given index to global ordinals.
+     */
+    LongValues getGlobalOrds(int segmentIndex);
+
+    /**
+     * Returns the index of a segment that contains the term with the given global ordinal.
+     */
+    int getFirstSegmentNumber(long globalOrd);
+
+    /**
+     * Returns the ordinal of the term with the given global ordinal in the segment that {@link #getFirstSegmentNumber} returns.
+     */
+    long getFirstSegmentOrd(long globalOrd);
+
+    static GlobalOrdinalMap of(OrdinalMap ordinalMap) {
+        return new GlobalOrdinalMap() {
+            @Override
+            public long getValueCount() {
+                return ordinalMap.getValueCount();
+            }
+
+            @Override
+            public LongValues getGlobalOrds(int segmentIndex) {
+                return ordinalMap.getGlobalOrds(segmentIndex);
+            }
+
+            @Override
+            public int getFirstSegmentNumber(long globalOrd) {
+                return ordinalMap.getFirstSegmentNumber(globalOrd);
+            }
+
+            @Override
+            public long getFirstSegmentOrd(long globalOrd) {
+                return ordinalMap.getFirstSegmentOrd(globalOrd);
+            }
+
+            @Override
+            public long ramBytesUsed() {
+                return ordinalMap.ramBytesUsed();
+            }
+        };
+    }
+}
@@ -11,11 +11,13 @@ package org.elasticsearch.index.fielddata.ordinals;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.packed.PackedInts;
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
 import org.elasticsearch.index.fielddata.LeafOrdinalsFieldData;
@@ -34,6 +36,12 @@ import java.util.concurrent.TimeUnit;
 public enum GlobalOrdinalsBuilder {
     ;
 
+    /**
+     * The maximum number of segments that the reader may add to the segments of an earlier reader for the global ordinals of the
+     * earlier reader to be reused. The terms of the new segments are merged by scanning all of them for the next term.
+     */
+    static final int MAX_NEW_SEGMENTS_FOR_INCREMENTAL_BUILD = 8;
+
     /**
      * Build global ordinals for the provided {@link IndexReader}.
      */
@@ -43,34 +51,68 @@ public enum GlobalOrdinalsBuilder {
         CircuitBreakerService breakerService,
         Logger logger,
         ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory
+    ) throws IOException {
+        return build(indexReader, indexFieldData, null, breakerService, logger, toScriptFieldFactory);
+    }
+
+    /**
+     * Build global ordinals for the provided {@link IndexReader}, reusing the global ordinals of an earlier reader of the same
+     * shard if all of its segments are still part of the reader and only a few segments were added.
+     */
+    public static IndexOrdinalsFieldData build(
+        final IndexReader indexReader,
+        IndexOrdinalsFieldData indexFieldData,
+        @Nullable GlobalOrdinalsIndexFieldData previous,
+        CircuitBreakerService breakerService,
+        Logger logger,
+        ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory
     ) throws IOException {
         assert indexReader.leaves().size() > 1;
         long startTimeNS = System.nanoTime();
 
         final LeafOrdinalsFieldData[] atomicFD = new LeafOrdinalsFieldData[indexReader.leaves().size()];
         final SortedSetDocValues[] subs = new SortedSetDocValues[indexReader.leaves().size()];
+        final IndexReader.CacheKey[] segmentKeys = new IndexReader.CacheKey[indexReader.leaves().size()];
         for (int i = 0; i < indexReader.leaves().size(); ++i) {
+            final LeafReader leafReader = indexReader.leaves().get(i).reader();
             atomicFD[i] = indexFieldData.load(indexReader.leaves().get(i));
             subs[i] = atomicFD[i].getOrdinalsValues();
+            segmentKeys[i] = leafReader.getCoreCacheHelper() == null ? null : leafReader.getCoreCacheHelper().getKey();
+        }
+        final int[] currentSegments = previous == null ? null : previous.findSegments(segmentKeys, subs);
+        final GlobalOrdinalMap ordinalMap;
+        final OrdinalMap luceneOrdinalMap;
+        if (currentSegments != null && subs.length - currentSegments.length <= MAX_NEW_SEGMENTS_FOR_INCREMENTAL_BUILD) {
+            ordinalMap = IncrementalOrdinalMap.build(previous.getGlobalOrdinalMap(), currentSegments, subs);
+            luceneOrdinalMap = null;
+        } else {
+            luceneOrdinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
+            ordinalMap = GlobalOrdinalMap.of(luceneOrdinalMap);
         }
-        final OrdinalMap ordinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
         final long memorySizeInBytes = ordinalMap.ramBytesUsed();
         breakerService.getBreaker(CircuitBreaker.FIELDDATA).addWithoutBreaking(memorySizeInBytes);
 
+        final TimeValue buildTime = new TimeValue(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS);
         if (logger.isDebugEnabled()) {
             logger.debug(
-                "global-ordinals [{}][{}] took [{}]",
+                "global-ordinals [{}][{}] took [{}]{}",
                 indexFieldData.getFieldName(),
                 ordinalMap.getValueCount(),
-                new TimeValue(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS)
+                buildTime,
+                luceneOrdinalMap == null ? " reusing [" + currentSegments.length + "] segments" : ""
             );
         }
         return new GlobalOrdinalsIndexFieldData(
             indexFieldData.getFieldName(),
             indexFieldData.getValuesSourceType(),
             atomicFD,
+            segmentKeys,
             ordinalMap,
+            luceneOrdinalMap,
+            breakerService.getBreaker(CircuitBreaker.FIELDDATA),
             memorySizeInBytes,
+            buildTime,
+            luceneOrdinalMap == null,
             toScriptFieldFactory
         );
     }
@@ -111,8 +153,13 @@ public enum GlobalOrdinalsBuilder {
             indexFieldData.getFieldName(),
             indexFieldData.getValuesSourceType(),
             atomicFD,
+            new IndexReader.CacheKey[atomicFD.length],
+            GlobalOrdinalMap.of(ordinalMap),
             ordinalMap,
+            null,
             0,
+            TimeValue.ZERO,
+            false,
             toScriptFieldFactory
         );
     }
@@ -8,14 +8,19 @@
 package org.elasticsearch.index.fielddata.ordinals;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.fielddata.IndexFieldData.XFieldComparatorSource.Nested;
 import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
 import org.elasticsearch.index.fielddata.LeafOrdinalsFieldData;
@@ -31,6 +36,8 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Concrete implementation of {@link IndexOrdinalsFieldData} for global ordinals.
@@ -46,27 +53,95 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
     private final String fieldName;
     private final ValuesSourceType valuesSourceType;
     private final long memorySizeInBytes;
-
-    private final OrdinalMap ordinalMap;
+    private final TimeValue buildTime;
+    private final boolean incremental;
+
+    private final GlobalOrdinalMap ordinalMap;
+    private volatile OrdinalMap luceneOrdinalMap;
+    @Nullable
+    private final CircuitBreaker breaker;
+    // the memory that the lazily built Lucene OrdinalMap holds in the breaker, guarded by this
+    private long luceneOrdinalMapBytes;
+    private boolean removed;
     private final LeafOrdinalsFieldData[] segmentAfd;
+    private final IndexReader.CacheKey[] segmentKeys;
+    private final long[] segmentValueCounts;
     private final ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory;
 
-    protected GlobalOrdinalsIndexFieldData(
+    GlobalOrdinalsIndexFieldData(
         String fieldName,
         ValuesSourceType valuesSourceType,
         LeafOrdinalsFieldData[] segmentAfd,
-        OrdinalMap ordinalMap,
+        IndexReader.CacheKey[] segmentKeys,
+        GlobalOrdinalMap ordinalMap,
+        @Nullable OrdinalMap luceneOrdinalMap,
+        @Nullable CircuitBreaker breaker,
         long memorySizeInBytes,
+        TimeValue buildTime,
+        boolean incremental,
         ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory
     ) {
         this.fieldName = fieldName;
         this.valuesSourceType = valuesSourceType;
         this.memorySizeInBytes = memorySizeInBytes;
+        this.buildTime = buildTime;
+        this.incremental = incremental;
         this.ordinalMap = ordinalMap;
+        this.luceneOrdinalMap = luceneOrdinalMap;
+        this.breaker = breaker;
         this.segmentAfd = segmentAfd;
+        this.segmentKeys = segmentKeys;
+        this.segmentValueCounts = new long[segmentAfd.length];
+        for (int i = 0; i < segmentAfd.length; i++) {
+            segmentValueCounts[i] = segmentAfd[i].getOrdinalsValues().getValueCount();
+        }
         this.toScriptFieldFactory = toScriptFieldFactory;
     }
 
+    /**
+     * The time it took to build these global ordinals.
+     */
+    public TimeValue getBuildTime() {
+        return buildTime;
+    }
+
+    /**
+     * Whether these global ordinals were built from the global ordinals of an earlier reader.
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    GlobalOrdinalMap getGlobalOrdinalMap() {
+        return ordinalMap;
+    }
+
+    /**
+     * Returns the index in a reader of each segment that these global ordinals were built for, or {@code null} if one of them
+     * is not part of the reader anymore and these global ordinals can't be reused for the reader.
+     *
+     * @param keys the core cache keys of the segments of the reader
+     * @param subs the ordinals of the segments of the reader
+     */
+    @Nullable
+    int[] findSegments(IndexReader.CacheKey[] keys, SortedSetDocValues[] subs) {
+        final Map<IndexReader.CacheKey, Integer> segments = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                segments.put(keys[i], i);
+            }
+        }
+        final int[] currentSegments = new int[segmentKeys.length];
+        for (int i = 0; i < segmentKeys.length; i++) {
+            final Integer segment = segmentKeys[i] == null ? null : segments.get(segmentKeys[i]);
+            if (segment == null || subs[segment].getValueCount() != segmentValueCounts[i]) {
+                return null;
+            }
+            currentSegments[i] = segment;
+        }
+        return currentSegments;
+    }
+
     public IndexOrdinalsFieldData newConsumer(DirectoryReader source) {
         return new Consumer(source);
     }
@@ -131,9 +206,55 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
         throw new IllegalStateException("load(LeafReaderContext) should not be called in this context");
     }
 
+    /**
+     * Returns the global ordinals as a Lucene {@link OrdinalMap}, which needs to be built first if they were built incrementally.
+     * A lazily built {@link OrdinalMap} is accounted for in the field data circuit breaker until these global ordinals are
+     * {@link #onRemoval() removed} from the cache, but not in their {@link #ramBytesUsed() memory usage}, which the cache weighs
+     * them by when they are added. Use {@link #getGlobalOrds} to map segment ordinals to global ordinals instead.
+     */
     @Override
     public OrdinalMap getOrdinalMap() {
-        return ordinalMap;
+        OrdinalMap map = luceneOrdinalMap;
+        if (map == null) {
+            synchronized (this) {
+                map = luceneOrdinalMap;
+                if (map == null) {
+                    final SortedSetDocValues[] subs = new SortedSetDocValues[segmentAfd.length];
+                    for (int i = 0; i < segmentAfd.length; i++) {
+                        subs[i] = segmentAfd[i].getOrdinalsValues();
+                    }
+                    try {
+                        map = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to build ordinal map", e);
+                    }
+                    if (breaker != null && removed == false) {
+                        // trips the breaker rather than holding the map if there is not enough memory left for it
+                        breaker.addEstimateBytesAndMaybeBreak(map.ramBytesUsed(), "global ordinals [" + fieldName + "]");
+                        luceneOrdinalMapBytes = map.ramBytesUsed();
+                    }
+                    luceneOrdinalMap = map;
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Releases the memory that the lazily built {@link #getOrdinalMap() Lucene OrdinalMap} holds in the field data circuit
+     * breaker. Called when these global ordinals are removed from the field data cache, which releases their own memory.
+     */
+    public synchronized void onRemoval() {
+        removed = true;
+        if (luceneOrdinalMapBytes > 0) {
+            breaker.addWithoutBreaking(-luceneOrdinalMapBytes);
+            luceneOrdinalMapBytes = 0;
+        }
+    }
+
+    @Override
+    public LongValues getGlobalOrds(int segmentIndex) {
+        return ordinalMap.getGlobalOrds(segmentIndex);
     }
 
     @Override
@@ -267,7 +388,12 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
 
         @Override
         public OrdinalMap getOrdinalMap() {
-            return ordinalMap;
+            return GlobalOrdinalsIndexFieldData.this.getOrdinalMap();
+        }
+
+        @Override
+        public LongValues getGlobalOrds(int segmentIndex) {
+            return ordinalMap.getGlobalOrds(segmentIndex);
         }
 
     }
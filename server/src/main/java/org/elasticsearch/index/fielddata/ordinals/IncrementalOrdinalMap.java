@@ -0,0 +1,187 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.fielddata.ordinals;
+
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.packed.PackedInts;
+import org.apache.lucene.util.packed.PackedLongValues;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A {@link GlobalOrdinalMap} that is built from the {@link GlobalOrdinalMap} of an earlier reader of the same shard. The terms of
+ * the segments that both readers share are already merged into the global ordinals of the earlier reader, so they are read once
+ * in global order and only need to be merged with the terms of the new segments, rather than merging the terms of all segments
+ * again like {@link org.apache.lucene.index.OrdinalMap} does.
+ */
+final class IncrementalOrdinalMap implements GlobalOrdinalMap {
+
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(IncrementalOrdinalMap.class);
+
+    private final long valueCount;
+    private final PackedLongValues[] segmentToGlobalOrds;
+    private final PackedLongValues firstSegments;
+    private final PackedLongValues globalOrdDeltas;
+
+    private IncrementalOrdinalMap(
+        long valueCount,
+        PackedLongValues[] segmentToGlobalOrds,
+        PackedLongValues firstSegments,
+        PackedLongValues globalOrdDeltas
+    ) {
+        this.valueCount = valueCount;
+        this.segmentToGlobalOrds = segmentToGlobalOrds;
+        this.firstSegments = firstSegments;
+        this.globalOrdDeltas = globalOrdDeltas;
+    }
+
+    /**
+     * Builds the global ordinals of a reader from the global ordinals of an earlier reader whose segments are all part of the reader.
+     *
+     * @param previous        the global ordinals of the earlier reader
+     * @param currentSegments the index in the reader of each segment of the earlier reader
+     * @param subs            the ordinals of each segment of the reader
+     */
+    static IncrementalOrdinalMap build(GlobalOrdinalMap previous, int[] currentSegments, SortedSetDocValues[] subs) throws IOException {
+        final boolean[] isPreviousSegment = new boolean[subs.length];
+        for (int segment : currentSegments) {
+            isPreviousSegment[segment] = true;
+        }
+        final TermsEnum[] lookups = new TermsEnum[subs.length];
+        int numNewSegments = 0;
+        for (int i = 0; i < subs.length; i++) {
+            if (isPreviousSegment[i]) {
+                lookups[i] = subs[i].termsEnum();
+            } else {
+                numNewSegments++;
+            }
+        }
+        final int[] newSegments = new int[numNewSegments];
+        final TermsEnum[] newTermsEnums = new TermsEnum[numNewSegments];
+        final BytesRef[] newTerms = new BytesRef[numNewSegments];
+        final PackedLongValues.Builder[] newSegmentToGlobalOrds = new PackedLongValues.Builder[numNewSegments];
+        for (int i = 0, k = 0; i < subs.length; i++) {
+            if (isPreviousSegment[i] == false) {
+                newSegments[k] = i;
+                newTermsEnums[k] = subs[i].termsEnum();
+                newTerms[k] = newTermsEnums[k].next();
+                newSegmentToGlobalOrds[k] = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+                k++;
+            }
+        }
+
+        final PackedLongValues.Builder previousToGlobalOrds = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+        final PackedLongValues.Builder firstSegments = PackedLongValues.packedBuilder(PackedInts.COMPACT);
+        final PackedLongValues.Builder globalOrdDeltas = PackedLongValues.packedBuilder(PackedInts.COMPACT);
+        final int[] matchingNewSegments = new int[numNewSegments];
+        long previousOrd = 0;
+        BytesRef previousTerm = lookupPreviousTerm(previous, currentSegments, lookups, previousOrd);
+        long globalOrd = 0;
+        while (true) {
+            BytesRef minNewTerm = null;
+            for (BytesRef newTerm : newTerms) {
+                if (newTerm != null && (minNewTerm == null || newTerm.compareTo(minNewTerm) < 0)) {
+                    minNewTerm = newTerm;
+                }
+            }
+            if (previousTerm == null && minNewTerm == null) {
+                break;
+            }
+            final int cmp = previousTerm == null ? 1 : minNewTerm == null ? -1 : previousTerm.compareTo(minNewTerm);
+            if (cmp <= 0) {
+                // the term was already in the earlier reader, keep the segment that it was looked up in
+                firstSegments.add(currentSegments[previous.getFirstSegmentNumber(previousOrd)]);
+                globalOrdDeltas.add(globalOrd - previous.getFirstSegmentOrd(previousOrd));
+                previousToGlobalOrds.add(globalOrd);
+            }
+            if (cmp >= 0) {
+                // collect the new segments that contain the term before moving any of them past it
+                int numMatching = 0;
+                for (int k = 0; k < numNewSegments; k++) {
+                    if (newTerms[k] != null && newTerms[k].equals(minNewTerm)) {
+                        matchingNewSegments[numMatching++] = k;
+                    }
+                }
+                for (int i = 0; i < numMatching; i++) {
+                    final int k = matchingNewSegments[i];
+                    if (cmp > 0 && i == 0) {
+                        firstSegments.add(newSegments[k]);
+                        globalOrdDeltas.add(globalOrd - newTermsEnums[k].ord());
+                    }
+                    newSegmentToGlobalOrds[k].add(globalOrd);
+                    newTerms[k] = newTermsEnums[k].next();
+                }
+            }
+            if (cmp <= 0) {
+                previousOrd++;
+                previousTerm = lookupPreviousTerm(previous, currentSegments, lookups, previousOrd);
+            }
+            globalOrd++;
+        }
+
+        final PackedLongValues previousToGlobal = previousToGlobalOrds.build();
+        final PackedLongValues[] segmentToGlobalOrds = new PackedLongValues[subs.length];
+        for (int previousSegment = 0; previousSegment < currentSegments.length; previousSegment++) {
+            final int segment = currentSegments[previousSegment];
+            final LongValues previousGlobalOrds = previous.getGlobalOrds(previousSegment);
+            final PackedLongValues.Builder builder = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+            for (long ord = 0; ord < subs[segment].getValueCount(); ord++) {
+                builder.add(previousToGlobal.get(previousGlobalOrds.get(ord)));
+            }
+            segmentToGlobalOrds[segment] = builder.build();
+        }
+        for (int k = 0; k < numNewSegments; k++) {
+            segmentToGlobalOrds[newSegments[k]] = newSegmentToGlobalOrds[k].build();
+        }
+        return new IncrementalOrdinalMap(globalOrd, segmentToGlobalOrds, firstSegments.build(), globalOrdDeltas.build());
+    }
+
+    private static BytesRef lookupPreviousTerm(GlobalOrdinalMap previous, int[] currentSegments, TermsEnum[] lookups, long previousOrd)
+        throws IOException {
+        if (previousOrd >= previous.getValueCount()) {
+            return null;
+        }
+        // the global ordinals of the same segment increase with its ordinals, so every terms enum only ever moves forward
+        final TermsEnum lookup = lookups[currentSegments[previous.getFirstSegmentNumber(previousOrd)]];
+        lookup.seekExact(previous.getFirstSegmentOrd(previousOrd));
+        return lookup.term();
+    }
+
+    @Override
+    public long getValueCount() {
+        return valueCount;
+    }
+
+    @Override
+    public LongValues getGlobalOrds(int segmentIndex) {
+        return segmentToGlobalOrds[segmentIndex];
+    }
+
+    @Override
+    public int getFirstSegmentNumber(long globalOrd) {
+        return (int) firstSegments.get(globalOrd);
+    }
+
+    @Override
+    public long getFirstSegmentOrd(long globalOrd) {
+        return globalOrd - globalOrdDeltas.get(globalOrd);
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        long ramBytesUsed = BASE_RAM_BYTES_USED + RamUsageEstimator.shallowSizeOf(segmentToGlobalOrds);
+        ramBytesUsed += Arrays.stream(segmentToGlobalOrds).mapToLong(PackedLongValues::ramBytesUsed).sum();
+        return ramBytesUsed + firstSegments.ramBytesUsed() + globalOrdDeltas.ramBytesUsed();
+    }
+}
@@ -348,7 +348,10 @@ public class MapperService extends AbstractIndexComponent implements Closeable {
             Mapping mapping = mergeMappings(this.mapper, incomingMapping, reason);
             // TODO: In many cases the source here is equal to mappingSource so we need not serialize again.
             // We should identify these cases reliably and save expensive serialization here
-            DocumentMapper newMapper = newDocumentMapper(mapping, reason, mapping.toCompressedXContent());
+            final CompressedXContent mergedSource = mapping.toCompressedXContent();
+            // keep the incoming instance if the merge did not change it, it is shared with the cluster state and with other indices
+            final CompressedXContent newSource = mergedSource.equals(mappingSource) ? mappingSource : mergedSource;
+            DocumentMapper newMapper = newDocumentMapper(mapping, reason, newSource);
             if (reason == MergeReason.MAPPING_UPDATE_PREFLIGHT) {
                 return newMapper;
             }
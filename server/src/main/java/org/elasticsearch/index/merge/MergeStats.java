@@ -8,6 +8,7 @@
 
 package org.elasticsearch.index.merge;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -36,6 +37,12 @@ public class MergeStats implements Writeable, ToXContentFragment {
 
     private long totalBytesPerSecAutoThrottle;
 
+    /** The number of merges that currently wait for the merges of other shards because of the node wide merge limit. */
+    private long queued;
+
+    /** Total millis that merges waited for the merges of other shards because of the node wide merge limit. */
+    private long totalQueuedTimeInMillis;
+
     public MergeStats() {
 
     }
@@ -52,6 +59,10 @@ public class MergeStats implements Writeable, ToXContentFragment {
         totalStoppedTimeInMillis = in.readVLong();
         totalThrottledTimeInMillis = in.readVLong();
         totalBytesPerSecAutoThrottle = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_4_0)) {
+            queued = in.readVLong();
+            totalQueuedTimeInMillis = in.readVLong();
+        }
     }
 
     public void add(
@@ -65,6 +76,36 @@ public class MergeStats implements Writeable, ToXContentFragment {
         long stoppedTimeMillis,
         long throttledTimeMillis,
         double mbPerSecAutoThrottle
+    ) {
+        add(
+            totalMerges,
+            totalMergeTime,
+            totalNumDocs,
+            totalSizeInBytes,
+            currentMerges,
+            currentNumDocs,
+            currentSizeInBytes,
+            stoppedTimeMillis,
+            throttledTimeMillis,
+            mbPerSecAutoThrottle,
+            0,
+            0
+        );
+    }
+
+    public void add(
+        long totalMerges,
+        long totalMergeTime,
+        long totalNumDocs,
+        long totalSizeInBytes,
+        long currentMerges,
+        long currentNumDocs,
+        long currentSizeInBytes,
+        long stoppedTimeMillis,
+        long throttledTimeMillis,
+        double mbPerSecAutoThrottle,
+        long queuedMerges,
+        long queuedTimeMillis
     ) {
         this.total += totalMerges;
         this.totalTimeInMillis += totalMergeTime;
@@ -75,6 +116,8 @@ public class MergeStats implements Writeable, ToXContentFragment {
         this.currentSizeInBytes += currentSizeInBytes;
         this.totalStoppedTimeInMillis += stoppedTimeMillis;
         this.totalThrottledTimeInMillis += throttledTimeMillis;
+        this.queued += queuedMerges;
+        this.totalQueuedTimeInMillis += queuedTimeMillis;
         long bytesPerSecAutoThrottle = (long) (mbPerSecAutoThrottle * 1024 * 1024);
         if (this.totalBytesPerSecAutoThrottle == Long.MAX_VALUE || bytesPerSecAutoThrottle == Long.MAX_VALUE) {
             this.totalBytesPerSecAutoThrottle = Long.MAX_VALUE;
@@ -90,6 +133,7 @@ public class MergeStats implements Writeable, ToXContentFragment {
         this.current += mergeStats.current;
         this.currentNumDocs += mergeStats.currentNumDocs;
         this.currentSizeInBytes += mergeStats.currentSizeInBytes;
+        this.queued += mergeStats.queued;
 
         addTotals(mergeStats);
     }
@@ -104,6 +148,7 @@ public class MergeStats implements Writeable, ToXContentFragment {
         this.totalSizeInBytes += mergeStats.totalSizeInBytes;
         this.totalStoppedTimeInMillis += mergeStats.totalStoppedTimeInMillis;
         this.totalThrottledTimeInMillis += mergeStats.totalThrottledTimeInMillis;
+        this.totalQueuedTimeInMillis += mergeStats.totalQueuedTimeInMillis;
         if (this.totalBytesPerSecAutoThrottle == Long.MAX_VALUE || mergeStats.totalBytesPerSecAutoThrottle == Long.MAX_VALUE) {
             this.totalBytesPerSecAutoThrottle = Long.MAX_VALUE;
         } else {
@@ -153,6 +198,27 @@ public class MergeStats implements Writeable, ToXContentFragment {
         return new TimeValue(totalThrottledTimeInMillis);
     }
 
+    /**
+     * The number of merges that currently wait for the merges of other shards because of the node wide merge limit.
+     */
+    public long getQueued() {
+        return this.queued;
+    }
+
+    /**
+     * The total time merges waited for the merges of other shards because of the node wide merge limit.
+     */
+    public long getTotalQueuedTimeInMillis() {
+        return this.totalQueuedTimeInMillis;
+    }
+
+    /**
+     * The total time merges waited for the merges of other shards because of the node wide merge limit.
+     */
+    public TimeValue getTotalQueuedTime() {
+        return new TimeValue(totalQueuedTimeInMillis);
+    }
+
     /**
      * The total time merges have been executed.
      */
@@ -211,6 +277,8 @@ public class MergeStats implements Writeable, ToXContentFragment {
             builder.field(Fields.TOTAL_THROTTLE_BYTES_PER_SEC).value(new ByteSizeValue(totalBytesPerSecAutoThrottle).toString());
         }
         builder.field(Fields.TOTAL_THROTTLE_BYTES_PER_SEC_IN_BYTES, totalBytesPerSecAutoThrottle);
+        builder.field(Fields.QUEUED, queued);
+        builder.humanReadableField(Fields.TOTAL_QUEUED_TIME_IN_MILLIS, Fields.TOTAL_QUEUED_TIME, getTotalQueuedTime());
         builder.endObject();
         return builder;
     }
@@ -233,6 +301,9 @@ public class MergeStats implements Writeable, ToXContentFragment {
         static final String TOTAL_SIZE_IN_BYTES = "total_size_in_bytes";
         static final String TOTAL_THROTTLE_BYTES_PER_SEC_IN_BYTES = "total_auto_throttle_in_bytes";
         static final String TOTAL_THROTTLE_BYTES_PER_SEC = "total_auto_throttle";
+        static final String QUEUED = "queued";
+        static final String TOTAL_QUEUED_TIME = "total_queued_time";
+        static final String TOTAL_QUEUED_TIME_IN_MILLIS = "total_queued_time_in_millis";
     }
 
     @Override
@@ -248,5 +319,9 @@ public class MergeStats implements Writeable, ToXContentFragment {
         out.writeVLong(totalStoppedTimeInMillis);
         out.writeVLong(totalThrottledTimeInMillis);
         out.writeVLong(totalBytesPerSecAutoThrottle);
+        if (out.getVersion().onOrAfter(Version.V_8_4_0)) {
+            out.writeVLong(queued);
+            out.writeVLong(totalQueuedTimeInMillis);
+        }
     }
 }
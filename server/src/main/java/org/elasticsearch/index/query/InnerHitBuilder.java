@@ -195,6 +195,30 @@ public final class InnerHitBuilder implements Writeable, ToXContentObject {
         }
     }
 
+    /**
+     * Returns a copy of this builder that shares its sorts, highlighting and fetch options with this one, so that the paging of
+     * the copy can be changed.
+     */
+    public InnerHitBuilder shallowCopy() {
+        InnerHitBuilder copy = new InnerHitBuilder(name);
+        copy.ignoreUnmapped = ignoreUnmapped;
+        copy.from = from;
+        copy.size = size;
+        copy.explain = explain;
+        copy.version = version;
+        copy.seqNoAndPrimaryTerm = seqNoAndPrimaryTerm;
+        copy.trackScores = trackScores;
+        copy.storedFieldsContext = storedFieldsContext;
+        copy.sorts = sorts;
+        copy.docValueFields = docValueFields;
+        copy.scriptFields = scriptFields;
+        copy.highlightBuilder = highlightBuilder;
+        copy.fetchSourceContext = fetchSourceContext;
+        copy.fetchFields = fetchFields;
+        copy.innerCollapseBuilder = innerCollapseBuilder;
+        return copy;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeOptionalString(name);
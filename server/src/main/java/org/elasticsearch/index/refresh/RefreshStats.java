@@ -34,6 +34,13 @@ public class RefreshStats implements Writeable, ToXContentFragment {
      */
     private int listeners;
 
+    /**
+     * Number of scheduled refreshes that were deferred by the adaptive refresh policy.
+     */
+    private long deferred;
+
+    private long deferredTimeInMillis;
+
     public RefreshStats() {}
 
     public RefreshStats(StreamInput in) throws IOException {
@@ -44,6 +51,10 @@ public class RefreshStats implements Writeable, ToXContentFragment {
             externalTotalTimeInMillis = in.readVLong();
         }
         listeners = in.readVInt();
+        if (in.getVersion().onOrAfter(Version.V_8_4_0)) {
+            deferred = in.readVLong();
+            deferredTimeInMillis = in.readVLong();
+        }
     }
 
     @Override
@@ -55,14 +66,32 @@ public class RefreshStats implements Writeable, ToXContentFragment {
             out.writeVLong(externalTotalTimeInMillis);
         }
         out.writeVInt(listeners);
+        if (out.getVersion().onOrAfter(Version.V_8_4_0)) {
+            out.writeVLong(deferred);
+            out.writeVLong(deferredTimeInMillis);
+        }
     }
 
     public RefreshStats(long total, long totalTimeInMillis, long externalTotal, long externalTotalTimeInMillis, int listeners) {
+        this(total, totalTimeInMillis, externalTotal, externalTotalTimeInMillis, listeners, 0, 0);
+    }
+
+    public RefreshStats(
+        long total,
+        long totalTimeInMillis,
+        long externalTotal,
+        long externalTotalTimeInMillis,
+        int listeners,
+        long deferred,
+        long deferredTimeInMillis
+    ) {
         this.total = total;
         this.totalTimeInMillis = totalTimeInMillis;
         this.externalTotal = externalTotal;
         this.externalTotalTimeInMillis = externalTotalTimeInMillis;
         this.listeners = listeners;
+        this.deferred = deferred;
+        this.deferredTimeInMillis = deferredTimeInMillis;
     }
 
     public void add(RefreshStats refreshStats) {
@@ -78,6 +107,8 @@ public class RefreshStats implements Writeable, ToXContentFragment {
         this.externalTotal += refreshStats.externalTotal;
         this.externalTotalTimeInMillis += refreshStats.externalTotalTimeInMillis;
         this.listeners += refreshStats.listeners;
+        this.deferred += refreshStats.deferred;
+        this.deferredTimeInMillis += refreshStats.deferredTimeInMillis;
     }
 
     /**
@@ -129,6 +160,27 @@ public class RefreshStats implements Writeable, ToXContentFragment {
         return listeners;
     }
 
+    /**
+     * The number of scheduled refreshes that were deferred by the adaptive refresh policy.
+     */
+    public long getDeferred() {
+        return deferred;
+    }
+
+    /**
+     * The total time changes waited to become visible because scheduled refreshes were deferred (in milliseconds).
+     */
+    public long getDeferredTimeInMillis() {
+        return deferredTimeInMillis;
+    }
+
+    /**
+     * The total time changes waited to become visible because scheduled refreshes were deferred.
+     */
+    public TimeValue getDeferredTime() {
+        return new TimeValue(deferredTimeInMillis);
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("refresh");
@@ -137,6 +189,8 @@ public class RefreshStats implements Writeable, ToXContentFragment {
         builder.field("external_total", externalTotal);
         builder.humanReadableField("external_total_time_in_millis", "external_total_time", getExternalTotalTime());
         builder.field("listeners", listeners);
+        builder.field("deferred", deferred);
+        builder.humanReadableField("deferred_time_in_millis", "deferred_time", getDeferredTime());
         builder.endObject();
         return builder;
     }
@@ -151,11 +205,13 @@ public class RefreshStats implements Writeable, ToXContentFragment {
             && totalTimeInMillis == rhs.totalTimeInMillis
             && externalTotal == rhs.externalTotal
             && externalTotalTimeInMillis == rhs.externalTotalTimeInMillis
-            && listeners == rhs.listeners;
+            && listeners == rhs.listeners
+            && deferred == rhs.deferred
+            && deferredTimeInMillis == rhs.deferredTimeInMillis;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(total, totalTimeInMillis, externalTotal, externalTotalTimeInMillis, listeners);
+        return Objects.hash(total, totalTimeInMillis, externalTotal, externalTotalTimeInMillis, listeners, deferred, deferredTimeInMillis);
     }
 }
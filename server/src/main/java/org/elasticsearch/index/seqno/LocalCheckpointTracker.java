@@ -8,13 +8,19 @@
 
 package org.elasticsearch.index.seqno;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * This class generates sequences numbers and keeps track of the so-called "local checkpoint" which is the highest number for which all
  * previous sequence numbers have been processed (inclusive).
+ * <p>
+ * All methods are lock-free so that the many write threads that index into the same shard do not contend on a monitor. Marking a
+ * sequence number sets its bit in an atomic bit set and, if the bit follows the checkpoint, moves the checkpoint forward with
+ * compare-and-set operations. Every thread that sets a bit checks the bit following the checkpoint afterwards, so whichever thread
+ * sets the last bit of a consecutive run of processed sequence numbers is guaranteed to see it and move the checkpoint over the run.
  */
 public class LocalCheckpointTracker {
 
@@ -28,13 +34,13 @@ public class LocalCheckpointTracker {
      * A collection of bit sets representing processed sequence numbers. Each sequence number is mapped to a bit set by dividing by the
      * bit set size.
      */
-    final Map<Long, CountedBitSet> processedSeqNo = new HashMap<>();
+    final Map<Long, AtomicBitSet> processedSeqNo = new ConcurrentHashMap<>();
 
     /**
      * A collection of bit sets representing durably persisted sequence numbers. Each sequence number is mapped to a bit set by dividing by
      * the bit set size.
      */
-    final Map<Long, CountedBitSet> persistedSeqNo = new HashMap<>();
+    final Map<Long, AtomicBitSet> persistedSeqNo = new ConcurrentHashMap<>();
 
     /**
      * The current local checkpoint, i.e., all sequence numbers no more than this number have been processed.
@@ -96,33 +102,48 @@ public class LocalCheckpointTracker {
      *
      * @param seqNo the sequence number to mark as processed
      */
-    public synchronized void markSeqNoAsProcessed(final long seqNo) {
+    public void markSeqNoAsProcessed(final long seqNo) {
         markSeqNo(seqNo, processedCheckpoint, processedSeqNo);
     }
 
+    /**
+     * Marks the provided sequence numbers as processed and updates the processed checkpoint if possible. This is equivalent to
+     * calling {@link #markSeqNoAsProcessed(long)} for each of them.
+     *
+     * @param seqNos the sequence numbers to mark as processed
+     */
+    public void markSeqNosAsProcessed(final long[] seqNos) {
+        for (long seqNo : seqNos) {
+            markSeqNo(seqNo, processedCheckpoint, processedSeqNo);
+        }
+    }
+
     /**
      * Marks the provided sequence number as persisted and updates the checkpoint if possible.
      *
      * @param seqNo the sequence number to mark as persisted
      */
-    public synchronized void markSeqNoAsPersisted(final long seqNo) {
+    public void markSeqNoAsPersisted(final long seqNo) {
         markSeqNo(seqNo, persistedCheckpoint, persistedSeqNo);
     }
 
-    private void markSeqNo(final long seqNo, final AtomicLong checkPoint, final Map<Long, CountedBitSet> bitSetMap) {
-        assert Thread.holdsLock(this);
+    private void markSeqNo(final long seqNo, final AtomicLong checkPoint, final Map<Long, AtomicBitSet> bitSetMap) {
         // make sure we track highest seen sequence number
         advanceMaxSeqNo(seqNo);
         if (seqNo <= checkPoint.get()) {
             // this is possible during recovery where we might replay an operation that was also replicated
             return;
         }
-        final CountedBitSet bitSet = getBitSetForSeqNo(bitSetMap, seqNo);
-        final int offset = seqNoToBitSetOffset(seqNo);
-        bitSet.set(offset);
-        if (seqNo == checkPoint.get() + 1) {
-            updateCheckpoint(checkPoint, bitSetMap);
+        final long bitSetKey = getBitSetKey(seqNo);
+        final AtomicBitSet bitSet = bitSetMap.computeIfAbsent(bitSetKey, k -> new AtomicBitSet());
+        bitSet.set(seqNoToBitSetOffset(seqNo));
+        if (checkPoint.get() >= lastSeqNoInBitSet(bitSetKey)) {
+            // a concurrent mark of the same sequence number moved the checkpoint past the bit set and removed it before we looked it
+            // up, so we might have added it again
+            bitSetMap.remove(bitSetKey, bitSet);
+            return;
         }
+        updateCheckpoint(checkPoint, bitSetMap);
     }
 
     /**
@@ -157,8 +178,10 @@ public class LocalCheckpointTracker {
      *
      * This is needed to make sure the persisted local checkpoint and max seq no are consistent
      */
-    public synchronized SeqNoStats getStats(final long globalCheckpoint) {
-        return new SeqNoStats(getMaxSeqNo(), getPersistedCheckpoint(), globalCheckpoint);
+    public SeqNoStats getStats(final long globalCheckpoint) {
+        // the max seq no is advanced before the checkpoint, reading the checkpoint first ensures that it never exceeds the max seq no
+        final long persistedCheckpoint = getPersistedCheckpoint();
+        return new SeqNoStats(getMaxSeqNo(), persistedCheckpoint, globalCheckpoint);
     }
 
     /**
@@ -172,47 +195,33 @@ public class LocalCheckpointTracker {
         if (seqNo <= processedCheckpoint.get()) {
             return true;
         }
-        final long bitSetKey = getBitSetKey(seqNo);
-        final int bitSetOffset = seqNoToBitSetOffset(seqNo);
-        synchronized (this) {
-            // check again under lock
-            if (seqNo <= processedCheckpoint.get()) {
-                return true;
-            }
-            final CountedBitSet bitSet = processedSeqNo.get(bitSetKey);
-            return bitSet != null && bitSet.get(bitSetOffset);
+        final AtomicBitSet bitSet = processedSeqNo.get(getBitSetKey(seqNo));
+        if (bitSet != null && bitSet.get(seqNoToBitSetOffset(seqNo))) {
+            return true;
         }
+        // check the checkpoint again, the bit set is removed once the checkpoint moved past it
+        return seqNo <= processedCheckpoint.get();
     }
 
     /**
-     * Moves the checkpoint to the last consecutively processed sequence number. This method assumes that the sequence number
-     * following the current checkpoint is processed.
+     * Moves the checkpoint to the last consecutively processed sequence number, if the sequence number following the checkpoint is
+     * processed. Whenever the checkpoint reaches the last sequence number of a bit set the bit set is removed, which happens exactly
+     * once since only a single thread can move the checkpoint to that sequence number.
      */
-    private void updateCheckpoint(AtomicLong checkPoint, Map<Long, CountedBitSet> bitSetMap) {
-        assert Thread.holdsLock(this);
-        assert getBitSetForSeqNo(bitSetMap, checkPoint.get() + 1).get(seqNoToBitSetOffset(checkPoint.get() + 1))
-            : "updateCheckpoint is called but the bit following the checkpoint is not set";
-        // keep it simple for now, get the checkpoint one by one; in the future we can optimize and read words
-        long bitSetKey = getBitSetKey(checkPoint.get());
-        CountedBitSet current = bitSetMap.get(bitSetKey);
-        if (current == null) {
-            // the bit set corresponding to the checkpoint has already been removed, set ourselves up for the next bit set
-            assert checkPoint.get() % BIT_SET_SIZE == BIT_SET_SIZE - 1;
-            current = bitSetMap.get(++bitSetKey);
-        }
-        do {
-            checkPoint.incrementAndGet();
-            /*
-             * The checkpoint always falls in the current bit set or we have already cleaned it; if it falls on the last bit of the
-             * current bit set, we can clean it.
-             */
-            if (checkPoint.get() == lastSeqNoInBitSet(bitSetKey)) {
-                assert current != null;
-                final CountedBitSet removed = bitSetMap.remove(bitSetKey);
-                assert removed == current;
-                current = bitSetMap.get(++bitSetKey);
+    private static void updateCheckpoint(AtomicLong checkPoint, Map<Long, AtomicBitSet> bitSetMap) {
+        while (true) {
+            final long current = checkPoint.get();
+            final long next = current + 1;
+            final long bitSetKey = getBitSetKey(next);
+            final AtomicBitSet bitSet = bitSetMap.get(bitSetKey);
+            if (bitSet == null || bitSet.get(seqNoToBitSetOffset(next)) == false) {
+                // whoever marks the next sequence number moves the checkpoint further
+                return;
+            }
+            if (checkPoint.compareAndSet(current, next) && next == lastSeqNoInBitSet(bitSetKey)) {
+                bitSetMap.remove(bitSetKey);
             }
-        } while (current != null && current.get(seqNoToBitSetOffset(checkPoint.get() + 1)));
+        }
     }
 
     private static long lastSeqNoInBitSet(final long bitSetKey) {
@@ -220,24 +229,17 @@ public class LocalCheckpointTracker {
     }
 
     /**
-     * Return the bit set for the provided sequence number, possibly allocating a new set if needed.
+     * Return the key of the bit set for the provided sequence number.
      *
-     * @param seqNo the sequence number to obtain the bit set for
-     * @return the bit set corresponding to the provided sequence number
+     * @param seqNo the sequence number to obtain the bit set key for
+     * @return the key of the bit set corresponding to the provided sequence number
      */
     private static long getBitSetKey(final long seqNo) {
         return seqNo / BIT_SET_SIZE;
     }
 
-    private CountedBitSet getBitSetForSeqNo(final Map<Long, CountedBitSet> bitSetMap, final long seqNo) {
-        assert Thread.holdsLock(this);
-        final long bitSetKey = getBitSetKey(seqNo);
-        return bitSetMap.computeIfAbsent(bitSetKey, k -> new CountedBitSet(BIT_SET_SIZE));
-    }
-
     /**
-     * Obtain the position in the bit set corresponding to the provided sequence number. The bit set corresponding to the sequence number
-     * can be obtained via {@link #getBitSetForSeqNo(Map, long)}.
+     * Obtain the position in the bit set corresponding to the provided sequence number.
      *
      * @param seqNo the sequence number to obtain the position for
      * @return the position in the bit set corresponding to the provided sequence number
@@ -246,4 +248,29 @@ public class LocalCheckpointTracker {
         return Math.toIntExact(seqNo % BIT_SET_SIZE);
     }
 
+    /**
+     * A fixed size bit set of {@link #BIT_SET_SIZE} bits that can be updated concurrently.
+     */
+    static final class AtomicBitSet {
+
+        private final AtomicLongArray words = new AtomicLongArray(BIT_SET_SIZE / Long.SIZE);
+
+        void set(int index) {
+            final long mask = 1L << index;
+            final int word = index >> 6;
+            long current = words.get(word);
+            while ((current & mask) == 0) {
+                final long witness = words.compareAndExchange(word, current, current | mask);
+                if (witness == current) {
+                    return;
+                }
+                current = witness;
+            }
+        }
+
+        boolean get(int index) {
+            return (words.get(index >> 6) & (1L << index)) != 0;
+        }
+    }
+
 }
@@ -87,6 +87,7 @@ import org.elasticsearch.index.engine.Engine.GetResult;
 import org.elasticsearch.index.engine.EngineConfig;
 import org.elasticsearch.index.engine.EngineException;
 import org.elasticsearch.index.engine.EngineFactory;
+import org.elasticsearch.index.engine.NodeMergeLimiter;
 import org.elasticsearch.index.engine.ReadOnlyEngine;
 import org.elasticsearch.index.engine.RefreshFailedEngineException;
 import org.elasticsearch.index.engine.SafeCommitInfo;
@@ -130,8 +131,10 @@ import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.index.translog.TranslogStats;
+import org.elasticsearch.index.translog.TranslogSyncScheduler;
 import org.elasticsearch.index.warmer.ShardIndexWarmerService;
 import org.elasticsearch.index.warmer.WarmerStats;
+import org.elasticsearch.indices.AdaptiveRefreshPolicy;
 import org.elasticsearch.indices.IndexingMemoryController;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
@@ -181,6 +184,7 @@ import java.util.function.Function;
 import java.util.function.LongSupplier;
 import java.util.function.LongUnaryOperator;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.elasticsearch.cluster.metadata.DataStream.TIMESERIES_LEAF_READERS_SORTER;
 import static org.elasticsearch.core.Strings.format;
@@ -222,6 +226,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final PendingReplicationActions pendingReplicationActions;
     private final ReplicationTracker replicationTracker;
     private final IndexStorePlugin.SnapshotCommitSupplier snapshotCommitSupplier;
+    @Nullable
+    private final NodeMergeLimiter nodeMergeLimiter;
 
     protected volatile ShardRouting shardRouting;
     protected volatile IndexShardState state;
@@ -247,6 +253,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final RecoveryStats recoveryStats = new RecoveryStats();
     private final MeanMetric refreshMetric = new MeanMetric();
     private final MeanMetric externalRefreshMetric = new MeanMetric();
+    private final CounterMetric deferredRefreshMetric = new CounterMetric();
+    private final CounterMetric deferredRefreshTimeInMillis = new CounterMetric();
     private final MeanMetric flushMetric = new MeanMetric();
     private final CounterMetric periodicFlushMetric = new CounterMetric();
 
@@ -282,6 +290,10 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final RefreshListeners refreshListeners;
 
     private final AtomicLong lastSearcherAccess = new AtomicLong();
+    // relative time in millis of the last scheduled refresh
+    private volatile long lastScheduledRefresh;
+    // relative time in millis since which scheduled refreshes are deferred by the adaptive refresh policy, -1 if they are not deferred
+    private volatile long scheduledRefreshDeferredSince = -1;
     private final AtomicReference<Translog.Location> pendingRefreshLocation = new AtomicReference<>();
     private final RefreshPendingLocationListener refreshPendingLocationListener;
     private volatile boolean useRetentionLeasesInPeerRecovery;
@@ -307,7 +319,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         final Runnable globalCheckpointSyncer,
         final RetentionLeaseSyncer retentionLeaseSyncer,
         final CircuitBreakerService circuitBreakerService,
-        final IndexStorePlugin.SnapshotCommitSupplier snapshotCommitSupplier
+        final IndexStorePlugin.SnapshotCommitSupplier snapshotCommitSupplier,
+        @Nullable final TranslogSyncScheduler translogSyncScheduler,
+        @Nullable final NodeMergeLimiter nodeMergeLimiter
     ) throws IOException {
         super(shardRouting.shardId(), indexSettings);
         assert shardRouting.initializing();
@@ -344,6 +358,13 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         this.shardBitsetFilterCache = new ShardBitsetFilterCache(shardId, indexSettings);
         state = IndexShardState.CREATED;
         this.path = path;
+        this.nodeMergeLimiter = nodeMergeLimiter;
+        this.translogSyncTarget = translogSyncScheduler != null && translogSyncScheduler.isEnabled()
+            ? translogSyncScheduler.newTarget(
+                path.getRootDataPath(),
+                locations -> syncTranslogLocations(logger, this::getEngine, locations)
+            )
+            : null;
         this.circuitBreakerService = circuitBreakerService;
         /* create engine config */
         logger.debug("state: [CREATED]");
@@ -904,6 +925,80 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         );
     }
 
+    /**
+     * Indexes a document on the primary that has already been parsed, see {@link #prepareIndex}. The caller is responsible for
+     * making sure that the document was parsed with the current mapping of this shard and that it did not require a mapping update.
+     *
+     * @param startTime the time in nanos at which parsing the document started
+     */
+    public Engine.IndexResult applyParsedIndexOperationOnPrimary(
+        long version,
+        VersionType versionType,
+        ParsedDocument doc,
+        long startTime,
+        long ifSeqNo,
+        long ifPrimaryTerm,
+        long autoGeneratedTimestamp,
+        boolean isRetry
+    ) throws IOException {
+        ensureWriteAllowed(Engine.Operation.Origin.PRIMARY);
+        final Engine.Index operation = prepareParsedIndexOperationOnPrimary(
+            version,
+            versionType,
+            doc,
+            startTime,
+            ifSeqNo,
+            ifPrimaryTerm,
+            autoGeneratedTimestamp,
+            isRetry
+        );
+        return index(getEngine(), operation);
+    }
+
+    /**
+     * Creates the primary operation for a document that has already been parsed, to be indexed through
+     * {@link #applyIndexOperationsOnPrimary}. The same requirements as for {@link #applyParsedIndexOperationOnPrimary} apply.
+     *
+     * @param startTime the time in nanos at which parsing the document started
+     */
+    public Engine.Index prepareParsedIndexOperationOnPrimary(
+        long version,
+        VersionType versionType,
+        ParsedDocument doc,
+        long startTime,
+        long ifSeqNo,
+        long ifPrimaryTerm,
+        long autoGeneratedTimestamp,
+        boolean isRetry
+    ) {
+        assert versionType.validateVersionForWrites(version);
+        assert doc.dynamicMappingsUpdate() == null : "pre-parsed document requires a mapping update";
+        return new Engine.Index(
+            new Term(IdFieldMapper.NAME, Uid.encodeId(doc.id())),
+            doc,
+            UNASSIGNED_SEQ_NO,
+            getOperationPrimaryTerm(),
+            version,
+            versionType,
+            Engine.Operation.Origin.PRIMARY,
+            startTime,
+            autoGeneratedTimestamp,
+            isRetry,
+            ifSeqNo,
+            ifPrimaryTerm
+        );
+    }
+
+    /**
+     * Indexes the given primary operations, see {@link #prepareParsedIndexOperationOnPrimary}, in order and returns their results.
+     * Batches of append only operations are indexed into the engine in one go, see {@link Engine#indexBatch}. Each operation goes
+     * through the indexing operation listeners as if it was indexed on its own.
+     */
+    public List<Engine.IndexResult> applyIndexOperationsOnPrimary(List<Engine.Index> operations) throws IOException {
+        ensureWriteAllowed(Engine.Operation.Origin.PRIMARY);
+        return indexBatch(getEngine(), operations);
+    }
+
     public Engine.IndexResult applyIndexOperationOnReplica(
         long seqNo,
         long opPrimaryTerm,
@@ -1076,6 +1171,47 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return result;
     }
 
+    private List<Engine.IndexResult> indexBatch(Engine engine, List<Engine.Index> operations) throws IOException {
+        active.set(true);
+        final List<Engine.IndexResult> results;
+        final List<Engine.Index> preIndex = new ArrayList<>(operations.size());
+        for (Engine.Index operation : operations) {
+            preIndex.add(indexingOperationListeners.preIndex(shardId, operation));
+        }
+        try {
+            if (logger.isTraceEnabled()) {
+                logger.trace(
+                    "index batch of [{}] operations allocation-id [{}] operationPrimaryTerm [{}]",
+                    preIndex.size(),
+                    routingEntry().allocationId(),
+                    getOperationPrimaryTerm()
+                );
+            }
+            results = engine.indexBatch(preIndex);
+            assert results.size() == preIndex.size() : results.size() + " results for " + preIndex.size() + " operations";
+        } catch (Exception e) {
+            if (logger.isTraceEnabled()) {
+                logger.trace(
+                    () -> format(
+                        "index-batch-fail of [%s] operations allocation-id [%s] operationPrimaryTerm [%s]",
+                        preIndex.size(),
+                        routingEntry().allocationId(),
+                        getOperationPrimaryTerm()
+                    ),
+                    e
+                );
+            }
+            for (Engine.Index operation : preIndex) {
+                indexingOperationListeners.postIndex(shardId, operation, e);
+            }
+            throw e;
+        }
+        for (int i = 0; i < preIndex.size(); i++) {
+            indexingOperationListeners.postIndex(shardId, preIndex.get(i), results.get(i));
+        }
+        return results;
+    }
+
     public Engine.NoOpResult markSeqNoAsNoop(long seqNo, long opPrimaryTerm, String reason) throws IOException {
         return markSeqNoAsNoop(getEngine(), seqNo, opPrimaryTerm, reason, Engine.Operation.Origin.REPLICA);
     }
@@ -1232,7 +1368,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             TimeUnit.NANOSECONDS.toMillis(refreshMetric.sum()),
             externalRefreshMetric.count(),
             TimeUnit.NANOSECONDS.toMillis(externalRefreshMetric.sum()),
-            listeners
+            listeners,
+            deferredRefreshMetric.count(),
+            deferredRefreshTimeInMillis.count()
         );
     }
 
@@ -1327,7 +1465,11 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     }
 
     public TranslogStats translogStats() {
-        return getEngine().getTranslogStats();
+        final TranslogStats translogStats = getEngine().getTranslogStats();
+        if (translogSyncTarget != null) {
+            translogStats.addGroupCommitStats(translogSyncTarget.stats());
+        }
+        return translogStats;
     }
 
     public CompletionStats completionStats(String... fields) {
@@ -3246,7 +3388,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             replicationTracker::getRetentionLeases,
             this::getOperationPrimaryTerm,
             snapshotCommitSupplier,
-            isTimeseriesIndex ? TIMESERIES_LEAF_READERS_SORTER : null
+            isTimeseriesIndex ? TIMESERIES_LEAF_READERS_SORTER : null,
+            nodeMergeLimiter
         );
     }
 
@@ -3584,6 +3727,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     }
 
     private final AsyncIOProcessor<Translog.Location> translogSyncProcessor;
+    @Nullable
+    private final TranslogSyncScheduler.Target translogSyncTarget;
 
     private static AsyncIOProcessor<Translog.Location> createTranslogSyncProcessor(
         Logger logger,
@@ -3593,19 +3738,24 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return new AsyncIOProcessor<>(logger, 1024, threadContext) {
             @Override
             protected void write(List<Tuple<Translog.Location, Consumer<Exception>>> candidates) throws IOException {
-                try {
-                    engineSupplier.get().ensureTranslogSynced(candidates.stream().map(Tuple::v1));
-                } catch (AlreadyClosedException ex) {
-                    // that's fine since we already synced everything on engine close - this also is conform with the methods
-                    // documentation
-                } catch (IOException ex) { // if this fails we are in deep shit - fail the request
-                    logger.debug("failed to sync translog", ex);
-                    throw ex;
-                }
+                syncTranslogLocations(logger, engineSupplier, candidates.stream().map(Tuple::v1));
             }
         };
     }
 
+    private static void syncTranslogLocations(Logger logger, Supplier<Engine> engineSupplier, Stream<Translog.Location> locations)
+        throws IOException {
+        try {
+            engineSupplier.get().ensureTranslogSynced(locations);
+        } catch (AlreadyClosedException ex) {
+            // that's fine since we already synced everything on engine close - this also is conform with the methods
+            // documentation
+        } catch (IOException ex) { // if this fails we are in deep shit - fail the request
+            logger.debug("failed to sync translog", ex);
+            throw ex;
+        }
+    }
+
     /**
      * Syncs the given location with the underlying storage unless already synced. This method might return immediately without
      * actually fsyncing the location until the sync listener is called. Yet, unless there is already another thread fsyncing
@@ -3614,10 +3764,16 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * one thread blocking on the sync an all others can continue indexing.
      * NOTE: if the syncListener throws an exception when it's processed the exception will only be logged. Users should make sure that the
      * listener handles all exception cases internally.
+     * If group commit is enabled on this node (see {@link TranslogSyncScheduler}) the fsync is instead executed by the sync thread of
+     * the shard's data path, batched together with the syncs of other requests that arrived within the group commit window.
      */
     public final void sync(Translog.Location location, Consumer<Exception> syncListener) {
         verifyNotClosed();
-        translogSyncProcessor.put(location, syncListener);
+        if (translogSyncTarget != null) {
+            translogSyncTarget.sync(location, syncListener);
+        } else {
+            translogSyncProcessor.put(location, syncListener);
+        }
     }
 
     public void sync() throws IOException {
@@ -3755,6 +3911,15 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * @return <code>true</code> iff the engine got refreshed otherwise <code>false</code>
      */
     public boolean scheduledRefresh() {
+        return scheduledRefresh(null);
+    }
+
+    /**
+     * Executes a scheduled refresh if necessary, unless the given node level policy decides to defer it.
+     *
+     * @return <code>true</code> iff the engine got refreshed otherwise <code>false</code>
+     */
+    public boolean scheduledRefresh(@Nullable AdaptiveRefreshPolicy adaptiveRefreshPolicy) {
         verifyNotClosed();
         boolean listenerNeedsRefresh = refreshListeners.refreshNeeded();
         if (isReadAllowed() && (listenerNeedsRefresh || getEngine().refreshNeeded())) {
@@ -3769,18 +3934,57 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 engine.maybePruneDeletes(); // try to prune the deletes in the engine if we accumulated some
                 setRefreshPending(engine);
                 return false;
+            } else if (listenerNeedsRefresh == false
+                && adaptiveRefreshPolicy != null
+                && active.get() // same as above, inactive shards must refresh to free up segment memory
+                && deferScheduledRefresh(adaptiveRefreshPolicy)) {
+                // the node level policy decided that refreshing this shard now isn't worth it, see AdaptiveRefreshPolicy
+                final Engine engine = getEngine();
+                engine.maybePruneDeletes(); // try to prune the deletes in the engine if we accumulated some
+                return false;
             } else {
                 if (logger.isTraceEnabled()) {
                     logger.trace("refresh with source [schedule]");
                 }
+                onScheduledRefresh();
                 return getEngine().maybeRefresh("schedule");
             }
         }
+        scheduledRefreshDeferredSince = -1;
         final Engine engine = getEngine();
         engine.maybePruneDeletes(); // try to prune the deletes in the engine if we accumulated some
         return false;
     }
 
+    private boolean deferScheduledRefresh(AdaptiveRefreshPolicy adaptiveRefreshPolicy) {
+        final long now = threadPool.relativeTimeInMillis();
+        final long deferredSince = scheduledRefreshDeferredSince;
+        final Engine engine = getEngine();
+        if (adaptiveRefreshPolicy.shouldDeferRefresh(
+            deferredSince == -1 ? 0 : now - deferredSince,
+            lastSearcherAccess.get() >= lastScheduledRefresh,
+            engine.getIndexBufferRAMBytesUsed(),
+            engine.isThrottled()
+        )) {
+            if (deferredSince == -1) {
+                scheduledRefreshDeferredSince = now;
+            }
+            deferredRefreshMetric.inc();
+            return true;
+        }
+        return false;
+    }
+
+    private void onScheduledRefresh() {
+        final long now = threadPool.relativeTimeInMillis();
+        final long deferredSince = scheduledRefreshDeferredSince;
+        if (deferredSince != -1) {
+            deferredRefreshTimeInMillis.inc(Math.max(0L, now - deferredSince));
+            scheduledRefreshDeferredSince = -1;
+        }
+        lastScheduledRefresh = now;
+    }
+
     /**
      * Returns true if this shards is search idle
      */
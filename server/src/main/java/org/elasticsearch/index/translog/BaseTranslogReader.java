@@ -16,6 +16,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 /**
  * A base class for all classes that allows reading ops from translog files
@@ -68,7 +69,11 @@ public abstract class BaseTranslogReader implements Comparable<BaseTranslogReade
         readBytes(reusableBuffer, position);
         reusableBuffer.flip();
         // Add an extra 4 to account for the operation size integer itself
-        final int size = reusableBuffer.getInt() + 4;
+        return checkOpSize(reusableBuffer.getInt() + 4, position);
+    }
+
+    /** validates that an op of the given size (including the op size) fits into the translog file at the given position */
+    protected final int checkOpSize(int size, long position) {
         final long maxSize = sizeInBytes() - position;
         if (size < 0 || size > maxSize) {
             throw new TranslogCorruptedException(
@@ -106,20 +111,25 @@ public abstract class BaseTranslogReader implements Comparable<BaseTranslogReade
         return new BufferedChecksumStreamInput(new ByteBufferStreamInput(buffer), path.toString(), reuse);
     }
 
-    protected Translog.Operation read(BufferedChecksumStreamInput inStream) throws IOException {
-        final Translog.Operation op = Translog.readOperation(inStream);
-        if (op.primaryTerm() > getPrimaryTerm() && getPrimaryTerm() != SequenceNumbers.UNASSIGNED_PRIMARY_TERM) {
-            throw new TranslogCorruptedException(
-                path.toString(),
-                "operation's term is newer than translog header term; "
-                    + "operation term["
-                    + op.primaryTerm()
-                    + "], translog header term ["
-                    + getPrimaryTerm()
-                    + "]"
-            );
+    /**
+     * reads an entry of the translog file, which holds either a single operation or a {@link CompressedTranslogBatch} of operations.
+     */
+    protected List<Translog.Operation> readEntry(BufferedChecksumStreamInput inStream) throws IOException {
+        final List<Translog.Operation> operations = Translog.readEntry(inStream, header.supportsCompressedBatches());
+        for (Translog.Operation op : operations) {
+            if (op.primaryTerm() > getPrimaryTerm() && getPrimaryTerm() != SequenceNumbers.UNASSIGNED_PRIMARY_TERM) {
+                throw new TranslogCorruptedException(
+                    path.toString(),
+                    "operation's term is newer than translog header term; "
+                        + "operation term["
+                        + op.primaryTerm()
+                        + "], translog header term ["
+                        + getPrimaryTerm()
+                        + "]"
+                );
+            }
         }
-        return op;
+        return operations;
     }
 
     /**
@@ -146,11 +156,21 @@ public abstract class BaseTranslogReader implements Comparable<BaseTranslogReade
     }
 
     /**
-     * Reads a single operation from the given location.
+     * Reads a single operation from the given location. If the location points to a {@link CompressedTranslogBatch}, whose operations
+     * all share its location, returns the operation of the batch with the given sequence number or <code>null</code> if there is none.
      */
-    Translog.Operation read(Translog.Location location) throws IOException {
+    Translog.Operation read(Translog.Location location, long seqNo) throws IOException {
         assert location.generation == this.generation : "generation mismatch expected: " + generation + " got: " + location.generation;
         ByteBuffer buffer = ByteBuffer.allocate(location.size);
-        return read(checksummedStream(buffer, location.translogLocation, location.size, null));
+        final List<Translog.Operation> operations = readEntry(checksummedStream(buffer, location.translogLocation, location.size, null));
+        if (operations.size() == 1) {
+            return operations.get(0);
+        }
+        for (Translog.Operation operation : operations) {
+            if (operation.seqNo() == seqNo && seqNo != SequenceNumbers.UNASSIGNED_SEQ_NO) {
+                return operation;
+            }
+        }
+        return null;
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.translog;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.lz4.ESLZ4Compressor;
+import org.elasticsearch.lz4.ESLZ4Decompressor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of operations that is written to the translog as a single LZ4 compressed entry. Operations that are added together, such as
+ * the documents of a bulk request, tend to share most of their field names and plenty of their values, which makes them compress well
+ * as a whole while they hardly compress one by one.
+ * <p>
+ * A batch entry uses the same framing as an entry holding a single operation, it starts with its size and ends with a checksum of
+ * everything in between. Its first byte is {@link #ID}, which is distinct from the ids of all {@link Translog.Operation.Type}s, followed
+ * by the number of operations, the uncompressed and the compressed length and the compressed bytes. The uncompressed bytes hold the
+ * operations exactly as they would have been written one by one, so every operation keeps its own size and checksum.
+ * <p>
+ * Batch entries are only written to translog files with at least header version {@link TranslogHeader#VERSION_COMPRESSED_BATCHES}.
+ */
+final class CompressedTranslogBatch {
+
+    static final byte ID = (byte) 0x7F;
+
+    private CompressedTranslogBatch() {}
+
+    /**
+     * Compresses the given operations into a single translog entry, including its size and checksum.
+     *
+     * @param operations    the serialized operations, each prefixed by its size as written by {@link Translog#add(Translog.Operation)}
+     * @param numOperations the number of operations
+     * @return the entry or <code>null</code> if the operations don't compress
+     */
+    static BytesReference compress(BytesReference operations, int numOperations) throws IOException {
+        assert numOperations > 0 : numOperations;
+        final BytesRef uncompressed = operations.toBytesRef();
+        final LZ4Compressor compressor = ESLZ4Compressor.INSTANCE;
+        final byte[] compressed = new byte[compressor.maxCompressedLength(uncompressed.length)];
+        final int compressedLength = compressor.compress(
+            uncompressed.bytes,
+            uncompressed.offset,
+            uncompressed.length,
+            compressed,
+            0,
+            compressed.length
+        );
+
+        final BytesStreamOutput out = new BytesStreamOutput(compressedLength + 32);
+        out.skip(Integer.BYTES);
+        final BufferedChecksumStreamOutput checksumOut = new BufferedChecksumStreamOutput(out);
+        checksumOut.writeByte(ID);
+        checksumOut.writeVInt(numOperations);
+        checksumOut.writeVInt(uncompressed.length);
+        checksumOut.writeVInt(compressedLength);
+        checksumOut.writeBytes(compressed, 0, compressedLength);
+        checksumOut.writeInt((int) checksumOut.getChecksum());
+        final int end = Math.toIntExact(out.position());
+        if (end >= operations.length()) {
+            return null;
+        }
+        out.seek(0);
+        out.writeInt(end - Integer.BYTES);
+        out.seek(end);
+        return out.bytes();
+    }
+
+    /**
+     * Reads the operations of a batch entry whose {@link #ID} was already read from the given stream. The checksum of the entry is
+     * left to the caller to verify.
+     */
+    static List<Translog.Operation> readOperations(BufferedChecksumStreamInput in) throws IOException {
+        final int numOperations = in.readVInt();
+        final BytesReference uncompressed = readUncompressed(in, numOperations, in.getSource());
+        final BufferedChecksumStreamInput operationsIn = new BufferedChecksumStreamInput(uncompressed.streamInput(), in.getSource());
+        final List<Translog.Operation> operations = new ArrayList<>(numOperations);
+        for (int i = 0; i < numOperations; i++) {
+            operations.add(Translog.readOperation(operationsIn));
+        }
+        if (operationsIn.available() != 0) {
+            throw new TranslogCorruptedException(in.getSource(), "compressed batch holds more than [" + numOperations + "] operations");
+        }
+        return operations;
+    }
+
+    /**
+     * Returns the uncompressed operations, each prefixed by its size, of the given batch entry, which includes its size and checksum.
+     */
+    static BytesReference uncompressedOperations(BytesReference entry) throws IOException {
+        final BufferedChecksumStreamInput in = new BufferedChecksumStreamInput(entry.streamInput(), "compressed batch");
+        in.readInt();
+        if (in.readByte() != ID) {
+            throw new IllegalArgumentException("not a compressed batch");
+        }
+        return readUncompressed(in, in.readVInt(), in.getSource());
+    }
+
+    private static BytesReference readUncompressed(StreamInput in, int numOperations, String source) throws IOException {
+        final int uncompressedLength = in.readVInt();
+        final int compressedLength = in.readVInt();
+        if (numOperations <= 0 || uncompressedLength <= 0 || compressedLength <= 0) {
+            throw new TranslogCorruptedException(
+                source,
+                "invalid compressed batch of ["
+                    + numOperations
+                    + "] operations, ["
+                    + uncompressedLength
+                    + "] uncompressed bytes and ["
+                    + compressedLength
+                    + "] compressed bytes"
+            );
+        }
+        final byte[] compressed = new byte[compressedLength];
+        in.readBytes(compressed, 0, compressedLength);
+        final byte[] uncompressed = new byte[uncompressedLength];
+        final int read;
+        try {
+            read = ESLZ4Decompressor.INSTANCE.decompress(compressed, 0, uncompressed, 0, uncompressedLength);
+        } catch (LZ4Exception | ArrayIndexOutOfBoundsException e) {
+            throw new TranslogCorruptedException(source, "failed to decompress batch", e);
+        }
+        if (read != compressedLength) {
+            throw new TranslogCorruptedException(
+                source,
+                "compressed batch has [" + compressedLength + "] bytes but only [" + read + "] were decompressed"
+            );
+        }
+        return new BytesArray(uncompressed);
+    }
+}
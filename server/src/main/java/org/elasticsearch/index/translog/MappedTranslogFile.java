@@ -0,0 +1,39 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.core.AbstractRefCounted;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * A read-only memory mapping of a sealed translog file. The mapping is shared by the {@link TranslogReader} of the file, which holds one
+ * reference, and by each snapshot that reads through it, which holds another one until it is closed. The mapping is not unmapped
+ * explicitly, the garbage collector releases it once the last reference is gone and nothing points to the buffer any more. Reference
+ * counting ensures that nothing reads from the buffer after the reader and all of its snapshots released it.
+ */
+final class MappedTranslogFile extends AbstractRefCounted {
+
+    private final MappedByteBuffer buffer;
+
+    MappedTranslogFile(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    ByteBuffer buffer() {
+        assert hasReferences() : "translog file is released already";
+        return buffer;
+    }
+
+    @Override
+    protected void closeInternal() {
+        // the mapping is released by the garbage collector, once the reader and its snapshots dropped their reference to the buffer
+    }
+}
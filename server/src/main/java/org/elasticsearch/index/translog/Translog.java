@@ -20,6 +20,7 @@ import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
 import org.elasticsearch.core.IOUtils;
@@ -125,6 +126,12 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
     private final String translogUUID;
     private final TranslogDeletionPolicy deletionPolicy;
     private final LongConsumer persistedSequenceNumberConsumer;
+    private final boolean mmapReads;
+    // totals of the compressed batches written since this translog was opened
+    private final CounterMetric compressedBatches = new CounterMetric();
+    private final CounterMetric compressedOperations = new CounterMetric();
+    private final CounterMetric compressedBatchesUncompressedBytes = new CounterMetric();
+    private final CounterMetric compressedBatchesCompressedBytes = new CounterMetric();
 
     /**
      * Creates a new Translog instance. This method will create a new transaction log unless the given {@link TranslogGeneration} is
@@ -162,6 +169,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         this.translogUUID = translogUUID;
         bigArrays = config.getBigArrays();
         diskIoBufferPool = config.getDiskIoBufferPool();
+        mmapReads = config.getIndexSettings().getValue(IndexSettings.INDEX_TRANSLOG_MMAP_READS_SETTING);
         ReadWriteLock rwl = new ReentrantReadWriteLock();
         readLock = new ReleasableLock(rwl.readLock());
         writeLock = new ReleasableLock(rwl.writeLock());
@@ -553,7 +561,8 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
                 tragedy,
                 persistedSequenceNumberConsumer,
                 bigArrays,
-                diskIoBufferPool
+                diskIoBufferPool,
+                config.getIndexSettings().isTranslogCompressionEnabled()
             );
         } catch (final IOException e) {
             throw new TranslogException(shardId, "failed to create new translog file", e);
@@ -582,23 +591,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
             final BytesReference bytes = out.bytes();
             try (ReleasableLock ignored = readLock.acquire()) {
                 ensureOpen();
-                if (operation.primaryTerm() > current.getPrimaryTerm()) {
-                    assert false
-                        : "Operation term is newer than the current term; "
-                            + "current term["
-                            + current.getPrimaryTerm()
-                            + "], operation term["
-                            + operation
-                            + "]";
-                    throw new IllegalArgumentException(
-                        "Operation term is newer than the current term; "
-                            + "current term["
-                            + current.getPrimaryTerm()
-                            + "], operation term["
-                            + operation
-                            + "]"
-                    );
-                }
+                ensureOperationTermIsNotNewer(operation);
                 return current.add(bytes, operation.seqNo());
             }
         } catch (final AlreadyClosedException | IOException ex) {
@@ -612,6 +605,86 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         }
     }
 
+    /**
+     * Adds the given operations to the transaction log. The operations are serialized into a single buffer which is appended to the
+     * current generation in one go, so that the operations end up next to each other in the translog. If
+     * {@link IndexSettings#INDEX_TRANSLOG_COMPRESSION_ENABLED_SETTING} was enabled when the current translog file was created the
+     * operations are written as a single {@link CompressedTranslogBatch}, in which case they all share the location of the batch and
+     * are read back through {@link #readOperation(Location, long)}.
+     *
+     * @param operations the operations to add
+     * @return the locations of the operations in the translog, in the same order as the operations
+     * @throws IOException if adding the operations to the translog resulted in an I/O exception
+     */
+    public List<Location> add(final List<? extends Operation> operations) throws IOException {
+        final ReleasableBytesStreamOutput out = new ReleasableBytesStreamOutput(bigArrays);
+        try {
+            final int[] sizes = new int[operations.size()];
+            final long[] seqNos = new long[operations.size()];
+            for (int i = 0; i < sizes.length; i++) {
+                final Operation operation = operations.get(i);
+                final long start = out.position();
+                out.skip(Integer.BYTES);
+                writeOperationNoSize(new BufferedChecksumStreamOutput(out), operation);
+                final long end = out.position();
+                final int operationSize = (int) (end - Integer.BYTES - start);
+                out.seek(start);
+                out.writeInt(operationSize);
+                out.seek(end);
+                sizes[i] = Math.toIntExact(end - start);
+                seqNos[i] = operation.seqNo();
+            }
+            final BytesReference bytes = out.bytes();
+            final BytesReference compressed = sizes.length > 1 && config.getIndexSettings().isTranslogCompressionEnabled()
+                ? CompressedTranslogBatch.compress(bytes, sizes.length)
+                : null;
+            try (ReleasableLock ignored = readLock.acquire()) {
+                ensureOpen();
+                for (Operation operation : operations) {
+                    ensureOperationTermIsNotNewer(operation);
+                }
+                // if compression was enabled after the current file was created then batches are compressed from the next file on
+                if (compressed == null || current.supportsCompressedBatches() == false) {
+                    return current.add(bytes, sizes, seqNos);
+                }
+                final Location location = current.addCompressedBatch(compressed, seqNos);
+                compressedBatches.inc();
+                compressedOperations.inc(sizes.length);
+                compressedBatchesUncompressedBytes.inc(bytes.length());
+                compressedBatchesCompressedBytes.inc(compressed.length());
+                return Collections.nCopies(sizes.length, location);
+            }
+        } catch (final AlreadyClosedException | IOException ex) {
+            closeOnTragicEvent(ex);
+            throw ex;
+        } catch (final Exception ex) {
+            closeOnTragicEvent(ex);
+            throw new TranslogException(shardId, "Failed to write [" + operations.size() + "] operations", ex);
+        } finally {
+            Releasables.close(out);
+        }
+    }
+
+    private void ensureOperationTermIsNotNewer(Operation operation) {
+        if (operation.primaryTerm() > current.getPrimaryTerm()) {
+            assert false
+                : "Operation term is newer than the current term; "
+                    + "current term["
+                    + current.getPrimaryTerm()
+                    + "], operation term["
+                    + operation
+                    + "]";
+            throw new IllegalArgumentException(
+                "Operation term is newer than the current term; "
+                    + "current term["
+                    + current.getPrimaryTerm()
+                    + "], operation term["
+                    + operation
+                    + "]"
+            );
+        }
+    }
+
     /**
      * Tests whether or not the translog generation should be rolled to a new generation. This test
      * is based on the size of the current generation compared to the configured generation
@@ -673,20 +746,46 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         assert fromSeqNo >= 0 : "from_seq_no must be non-negative " + fromSeqNo;
         try (ReleasableLock ignored = readLock.acquire()) {
             ensureOpen();
-            TranslogSnapshot[] snapshots = Stream.concat(readers.stream(), Stream.of(current))
-                .filter(reader -> reader.getCheckpoint().minSeqNo <= toSeqNo && fromSeqNo <= reader.getCheckpoint().maxEffectiveSeqNo())
-                .map(BaseTranslogReader::newSnapshot)
-                .toArray(TranslogSnapshot[]::new);
-            final Snapshot snapshot = newMultiSnapshot(snapshots);
-            return new SeqNoFilterSnapshot(snapshot, fromSeqNo, toSeqNo);
+            final List<TranslogSnapshot> snapshotList = new ArrayList<>(readers.size() + 1);
+            boolean success = false;
+            try {
+                for (TranslogReader reader : readers) {
+                    if (reader.getCheckpoint().minSeqNo <= toSeqNo && fromSeqNo <= reader.getCheckpoint().maxEffectiveSeqNo()) {
+                        // sealed generations are immutable and can be read through a memory mapping
+                        snapshotList.add(mmapReads ? reader.newMappedSnapshot() : reader.newSnapshot());
+                    }
+                }
+                if (current.getCheckpoint().minSeqNo <= toSeqNo && fromSeqNo <= current.getCheckpoint().maxEffectiveSeqNo()) {
+                    snapshotList.add(current.newSnapshot());
+                }
+                TranslogSnapshot[] snapshots = snapshotList.toArray(new TranslogSnapshot[0]);
+                final Snapshot snapshot = newMultiSnapshot(snapshots);
+                success = true;
+                return new SeqNoFilterSnapshot(snapshot, fromSeqNo, toSeqNo);
+            } finally {
+                if (success == false) {
+                    // releases the memory mappings the snapshots hold on to
+                    IOUtils.closeWhileHandlingException(snapshotList);
+                }
+            }
         }
     }
 
     /**
      * Reads and returns the operation from the given location if the generation it references is still available. Otherwise
-     * this method will return <code>null</code>.
+     * this method will return <code>null</code>. This method also returns <code>null</code> if the operation was added as part of
+     * a compressed batch, see {@link #add(List)}, use {@link #readOperation(Location, long)} to read those.
      */
     public Operation readOperation(Location location) throws IOException {
+        return readOperation(location, SequenceNumbers.UNASSIGNED_SEQ_NO);
+    }
+
+    /**
+     * Reads and returns the operation with the given sequence number from the given location if the generation it references is
+     * still available. Otherwise this method will return <code>null</code>. Unlike {@link #readOperation(Location)} this method
+     * also reads operations that were added as part of a compressed batch, which all share the location of the batch.
+     */
+    public Operation readOperation(Location location, long seqNo) throws IOException {
         try (ReleasableLock ignored = readLock.acquire()) {
             ensureOpen();
             if (location.generation < getMinFileGeneration()) {
@@ -695,13 +794,13 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
             if (current.generation == location.generation) {
                 // no need to fsync here the read operation will ensure that buffers are written to disk
                 // if they are still in RAM and we are reading onto that position
-                return current.read(location);
+                return current.read(location, seqNo);
             } else {
                 // read backwards - it's likely we need to read on that is recent
                 for (int i = readers.size() - 1; i >= 0; i--) {
                     TranslogReader translogReader = readers.get(i);
                     if (translogReader.generation == location.generation) {
-                        return translogReader.read(location);
+                        return translogReader.read(location, seqNo);
                     }
                 }
             }
@@ -713,14 +812,15 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
     }
 
     private Snapshot newMultiSnapshot(TranslogSnapshot[] snapshots) throws IOException {
-        final Closeable onClose;
+        final Closeable retentionLock;
         if (snapshots.length == 0) {
-            onClose = () -> {};
+            retentionLock = () -> {};
         } else {
             assert Arrays.stream(snapshots).map(BaseTranslogReader::getGeneration).min(Long::compareTo).get() == snapshots[0].generation
                 : "first reader generation of " + snapshots + " is not the smallest";
-            onClose = acquireTranslogGenFromDeletionPolicy(snapshots[0].generation);
+            retentionLock = acquireTranslogGenFromDeletionPolicy(snapshots[0].generation);
         }
+        final Closeable onClose = () -> IOUtils.close(retentionLock, () -> IOUtils.close(snapshots));
         boolean success = false;
         try {
             Snapshot result = new MultiSnapshot(snapshots, onClose);
@@ -910,13 +1010,22 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         // acquire lock to make the two numbers roughly consistent (no file change half way)
         try (ReleasableLock lock = readLock.acquire()) {
             final long uncommittedGen = minGenerationForSeqNo(deletionPolicy.getLocalCheckpointOfSafeCommit() + 1, current, readers);
-            return new TranslogStats(
+            final TranslogStats stats = new TranslogStats(
                 totalOperations(),
                 sizeInBytes(),
                 totalOperationsByMinGen(uncommittedGen),
                 sizeInBytesByMinGen(uncommittedGen),
                 earliestLastModifiedAge()
             );
+            stats.addCompressionStats(
+                new TranslogStats.CompressionStats(
+                    compressedBatches.count(),
+                    compressedOperations.count(),
+                    compressedBatchesUncompressedBytes.count(),
+                    compressedBatchesCompressedBytes.count()
+                )
+            );
+            return stats;
         }
     }
 
@@ -1104,7 +1213,13 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
          * {@link Operation#writeOperation(StreamOutput, Operation)}
          */
         static Operation readOperation(final StreamInput input) throws IOException {
-            final Translog.Operation.Type type = Translog.Operation.Type.fromId(input.readByte());
+            return readOperation(Translog.Operation.Type.fromId(input.readByte()), input);
+        }
+
+        /**
+         * Reads an operation of the given type, whose type was already read from the given stream.
+         */
+        static Operation readOperation(final Type type, final StreamInput input) throws IOException {
             return switch (type) {
                 // the de-serialization logic in Index was identical to that of Create when create was deprecated
                 case CREATE, INDEX -> new Index(input);
@@ -1601,6 +1716,43 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         return operation;
     }
 
+    /**
+     * Reads the next entry of a translog file, which holds either a single operation or a {@link CompressedTranslogBatch} of operations.
+     *
+     * @param in                        the stream to read from
+     * @param supportsCompressedBatches whether the translog file may hold compressed batches, see {@link TranslogHeader}
+     * @return the operations of the entry, in the order they were added to the translog
+     */
+    static List<Translog.Operation> readEntry(BufferedChecksumStreamInput in, boolean supportsCompressedBatches) throws IOException {
+        final List<Translog.Operation> operations;
+        try {
+            final int entrySize = in.readInt();
+            if (entrySize < 4) { // 4byte for the checksum
+                throw new TranslogCorruptedException(in.getSource(), "operation size must be at least 4 but was: " + entrySize);
+            }
+            in.resetDigest(); // size is not part of the checksum!
+            if (in.markSupported()) { // if we can we validate the checksum first
+                in.mark(entrySize);
+                in.skip(entrySize - 4);
+                verifyChecksum(in);
+                in.reset();
+            }
+            final byte id = in.readByte();
+            if (id == CompressedTranslogBatch.ID) {
+                if (supportsCompressedBatches == false) {
+                    throw new TranslogCorruptedException(in.getSource(), "compressed batch found in translog of an older version");
+                }
+                operations = CompressedTranslogBatch.readOperations(in);
+            } else {
+                operations = List.of(Translog.Operation.readOperation(Translog.Operation.Type.fromId(id), in));
+            }
+            verifyChecksum(in);
+        } catch (EOFException e) {
+            throw new TruncatedTranslogException(in.getSource(), "reached premature end of file, translog is truncated", e);
+        }
+        return operations;
+    }
+
     /**
      * Writes all operations in the given iterable to the given output stream including the size of the array
      * use {@link #readOperations(StreamInput, String)} to read it back.
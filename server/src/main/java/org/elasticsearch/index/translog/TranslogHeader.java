@@ -34,8 +34,10 @@ final class TranslogHeader {
     public static final int VERSION_CHECKSUMS = 1; // pre-2.0 - unsupported
     public static final int VERSION_CHECKPOINTS = 2; // added checkpoints
     public static final int VERSION_PRIMARY_TERM = 3; // added primary term
+    public static final int VERSION_COMPRESSED_BATCHES = 4; // added compressed batches of operations, only written if enabled
     public static final int CURRENT_VERSION = VERSION_PRIMARY_TERM;
 
+    private final int version;
     private final String translogUUID;
     private final long primaryTerm;
     private final int headerSizeInBytes;
@@ -49,16 +51,41 @@ final class TranslogHeader {
      *                     All operations' terms in this translog file are enforced to be at most this term.
      */
     TranslogHeader(String translogUUID, long primaryTerm) {
-        this(translogUUID, primaryTerm, headerSizeInBytes(translogUUID));
+        this(translogUUID, primaryTerm, false);
+    }
+
+    /**
+     * Creates a new translog header with the given uuid and primary term.
+     *
+     * @param compressedBatches whether the translog file may hold compressed batches of operations, which bumps the version of the
+     *                          file to {@link #VERSION_COMPRESSED_BATCHES} so that versions that can't read them reject it
+     */
+    TranslogHeader(String translogUUID, long primaryTerm, boolean compressedBatches) {
+        this(compressedBatches ? VERSION_COMPRESSED_BATCHES : CURRENT_VERSION, translogUUID, primaryTerm, headerSizeInBytes(translogUUID));
         assert primaryTerm >= 0 : "Primary term must be non-negative; term [" + primaryTerm + "]";
     }
 
-    private TranslogHeader(String translogUUID, long primaryTerm, int headerSizeInBytes) {
+    private TranslogHeader(int version, String translogUUID, long primaryTerm, int headerSizeInBytes) {
+        this.version = version;
         this.translogUUID = translogUUID;
         this.primaryTerm = primaryTerm;
         this.headerSizeInBytes = headerSizeInBytes;
     }
 
+    /**
+     * Returns the format version of the translog file.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns <code>true</code> iff the translog file may hold batches of operations that are compressed together.
+     */
+    public boolean supportsCompressedBatches() {
+        return version >= VERSION_COMPRESSED_BATCHES;
+    }
+
     public String getTranslogUUID() {
         return translogUUID;
     }
@@ -96,7 +123,7 @@ final class TranslogHeader {
     static int readHeaderVersion(final Path path, final FileChannel channel, final StreamInput in) throws IOException {
         final int version;
         try {
-            version = CodecUtil.checkHeader(new InputStreamDataInput(in), TRANSLOG_CODEC, VERSION_CHECKSUMS, VERSION_PRIMARY_TERM);
+            version = CodecUtil.checkHeader(new InputStreamDataInput(in), TRANSLOG_CODEC, VERSION_CHECKSUMS, VERSION_COMPRESSED_BATCHES);
         } catch (CorruptIndexException | IndexFormatTooOldException | IndexFormatTooNewException e) {
             tryReportOldVersionError(path, channel);
             throw new TranslogCorruptedException(path.toString(), "translog header corrupted", e);
@@ -133,7 +160,7 @@ final class TranslogHeader {
             uuid.length = uuidLen;
             in.read(uuid.bytes, uuid.offset, uuid.length);
             // Read the primary term
-            assert version == VERSION_PRIMARY_TERM;
+            assert version >= VERSION_PRIMARY_TERM;
             final long primaryTerm = in.readLong();
             // Verify the checksum
             Translog.verifyChecksum(in);
@@ -152,7 +179,7 @@ final class TranslogHeader {
                 );
             }
 
-            return new TranslogHeader(translogUUID, primaryTerm, headerSizeInBytes);
+            return new TranslogHeader(version, translogUUID, primaryTerm, headerSizeInBytes);
         } catch (EOFException e) {
             throw new TranslogCorruptedException(path.toString(), "translog header truncated", e);
         }
@@ -184,7 +211,7 @@ final class TranslogHeader {
         final BufferedChecksumStreamOutput out = new BufferedChecksumStreamOutput(
             new OutputStreamStreamOutput(java.nio.channels.Channels.newOutputStream(channel))
         );
-        CodecUtil.writeHeader(new OutputStreamDataOutput(out), TRANSLOG_CODEC, CURRENT_VERSION);
+        CodecUtil.writeHeader(new OutputStreamDataOutput(out), TRANSLOG_CODEC, version);
         // Write uuid
         final BytesRef uuid = new BytesRef(translogUUID);
         out.writeInt(uuid.length);
@@ -33,6 +33,8 @@ public class TranslogReader extends BaseTranslogReader implements Closeable {
     private final Checkpoint checkpoint;
     protected final AtomicBoolean closed = new AtomicBoolean(false);
     private long lastModifiedTime = -1;
+    // lazily created read-only mapping of the file, shared by all mapped snapshots of this reader, guarded by this
+    private MappedTranslogFile mappedFile;
 
     /**
      * Create a translog writer against the specified translog file channel.
@@ -70,6 +72,7 @@ public class TranslogReader extends BaseTranslogReader implements Closeable {
      */
     TranslogReader closeIntoTrimmedReader(long aboveSeqNo, ChannelFactory channelFactory) throws IOException {
         if (closed.compareAndSet(false, true)) {
+            releaseMapping();
             Closeable toCloseOnFailure = channel;
             final TranslogReader newReader;
             try {
@@ -116,6 +119,39 @@ public class TranslogReader extends BaseTranslogReader implements Closeable {
         return checkpoint;
     }
 
+    /**
+     * Creates a snapshot that reads operations from a read-only memory mapping of this translog file rather than through positional
+     * reads on the file channel. This is only possible because the file of a reader is immutable. The mapping is created on first
+     * use and shared by all mapped snapshots of this reader. Files that are too large to be mapped by a single buffer fall back to
+     * channel reads.
+     * <p>
+     * The returned snapshot holds a reference to the mapping until it is closed, the garbage collector unmaps the file once this reader
+     * is closed and all its mapped snapshots are closed too.
+     */
+    TranslogSnapshot newMappedSnapshot() throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            return newSnapshot();
+        }
+        final MappedTranslogFile mapped;
+        synchronized (this) {
+            ensureOpen();
+            if (mappedFile == null) {
+                mappedFile = new MappedTranslogFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+            }
+            mapped = mappedFile;
+            mapped.incRef();
+        }
+        return new TranslogSnapshot(this, length, mapped);
+    }
+
+    private synchronized void releaseMapping() {
+        assert isClosed() : "mapping released while the reader is still open";
+        if (mappedFile != null) {
+            mappedFile.decRef();
+            mappedFile = null;
+        }
+    }
+
     /**
      * reads an operation at the given position into the given buffer.
      */
@@ -134,7 +170,11 @@ public class TranslogReader extends BaseTranslogReader implements Closeable {
     @Override
     public final void close() throws IOException {
         if (closed.compareAndSet(false, true)) {
-            channel.close();
+            try {
+                releaseMapping();
+            } finally {
+                channel.close();
+            }
         }
     }
 
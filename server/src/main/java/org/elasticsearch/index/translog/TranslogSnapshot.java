@@ -7,21 +7,35 @@
  */
 package org.elasticsearch.index.translog;
 
+import org.apache.lucene.store.AlreadyClosedException;
 import org.elasticsearch.common.io.Channels;
+import org.elasticsearch.common.io.stream.ByteBufferStreamInput;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 
+import java.io.Closeable;
 import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.List;
 
-final class TranslogSnapshot extends BaseTranslogReader {
+final class TranslogSnapshot extends BaseTranslogReader implements Closeable {
 
     private final int totalOperations;
     private final Checkpoint checkpoint;
     protected final long length;
 
     private final ByteBuffer reusableBuffer;
+    // a read-only memory mapping of the whole translog file, if set operations are read from slices of it without any copying
+    @Nullable
+    private final MappedTranslogFile mappedFile;
+    @Nullable
+    private final ByteBuffer mappedBuffer;
+    private boolean closed;
     private long position;
+    // the operations of the last entry read, which holds more than one operation if it is a compressed batch
+    private List<Translog.Operation> entry = List.of();
+    private int entryIndex;
     private int skippedOperations;
     private int readOperations;
     private BufferedChecksumStreamInput reuse;
@@ -30,11 +44,22 @@ final class TranslogSnapshot extends BaseTranslogReader {
      * Create a snapshot of translog file channel.
      */
     TranslogSnapshot(final BaseTranslogReader reader, final long length) {
+        this(reader, length, null);
+    }
+
+    /**
+     * Create a snapshot of translog file channel that reads operations from the given memory mapping of the file. The snapshot takes over
+     * a reference to the mapping, which it releases when it is closed.
+     */
+    TranslogSnapshot(final BaseTranslogReader reader, final long length, @Nullable final MappedTranslogFile mappedFile) {
         super(reader.generation, reader.channel, reader.path, reader.header);
         this.length = length;
         this.totalOperations = reader.totalOperations();
         this.checkpoint = reader.getCheckpoint();
-        this.reusableBuffer = ByteBuffer.allocate(1024);
+        this.mappedFile = mappedFile;
+        this.mappedBuffer = mappedFile == null ? null : mappedFile.buffer();
+        assert mappedBuffer == null || mappedBuffer.limit() >= length : "mapped buffer is too small for snapshot of length " + length;
+        this.reusableBuffer = mappedBuffer == null ? ByteBuffer.allocate(1024) : null;
         this.readOperations = 0;
         this.position = reader.getFirstOperationOffset();
         this.reuse = null;
@@ -55,6 +80,9 @@ final class TranslogSnapshot extends BaseTranslogReader {
     }
 
     public Translog.Operation next() throws IOException {
+        if (closed) {
+            throw new AlreadyClosedException(this + " is already closed");
+        }
         while (readOperations < totalOperations) {
             final Translog.Operation operation = readOperation();
             if (operation.seqNo() <= checkpoint.trimmedAboveSeqNo || checkpoint.trimmedAboveSeqNo == SequenceNumbers.UNASSIGNED_SEQ_NO) {
@@ -66,18 +94,72 @@ final class TranslogSnapshot extends BaseTranslogReader {
     }
 
     private Translog.Operation readOperation() throws IOException {
-        final int opSize = readSize(reusableBuffer, position);
-        reuse = checksummedStream(reusableBuffer, position, opSize, reuse);
-        Translog.Operation op = read(reuse);
-        position += opSize;
+        if (entryIndex == entry.size()) {
+            entry = readEntry();
+            entryIndex = 0;
+        }
         readOperations++;
-        return op;
+        return entry.get(entryIndex++);
+    }
+
+    private List<Translog.Operation> readEntry() throws IOException {
+        final int opSize;
+        if (mappedBuffer != null) {
+            opSize = readMappedSize(position);
+            // the operation is deserialized straight from a slice of the mapped file, no bytes are copied to an intermediate buffer
+            final ByteBuffer slice = mappedBuffer.slice(Math.toIntExact(position), opSize);
+            reuse = new BufferedChecksumStreamInput(new ByteBufferStreamInput(slice), path.toString(), reuse);
+        } else {
+            opSize = readSize(reusableBuffer, position);
+            reuse = checksummedStream(reusableBuffer, position, opSize, reuse);
+        }
+        final List<Translog.Operation> operations = readEntry(reuse);
+        position += opSize;
+        return operations;
     }
 
     public long sizeInBytes() {
         return length;
     }
 
+    /**
+     * Releases the memory mapping this snapshot reads through, if any. No operations can be read once the snapshot is closed.
+     */
+    @Override
+    public void close() {
+        if (closed == false) {
+            closed = true;
+            if (mappedFile != null) {
+                mappedFile.decRef();
+            }
+        }
+    }
+
+    private int readMappedSize(long position) throws IOException {
+        if (position < getFirstOperationOffset()) {
+            throw new IOException(
+                "read requested before position of first ops. pos ["
+                    + position
+                    + "] first op on: ["
+                    + getFirstOperationOffset()
+                    + "], generation: ["
+                    + getGeneration()
+                    + "], path: ["
+                    + path
+                    + "]"
+            );
+        }
+        if (position + Integer.BYTES > length) {
+            throw new TranslogCorruptedException(
+                path.toString(),
+                "translog truncated",
+                new EOFException("read requested past EOF. pos [" + position + "] end: [" + length + "]")
+            );
+        }
+        // Add an extra 4 to account for the operation size integer itself
+        return checkOpSize(mappedBuffer.getInt(Math.toIntExact(position)) + 4, position);
+    }
+
     /**
      * reads an operation at the given position into the given buffer.
      */
@@ -130,6 +212,8 @@ final class TranslogSnapshot extends BaseTranslogReader {
             + generation
             + ", reusableBuffer="
             + reusableBuffer
+            + ", mapped="
+            + (mappedBuffer != null)
             + '}';
     }
 }
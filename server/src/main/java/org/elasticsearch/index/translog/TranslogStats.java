@@ -7,15 +7,19 @@
  */
 package org.elasticsearch.index.translog;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
 
 public class TranslogStats implements Writeable, ToXContentFragment {
 
@@ -24,6 +28,8 @@ public class TranslogStats implements Writeable, ToXContentFragment {
     private long uncommittedSizeInBytes;
     private int uncommittedOperations;
     private long earliestLastModifiedAge;
+    private GroupCommitStats groupCommitStats = GroupCommitStats.EMPTY;
+    private CompressionStats compressionStats = CompressionStats.EMPTY;
 
     public TranslogStats() {}
 
@@ -33,6 +39,10 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         uncommittedOperations = in.readVInt();
         uncommittedSizeInBytes = in.readVLong();
         earliestLastModifiedAge = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_4_0)) {
+            groupCommitStats = new GroupCommitStats(in);
+            compressionStats = new CompressionStats(in);
+        }
     }
 
     public TranslogStats(
@@ -78,6 +88,18 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         } else {
             this.earliestLastModifiedAge = Math.min(this.earliestLastModifiedAge, translogStats.earliestLastModifiedAge);
         }
+        addGroupCommitStats(translogStats.groupCommitStats);
+        addCompressionStats(translogStats.compressionStats);
+    }
+
+    /** adds the stats of the node level group commit of translog syncs, see {@link TranslogSyncScheduler} */
+    public void addGroupCommitStats(GroupCommitStats groupCommitStats) {
+        this.groupCommitStats = this.groupCommitStats.add(groupCommitStats);
+    }
+
+    /** adds the stats of the batches of operations that were compressed together, see {@link CompressedTranslogBatch} */
+    public void addCompressionStats(CompressionStats compressionStats) {
+        this.compressionStats = this.compressionStats.add(compressionStats);
     }
 
     public long getTranslogSizeInBytes() {
@@ -102,6 +124,14 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         return earliestLastModifiedAge;
     }
 
+    public GroupCommitStats getGroupCommitStats() {
+        return groupCommitStats;
+    }
+
+    public CompressionStats getCompressionStats() {
+        return compressionStats;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("translog");
@@ -110,6 +140,12 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         builder.field("uncommitted_operations", uncommittedOperations);
         builder.humanReadableField("uncommitted_size_in_bytes", "uncommitted_size", new ByteSizeValue(uncommittedSizeInBytes));
         builder.field("earliest_last_modified_age", earliestLastModifiedAge);
+        if (groupCommitStats.getSyncs() > 0) {
+            groupCommitStats.toXContent(builder, params);
+        }
+        if (compressionStats.getBatches() > 0) {
+            compressionStats.toXContent(builder, params);
+        }
         builder.endObject();
         return builder;
     }
@@ -126,5 +162,219 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         out.writeVInt(uncommittedOperations);
         out.writeVLong(uncommittedSizeInBytes);
         out.writeVLong(earliestLastModifiedAge);
+        if (out.getVersion().onOrAfter(Version.V_8_4_0)) {
+            groupCommitStats.writeTo(out);
+            compressionStats.writeTo(out);
+        }
+    }
+
+    /**
+     * Statistics of the translog syncs that were coalesced by the {@link TranslogSyncScheduler}.
+     */
+    public static class GroupCommitStats implements Writeable, ToXContentFragment {
+
+        public static final GroupCommitStats EMPTY = new GroupCommitStats(
+            0,
+            0,
+            0,
+            new long[TranslogSyncScheduler.WAIT_TIME_HISTOGRAM_BOUNDS_MILLIS.length + 1]
+        );
+
+        private final long syncs;
+        private final long waiters;
+        private final long waitTimeInMillis;
+        private final long[] waitTimeHistogram;
+
+        public GroupCommitStats(long syncs, long waiters, long waitTimeInMillis, long[] waitTimeHistogram) {
+            if (waitTimeHistogram.length != TranslogSyncScheduler.WAIT_TIME_HISTOGRAM_BOUNDS_MILLIS.length + 1) {
+                throw new IllegalArgumentException("unexpected number of histogram buckets [" + waitTimeHistogram.length + "]");
+            }
+            this.syncs = syncs;
+            this.waiters = waiters;
+            this.waitTimeInMillis = waitTimeInMillis;
+            this.waitTimeHistogram = waitTimeHistogram;
+        }
+
+        public GroupCommitStats(StreamInput in) throws IOException {
+            this(in.readVLong(), in.readVLong(), in.readVLong(), in.readVLongArray());
+        }
+
+        /** the number of fsyncs issued by the group commit */
+        public long getSyncs() {
+            return syncs;
+        }
+
+        /** the number of sync requests that were completed by the fsyncs of the group commit */
+        public long getWaiters() {
+            return waiters;
+        }
+
+        /** the total time sync requests waited for their fsync to complete */
+        public long getWaitTimeInMillis() {
+            return waitTimeInMillis;
+        }
+
+        /**
+         * the number of sync requests per wait time bucket, the bucket bounds are 1ms, 2ms, 5ms, 10ms, 20ms, 50ms and 100ms
+         */
+        public long[] getWaitTimeHistogram() {
+            return waitTimeHistogram;
+        }
+
+        GroupCommitStats add(GroupCommitStats other) {
+            if (other == null || other.syncs == 0 && other.waiters == 0) {
+                return this;
+            }
+            final long[] histogram = new long[waitTimeHistogram.length];
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = waitTimeHistogram[i] + other.waitTimeHistogram[i];
+            }
+            return new GroupCommitStats(syncs + other.syncs, waiters + other.waiters, waitTimeInMillis + other.waitTimeInMillis, histogram);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(syncs);
+            out.writeVLong(waiters);
+            out.writeVLong(waitTimeInMillis);
+            out.writeVLongArray(waitTimeHistogram);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject("group_commit");
+            builder.field("syncs", syncs);
+            builder.field("waiters", waiters);
+            builder.humanReadableField("wait_time_in_millis", "wait_time", new TimeValue(waitTimeInMillis));
+            builder.startArray("wait_time_histogram");
+            final long[] bounds = TranslogSyncScheduler.WAIT_TIME_HISTOGRAM_BOUNDS_MILLIS;
+            for (int i = 0; i < waitTimeHistogram.length; i++) {
+                builder.startObject();
+                if (i > 0) {
+                    builder.field("ge_millis", bounds[i - 1]);
+                }
+                if (i < bounds.length) {
+                    builder.field("lt_millis", bounds[i]);
+                }
+                builder.field("count", waitTimeHistogram[i]);
+                builder.endObject();
+            }
+            builder.endArray();
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            GroupCommitStats that = (GroupCommitStats) o;
+            return syncs == that.syncs
+                && waiters == that.waiters
+                && waitTimeInMillis == that.waitTimeInMillis
+                && Arrays.equals(waitTimeHistogram, that.waitTimeHistogram);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(syncs, waiters, waitTimeInMillis, Arrays.hashCode(waitTimeHistogram));
+        }
+    }
+
+    /**
+     * Statistics of the batches of operations that were written to the translog compressed together, see {@link CompressedTranslogBatch}.
+     */
+    public static class CompressionStats implements Writeable, ToXContentFragment {
+
+        public static final CompressionStats EMPTY = new CompressionStats(0, 0, 0, 0);
+
+        private final long batches;
+        private final long operations;
+        private final long uncompressedSizeInBytes;
+        private final long compressedSizeInBytes;
+
+        public CompressionStats(long batches, long operations, long uncompressedSizeInBytes, long compressedSizeInBytes) {
+            this.batches = batches;
+            this.operations = operations;
+            this.uncompressedSizeInBytes = uncompressedSizeInBytes;
+            this.compressedSizeInBytes = compressedSizeInBytes;
+        }
+
+        public CompressionStats(StreamInput in) throws IOException {
+            this(in.readVLong(), in.readVLong(), in.readVLong(), in.readVLong());
+        }
+
+        /** the number of compressed batches that were written */
+        public long getBatches() {
+            return batches;
+        }
+
+        /** the number of operations in the compressed batches */
+        public long getOperations() {
+            return operations;
+        }
+
+        /** the size the operations of the compressed batches would have taken up in the translog without compression */
+        public long getUncompressedSizeInBytes() {
+            return uncompressedSizeInBytes;
+        }
+
+        /** the size the compressed batches take up in the translog */
+        public long getCompressedSizeInBytes() {
+            return compressedSizeInBytes;
+        }
+
+        /** the ratio of the uncompressed to the compressed size of the batches, or 1 if no batches were compressed */
+        public double getCompressionRatio() {
+            return compressedSizeInBytes == 0 ? 1.0 : (double) uncompressedSizeInBytes / compressedSizeInBytes;
+        }
+
+        CompressionStats add(CompressionStats other) {
+            if (other == null || other.batches == 0) {
+                return this;
+            }
+            return new CompressionStats(
+                batches + other.batches,
+                operations + other.operations,
+                uncompressedSizeInBytes + other.uncompressedSizeInBytes,
+                compressedSizeInBytes + other.compressedSizeInBytes
+            );
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(batches);
+            out.writeVLong(operations);
+            out.writeVLong(uncompressedSizeInBytes);
+            out.writeVLong(compressedSizeInBytes);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject("compression");
+            builder.field("batches", batches);
+            builder.field("operations", operations);
+            builder.humanReadableField("uncompressed_size_in_bytes", "uncompressed_size", new ByteSizeValue(uncompressedSizeInBytes));
+            builder.humanReadableField("compressed_size_in_bytes", "compressed_size", new ByteSizeValue(compressedSizeInBytes));
+            builder.field("ratio", getCompressionRatio());
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CompressionStats that = (CompressionStats) o;
+            return batches == that.batches
+                && operations == that.operations
+                && uncompressedSizeInBytes == that.uncompressedSizeInBytes
+                && compressedSizeInBytes == that.compressedSizeInBytes;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(batches, operations, uncompressedSizeInBytes, compressedSizeInBytes);
+        }
     }
 }
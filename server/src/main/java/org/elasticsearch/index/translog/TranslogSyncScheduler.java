@@ -0,0 +1,330 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.CheckedConsumer;
+import org.elasticsearch.core.TimeValue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A node level group commit scheduler for translog syncs. Shards using {@link Translog.Durability#REQUEST} durability hand the
+ * location they need to be durable to this scheduler instead of fsyncing on the calling thread. Pending requests are collected
+ * per data path by a dedicated thread which waits up to {@link #MAX_WAIT_SETTING} for more requests to arrive and then issues a
+ * single {@link Translog#ensureSynced(Stream)} per shard for the whole batch, so that concurrent bulk requests targeting the
+ * same shard share one fsync. The fsyncs of the different shards of a batch run in parallel on the given executor, which also
+ * notifies the listeners, so that the collecting thread only ever batches requests.
+ */
+public final class TranslogSyncScheduler implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(TranslogSyncScheduler.class);
+
+    public static final Setting<Boolean> ENABLED_SETTING = Setting.boolSetting(
+        "indices.translog.group_commit.enabled",
+        false,
+        Setting.Property.NodeScope
+    );
+
+    public static final Setting<TimeValue> MAX_WAIT_SETTING = Setting.timeSetting(
+        "indices.translog.group_commit.max_wait",
+        TimeValue.timeValueMillis(2),
+        TimeValue.ZERO,
+        TimeValue.timeValueMillis(100),
+        Setting.Property.NodeScope
+    );
+
+    public static final Setting<Integer> QUEUE_SIZE_SETTING = Setting.intSetting(
+        "indices.translog.group_commit.queue_size",
+        4096,
+        1,
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * Upper bounds (exclusive, in milliseconds) of the buckets of the wait time histogram. The last bucket collects all waits
+     * that are longer than the last bound.
+     */
+    static final long[] WAIT_TIME_HISTOGRAM_BOUNDS_MILLIS = new long[] { 1, 2, 5, 10, 20, 50, 100 };
+
+    private final boolean enabled;
+    private final long maxWaitNanos;
+    private final int queueSize;
+    private final ThreadFactory threadFactory;
+    private final ThreadContext threadContext;
+    private final Executor executor;
+    private final Map<Path, Worker> workers = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public TranslogSyncScheduler(Settings settings, ThreadContext threadContext, Executor executor) {
+        this.enabled = ENABLED_SETTING.get(settings);
+        this.maxWaitNanos = MAX_WAIT_SETTING.get(settings).nanos();
+        this.queueSize = QUEUE_SIZE_SETTING.get(settings);
+        this.threadFactory = EsExecutors.daemonThreadFactory(settings, "translog_sync");
+        this.threadContext = threadContext;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns <code>true</code> iff group commit is enabled on this node
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Creates a new handle for a shard whose translog lives on the given data path.
+     *
+     * @param dataPath the root data path of the shard, all shards on the same data path share the same sync thread
+     * @param syncer   syncs the translog of the shard up to the largest of the given locations
+     */
+    public Target newTarget(Path dataPath, CheckedConsumer<Stream<Translog.Location>, IOException> syncer) {
+        return new Target(Objects.requireNonNull(dataPath), Objects.requireNonNull(syncer));
+    }
+
+    private Worker getOrCreateWorker(Path dataPath) {
+        if (closed) {
+            throw new AlreadyClosedException("translog sync scheduler is closed");
+        }
+        return workers.computeIfAbsent(dataPath, path -> {
+            final Worker worker = new Worker(path);
+            final Thread thread = threadFactory.newThread(worker);
+            thread.start();
+            return worker;
+        });
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Worker worker : workers.values()) {
+            worker.stop();
+        }
+        workers.clear();
+    }
+
+    /**
+     * The per shard handle to the scheduler. Keeps the group commit statistics of the shard.
+     */
+    public final class Target {
+
+        private final Path dataPath;
+        private final CheckedConsumer<Stream<Translog.Location>, IOException> syncer;
+        private final CounterMetric syncs = new CounterMetric();
+        private final CounterMetric waiters = new CounterMetric();
+        private final CounterMetric waitTimeInNanos = new CounterMetric();
+        private final CounterMetric[] waitTimeHistogram = new CounterMetric[WAIT_TIME_HISTOGRAM_BOUNDS_MILLIS.length + 1];
+
+        private Target(Path dataPath, CheckedConsumer<Stream<Translog.Location>, IOException> syncer) {
+            this.dataPath = dataPath;
+            this.syncer = syncer;
+            for (int i = 0; i < waitTimeHistogram.length; i++) {
+                waitTimeHistogram[i] = new CounterMetric();
+            }
+        }
+
+        /**
+         * Schedules a sync of the given location. The listener is notified on the executor of the scheduler once the location is
+         * durable or if the sync failed.
+         */
+        public void sync(Translog.Location location, Consumer<Exception> listener) {
+            Objects.requireNonNull(location, "location must not be null");
+            Objects.requireNonNull(listener, "listener must not be null");
+            final PendingSync pendingSync = new PendingSync(this, location, preserveContext(listener), System.nanoTime());
+            getOrCreateWorker(dataPath).add(pendingSync);
+        }
+
+        private void onSynced(List<PendingSync> pendingSyncs, long now) {
+            syncs.inc();
+            waiters.inc(pendingSyncs.size());
+            for (PendingSync pendingSync : pendingSyncs) {
+                final long waitTime = Math.max(0L, now - pendingSync.enqueuedNanos);
+                waitTimeInNanos.inc(waitTime);
+                waitTimeHistogram[bucket(TimeUnit.NANOSECONDS.toMillis(waitTime))].inc();
+            }
+        }
+
+        public TranslogStats.GroupCommitStats stats() {
+            final long[] histogram = new long[waitTimeHistogram.length];
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = waitTimeHistogram[i].count();
+            }
+            return new TranslogStats.GroupCommitStats(
+                syncs.count(),
+                waiters.count(),
+                TimeUnit.NANOSECONDS.toMillis(waitTimeInNanos.count()),
+                histogram
+            );
+        }
+    }
+
+    static int bucket(long waitTimeInMillis) {
+        for (int i = 0; i < WAIT_TIME_HISTOGRAM_BOUNDS_MILLIS.length; i++) {
+            if (waitTimeInMillis < WAIT_TIME_HISTOGRAM_BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return WAIT_TIME_HISTOGRAM_BOUNDS_MILLIS.length;
+    }
+
+    private Consumer<Exception> preserveContext(Consumer<Exception> consumer) {
+        Supplier<ThreadContext.StoredContext> restorableContext = threadContext.newRestorableContext(false);
+        return e -> {
+            try (ThreadContext.StoredContext ignore = restorableContext.get()) {
+                consumer.accept(e);
+            }
+        };
+    }
+
+    private record PendingSync(Target target, Translog.Location location, Consumer<Exception> listener, long enqueuedNanos) {}
+
+    /**
+     * Drains the pending syncs of a single data path. The first pending sync of a batch opens a window of at most
+     * {@link #MAX_WAIT_SETTING} during which further syncs are collected before the batch is processed.
+     */
+    private final class Worker implements Runnable {
+
+        private final Path dataPath;
+        private final BlockingQueue<PendingSync> queue = new ArrayBlockingQueue<>(queueSize);
+        private volatile boolean running = true;
+
+        Worker(Path dataPath) {
+            this.dataPath = dataPath;
+        }
+
+        void add(PendingSync pendingSync) {
+            if (running == false) {
+                pendingSync.listener().accept(new AlreadyClosedException("translog sync scheduler is closed"));
+                return;
+            }
+            try {
+                // waits if the sync thread can't keep up, which pushes back on the indexing threads, but gives up once it stopped
+                while (queue.offer(pendingSync, 100, TimeUnit.MILLISECONDS) == false) {
+                    if (running == false) {
+                        pendingSync.listener().accept(new AlreadyClosedException("translog sync scheduler is closed"));
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pendingSync.listener().accept(e);
+                return;
+            }
+            if (running == false && queue.remove(pendingSync)) {
+                pendingSync.listener().accept(new AlreadyClosedException("translog sync scheduler is closed"));
+            }
+        }
+
+        void stop() {
+            running = false;
+        }
+
+        @Override
+        public void run() {
+            final List<PendingSync> batch = new ArrayList<>();
+            while (running) {
+                try {
+                    final PendingSync first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    final long deadline = first.enqueuedNanos() + maxWaitNanos;
+                    long remaining;
+                    while ((remaining = deadline - System.nanoTime()) > 0 && batch.size() < queueSize) {
+                        final PendingSync next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    queue.drainTo(batch);
+                    processBatch(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                } catch (Exception e) {
+                    logger.warn(() -> "unexpected failure while syncing translogs on [" + dataPath + "]", e);
+                } finally {
+                    batch.clear();
+                }
+            }
+            final List<PendingSync> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            final AlreadyClosedException closedException = new AlreadyClosedException("translog sync scheduler is closed");
+            for (PendingSync pendingSync : remaining) {
+                notifyListener(pendingSync, closedException);
+            }
+        }
+
+        private void processBatch(List<PendingSync> batch) {
+            final Map<Target, List<PendingSync>> byTarget = new IdentityHashMap<>();
+            for (PendingSync pendingSync : batch) {
+                byTarget.computeIfAbsent(pendingSync.target(), t -> new ArrayList<>()).add(pendingSync);
+            }
+            for (Map.Entry<Target, List<PendingSync>> entry : byTarget.entrySet()) {
+                final Target target = entry.getKey();
+                final List<PendingSync> pendingSyncs = entry.getValue();
+                executor.execute(new AbstractRunnable() {
+                    @Override
+                    protected void doRun() throws Exception {
+                        // the translog only syncs up to the largest location, this covers all other locations of this batch
+                        target.syncer.accept(pendingSyncs.stream().map(PendingSync::location));
+                        target.onSynced(pendingSyncs, System.nanoTime());
+                        notifyListeners(pendingSyncs, null);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        logger.debug("failed to sync translog", e);
+                        notifyListeners(pendingSyncs, e);
+                    }
+                });
+            }
+        }
+
+        private void notifyListeners(List<PendingSync> pendingSyncs, Exception exception) {
+            for (PendingSync pendingSync : pendingSyncs) {
+                notifyListener(pendingSync, exception);
+            }
+        }
+
+        private void notifyListener(PendingSync pendingSync, Exception exception) {
+            try {
+                pendingSync.listener().accept(exception);
+            } catch (Exception e) {
+                logger.warn("failed to notify callback", e);
+            }
+        }
+    }
+}
@@ -142,6 +142,47 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         final LongConsumer persistedSequenceNumberConsumer,
         final BigArrays bigArrays,
         DiskIoBufferPool diskIoBufferPool
+    ) throws IOException {
+        return create(
+            shardId,
+            translogUUID,
+            fileGeneration,
+            file,
+            channelFactory,
+            bufferSize,
+            initialMinTranslogGen,
+            initialGlobalCheckpoint,
+            globalCheckpointSupplier,
+            minTranslogGenerationSupplier,
+            primaryTerm,
+            tragedy,
+            persistedSequenceNumberConsumer,
+            bigArrays,
+            diskIoBufferPool,
+            false
+        );
+    }
+
+    /**
+     * @param compressedBatches whether the new translog file may hold compressed batches of operations, see {@link TranslogHeader}
+     */
+    public static TranslogWriter create(
+        ShardId shardId,
+        String translogUUID,
+        long fileGeneration,
+        Path file,
+        ChannelFactory channelFactory,
+        ByteSizeValue bufferSize,
+        final long initialMinTranslogGen,
+        long initialGlobalCheckpoint,
+        final LongSupplier globalCheckpointSupplier,
+        final LongSupplier minTranslogGenerationSupplier,
+        final long primaryTerm,
+        TragicExceptionHolder tragedy,
+        final LongConsumer persistedSequenceNumberConsumer,
+        final BigArrays bigArrays,
+        DiskIoBufferPool diskIoBufferPool,
+        boolean compressedBatches
     ) throws IOException {
         final Path checkpointFile = file.getParent().resolve(Translog.CHECKPOINT_FILE_NAME);
 
@@ -149,7 +190,7 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         FileChannel checkpointChannel = null;
         try {
             checkpointChannel = channelFactory.open(checkpointFile, StandardOpenOption.WRITE);
-            final TranslogHeader header = new TranslogHeader(translogUUID, primaryTerm);
+            final TranslogHeader header = new TranslogHeader(translogUUID, primaryTerm, compressedBatches);
             header.write(channel);
             final Checkpoint checkpoint = Checkpoint.emptyTranslogCheckpoint(
                 header.sizeInBytes(),
@@ -247,6 +288,125 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         return location;
     }
 
+    /**
+     * Add the given bytes, which hold several serialized operations, to the translog; returns the locations the operations were
+     * written to. This is equivalent to adding the operations one by one but writes them under a single lock.
+     *
+     * @param data   the bytes to write
+     * @param sizes  the number of bytes of each operation
+     * @param seqNos the sequence numbers associated with the operations
+     * @return the locations the operations were written to
+     * @throws IOException if writing to the translog resulted in an I/O exception
+     */
+    public List<Translog.Location> add(final BytesReference data, final int[] sizes, final long[] seqNos) throws IOException {
+        assert sizes.length == seqNos.length : sizes.length + " vs " + seqNos.length;
+        long bufferedBytesBeforeAdd = this.bufferedBytes;
+        if (bufferedBytesBeforeAdd >= forceWriteThreshold) {
+            writeBufferedOps(Long.MAX_VALUE, bufferedBytesBeforeAdd >= forceWriteThreshold * 4);
+        }
+
+        final List<Translog.Location> locations = new ArrayList<>(sizes.length);
+        synchronized (this) {
+            ensureOpen();
+            if (buffer == null) {
+                buffer = new ReleasableBytesStreamOutput(bigArrays);
+            }
+            assert bufferedBytes == buffer.size();
+            long offset = totalOffset;
+            totalOffset += data.length();
+            data.writeTo(buffer);
+
+            assert minSeqNo != SequenceNumbers.NO_OPS_PERFORMED || operationCounter == 0;
+            assert maxSeqNo != SequenceNumbers.NO_OPS_PERFORMED || operationCounter == 0;
+
+            int position = 0;
+            for (int i = 0; i < sizes.length; i++) {
+                final long seqNo = seqNos[i];
+                minSeqNo = SequenceNumbers.min(minSeqNo, seqNo);
+                maxSeqNo = SequenceNumbers.max(maxSeqNo, seqNo);
+
+                nonFsyncedSequenceNumbers.add(seqNo);
+
+                operationCounter++;
+
+                assert assertNoSeqNumberConflict(seqNo, data.slice(position, sizes[i]));
+
+                locations.add(new Translog.Location(generation, offset, sizes[i]));
+                offset += sizes[i];
+                position += sizes[i];
+            }
+            assert position == data.length() : position + " vs " + data.length();
+            bufferedBytes = buffer.size();
+        }
+
+        return locations;
+    }
+
+    /**
+     * Returns whether compressed batches of operations may be added to this translog file, see {@link #addCompressedBatch}.
+     */
+    boolean supportsCompressedBatches() {
+        return header.supportsCompressedBatches();
+    }
+
+    /**
+     * Add the given {@link CompressedTranslogBatch} to the translog; returns the location the batch was written to, which is shared by
+     * all its operations.
+     *
+     * @param data   the bytes of the batch, including its size and checksum
+     * @param seqNos the sequence numbers associated with the operations of the batch, in order
+     * @return the location the batch was written to
+     * @throws IOException if writing to the translog resulted in an I/O exception
+     */
+    public Translog.Location addCompressedBatch(final BytesReference data, final long[] seqNos) throws IOException {
+        assert header.supportsCompressedBatches() : "translog version [" + header.getVersion() + "] does not support compressed batches";
+        long bufferedBytesBeforeAdd = this.bufferedBytes;
+        if (bufferedBytesBeforeAdd >= forceWriteThreshold) {
+            writeBufferedOps(Long.MAX_VALUE, bufferedBytesBeforeAdd >= forceWriteThreshold * 4);
+        }
+
+        final Translog.Location location;
+        synchronized (this) {
+            ensureOpen();
+            if (buffer == null) {
+                buffer = new ReleasableBytesStreamOutput(bigArrays);
+            }
+            assert bufferedBytes == buffer.size();
+            final long offset = totalOffset;
+            totalOffset += data.length();
+            data.writeTo(buffer);
+
+            assert minSeqNo != SequenceNumbers.NO_OPS_PERFORMED || operationCounter == 0;
+            assert maxSeqNo != SequenceNumbers.NO_OPS_PERFORMED || operationCounter == 0;
+
+            for (long seqNo : seqNos) {
+                minSeqNo = SequenceNumbers.min(minSeqNo, seqNo);
+                maxSeqNo = SequenceNumbers.max(maxSeqNo, seqNo);
+                nonFsyncedSequenceNumbers.add(seqNo);
+            }
+
+            operationCounter += seqNos.length;
+
+            assert assertNoSeqNumberConflicts(seqNos, CompressedTranslogBatch.uncompressedOperations(data));
+
+            location = new Translog.Location(generation, offset, data.length());
+            bufferedBytes = buffer.size();
+        }
+
+        return location;
+    }
+
+    private boolean assertNoSeqNumberConflicts(long[] seqNos, BytesReference operations) throws IOException {
+        int position = 0;
+        for (long seqNo : seqNos) {
+            final int size = operations.getInt(position) + Integer.BYTES;
+            assertNoSeqNumberConflict(seqNo, operations.slice(position, size));
+            position += size;
+        }
+        assert position == operations.length() : position + " vs " + operations.length();
+        return true;
+    }
+
     private synchronized boolean assertNoSeqNumberConflict(long seqNo, BytesReference data) throws IOException {
         if (seqNo == SequenceNumbers.UNASSIGNED_SEQ_NO) {
             // nothing to do
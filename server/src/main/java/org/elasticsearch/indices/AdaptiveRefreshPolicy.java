@@ -0,0 +1,127 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Decides on a node level whether a scheduled refresh of a shard that has pending changes can be deferred. Every refresh of a
+ * shard that indexes slowly creates a tiny segment, which on nodes with many shards adds up to a constant merge debt. When enabled
+ * a scheduled refresh is deferred, for at most {@link #MAX_DELAY_SETTING}, if
+ * <ul>
+ *     <li>the indexing of the shard is throttled because merges can't keep up, or</li>
+ *     <li>no search accessed the shard since its last scheduled refresh and its indexing buffer is smaller than
+ *     {@link #MIN_BUFFER_SIZE_SETTING}, so nobody waits for the changes and the refresh would only create a small segment.</li>
+ * </ul>
+ * Scheduled refreshes are never deferred while the indexing buffers of all shards on the node use more than half of
+ * {@link IndexingMemoryController#INDEX_BUFFER_SIZE_SETTING}, since refreshing is what frees up that memory. Refreshes that
+ * refresh listeners wait for are never deferred either.
+ */
+public final class AdaptiveRefreshPolicy {
+
+    public static final Setting<Boolean> ENABLED_SETTING = Setting.boolSetting(
+        "indices.refresh.adaptive.enabled",
+        false,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    public static final Setting<ByteSizeValue> MIN_BUFFER_SIZE_SETTING = Setting.byteSizeSetting(
+        "indices.refresh.adaptive.min_buffer_size",
+        new ByteSizeValue(4, ByteSizeUnit.MB),
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    public static final Setting<TimeValue> MAX_DELAY_SETTING = Setting.positiveTimeSetting(
+        "indices.refresh.adaptive.max_delay",
+        TimeValue.timeValueSeconds(30),
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    private final LongSupplier nodeIndexingBufferBytesUsed;
+    private final long nodeIndexingBufferSize;
+    private volatile boolean enabled;
+    private volatile long minBufferSizeInBytes;
+    private volatile long maxDelayInMillis;
+
+    AdaptiveRefreshPolicy(Settings settings, ClusterSettings clusterSettings, IndexingMemoryController indexingMemoryController) {
+        this(
+            settings,
+            clusterSettings,
+            indexingMemoryController::indexingBufferBytesUsed,
+            indexingMemoryController.indexingBufferSize().getBytes()
+        );
+    }
+
+    AdaptiveRefreshPolicy(
+        Settings settings,
+        ClusterSettings clusterSettings,
+        LongSupplier nodeIndexingBufferBytesUsed,
+        long nodeIndexingBufferSize
+    ) {
+        this.nodeIndexingBufferBytesUsed = nodeIndexingBufferBytesUsed;
+        this.nodeIndexingBufferSize = nodeIndexingBufferSize;
+        this.enabled = ENABLED_SETTING.get(settings);
+        this.minBufferSizeInBytes = MIN_BUFFER_SIZE_SETTING.get(settings).getBytes();
+        this.maxDelayInMillis = MAX_DELAY_SETTING.get(settings).millis();
+        clusterSettings.addSettingsUpdateConsumer(ENABLED_SETTING, this::setEnabled);
+        clusterSettings.addSettingsUpdateConsumer(MIN_BUFFER_SIZE_SETTING, this::setMinBufferSize);
+        clusterSettings.addSettingsUpdateConsumer(MAX_DELAY_SETTING, this::setMaxDelay);
+    }
+
+    private void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    private void setMinBufferSize(ByteSizeValue minBufferSize) {
+        this.minBufferSizeInBytes = minBufferSize.getBytes();
+    }
+
+    private void setMaxDelay(TimeValue maxDelay) {
+        this.maxDelayInMillis = maxDelay.millis();
+    }
+
+    /**
+     * Returns <code>true</code> iff the scheduled refresh of a shard with pending changes can be deferred.
+     *
+     * @param deferredForMillis        for how long the scheduled refreshes of the shard have been deferred already
+     * @param searchedSinceLastRefresh whether a search accessed the shard since its last scheduled refresh
+     * @param indexBufferBytesUsed     the heap used by the indexing buffer of the shard
+     * @param indexingThrottled        whether indexing into the shard is throttled
+     */
+    public boolean shouldDeferRefresh(
+        long deferredForMillis,
+        boolean searchedSinceLastRefresh,
+        long indexBufferBytesUsed,
+        boolean indexingThrottled
+    ) {
+        if (enabled == false || deferredForMillis >= maxDelayInMillis) {
+            return false;
+        }
+        if (nodeIndexingBufferBytesUsed.getAsLong() > nodeIndexingBufferSize / 2) {
+            // the node runs short of indexing buffer, refreshing moves it to disk
+            return false;
+        }
+        if (indexingThrottled) {
+            // merges fall behind, don't add to the merge debt by creating even more small segments
+            return true;
+        }
+        return searchedSinceLastRefresh == false && indexBufferBytesUsed < minBufferSizeInBytes;
+    }
+}
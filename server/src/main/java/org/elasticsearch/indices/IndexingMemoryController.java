@@ -105,6 +105,9 @@ public class IndexingMemoryController implements IndexingOperationListener, Clos
 
     private final ShardsIndicesStatusChecker statusChecker;
 
+    /** The heap used by the indexing buffers of all shards on this node as of the last check */
+    private volatile long indexingBufferBytesUsed;
+
     IndexingMemoryController(Settings settings, ThreadPool threadPool, Iterable<IndexShard> indexServices) {
         this.indexShards = indexServices;
 
@@ -163,6 +166,13 @@ public class IndexingMemoryController implements IndexingOperationListener, Clos
         return indexingBuffer;
     }
 
+    /**
+     * returns the heap used by the indexing buffers of all shards on this node, as of the last time the memory usage was checked
+     */
+    long indexingBufferBytesUsed() {
+        return indexingBufferBytesUsed;
+    }
+
     protected List<IndexShard> availableShards() {
         List<IndexShard> availableShards = new ArrayList<>();
         for (IndexShard shard : indexShards) {
@@ -324,6 +334,7 @@ public class IndexingMemoryController implements IndexingOperationListener, Clos
 
                 totalBytesUsed += shardBytesUsed;
             }
+            indexingBufferBytesUsed = totalBytesUsed;
 
             if (logger.isTraceEnabled()) {
                 logger.trace(
@@ -9,33 +9,43 @@
 package org.elasticsearch.indices;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.cache.CacheBuilder;
 import org.elasticsearch.common.cache.CacheLoader;
 import org.elasticsearch.common.cache.RemovalListener;
 import org.elasticsearch.common.cache.RemovalNotification;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.mapper.MappingLookup;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The indices request cache allows to cache a shard level request stage responses, helping with improving
@@ -62,6 +72,16 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         Property.Dynamic,
         Property.IndexScope
     );
+    /**
+     * A setting to compute the results of cacheable aggregations only on the segments that are new since the cached result of an
+     * earlier reader of the shard, and to reduce both results, rather than on all segments of the shard.
+     */
+    public static final Setting<Boolean> INDEX_CACHE_REQUEST_SEGMENT_REUSE_SETTING = Setting.boolSetting(
+        "index.requests.cache.segment_reuse.enabled",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
     public static final Setting<ByteSizeValue> INDICES_CACHE_QUERY_SIZE = Setting.memorySizeSetting(
         "indices.requests.cache.size",
         "1%",
@@ -73,6 +93,19 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         Property.NodeScope
     );
 
+    /**
+     * The reader cache key of the entries that {@link #putSegmentsResult} adds. These entries outlive the reader that they were
+     * computed on, they are replaced by the entry of the next reader instead.
+     */
+    private static final Object SEGMENTS_READER_CACHE_KEY = new Object() {
+        @Override
+        public String toString() {
+            return "segments";
+        }
+    };
+
+    private final ConcurrentMap<Object, Long> segmentIds = ConcurrentCollections.newConcurrentMap();
+    private final AtomicLong segmentIdGenerator = new AtomicLong();
     private final ConcurrentMap<CleanupKey, Boolean> registeredClosedListeners = ConcurrentCollections.newConcurrentMap();
     private final Set<CleanupKey> keysToClean = ConcurrentCollections.newConcurrentSet();
     private final ByteSizeValue size;
@@ -156,6 +189,110 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         cache.invalidate(new Key(cacheEntity, mappingCacheKey, reader.getReaderCacheHelper().getKey(), cacheKey));
     }
 
+    /**
+     * Returns the result that {@link #putSegmentsResult} added for the given key on an earlier reader of the shard, or
+     * <code>null</code> if there is none or if any of the segments that it was computed on is not part of the given reader
+     * anymore or has new deletions.
+     */
+    @Nullable
+    SegmentsResult getSegmentsResult(
+        CacheEntity cacheEntity,
+        MappingLookup.CacheKey mappingCacheKey,
+        DirectoryReader reader,
+        BytesReference cacheKey
+    ) throws IOException {
+        final BytesReference value = cache.get(new Key(cacheEntity, mappingCacheKey, SEGMENTS_READER_CACHE_KEY, cacheKey));
+        if (value == null) {
+            return null;
+        }
+        final Map<Long, LeafReaderContext> leavesBySegmentId = new HashMap<>();
+        for (LeafReaderContext leaf : reader.leaves()) {
+            final Long segmentId = segmentId(leaf, false);
+            if (segmentId != null) {
+                leavesBySegmentId.put(segmentId, leaf);
+            }
+        }
+        final int headerLength = value.getInt(0);
+        final BitSet coveredLeaves = new BitSet(reader.leaves().size());
+        try (StreamInput in = value.slice(Integer.BYTES, headerLength).streamInput()) {
+            final int numSegments = in.readVInt();
+            for (int i = 0; i < numSegments; i++) {
+                final LeafReaderContext leaf = leavesBySegmentId.get(in.readVLong());
+                final int numDocs = in.readVInt();
+                // deletions only ever grow on the same segment core, so the same number of live docs means the same live docs
+                if (leaf == null || leaf.reader().numDocs() != numDocs) {
+                    return null;
+                }
+                coveredLeaves.set(leaf.ord);
+            }
+        }
+        final int resultOffset = Integer.BYTES + headerLength;
+        return new SegmentsResult(coveredLeaves, value.slice(resultOffset, value.length() - resultOffset));
+    }
+
+    /**
+     * Adds the result that was computed for the given key on the given reader, so that {@link #getSegmentsResult} can return it
+     * on later readers of the shard that still contain the same segments. Readers with segments that have no core cache key are
+     * skipped since there is no telling whether a later reader still contains them.
+     */
+    void putSegmentsResult(
+        CacheEntity cacheEntity,
+        MappingLookup.CacheKey mappingCacheKey,
+        DirectoryReader reader,
+        BytesReference cacheKey,
+        BytesReference result
+    ) throws IOException {
+        final BytesReference header;
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.writeVInt(reader.leaves().size());
+            for (LeafReaderContext leaf : reader.leaves()) {
+                final Long segmentId = segmentId(leaf, true);
+                if (segmentId == null) {
+                    return;
+                }
+                out.writeVLong(segmentId);
+                out.writeVInt(leaf.reader().numDocs());
+            }
+            header = out.bytes();
+        }
+        final BytesReference headerLength;
+        try (BytesStreamOutput out = new BytesStreamOutput(Integer.BYTES)) {
+            out.writeInt(header.length());
+            headerLength = out.bytes();
+        }
+        final Key key = new Key(cacheEntity, mappingCacheKey, SEGMENTS_READER_CACHE_KEY, cacheKey);
+        final BytesReference value = CompositeBytesReference.of(headerLength, header, result);
+        cache.put(key, value);
+        cacheEntity.onCached(key, value);
+    }
+
+    /**
+     * Returns an id for the core of the segment of the given leaf that is unique for the lifetime of this cache, unlike segment
+     * names which a shard can reuse after it reset its engine. The id is forgotten once the core closes.
+     */
+    @Nullable
+    private Long segmentId(LeafReaderContext leaf, boolean create) {
+        final IndexReader.CacheHelper cacheHelper = leaf.reader().getCoreCacheHelper();
+        if (cacheHelper == null) {
+            return null;
+        }
+        if (create == false) {
+            return segmentIds.get(cacheHelper.getKey());
+        }
+        return segmentIds.computeIfAbsent(cacheHelper.getKey(), coreKey -> {
+            cacheHelper.addClosedListener(segmentIds::remove);
+            return segmentIdGenerator.incrementAndGet();
+        });
+    }
+
+    /**
+     * A result that {@link #putSegmentsResult} added on an earlier reader of a shard.
+     *
+     * @param coveredLeaves the ordinals of the leaves of the current reader that the result was computed on
+     * @param result        the result itself
+     */
+    record SegmentsResult(BitSet coveredLeaves, BytesReference result) {}
+
     private static class Loader implements CacheLoader<Key, BytesReference> {
 
         private final CacheEntity entity;
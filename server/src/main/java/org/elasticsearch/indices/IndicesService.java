@@ -12,6 +12,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader.CacheHelper;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.CollectionUtil;
 import org.apache.lucene.util.RamUsageEstimator;
@@ -45,6 +47,7 @@ import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
 import org.elasticsearch.common.settings.IndexScopedSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -83,6 +86,7 @@ import org.elasticsearch.index.cache.request.ShardRequestCache;
 import org.elasticsearch.index.engine.CommitStats;
 import org.elasticsearch.index.engine.EngineFactory;
 import org.elasticsearch.index.engine.InternalEngineFactory;
+import org.elasticsearch.index.engine.NodeMergeLimiter;
 import org.elasticsearch.index.engine.NoOpEngine;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
 import org.elasticsearch.index.flush.FlushStats;
@@ -110,6 +114,7 @@ import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.IndexingOperationListener;
 import org.elasticsearch.index.shard.IndexingStats;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.TranslogSyncScheduler;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -121,8 +126,13 @@ import org.elasticsearch.plugins.IndexStorePlugin;
 import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.aggregations.AggregationPhase;
+import org.elasticsearch.search.aggregations.AggregationReduceContext;
+import org.elasticsearch.search.aggregations.InternalAggregations;
 import org.elasticsearch.search.aggregations.support.ValuesSourceRegistry;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.search.query.QueryPhase;
@@ -226,6 +236,9 @@ public class IndicesService extends AbstractLifecycleComponent
     private final NamedWriteableRegistry namedWriteableRegistry;
     private final Map<String, IndexStorePlugin.SnapshotCommitSupplier> snapshotCommitSuppliers;
     private final IndexingMemoryController indexingMemoryController;
+    private final TranslogSyncScheduler translogSyncScheduler;
+    private final AdaptiveRefreshPolicy adaptiveRefreshPolicy;
+    private final NodeMergeLimiter nodeMergeLimiter;
     private final TimeValue cleanInterval;
     final IndicesRequestCache indicesRequestCache; // pkg-private for testing
     private final IndicesQueryCache indicesQueryCache;
@@ -303,6 +316,9 @@ public class IndicesService extends AbstractLifecycleComponent
             // ensure we pull an iter with new shards - flatten makes a copy
             () -> Iterables.flatten(this).iterator()
         );
+        this.translogSyncScheduler = new TranslogSyncScheduler(settings, threadPool.getThreadContext(), threadPool.generic());
+        this.adaptiveRefreshPolicy = new AdaptiveRefreshPolicy(settings, clusterService.getClusterSettings(), indexingMemoryController);
+        this.nodeMergeLimiter = new NodeMergeLimiter(settings, clusterService.getClusterSettings());
         this.indexScopedSettings = indexScopedSettings;
         this.circuitBreakerService = circuitBreakerService;
         this.bigArrays = bigArrays;
@@ -349,6 +365,7 @@ public class IndicesService extends AbstractLifecycleComponent
                 IOUtils.close(
                     analysisRegistry,
                     indexingMemoryController,
+                    translogSyncScheduler,
                     indicesFieldDataCache,
                     cacheCleaner,
                     indicesRequestCache,
@@ -728,7 +745,10 @@ public class IndicesService extends AbstractLifecycleComponent
             idFieldMappers.apply(idxSettings.getMode()),
             valuesSourceRegistry,
             indexFoldersDeletionListeners,
-            snapshotCommitSuppliers
+            snapshotCommitSuppliers,
+            translogSyncScheduler,
+            adaptiveRefreshPolicy,
+            nodeMergeLimiter
         );
     }
 
@@ -1494,13 +1514,18 @@ public class IndicesService extends AbstractLifecycleComponent
 
         boolean[] loadedFromCache = new boolean[] { true };
         BytesReference cacheKey = request.cacheKey(requestCacheKeyDifferentiator);
+        final boolean reuseSegments = canReuseSegments(request, context);
         BytesReference bytesReference = cacheShardLevelResult(
             context.indexShard(),
             context.getSearchExecutionContext().mappingCacheKey(),
             directoryReader,
             cacheKey,
             out -> {
-                QueryPhase.execute(context);
+                if (reuseSegments) {
+                    executeQueryPhaseOnNewSegments(request, context, directoryReader, cacheKey);
+                } else {
+                    QueryPhase.execute(context);
+                }
                 context.queryResult().writeToNoId(out);
                 loadedFromCache[0] = false;
             }
@@ -1533,6 +1558,91 @@ public class IndicesService extends AbstractLifecycleComponent
                     request.source()
                 );
             }
+        } else if (reuseSegments) {
+            indicesRequestCache.putSegmentsResult(
+                new IndexShardCacheEntity(context.indexShard()),
+                context.getSearchExecutionContext().mappingCacheKey(),
+                directoryReader,
+                cacheKey,
+                bytesReference
+            );
+        }
+    }
+
+    /**
+     * Can the cached result of the shard request on an earlier reader be reused for the segments that the readers share? Only
+     * aggregations without hits can, and only if the partial reduction of their results on the old and the new segments is the
+     * same as their result on all segments, see {@link AggregationPhase#isDecomposable}.
+     */
+    private static boolean canReuseSegments(ShardSearchRequest request, SearchContext context) {
+        if (context.indexShard().indexSettings().getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_SEGMENT_REUSE_SETTING) == false) {
+            return false;
+        }
+        final SearchSourceBuilder source = request.source();
+        if (source == null || source.aggregations() == null || source.suggest() != null) {
+            return false;
+        }
+        if (context.size() != 0 || context.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER) {
+            return false;
+        }
+        return AggregationPhase.isDecomposable(source.aggregations().getAggregatorFactories());
+    }
+
+    /**
+     * Executes the query phase on the segments that are new since the reader of the {@link IndicesRequestCache#getSegmentsResult
+     * cached result} of the request, and reduces the result with the cached one. Executes the query phase on all segments if there
+     * is no cached result.
+     */
+    private void executeQueryPhaseOnNewSegments(
+        ShardSearchRequest request,
+        SearchContext context,
+        DirectoryReader directoryReader,
+        BytesReference cacheKey
+    ) throws IOException {
+        final IndicesRequestCache.SegmentsResult cached = indicesRequestCache.getSegmentsResult(
+            new IndexShardCacheEntity(context.indexShard()),
+            context.getSearchExecutionContext().mappingCacheKey(),
+            directoryReader,
+            cacheKey
+        );
+        if (cached == null) {
+            QueryPhase.execute(context);
+            return;
+        }
+        final ContextIndexSearcher searcher = context.searcher();
+        searcher.setLeafFilter(leaf -> cached.coveredLeaves().get(leaf.ord) == false);
+        try {
+            QueryPhase.execute(context);
+        } finally {
+            searcher.setLeafFilter(null);
+        }
+
+        final QuerySearchResult cachedResult = new QuerySearchResult();
+        StreamInput in = new NamedWriteableAwareStreamInput(cached.result().streamInput(), namedWriteableRegistry);
+        cachedResult.readFromWithId(context.id(), in);
+        final QuerySearchResult result = context.queryResult();
+        final TopDocsAndMaxScore topDocs = result.topDocs();
+        final TotalHits cachedHits = cachedResult.getTotalHits();
+        final TotalHits totalHits = new TotalHits(
+            cachedHits.value + topDocs.topDocs.totalHits.value,
+            cachedHits.relation == TotalHits.Relation.EQUAL_TO ? topDocs.topDocs.totalHits.relation : cachedHits.relation
+        );
+        // there are no hits, and so no max score, since the request has a size of 0
+        result.topDocs(
+            new TopDocsAndMaxScore(new TopDocs(totalHits, topDocs.topDocs.scoreDocs), topDocs.maxScore),
+            result.sortValueFormats()
+        );
+        if (cachedResult.hasAggs() && result.hasAggs()) {
+            // a partial reduce, the coordinating node reduces the result with the results of the other shards as usual
+            final AggregationReduceContext reduceContext = new AggregationReduceContext.ForPartial(
+                bigArrays,
+                scriptService,
+                context::isCancelled,
+                request.source().aggregations()
+            );
+            result.aggregations(
+                InternalAggregations.topLevelReduce(List.of(cachedResult.consumeAggs(), result.consumeAggs()), reduceContext)
+            );
         }
     }
 
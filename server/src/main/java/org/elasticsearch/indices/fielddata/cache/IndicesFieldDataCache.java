@@ -24,18 +24,21 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
 import org.elasticsearch.index.fielddata.LeafFieldData;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.ToLongBiFunction;
 
 public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCache.Key, Accountable>, Releasable {
@@ -79,13 +82,14 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         assert key != null && key.listeners != null;
         IndexFieldCache indexCache = key.indexCache;
         final Accountable value = notification.getValue();
+        indexCache.onRemoval(key, value);
         for (IndexFieldDataCache.Listener listener : key.listeners) {
             try {
                 listener.onRemoval(
                     key.shardId,
                     indexCache.fieldName,
                     notification.getRemovalReason() == RemovalNotification.RemovalReason.EVICTED,
-                    value.ramBytesUsed()
+                    value
                 );
             } catch (Exception e) {
                 // load anyway since listeners should not throw exceptions
@@ -111,6 +115,10 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         final String fieldName;
         private final Cache<Key, Accountable> cache;
         private final Listener[] listeners;
+        /**
+         * The most recently loaded global view of each shard, which the global view of the next reader of the shard may reuse.
+         */
+        private final Map<ShardId, Accountable> latestGlobal = ConcurrentCollections.newConcurrentMap();
 
         IndexFieldCache(Logger logger, final Cache<Key, Accountable> cache, Index index, String fieldName, Listener... listeners) {
             this.logger = logger;
@@ -162,7 +170,14 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
             final Accountable accountable = cache.computeIfAbsent(key, k -> {
                 ElasticsearchDirectoryReader.addReaderCloseListener(indexReader, IndexFieldCache.this);
                 Collections.addAll(k.listeners, this.listeners);
-                final Accountable ifd = (Accountable) indexFieldData.loadGlobalDirect(indexReader);
+                final Accountable previous = shardId == null ? null : latestGlobal.get(shardId);
+                final Accountable ifd = (Accountable) indexFieldData.loadGlobalDirect(
+                    indexReader,
+                    previous instanceof IndexFieldData<?> previousFieldData ? previousFieldData : null
+                );
+                if (shardId != null) {
+                    latestGlobal.put(shardId, ifd);
+                }
                 for (Listener listener : k.listeners) {
                     try {
                         listener.onCache(shardId, fieldName, ifd);
@@ -176,6 +191,15 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
             return (IFD) accountable;
         }
 
+        private void onRemoval(Key key, Accountable value) {
+            if (key.shardId != null) {
+                latestGlobal.remove(key.shardId, value);
+            }
+            if (value instanceof GlobalOrdinalsIndexFieldData globalOrdinals) {
+                globalOrdinals.onRemoval();
+            }
+        }
+
         @Override
         public void onClose(CacheKey key) {
             cache.invalidate(new Key(this, key, null));
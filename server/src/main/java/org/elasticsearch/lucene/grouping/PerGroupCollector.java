@@ -0,0 +1,150 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+
+package org.elasticsearch.lucene.grouping;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.grouping.GroupSelector;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.MappedFieldType.CollapseType;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link Collector} that passes each document on to the collector of its group, and ignores the documents of the other groups.
+ * This collects the top hits of many groups in a single pass over the matching documents, rather than with one search per group.
+ * The documents without a value for the grouping field belong to the {@code null} group.
+ */
+public final class PerGroupCollector implements Collector {
+
+    private final GroupSelector<?> groupSelector;
+    private final Map<Object, Integer> groupSlots;
+    private final Collector[] collectors;
+    private final ScoreMode scoreMode;
+
+    private PerGroupCollector(GroupSelector<?> groupSelector, Map<Object, ? extends Collector> collectors) {
+        this.groupSelector = groupSelector;
+        this.groupSlots = new HashMap<>(collectors.size());
+        this.collectors = new Collector[collectors.size()];
+        ScoreMode scoreMode = ScoreMode.COMPLETE_NO_SCORES;
+        for (Map.Entry<Object, ? extends Collector> entry : collectors.entrySet()) {
+            final int slot = groupSlots.size();
+            groupSlots.put(entry.getKey(), slot);
+            this.collectors[slot] = entry.getValue();
+            if (entry.getValue().scoreMode().needsScores()) {
+                scoreMode = ScoreMode.COMPLETE;
+            }
+        }
+        this.scoreMode = scoreMode;
+    }
+
+    /**
+     * Creates a {@link PerGroupCollector} that groups documents on the values of a field that supports collapsing.
+     *
+     * @param groupFieldType The field to group on, which must be single valued.
+     * @param collectors     The collector of each group, by group value. The values of keyword fields are {@link
+     *                       org.apache.lucene.util.BytesRef}s and the values of numeric fields are {@link Long}s, the
+     *                       same as in {@link TopFieldGroups#groupValues}.
+     */
+    public static PerGroupCollector create(MappedFieldType groupFieldType, Map<Object, ? extends Collector> collectors) {
+        return new PerGroupCollector(newGroupSelector(groupFieldType), collectors);
+    }
+
+    /**
+     * Reads the group values of the given documents, in the same order.
+     */
+    public static Object[] groupValues(IndexReader reader, MappedFieldType groupFieldType, int[] docs, int count) throws IOException {
+        final GroupSelector<?> groupSelector = newGroupSelector(groupFieldType);
+        final List<LeafReaderContext> leaves = reader.leaves();
+        // doc values must be read in increasing doc id order
+        final Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(docs[a], docs[b]));
+        final Object[] groupValues = new Object[count];
+        LeafReaderContext leaf = null;
+        for (int i : order) {
+            if (leaf == null || docs[i] >= leaf.docBase + leaf.reader().maxDoc()) {
+                leaf = leaves.get(ReaderUtil.subIndex(docs[i], leaves));
+                groupSelector.setNextReader(leaf);
+            }
+            groupSelector.advanceTo(docs[i] - leaf.docBase);
+            groupValues[i] = groupSelector.copyValue();
+        }
+        return groupValues;
+    }
+
+    private static GroupSelector<?> newGroupSelector(MappedFieldType fieldType) {
+        if (fieldType.collapseType() == CollapseType.KEYWORD) {
+            return new GroupingDocValuesSelector.Keyword(fieldType);
+        } else if (fieldType.collapseType() == CollapseType.NUMERIC) {
+            return new GroupingDocValuesSelector.Numeric(fieldType);
+        } else {
+            throw new IllegalStateException("grouping is not supported on this field type");
+        }
+    }
+
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+        groupSelector.setNextReader(context);
+        // the leaf collectors are only created for the groups that have documents in this segment
+        final LeafCollector[] leafCollectors = new LeafCollector[collectors.length];
+        return new LeafCollector() {
+            private Scorable scorer;
+
+            @Override
+            public void setScorer(Scorable scorer) throws IOException {
+                this.scorer = scorer;
+                for (LeafCollector leafCollector : leafCollectors) {
+                    if (leafCollector != null) {
+                        leafCollector.setScorer(scorer);
+                    }
+                }
+            }
+
+            @Override
+            public void collect(int doc) throws IOException {
+                groupSelector.advanceTo(doc);
+                final Integer slot = groupSlots.get(groupSelector.currentValue());
+                if (slot == null) {
+                    return;
+                }
+                LeafCollector leafCollector = leafCollectors[slot];
+                if (leafCollector == null) {
+                    leafCollector = leafCollectors[slot] = collectors[slot].getLeafCollector(context);
+                    if (scorer != null) {
+                        leafCollector.setScorer(scorer);
+                    }
+                }
+                leafCollector.collect(doc);
+            }
+        };
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return scoreMode;
+    }
+
+    @Override
+    public String toString() {
+        return "per_group(" + collectors.length + " groups)";
+    }
+}
@@ -90,6 +90,7 @@ public class JvmInfo implements ReportingService.Info {
         String useSerialGC = "unknown";
         long configuredInitialHeapSize = -1;
         long configuredMaxHeapSize = -1;
+        long configuredMaxDirectMemorySize = -1;
         try {
             @SuppressWarnings("unchecked")
             Class<? extends PlatformManagedObject> clazz = (Class<? extends PlatformManagedObject>) Class.forName(
@@ -132,6 +133,11 @@ public class JvmInfo implements ReportingService.Info {
                 configuredMaxHeapSize = Long.parseLong((String) valueMethod.invoke(maxHeapSizeVmOptionObject));
             } catch (Exception ignored) {}
 
+            try {
+                Object maxDirectMemorySizeVmOptionObject = vmOptionMethod.invoke(hotSpotDiagnosticMXBean, "MaxDirectMemorySize");
+                configuredMaxDirectMemorySize = Long.parseLong((String) valueMethod.invoke(maxDirectMemorySizeVmOptionObject));
+            } catch (Exception ignored) {}
+
             try {
                 Object useSerialGCVmOptionObject = vmOptionMethod.invoke(hotSpotDiagnosticMXBean, "UseSerialGC");
                 useSerialGC = (String) valueMethod.invoke(useSerialGCVmOptionObject);
@@ -151,6 +157,7 @@ public class JvmInfo implements ReportingService.Info {
             runtimeMXBean.getStartTime(),
             configuredInitialHeapSize,
             configuredMaxHeapSize,
+            configuredMaxDirectMemorySize,
             mem,
             inputArguments,
             bootClassPath,
@@ -200,6 +207,7 @@ public class JvmInfo implements ReportingService.Info {
     private final long startTime;
     private final long configuredInitialHeapSize;
     private final long configuredMaxHeapSize;
+    private final long configuredMaxDirectMemorySize;
     private final Mem mem;
     private final String[] inputArguments;
     private final String bootClassPath;
@@ -224,6 +232,7 @@ public class JvmInfo implements ReportingService.Info {
         long startTime,
         long configuredInitialHeapSize,
         long configuredMaxHeapSize,
+        long configuredMaxDirectMemorySize,
         Mem mem,
         String[] inputArguments,
         String bootClassPath,
@@ -247,6 +256,7 @@ public class JvmInfo implements ReportingService.Info {
         this.startTime = startTime;
         this.configuredInitialHeapSize = configuredInitialHeapSize;
         this.configuredMaxHeapSize = configuredMaxHeapSize;
+        this.configuredMaxDirectMemorySize = configuredMaxDirectMemorySize;
         this.mem = mem;
         this.inputArguments = inputArguments;
         this.bootClassPath = bootClassPath;
@@ -287,6 +297,7 @@ public class JvmInfo implements ReportingService.Info {
         useCompressedOops = in.readString();
         // the following members are only used locally for bootstrap checks, never serialized nor printed out
         this.configuredMaxHeapSize = -1;
+        this.configuredMaxDirectMemorySize = -1;
         this.configuredInitialHeapSize = -1;
         this.onError = null;
         this.onOutOfMemoryError = null;
@@ -378,6 +389,14 @@ public class JvmInfo implements ReportingService.Info {
         return configuredMaxHeapSize;
     }
 
+    /**
+     * The value of {@code -XX:MaxDirectMemorySize}, which is {@code 0} if it is not set and the JVM limits direct memory to the maximum
+     * heap size, or {@code -1} if it is unknown.
+     */
+    public long getConfiguredMaxDirectMemorySize() {
+        return configuredMaxDirectMemorySize;
+    }
+
     public String onError() {
         return onError;
     }
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.node;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -19,6 +20,7 @@ import org.elasticsearch.xcontent.XContentBuilder;
 import java.io.IOException;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -26,36 +28,58 @@ import java.util.stream.Collectors;
 /**
  * Class representing statistics about adaptive replica selection. This includes
  * EWMA of queue size, service time, and response time, as well as outgoing
- * searches to each node and the "rank" based on the ARS formula.
+ * searches to each node and the "rank" based on the ARS formula, and the
+ * number of hedged search requests of each node.
  */
 public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
 
     private final Map<String, Long> clientOutgoingConnections;
     private final Map<String, ResponseCollectorService.ComputedNodeStats> nodeComputedStats;
+    private final Map<String, ResponseCollectorService.HedgeStats> nodeHedgeStats;
 
     public AdaptiveSelectionStats(
         Map<String, Long> clientConnections,
         Map<String, ResponseCollectorService.ComputedNodeStats> nodeComputedStats
+    ) {
+        this(clientConnections, nodeComputedStats, Map.of());
+    }
+
+    public AdaptiveSelectionStats(
+        Map<String, Long> clientConnections,
+        Map<String, ResponseCollectorService.ComputedNodeStats> nodeComputedStats,
+        Map<String, ResponseCollectorService.HedgeStats> nodeHedgeStats
     ) {
         this.clientOutgoingConnections = clientConnections;
         this.nodeComputedStats = nodeComputedStats;
+        this.nodeHedgeStats = Objects.requireNonNull(nodeHedgeStats);
     }
 
     public AdaptiveSelectionStats(StreamInput in) throws IOException {
         this.clientOutgoingConnections = in.readMap(StreamInput::readString, StreamInput::readLong);
         this.nodeComputedStats = in.readMap(StreamInput::readString, ResponseCollectorService.ComputedNodeStats::new);
+        if (in.getVersion().onOrAfter(Version.V_8_4_0)) {
+            this.nodeHedgeStats = in.readMap(StreamInput::readString, ResponseCollectorService.HedgeStats::new);
+        } else {
+            this.nodeHedgeStats = Map.of();
+        }
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeMap(this.clientOutgoingConnections, StreamOutput::writeString, StreamOutput::writeLong);
         out.writeMap(this.nodeComputedStats, StreamOutput::writeString, (stream, stats) -> stats.writeTo(stream));
+        if (out.getVersion().onOrAfter(Version.V_8_4_0)) {
+            out.writeMap(this.nodeHedgeStats, StreamOutput::writeString, (stream, stats) -> stats.writeTo(stream));
+        }
     }
 
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("adaptive_selection");
-        Set<String> allNodeIds = Sets.union(clientOutgoingConnections.keySet(), nodeComputedStats.keySet());
+        Set<String> allNodeIds = Sets.union(
+            Sets.union(clientOutgoingConnections.keySet(), nodeComputedStats.keySet()),
+            nodeHedgeStats.keySet()
+        );
         for (String nodeId : allNodeIds) {
             builder.startObject(nodeId);
             ResponseCollectorService.ComputedNodeStats stats = nodeComputedStats.get(nodeId);
@@ -73,6 +97,12 @@ public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
                 builder.field("avg_response_time_ns", (long) stats.responseTime);
                 builder.field("rank", String.format(Locale.ROOT, "%.1f", stats.rank(outgoingSearches)));
             }
+            ResponseCollectorService.HedgeStats hedgeStats = nodeHedgeStats.get(nodeId);
+            if (hedgeStats != null) {
+                builder.field("hedged_searches", hedgeStats.hedgedRequests);
+                builder.field("hedge_searches", hedgeStats.hedgeRequests);
+                builder.field("hedge_wins", hedgeStats.hedgeWins);
+            }
             builder.endObject();
         }
         builder.endObject();
@@ -93,6 +123,13 @@ public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
         return nodeComputedStats;
     }
 
+    /**
+     * Returns a map of node id to the counts of hedged search requests of that node
+     */
+    public Map<String, ResponseCollectorService.HedgeStats> getHedgeStats() {
+        return nodeHedgeStats;
+    }
+
     /**
      * Returns a map of node id to the ranking of the nodes based on the adaptive replica formula
      */
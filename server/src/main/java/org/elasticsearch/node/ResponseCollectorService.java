@@ -24,11 +24,16 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Collects statistics about queue size, response time, and service time of
  * tasks executed on each node, making the EWMA of the values available to the
- * coordinating node.
+ * coordinating node. It also keeps the most recent response times across all
+ * nodes, from which hedged shard requests derive their deadline, and counts the
+ * hedged requests per node.
  */
 public final class ResponseCollectorService implements ClusterStateListener {
 
@@ -37,7 +42,31 @@ public final class ResponseCollectorService implements ClusterStateListener {
      */
     public static final double ALPHA = 0.3;
 
+    /**
+     * The number of most recent response times that {@link #responseTimePercentile} is computed from.
+     */
+    static final int RESPONSE_TIME_WINDOW = 1024;
+
+    /**
+     * The response times are counted in buckets that each cover an eighth of a power of two, so {@link #responseTimePercentile} is
+     * accurate to within an eighth of the response time.
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /**
+     * The number of response times that must have been collected before {@link #responseTimePercentile} returns a value.
+     */
+    static final int MIN_RESPONSE_TIME_SAMPLES = 20;
+
     private final ConcurrentMap<String, NodeStatistics> nodeIdToStats = ConcurrentCollections.newConcurrentMap();
+    private final ConcurrentMap<String, HedgeCounters> nodeIdToHedgeCounters = ConcurrentCollections.newConcurrentMap();
+
+    // the most recent response times, so that the oldest one can be removed from the histogram once a new one replaces it
+    private final AtomicLongArray recentResponseTimes = new AtomicLongArray(RESPONSE_TIME_WINDOW);
+    private final AtomicLong responseTimesCount = new AtomicLong();
+    private final AtomicLongArray responseTimeHistogram = new AtomicLongArray(BUCKETS);
 
     public ResponseCollectorService(ClusterService clusterService) {
         clusterService.addListener(this);
@@ -54,6 +83,7 @@ public final class ResponseCollectorService implements ClusterStateListener {
 
     void removeNode(String nodeId) {
         nodeIdToStats.remove(nodeId);
+        nodeIdToHedgeCounters.remove(nodeId);
     }
 
     public void addNodeStatistics(String nodeId, int queueSize, long responseTimeNanos, long avgServiceTimeNanos) {
@@ -69,6 +99,88 @@ public final class ResponseCollectorService implements ClusterStateListener {
                 return ns;
             }
         });
+        final long count = responseTimesCount.getAndIncrement();
+        final long evicted = recentResponseTimes.getAndSet((int) (count % RESPONSE_TIME_WINDOW), Math.max(0L, responseTimeNanos));
+        if (count >= RESPONSE_TIME_WINDOW) {
+            responseTimeHistogram.decrementAndGet(bucket(evicted));
+        }
+        responseTimeHistogram.incrementAndGet(bucket(responseTimeNanos));
+    }
+
+    /**
+     * Returns the given percentile, between 0 and 100, of the most recent response times of all nodes in nanoseconds, or -1 if
+     * too few responses were collected so far. The percentile is read from a histogram of the response times, so it is rounded up
+     * by at most an eighth.
+     */
+    public long responseTimePercentile(double percentile) {
+        if (responseTimesCount.get() < MIN_RESPONSE_TIME_SAMPLES) {
+            return -1;
+        }
+        final long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = Math.max(0L, responseTimeHistogram.get(i));
+            total += counts[i];
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        int lastNonEmptyBucket = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0) {
+                seen += counts[i];
+                lastNonEmptyBucket = i;
+                if (seen >= rank) {
+                    break;
+                }
+            }
+        }
+        return bucketUpperBound(lastNonEmptyBucket);
+    }
+
+    static int bucket(long responseTimeNanos) {
+        if (responseTimeNanos < SUB_BUCKETS) {
+            return (int) Math.max(0L, responseTimeNanos);
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(responseTimeNanos);
+        final int subBucket = (int) (responseTimeNanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long subBucket = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Records that a shard level request to {@code slowNodeId} did not respond in time, so it was hedged with another request
+     * for the same shard to {@code hedgeNodeId}.
+     */
+    public void addHedgedRequest(String slowNodeId, String hedgeNodeId) {
+        hedgeCounters(slowNodeId).hedged.increment();
+        hedgeCounters(hedgeNodeId).hedges.increment();
+    }
+
+    /**
+     * Records that a hedge request to the given node responded before the request that it hedged.
+     */
+    public void addHedgeWin(String hedgeNodeId) {
+        hedgeCounters(hedgeNodeId).wins.increment();
+    }
+
+    private HedgeCounters hedgeCounters(String nodeId) {
+        return nodeIdToHedgeCounters.computeIfAbsent(nodeId, id -> new HedgeCounters());
+    }
+
+    public Map<String, HedgeStats> getAllHedgeStats() {
+        Map<String, HedgeStats> hedgeStats = Maps.newMapWithExpectedSize(nodeIdToHedgeCounters.size());
+        nodeIdToHedgeCounters.forEach(
+            (k, v) -> hedgeStats.put(k, new HedgeStats(v.hedged.sum(), v.hedges.sum(), v.wins.sum()))
+        );
+        return hedgeStats;
     }
 
     public Map<String, ComputedNodeStats> getAllNodeStatistics() {
@@ -80,7 +192,7 @@ public final class ResponseCollectorService implements ClusterStateListener {
     }
 
     public AdaptiveSelectionStats getAdaptiveStats(Map<String, Long> clientSearchConnections) {
-        return new AdaptiveSelectionStats(clientSearchConnections, getAllNodeStatistics());
+        return new AdaptiveSelectionStats(clientSearchConnections, getAllNodeStatistics(), getAllHedgeStats());
     }
 
     /**
@@ -196,6 +308,49 @@ public final class ResponseCollectorService implements ClusterStateListener {
         }
     }
 
+    /**
+     * Point-in-time counts of the hedged shard level requests of a node.
+     */
+    public static class HedgeStats implements Writeable {
+        /**
+         * The number of requests to the node that were hedged because they did not respond in time.
+         */
+        public final long hedgedRequests;
+        /**
+         * The number of hedge requests that were sent to the node.
+         */
+        public final long hedgeRequests;
+        /**
+         * The number of hedge requests to the node that responded before the request that they hedged.
+         */
+        public final long hedgeWins;
+
+        public HedgeStats(long hedgedRequests, long hedgeRequests, long hedgeWins) {
+            this.hedgedRequests = hedgedRequests;
+            this.hedgeRequests = hedgeRequests;
+            this.hedgeWins = hedgeWins;
+        }
+
+        HedgeStats(StreamInput in) throws IOException {
+            this.hedgedRequests = in.readVLong();
+            this.hedgeRequests = in.readVLong();
+            this.hedgeWins = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(hedgedRequests);
+            out.writeVLong(hedgeRequests);
+            out.writeVLong(hedgeWins);
+        }
+    }
+
+    private static class HedgeCounters {
+        final LongAdder hedged = new LongAdder();
+        final LongAdder hedges = new LongAdder();
+        final LongAdder wins = new LongAdder();
+    }
+
     /**
      * Class encapsulating a node's exponentially weighted queue size, response
      * time, and service time, however, this class is private and intended only
@@ -50,6 +50,7 @@ import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.query.CoordinatorRewriteContextProvider;
+import org.elasticsearch.index.query.InnerHitBuilder;
 import org.elasticsearch.index.query.InnerHitContextBuilder;
 import org.elasticsearch.index.query.MatchAllQueryBuilder;
 import org.elasticsearch.index.query.MatchNoneQueryBuilder;
@@ -70,6 +71,7 @@ import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.script.FieldScript;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.search.aggregations.AggregationInitializationException;
+import org.elasticsearch.search.aggregations.AggregationPhase;
 import org.elasticsearch.search.aggregations.AggregationReduceContext;
 import org.elasticsearch.search.aggregations.AggregatorFactories;
 import org.elasticsearch.search.aggregations.MultiBucketConsumerService;
@@ -77,7 +79,9 @@ import org.elasticsearch.search.aggregations.SearchContextAggregations;
 import org.elasticsearch.search.aggregations.support.AggregationContext;
 import org.elasticsearch.search.aggregations.support.AggregationContext.ProductionAggregationContext;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.collapse.CollapseBuilder;
 import org.elasticsearch.search.collapse.CollapseContext;
+import org.elasticsearch.search.collapse.CollapseInnerHitContextBuilder;
 import org.elasticsearch.search.dfs.DfsPhase;
 import org.elasticsearch.search.dfs.DfsSearchResult;
 import org.elasticsearch.search.fetch.FetchPhase;
@@ -90,6 +94,7 @@ import org.elasticsearch.search.fetch.subphase.FetchFieldsContext;
 import org.elasticsearch.search.fetch.subphase.ScriptFieldsContext.ScriptField;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.GlobalBottomSortValues;
 import org.elasticsearch.search.internal.InternalScrollSearchRequest;
 import org.elasticsearch.search.internal.LegacyReaderContext;
 import org.elasticsearch.search.internal.ReaderContext;
@@ -112,6 +117,7 @@ import org.elasticsearch.search.sort.SortBuilder;
 import org.elasticsearch.search.suggest.Suggest;
 import org.elasticsearch.search.suggest.completion.CompletionSuggestion;
 import org.elasticsearch.tasks.TaskCancelledException;
+import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.threadpool.Scheduler.Cancellable;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -187,6 +193,27 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         Property.NodeScope
     );
 
+    /**
+     * Enables collecting slices of the segments of a shard concurrently on the {@link Names#SEARCH_WORKER} thread pool during the
+     * query phase. See {@link QueryPhase} for the searches that are eligible.
+     */
+    public static final Setting<Boolean> CONCURRENT_SEGMENT_SEARCH_SETTING = Setting.boolSetting(
+        "search.concurrent_segment_search.enabled",
+        false,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    /**
+     * Enables reading ahead the stored fields of the hits on the {@link Names#SEARCH_WORKER} thread pool during the fetch phase.
+     */
+    public static final Setting<Boolean> FETCH_PREFETCH_SETTING = Setting.boolSetting(
+        "search.fetch.prefetch.enabled",
+        false,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
     public static final TimeValue NO_TIMEOUT = timeValueMillis(-1);
     public static final Setting<TimeValue> DEFAULT_SEARCH_TIMEOUT_SETTING = Setting.timeSetting(
         "search.default_search_timeout",
@@ -254,6 +281,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     private volatile boolean lowLevelCancellation;
 
+    private volatile boolean concurrentSegmentSearch;
+
     private volatile int maxOpenScrollContext;
 
     private volatile boolean enableRewriteAggsToFilterByFilter;
@@ -264,6 +293,11 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     private final Map<Long, ReaderContext> activeReaders = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
+    /**
+     * The bottom sort values of the shards that run the query phase on this node, by the task of the search on the coordinating node.
+     */
+    private final Map<TaskId, Set<GlobalBottomSortValues>> activeBottomSortValues = ConcurrentCollections.newConcurrentMap();
+
     private final MultiBucketConsumerService multiBucketConsumerService;
 
     private final AtomicInteger openScrollContexts = new AtomicInteger();
@@ -321,6 +355,13 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         lowLevelCancellation = LOW_LEVEL_CANCELLATION_SETTING.get(settings);
         clusterService.getClusterSettings().addSettingsUpdateConsumer(LOW_LEVEL_CANCELLATION_SETTING, this::setLowLevelCancellation);
 
+        concurrentSegmentSearch = CONCURRENT_SEGMENT_SEARCH_SETTING.get(settings);
+        clusterService.getClusterSettings()
+            .addSettingsUpdateConsumer(CONCURRENT_SEGMENT_SEARCH_SETTING, this::setConcurrentSegmentSearch);
+
+        setFetchPrefetch(FETCH_PREFETCH_SETTING.get(settings));
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(FETCH_PREFETCH_SETTING, this::setFetchPrefetch);
+
         enableRewriteAggsToFilterByFilter = ENABLE_REWRITE_AGGS_TO_FILTER_BY_FILTER.get(settings);
         clusterService.getClusterSettings()
             .addSettingsUpdateConsumer(ENABLE_REWRITE_AGGS_TO_FILTER_BY_FILTER, this::setEnableRewriteAggsToFilterByFilter);
@@ -370,6 +411,14 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         this.lowLevelCancellation = lowLevelCancellation;
     }
 
+    private void setConcurrentSegmentSearch(boolean concurrentSegmentSearch) {
+        this.concurrentSegmentSearch = concurrentSegmentSearch;
+    }
+
+    private void setFetchPrefetch(boolean fetchPrefetch) {
+        fetchPhase.setPrefetchExecutor(fetchPrefetch ? threadPool.executor(Names.SEARCH_WORKER) : null);
+    }
+
     private void setEnableRewriteAggsToFilterByFilter(boolean enableRewriteAggsToFilterByFilter) {
         this.enableRewriteAggsToFilterByFilter = enableRewriteAggsToFilterByFilter;
     }
@@ -623,7 +672,10 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             SearchContext context = createContext(readerContext, request, task, true)
         ) {
             final long afterQueryTime;
-            try (SearchOperationListenerExecutor executor = new SearchOperationListenerExecutor(context)) {
+            try (
+                SearchOperationListenerExecutor executor = new SearchOperationListenerExecutor(context);
+                Releasable ignoredBottomSortValues = trackBottomSortValues(context, task)
+            ) {
                 loadOrExecuteQueryPhase(request, context);
                 if (context.queryResult().hasSearchContext() == false && readerContext.singleSession()) {
                     freeReaderContext(readerContext.id());
@@ -653,6 +705,40 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         }
     }
 
+    /**
+     * Lets the coordinating node {@link #updateBottomSortValues update} the bottom sort values of a shard that runs a sorted query
+     * phase, until the returned {@link Releasable} is closed.
+     */
+    private Releasable trackBottomSortValues(SearchContext context, SearchShardTask task) {
+        final TaskId searchTaskId = task.getParentTaskId();
+        if (context.sort() == null || context.scrollContext() != null || searchTaskId.isSet() == false) {
+            return () -> {};
+        }
+        final GlobalBottomSortValues bottomSortValues = new GlobalBottomSortValues(context.request().getBottomSortValues());
+        context.globalBottomSortValues(bottomSortValues);
+        activeBottomSortValues.computeIfAbsent(searchTaskId, id -> ConcurrentCollections.newConcurrentSet()).add(bottomSortValues);
+        return () -> activeBottomSortValues.computeIfPresent(searchTaskId, (id, values) -> {
+            values.remove(bottomSortValues);
+            return values.isEmpty() ? null : values;
+        });
+    }
+
+    /**
+     * Updates the bottom sort values of the shards of the given search that are running the query phase on this node, so that they
+     * can skip the documents that can't be top hits of the search anymore.
+     *
+     * @param searchTaskId the task of the search on the coordinating node
+     * @param version the version of the bottom sort values, which increases with every update of the search
+     */
+    public void updateBottomSortValues(TaskId searchTaskId, long version, SearchSortValuesAndFormats bottomSortValues) {
+        final Set<GlobalBottomSortValues> values = activeBottomSortValues.get(searchTaskId);
+        if (values != null) {
+            for (GlobalBottomSortValues value : values) {
+                value.update(version, bottomSortValues);
+            }
+        }
+    }
+
     private QueryFetchSearchResult executeFetchPhase(ReaderContext reader, SearchContext context, long afterQueryTime) {
         try (SearchOperationListenerExecutor executor = new SearchOperationListenerExecutor(context, true, afterQueryTime)) {
             shortcutDocIdsToLoad(context);
@@ -1020,7 +1106,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 threadPool::relativeTimeInMillis,
                 timeout,
                 fetchPhase,
-                lowLevelCancellation
+                lowLevelCancellation,
+                concurrentSegmentSearch ? threadPool.executor(Names.SEARCH_WORKER) : null
             );
             // we clone the query shard context here just for rewriting otherwise we
             // might end up with incorrect state since we are using now() or script services
@@ -1228,7 +1315,12 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             context.addReleasable(aggContext);
             try {
                 AggregatorFactories factories = source.aggregations().build(aggContext, null);
-                context.aggregations(new SearchContextAggregations(factories));
+                // aggregations that are decomposable can be collected concurrently in slices and reduced on the shard
+                AggregationReduceContext.Builder sliceReduceContextBuilder = null;
+                if (AggregationPhase.isDecomposable(source.aggregations().getAggregatorFactories())) {
+                    sliceReduceContextBuilder = aggReduceContextBuilder(context::isCancelled, source.aggregations());
+                }
+                context.aggregations(new SearchContextAggregations(factories, sliceReduceContextBuilder));
             } catch (IOException e) {
                 throw new AggregationInitializationException("Failed to create aggregators", e);
             }
@@ -1351,9 +1443,37 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             }
             final CollapseContext collapseContext = source.collapse().build(searchExecutionContext);
             context.collapse(collapseContext);
+            if (canExpandCollapsedHitsOnShard(context, source.collapse())) {
+                final QueryBuilder query = source.query() != null ? source.query() : new MatchAllQueryBuilder();
+                for (InnerHitBuilder innerHit : source.collapse().getInnerHits()) {
+                    try {
+                        new CollapseInnerHitContextBuilder(query, innerHit, collapseContext).build(context, context.innerHits());
+                    } catch (IOException e) {
+                        throw new SearchException(shardTarget, "failed to build inner_hits", e);
+                    }
+                }
+            }
         }
     }
 
+    /**
+     * Whether the shard expands the collapsed hits of a single shard search with the inner hits in the fetch phase. The coordinating
+     * node sends such a search to each shard to expand the hits of searches on several shards. Inner hits that don't fit in the inner
+     * result window of the index are left to the coordinating node, which doesn't enforce it.
+     */
+    private static boolean canExpandCollapsedHitsOnShard(SearchContext context, CollapseBuilder collapse) {
+        if (context.request().numberOfShards() != 1 || collapse.canExpandOnShard() == false) {
+            return false;
+        }
+        final int maxInnerResultWindow = context.getSearchExecutionContext().getIndexSettings().getMaxInnerResultWindow();
+        for (InnerHitBuilder innerHit : collapse.getInnerHits()) {
+            if ((long) innerHit.getFrom() + innerHit.getSize() > maxInnerResultWindow) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Shortcut ids to load, we load only "from" and up to "size". The phase controller
      * handles this as well since the result is always size * shards for Q_T_F
@@ -1621,6 +1741,26 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         };
     }
 
+    private AggregationReduceContext.Builder aggReduceContextBuilder(Supplier<Boolean> isCanceled, AggregatorFactories.Builder aggs) {
+        return new AggregationReduceContext.Builder() {
+            @Override
+            public AggregationReduceContext forPartialReduction() {
+                return new AggregationReduceContext.ForPartial(bigArrays, scriptService, isCanceled, aggs);
+            }
+
+            @Override
+            public AggregationReduceContext forFinalReduction() {
+                return new AggregationReduceContext.ForFinal(
+                    bigArrays,
+                    scriptService,
+                    isCanceled,
+                    aggs,
+                    multiBucketConsumerService.create()
+                );
+            }
+        };
+    }
+
     /**
      * This helper class ensures we only execute either the success or the failure path for {@link SearchOperationListener}.
      * This is crucial for some implementations like {@link org.elasticsearch.index.search.stats.ShardSearchStats}.
@@ -11,6 +11,15 @@ import org.apache.lucene.search.Collector;
 import org.elasticsearch.action.search.SearchShardTask;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.histogram.HistogramAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.AvgAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MaxAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MinAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.StatsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.SumAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.ValueCountAggregationBuilder;
 import org.elasticsearch.search.aggregations.timeseries.TimeSeriesIndexSearcher;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.profile.query.CollectorResult;
@@ -19,6 +28,7 @@ import org.elasticsearch.search.query.QueryPhase;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -51,13 +61,82 @@ public class AggregationPhase {
             }
             context.queryCollectors().put(AggregationPhase.class, BucketCollector.NO_OP_COLLECTOR);
         } else {
-            Collector collector = context.getProfilers() == null
-                ? bucketCollector
-                : new InternalProfileCollector(bucketCollector, CollectorResult.REASON_AGGREGATION, List.of());
+            final Collector collector;
+            if (context.getProfilers() != null) {
+                collector = new InternalProfileCollector(bucketCollector, CollectorResult.REASON_AGGREGATION, List.of());
+            } else if (bucketCollector.scoreMode().needsScores() == false) {
+                // aggregators that collect batches get their docs in batches so that they can read their values in tight loops
+                collector = new BatchingBucketCollector(bucketCollector);
+            } else {
+                collector = bucketCollector;
+            }
             context.queryCollectors().put(AggregationPhase.class, collector);
         }
     }
 
+    /**
+     * Returns whether the aggregations can be collected concurrently in slices of the leaves of the shard. Every additional slice
+     * gets its own aggregators from {@link #newSliceCollector(SearchContext)} and {@link #execute(SearchContext)} reduces the
+     * aggregations of all slices. Profiled searches are collected sequentially since the profile tree has a single collector.
+     */
+    public static boolean canCollectInSlices(SearchContext context) {
+        return context.aggregations() != null
+            && context.aggregations().sliceReduceContextBuilder() != null
+            && context.getProfilers() == null
+            && context.queryCollectors().get(AggregationPhase.class) != BucketCollector.NO_OP_COLLECTOR;
+    }
+
+    /**
+     * Creates the aggregators of an additional slice of a concurrent search and returns the collector that feeds them.
+     */
+    public static Collector newSliceCollector(SearchContext context) {
+        assert canCollectInSlices(context);
+        final Aggregator[] aggregators;
+        final BucketCollector bucketCollector;
+        try {
+            aggregators = context.aggregations().factories().createTopLevelAggregators();
+            bucketCollector = MultiBucketCollector.wrap(true, List.of(aggregators));
+            bucketCollector.preCollection();
+        } catch (IOException e) {
+            throw new AggregationInitializationException("Could not initialize aggregators", e);
+        }
+        final BucketCollector collector = bucketCollector.scoreMode().needsScores()
+            ? bucketCollector
+            : new BatchingBucketCollector(bucketCollector);
+        context.aggregations().addSlice(aggregators, collector);
+        return collector;
+    }
+
+    /**
+     * Returns whether the partial reduction of the results of the given aggregations and their sub-aggregations on any partition
+     * of the leaves of a shard is the same as their result on the whole shard. That holds for the metrics that are reduced exactly,
+     * for histograms, and for terms that are ordered by key, since the top terms of the shard are among the top terms of every
+     * partition, unless they also return empty buckets, which a partial reduction truncates. Other aggregations either depend on
+     * statistics of the whole shard, like the background set of significant terms, or select their top buckets by count and would
+     * miss the terms whose counts are split across partitions.
+     */
+    public static boolean isDecomposable(Collection<AggregationBuilder> aggregations) {
+        for (AggregationBuilder aggregation : aggregations) {
+            if (isDecomposable(aggregation) == false || isDecomposable(aggregation.getSubAggregations()) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDecomposable(AggregationBuilder aggregation) {
+        return switch (aggregation.getType()) {
+            case SumAggregationBuilder.NAME, MinAggregationBuilder.NAME, MaxAggregationBuilder.NAME, AvgAggregationBuilder.NAME,
+                ValueCountAggregationBuilder.NAME, StatsAggregationBuilder.NAME, HistogramAggregationBuilder.NAME,
+                DateHistogramAggregationBuilder.NAME -> true;
+            case TermsAggregationBuilder.NAME -> aggregation instanceof TermsAggregationBuilder terms
+                && InternalOrder.isKeyOrder(terms.order())
+                && terms.minDocCount() > 0
+                && terms.shardMinDocCount() <= 1;
+            default -> false;
+        };
+    }
+
     private static List<Runnable> getCancellationChecks(SearchContext context) {
         List<Runnable> cancellationChecks = new ArrayList<>();
         if (context.lowLevelCancellation()) {
@@ -99,6 +178,14 @@ public class AggregationPhase {
             return;
         }
 
+        if (context.queryCollectors().get(AggregationPhase.class) instanceof BatchingBucketCollector batchingCollector) {
+            try {
+                batchingCollector.flush();
+            } catch (IOException e) {
+                throw new AggregationExecutionException("Failed to collect aggregations", e);
+            }
+        }
+
         Aggregator[] aggregators = context.aggregations().aggregators();
 
         List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
@@ -114,10 +201,39 @@ public class AggregationPhase {
                 throw new AggregationExecutionException("Failed to build aggregation [" + aggregator.name() + "]", e);
             }
         }
-        context.queryResult().aggregations(InternalAggregations.from(aggregations));
+        InternalAggregations internalAggregations = InternalAggregations.from(aggregations);
+        if (context.aggregations().slices().isEmpty() == false) {
+            internalAggregations = reduceSlices(context, internalAggregations);
+        }
+        context.queryResult().aggregations(internalAggregations);
 
         // disable aggregations so that they don't run on next pages in case of scrolling
         context.aggregations(null);
         context.queryCollectors().remove(AggregationPhase.class);
     }
+
+    private static InternalAggregations reduceSlices(SearchContext context, InternalAggregations firstSlice) {
+        final List<InternalAggregations> slices = new ArrayList<>();
+        slices.add(firstSlice);
+        for (SearchContextAggregations.Slice slice : context.aggregations().slices()) {
+            final List<InternalAggregation> aggregations = new ArrayList<>(slice.aggregators().length);
+            try {
+                slice.collector().postCollection();
+            } catch (IOException e) {
+                throw new AggregationExecutionException("Failed to collect aggregations", e);
+            }
+            if (context.aggregations().factories().context() != null) {
+                context.aggregations().factories().context().multiBucketConsumer().reset();
+            }
+            for (Aggregator aggregator : slice.aggregators()) {
+                try {
+                    aggregations.add(aggregator.buildTopLevel());
+                } catch (IOException e) {
+                    throw new AggregationExecutionException("Failed to build aggregation [" + aggregator.name() + "]", e);
+                }
+            }
+            slices.add(InternalAggregations.from(aggregations));
+        }
+        return InternalAggregations.topLevelReduce(slices, context.aggregations().sliceReduceContextBuilder().forPartialReduction());
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreMode;
+
+import java.io.IOException;
+
+/**
+ * A {@link BucketCollector} that buffers the docs that the top level aggregators collect and passes them on in
+ * {@link LeafBucketCollector#collect(int[], int, long) batches}. Lucene has no callback for the end of a segment, so the
+ * docs of a segment that are still buffered are passed on when the next segment starts and on {@link #flush()}, which
+ * must be called before the aggregators are {@link Aggregator#postCollection() post collected}. The docs are collected
+ * later than the search reaches them, so this must only wrap collectors that don't need scores. Segments whose leaf collector
+ * doesn't {@link LeafBucketCollector#collectsBatches() collect batches} are passed through without buffering.
+ */
+final class BatchingBucketCollector extends BucketCollector {
+
+    static final int BATCH_SIZE = 256;
+
+    private final BucketCollector delegate;
+    private BatchingLeafBucketCollector current;
+
+    BatchingBucketCollector(BucketCollector delegate) {
+        assert delegate.scoreMode().needsScores() == false;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public LeafBucketCollector getLeafCollector(AggregationExecutionContext aggCtx) throws IOException {
+        flush();
+        final LeafBucketCollector leafCollector = delegate.getLeafCollector(aggCtx);
+        if (leafCollector.isNoop() || leafCollector.collectsBatches() == false) {
+            return leafCollector;
+        }
+        current = new BatchingLeafBucketCollector(leafCollector);
+        return current;
+    }
+
+    /**
+     * Passes the docs that are still buffered on to the aggregators.
+     */
+    void flush() throws IOException {
+        if (current != null) {
+            try {
+                current.flush();
+            } catch (CollectionTerminatedException e) {
+                // the segment was already done
+            }
+            current = null;
+        }
+    }
+
+    @Override
+    public void preCollection() throws IOException {
+        delegate.preCollection();
+    }
+
+    @Override
+    public void postCollection() throws IOException {
+        flush();
+        delegate.postCollection();
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return delegate.scoreMode();
+    }
+
+    @Override
+    public String toString() {
+        return "batching(" + delegate + ")";
+    }
+
+    private static class BatchingLeafBucketCollector extends LeafBucketCollector {
+        private final LeafBucketCollector delegate;
+        private final int[] docs = new int[BATCH_SIZE];
+        private int count;
+
+        BatchingLeafBucketCollector(LeafBucketCollector delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void setScorer(Scorable scorer) throws IOException {
+            delegate.setScorer(scorer);
+        }
+
+        @Override
+        public void collect(int doc, long owningBucketOrd) throws IOException {
+            assert owningBucketOrd == 0;
+            docs[count++] = doc;
+            if (count == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            if (count > 0) {
+                final int count = this.count;
+                this.count = 0;
+                delegate.collect(docs, count, 0);
+            }
+        }
+    }
+}
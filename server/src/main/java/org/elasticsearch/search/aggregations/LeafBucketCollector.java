@@ -11,6 +11,7 @@ package org.elasticsearch.search.aggregations;
 import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.Scorable;
 import org.elasticsearch.search.aggregations.bucket.terms.LongKeyedBucketOrds;
+import org.elasticsearch.search.aggregations.support.ValuesSource;
 
 import java.io.IOException;
 
@@ -73,6 +74,34 @@ public abstract class LeafBucketCollector implements LeafCollector {
      */
     public abstract void collect(int doc, long owningBucketOrd) throws IOException;
 
+    /**
+     * Collect the first {@code count} docs of {@code docs}, which are in
+     * increasing order, in the bucket owned by {@code owningBucketOrd}. This
+     * is the same as calling {@link #collect(int, long)} for each doc, which
+     * is what it does by default, but aggregators that read the values of
+     * the docs can read them all at once into primitive buffers with
+     * {@link ValuesSource.Numeric#doubleValuesBatch} and compute their
+     * result in a tight loop over the buffer.
+     * <p>
+     * Collectors may receive a mix of single docs and batches of docs.
+     * Collectors that implement this method should also override
+     * {@link #collectsBatches()}.
+     */
+    public void collect(int[] docs, int count, long owningBucketOrd) throws IOException {
+        for (int i = 0; i < count; i++) {
+            collect(docs[i], owningBucketOrd);
+        }
+    }
+
+    /**
+     * Does this collector gain anything from getting its docs in batches
+     * through {@link #collect(int[], int, long)}? Docs are only buffered
+     * into batches for collectors that return true.
+     */
+    public boolean collectsBatches() {
+        return false;
+    }
+
     /**
      * Does this collector collect anything? If this returns true we can safely
      * just never call {@link #collect}.
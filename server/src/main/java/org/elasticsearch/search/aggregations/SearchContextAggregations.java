@@ -7,19 +7,38 @@
  */
 package org.elasticsearch.search.aggregations;
 
+import org.elasticsearch.core.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The aggregation context that is part of the search context.
  */
 public class SearchContextAggregations {
 
     private final AggregatorFactories factories;
+    @Nullable
+    private final AggregationReduceContext.Builder sliceReduceContextBuilder;
+    private final List<Slice> slices = new ArrayList<>();
     private Aggregator[] aggregators;
 
     /**
      * Creates a new aggregation context with the parsed aggregator factories
      */
     public SearchContextAggregations(AggregatorFactories factories) {
+        this(factories, null);
+    }
+
+    /**
+     * Creates a new aggregation context with the parsed aggregator factories
+     *
+     * @param sliceReduceContextBuilder builds the context that reduces the aggregations of the slices of a concurrent search, or
+     *                                  {@code null} if the aggregations can't be collected in slices
+     */
+    public SearchContextAggregations(AggregatorFactories factories, @Nullable AggregationReduceContext.Builder sliceReduceContextBuilder) {
         this.factories = factories;
+        this.sliceReduceContextBuilder = sliceReduceContextBuilder;
     }
 
     public AggregatorFactories factories() {
@@ -38,4 +57,29 @@ public class SearchContextAggregations {
     public void aggregators(Aggregator[] aggregators) {
         this.aggregators = aggregators;
     }
+
+    /**
+     * Returns the builder of the context that reduces the aggregations of the slices of a concurrent search, or {@code null}
+     * if the aggregations can't be collected in slices.
+     */
+    @Nullable
+    public AggregationReduceContext.Builder sliceReduceContextBuilder() {
+        return sliceReduceContextBuilder;
+    }
+
+    /**
+     * Registers the top level aggregators of an additional slice of a concurrent search and the collector that feeds them.
+     */
+    void addSlice(Aggregator[] sliceAggregators, BucketCollector sliceCollector) {
+        slices.add(new Slice(sliceAggregators, sliceCollector));
+    }
+
+    /**
+     * The additional slices of a concurrent search, in addition to the {@link #aggregators()} of the first slice.
+     */
+    List<Slice> slices() {
+        return slices;
+    }
+
+    record Slice(Aggregator[] aggregators, BucketCollector collector) {}
 }
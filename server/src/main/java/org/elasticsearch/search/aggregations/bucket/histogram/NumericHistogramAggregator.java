@@ -18,6 +18,7 @@ import org.elasticsearch.search.aggregations.CardinalityUpperBound;
 import org.elasticsearch.search.aggregations.LeafBucketCollector;
 import org.elasticsearch.search.aggregations.LeafBucketCollectorBase;
 import org.elasticsearch.search.aggregations.support.AggregationContext;
+import org.elasticsearch.search.aggregations.support.DoubleValuesBatch;
 import org.elasticsearch.search.aggregations.support.ValuesSource;
 import org.elasticsearch.search.aggregations.support.ValuesSourceConfig;
 
@@ -83,7 +84,8 @@ public class NumericHistogramAggregator extends AbstractHistogramAggregator {
             return LeafBucketCollector.NO_OP_COLLECTOR;
         }
 
-        final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
+        final DoubleValuesBatch batch = valuesSource.doubleValuesBatch(ctx);
+        final SortedNumericDoubleValues values = batch.docValues();
         return new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long owningBucketOrd) throws IOException {
@@ -111,6 +113,42 @@ public class NumericHistogramAggregator extends AbstractHistogramAggregator {
                     }
                 }
             }
+
+            @Override
+            public boolean collectsBatches() {
+                return true;
+            }
+
+            @Override
+            public void collect(int[] docs, int count, long owningBucketOrd) throws IOException {
+                final int numValues = batch.read(docs, count);
+                final double[] keys = batch.values();
+                for (int i = 0; i < numValues; i++) {
+                    keys[i] = Math.floor((keys[i] - offset) / interval);
+                }
+                final int[] valueCounts = batch.valueCounts();
+                int k = 0;
+                for (int i = 0; i < count; i++) {
+                    double previousKey = Double.NEGATIVE_INFINITY;
+                    for (int end = k + valueCounts[i]; k < end; k++) {
+                        double key = keys[k];
+                        assert key >= previousKey;
+                        if (key == previousKey) {
+                            continue;
+                        }
+                        if (hardBounds == null || hardBounds.contain(key * interval)) {
+                            long bucketOrd = bucketOrds.add(owningBucketOrd, Double.doubleToLongBits(key));
+                            if (bucketOrd < 0) { // already seen
+                                bucketOrd = -1 - bucketOrd;
+                                collectExistingBucket(sub, docs[i], bucketOrd);
+                            } else {
+                                collectBucket(sub, docs[i], bucketOrd);
+                            }
+                        }
+                        previousKey = key;
+                    }
+                }
+            }
         };
     }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations.support;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+import org.elasticsearch.search.aggregations.LeafBucketCollector;
+
+import java.io.IOException;
+
+/**
+ * Reads the double values of batches of docs of a segment into a primitive buffer, for aggregators that
+ * {@link LeafBucketCollector#collect(int[], int, long) collect batches of docs}. The buffers are reused by
+ * every {@link #read}, which advances the same {@link SortedNumericDoubleValues} as {@link #docValues()} so
+ * that reading a batch and reading a single doc can be mixed as long as the docs keep increasing.
+ */
+public final class DoubleValuesBatch {
+
+    private final SortedNumericDoubleValues docValues;
+    private final NumericDoubleValues singleton;
+    private double[] values = new double[0];
+    private int[] valueCounts = new int[0];
+
+    public DoubleValuesBatch(SortedNumericDoubleValues docValues) {
+        this.docValues = docValues;
+        this.singleton = FieldData.unwrapSingleton(docValues);
+    }
+
+    /**
+     * The values that are read, one doc at a time.
+     */
+    public SortedNumericDoubleValues docValues() {
+        return docValues;
+    }
+
+    /**
+     * Reads the values of the first {@code count} docs, which must be in increasing order. The values are then in
+     * {@link #values()}, in the order of the docs, and the number of values of each doc in {@link #valueCounts()}.
+     *
+     * @return the total number of values of the docs
+     */
+    public int read(int[] docs, int count) throws IOException {
+        valueCounts = ArrayUtil.grow(valueCounts, count);
+        int numValues = 0;
+        if (singleton != null) {
+            values = ArrayUtil.grow(values, count);
+            for (int i = 0; i < count; i++) {
+                if (singleton.advanceExact(docs[i])) {
+                    values[numValues++] = singleton.doubleValue();
+                    valueCounts[i] = 1;
+                } else {
+                    valueCounts[i] = 0;
+                }
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                if (docValues.advanceExact(docs[i])) {
+                    final int docValueCount = docValues.docValueCount();
+                    values = ArrayUtil.grow(values, numValues + docValueCount);
+                    for (int j = 0; j < docValueCount; j++) {
+                        values[numValues++] = docValues.nextValue();
+                    }
+                    valueCounts[i] = docValueCount;
+                } else {
+                    valueCounts[i] = 0;
+                }
+            }
+        }
+        return numValues;
+    }
+
+    /**
+     * The values that the last {@link #read} read, which the caller may overwrite until the next {@link #read}.
+     */
+    public double[] values() {
+        return values;
+    }
+
+    /**
+     * The number of values of each doc that the last {@link #read} read.
+     */
+    public int[] valueCounts() {
+        return valueCounts;
+    }
+}
@@ -295,12 +295,11 @@ public abstract class ValuesSource {
                 @Override
                 public LongUnaryOperator globalOrdinalsMapping(LeafReaderContext context) throws IOException {
                     final IndexOrdinalsFieldData global = indexFieldData.loadGlobal((DirectoryReader) context.parent.reader());
-                    final OrdinalMap map = global.getOrdinalMap();
-                    if (map == null) {
+                    final org.apache.lucene.util.LongValues segmentToGlobalOrd = global.getGlobalOrds(context.ord);
+                    if (segmentToGlobalOrd == null) {
                         // segments and global ordinals are the same
                         return LongUnaryOperator.identity();
                     }
-                    final org.apache.lucene.util.LongValues segmentToGlobalOrd = map.getGlobalOrds(context.ord);
                     return segmentToGlobalOrd::get;
                 }
             }
@@ -476,6 +475,22 @@ public abstract class ValuesSource {
          */
         public abstract SortedNumericDoubleValues doubleValues(LeafReaderContext context) throws IOException;
 
+        /**
+         * Get a reader of the {@link #longValues 64 bit signed values} in this leaf that fills primitive
+         * buffers with the values of a batch of docs at a time.
+         */
+        public LongValuesBatch longValuesBatch(LeafReaderContext context) throws IOException {
+            return new LongValuesBatch(longValues(context));
+        }
+
+        /**
+         * Get a reader of the {@link #doubleValues double precision floating point values} in this leaf
+         * that fills primitive buffers with the values of a batch of docs at a time.
+         */
+        public DoubleValuesBatch doubleValuesBatch(LeafReaderContext context) throws IOException {
+            return new DoubleValuesBatch(doubleValues(context));
+        }
+
         @Override
         public DocValueBits docsWithValue(LeafReaderContext context) throws IOException {
             // We try and pick the lowest overhead implementation.
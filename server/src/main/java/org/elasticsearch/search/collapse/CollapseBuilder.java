@@ -26,8 +26,10 @@ import org.elasticsearch.xcontent.XContentParser;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * A builder that enables field collapsing on search request.
@@ -140,6 +142,25 @@ public class CollapseBuilder implements Writeable, ToXContentObject {
         return maxConcurrentGroupRequests;
     }
 
+    /**
+     * Whether the collapsed hits can be expanded with the inner hits by the shards, rather than by the coordinating node with one search
+     * per collapsed hit and inner hit definition, see {@link CollapseInnerHitContextBuilder}. A single shard search expands its hits
+     * when it fetches them, otherwise the coordinating node sends all the collapsed groups to each shard and merges the inner hits of
+     * each group. Inner hits that collapse again are always expanded by the coordinating node.
+     */
+    public boolean canExpandOnShard() {
+        if (innerHits.isEmpty()) {
+            return false;
+        }
+        Set<String> names = new HashSet<>();
+        for (InnerHitBuilder innerHit : innerHits) {
+            if (innerHit.getName() == null || innerHit.getInnerCollapseBuilder() != null || names.add(innerHit.getName()) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, ToXContent.Params params) throws IOException {
         builder.startObject();
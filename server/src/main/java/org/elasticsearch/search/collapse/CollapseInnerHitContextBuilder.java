@@ -0,0 +1,151 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+
+package org.elasticsearch.search.collapse;
+
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.MultiCollector;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopDocsCollector;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.elasticsearch.action.search.MaxScoreCollector;
+import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.query.InnerHitBuilder;
+import org.elasticsearch.index.query.InnerHitContextBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.lucene.grouping.PerGroupCollector;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.fetch.subphase.InnerHitsContext;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the inner hits that expand the collapsed hits of a search on the shard, see {@link CollapseBuilder#canExpandOnShard}.
+ * The inner hits of all the collapsed hits that the shard fetches are collected in a single pass over the documents that match
+ * the query of the search, grouped on the collapse field.
+ */
+public final class CollapseInnerHitContextBuilder extends InnerHitContextBuilder {
+
+    private final CollapseContext collapseContext;
+
+    /**
+     * @param query           the query of the search, which the inner hits are highlighted with
+     * @param innerHitBuilder the inner hit options to expand the collapsed hits with
+     * @param collapseContext the field collapsing of the search
+     */
+    public CollapseInnerHitContextBuilder(QueryBuilder query, InnerHitBuilder innerHitBuilder, CollapseContext collapseContext) {
+        super(query, innerHitBuilder, Map.of());
+        this.collapseContext = collapseContext;
+    }
+
+    @Override
+    protected void doBuild(SearchContext parentSearchContext, InnerHitsContext innerHitsContext) throws IOException {
+        CollapseInnerHitSubContext collapseInnerHits = new CollapseInnerHitSubContext(
+            innerHitBuilder.getName(),
+            parentSearchContext,
+            collapseContext.getFieldType()
+        );
+        setupInnerHitsContext(parentSearchContext.getSearchExecutionContext(), collapseInnerHits);
+        // these replace the inner hits of the query with the same name, like the coordinating node does when it expands them
+        innerHitsContext.getInnerHits().put(collapseInnerHits.getName(), collapseInnerHits);
+    }
+
+    static final class CollapseInnerHitSubContext extends InnerHitsContext.InnerHitSubContext {
+
+        private final MappedFieldType collapseFieldType;
+        private Map<Integer, TopDocsAndMaxScore> topDocsPerHit;
+
+        CollapseInnerHitSubContext(String name, SearchContext context, MappedFieldType collapseFieldType) {
+            super(name, context);
+            this.collapseFieldType = collapseFieldType;
+        }
+
+        @Override
+        public TopDocsAndMaxScore topDocs(SearchHit hit) throws IOException {
+            if (topDocsPerHit == null) {
+                topDocsPerHit = collectTopDocs();
+            }
+            TopDocsAndMaxScore topDocs = topDocsPerHit.get(hit.docId());
+            if (topDocs == null) {
+                throw new IllegalStateException("no inner hits were collected for doc [" + hit.docId() + "]");
+            }
+            return topDocs;
+        }
+
+        /**
+         * Collects the inner hits of the groups of all the hits to fetch at once.
+         */
+        private Map<Integer, TopDocsAndMaxScore> collectTopDocs() throws IOException {
+            final int[] docs = context.docIdsToLoad();
+            final int count = context.docIdsToLoadSize();
+            final Object[] groupValues = PerGroupCollector.groupValues(context.searcher().getIndexReader(), collapseFieldType, docs, count);
+            final int topN = Math.max(1, Math.min(from() + size(), context.searcher().getIndexReader().maxDoc()));
+            final Map<Object, TopDocsCollector<?>> topDocsCollectors = new HashMap<>();
+            final Map<Object, MaxScoreCollector> maxScoreCollectors = new HashMap<>();
+            final Map<Object, Collector> collectors = new HashMap<>();
+            for (Object groupValue : groupValues) {
+                if (collectors.containsKey(groupValue)) {
+                    continue;
+                }
+                TopDocsCollector<?> topDocsCollector;
+                MaxScoreCollector maxScoreCollector = null;
+                if (sort() != null) {
+                    topDocsCollector = TopFieldCollector.create(sort().sort, topN, Integer.MAX_VALUE);
+                    if (trackScores()) {
+                        maxScoreCollector = new MaxScoreCollector();
+                    }
+                } else {
+                    topDocsCollector = TopScoreDocCollector.create(topN, Integer.MAX_VALUE);
+                    maxScoreCollector = new MaxScoreCollector();
+                }
+                topDocsCollectors.put(groupValue, topDocsCollector);
+                if (maxScoreCollector != null) {
+                    maxScoreCollectors.put(groupValue, maxScoreCollector);
+                    collectors.put(groupValue, MultiCollector.wrap(topDocsCollector, maxScoreCollector));
+                } else {
+                    collectors.put(groupValue, topDocsCollector);
+                }
+            }
+            context.searcher().search(groupsQuery(), PerGroupCollector.create(collapseFieldType, collectors));
+
+            final Map<Object, TopDocsAndMaxScore> topDocsPerGroup = new HashMap<>();
+            for (Map.Entry<Object, TopDocsCollector<?>> entry : topDocsCollectors.entrySet()) {
+                TopDocs topDocs = entry.getValue().topDocs(from(), size());
+                MaxScoreCollector maxScoreCollector = maxScoreCollectors.get(entry.getKey());
+                float maxScore = maxScoreCollector == null ? Float.NaN : maxScoreCollector.getMaxScore();
+                topDocsPerGroup.put(entry.getKey(), new TopDocsAndMaxScore(topDocs, maxScore));
+            }
+            final Map<Integer, TopDocsAndMaxScore> topDocsPerHit = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                topDocsPerHit.put(docs[i], topDocsPerGroup.get(groupValues[i]));
+            }
+            return topDocsPerHit;
+        }
+
+        /**
+         * The documents that the coordinating node would search for the inner hits of each group: the ones that match the query
+         * and the post filter of the search.
+         */
+        private Query groupsQuery() {
+            Query query = context.query();
+            if (context.parsedPostFilter() != null) {
+                query = new BooleanQuery.Builder().add(query, Occur.MUST).add(context.parsedPostFilter().query(), Occur.FILTER).build();
+            }
+            return query;
+        }
+    }
+}
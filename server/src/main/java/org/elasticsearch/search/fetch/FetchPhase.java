@@ -19,6 +19,7 @@ import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.common.lucene.index.SequentialStoredFieldsLeafReader;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.index.fieldvisitor.CustomFieldsVisitor;
 import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
@@ -53,6 +54,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 import static java.util.Collections.emptyMap;
@@ -66,11 +68,21 @@ public class FetchPhase {
 
     private final FetchSubPhase[] fetchSubPhases;
 
+    private volatile Executor prefetchExecutor;
+
     public FetchPhase(List<FetchSubPhase> fetchSubPhases) {
         this.fetchSubPhases = fetchSubPhases.toArray(new FetchSubPhase[fetchSubPhases.size() + 1]);
         this.fetchSubPhases[fetchSubPhases.size()] = new InnerHitsPhase(this);
     }
 
+    /**
+     * Sets the executor to read ahead the stored fields of the hits on, or <code>null</code> to load them only when they are
+     * needed. See {@link StoredFieldsPrefetcher}.
+     */
+    public void setPrefetchExecutor(@Nullable Executor prefetchExecutor) {
+        this.prefetchExecutor = prefetchExecutor;
+    }
+
     public void execute(SearchContext context) {
         if (LOGGER.isTraceEnabled()) {
             LOGGER.trace("{}", new SearchContextSourcePrinter(context));
@@ -115,11 +127,60 @@ public class FetchPhase {
 
         FetchContext fetchContext = new FetchContext(context);
 
-        SearchHit[] hits = new SearchHit[context.docIdsToLoadSize()];
-
         List<FetchSubPhaseProcessor> processors = getProcessors(context.shardTarget(), fetchContext, profiler);
         NestedDocuments nestedDocuments = context.getSearchExecutionContext().getNestedDocuments();
 
+        StoredFieldsPrefetcher prefetcher = null;
+        Executor prefetchExecutor = this.prefetchExecutor;
+        if (prefetchExecutor != null && fieldsVisitor != null && docs.length > StoredFieldsPrefetcher.BATCH_SIZE) {
+            int[] docIds = new int[docs.length];
+            for (int i = 0; i < docs.length; i++) {
+                docIds[i] = docs[i].docId;
+            }
+            profiler.startPrefetching();
+            try {
+                prefetcher = new StoredFieldsPrefetcher(context.searcher().getIndexReader().leaves(), docIds, prefetchExecutor);
+            } finally {
+                profiler.stopPrefetching();
+            }
+        }
+        try {
+            return fetchHits(
+                context,
+                profiler,
+                docs,
+                fieldsVisitor,
+                storedToRequestedFields,
+                fetchContext,
+                processors,
+                nestedDocuments,
+                prefetcher
+            );
+        } finally {
+            if (prefetcher != null) {
+                profiler.startPrefetching();
+                try {
+                    prefetcher.close();
+                } finally {
+                    profiler.stopPrefetching();
+                }
+                profiler.prefetchedDocs(prefetcher.prefetchedDocs());
+            }
+        }
+    }
+
+    private SearchHits fetchHits(
+        SearchContext context,
+        Profiler profiler,
+        DocIdToIndex[] docs,
+        FieldsVisitor fieldsVisitor,
+        Map<String, Set<String>> storedToRequestedFields,
+        FetchContext fetchContext,
+        List<FetchSubPhaseProcessor> processors,
+        NestedDocuments nestedDocuments,
+        @Nullable StoredFieldsPrefetcher prefetcher
+    ) {
+        SearchHit[] hits = new SearchHit[context.docIdsToLoadSize()];
         int currentReaderIndex = -1;
         LeafReaderContext currentReaderContext = null;
         LeafNestedDocuments leafNestedDocuments = null;
@@ -131,6 +192,9 @@ public class FetchPhase {
                 throw new TaskCancelledException("cancelled");
             }
             int docId = docs[index].docId;
+            if (prefetcher != null) {
+                prefetcher.skipTo(docId);
+            }
             try {
                 int readerIndex = ReaderUtil.subIndex(docId, context.searcher().getIndexReader().leaves());
                 if (currentReaderIndex != readerIndex) {
@@ -526,6 +590,12 @@ public class FetchPhase {
 
         void stopNextReader();
 
+        void startPrefetching();
+
+        void stopPrefetching();
+
+        void prefetchedDocs(int count);
+
         Profiler NOOP = new Profiler() {
             @Override
             public ProfileResult finish() {
@@ -558,6 +628,15 @@ public class FetchPhase {
             @Override
             public void stopNextReader() {}
 
+            @Override
+            public void startPrefetching() {}
+
+            @Override
+            public void stopPrefetching() {}
+
+            @Override
+            public void prefetchedDocs(int count) {}
+
             @Override
             public String toString() {
                 return "noop";
@@ -124,6 +124,21 @@ public class FetchProfiler implements FetchPhase.Profiler {
         current.getTimer(FetchPhaseTiming.NEXT_READER).stop();
     }
 
+    @Override
+    public void startPrefetching() {
+        current.getTimer(FetchPhaseTiming.PREFETCH).start();
+    }
+
+    @Override
+    public void stopPrefetching() {
+        current.getTimer(FetchPhaseTiming.PREFETCH).stop();
+    }
+
+    @Override
+    public void prefetchedDocs(int count) {
+        current.debug.put("prefetched_docs", count);
+    }
+
     static class FetchProfileBreakdown extends AbstractProfileBreakdown<FetchPhaseTiming> {
         private final long start;
         private final Map<String, Object> debug = new HashMap<>();
@@ -158,6 +173,14 @@ public class FetchProfiler implements FetchPhase.Profiler {
          * called once per segment that has a matching document.
          */
         NEXT_READER,
+        /**
+         * Time spent scheduling the reading ahead of stored fields and
+         * waiting for it to stop at the end of the fetch phase. This is
+         * called twice per fetch if stored fields are read ahead. The
+         * reading ahead itself runs on another thread so it isn't
+         * included.
+         */
+        PREFETCH,
         /**
          * Time spent loading stored fields for each document. This is called
          * once per document if the fetch needs stored fields. Most do.
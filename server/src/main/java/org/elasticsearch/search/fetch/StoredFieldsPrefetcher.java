@@ -0,0 +1,172 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.fetch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.StoredFieldVisitor;
+import org.elasticsearch.core.Releasable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads ahead the stored fields of the docs that the fetch phase is about to load, so that the compressed blocks that hold them
+ * are already in the file system cache, or in the cache of a searchable snapshot, by the time the fetch phase loads them. The
+ * docs are grouped by segment and split into batches that are read on an executor. The fetch phase loads the first batch
+ * itself and {@link #skipTo skips} any batch that it reaches before the executor started it, so reading ahead never makes the
+ * fetch phase wait.
+ */
+final class StoredFieldsPrefetcher implements Releasable {
+    private static final Logger logger = LogManager.getLogger(StoredFieldsPrefetcher.class);
+
+    /**
+     * The number of docs that are read ahead by a single task.
+     */
+    static final int BATCH_SIZE = 64;
+
+    private static final int PENDING = 0;
+    private static final int RUNNING = 1;
+    private static final int SKIPPED = 2;
+    private static final int DONE = 3;
+
+    /**
+     * Visits no fields, reading the block that holds the doc is all that we need.
+     */
+    private static final StoredFieldVisitor NO_FIELDS = new StoredFieldVisitor() {
+        @Override
+        public Status needsField(FieldInfo fieldInfo) {
+            return Status.STOP;
+        }
+    };
+
+    private final List<Batch> batches = new ArrayList<>();
+    private final AtomicInteger prefetchedDocs = new AtomicInteger();
+    private volatile boolean closed;
+    private int nextBatch;
+
+    /**
+     * Starts reading ahead the stored fields of the given docs.
+     *
+     * @param leaves the leaves of the reader of the shard
+     * @param docIds the docs to read ahead, in increasing order
+     */
+    StoredFieldsPrefetcher(List<LeafReaderContext> leaves, int[] docIds, Executor executor) {
+        int start = 0;
+        while (start < docIds.length) {
+            final LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(docIds[start], leaves));
+            final int leafEnd = leaf.docBase + leaf.reader().maxDoc();
+            int end = start + 1;
+            while (end < docIds.length && end - start < BATCH_SIZE && docIds[end] < leafEnd) {
+                end++;
+            }
+            batches.add(new Batch(leaf, docIds, start, end));
+            start = end;
+        }
+        // the fetch phase will load the docs of the first batch right away
+        for (int i = 1; i < batches.size(); i++) {
+            try {
+                executor.execute(batches.get(i));
+            } catch (RuntimeException e) {
+                // reading ahead is only an optimization, the fetch phase loads the docs of the remaining batches itself
+                logger.debug("failed to schedule reading ahead stored fields", e);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Called by the fetch phase before it loads the given doc, which must not be lower than the doc of the previous call.
+     * Batches that start at or before this doc and were not started yet are skipped.
+     */
+    void skipTo(int docId) {
+        while (nextBatch < batches.size() && batches.get(nextBatch).firstDoc() <= docId) {
+            batches.get(nextBatch).state.compareAndSet(PENDING, SKIPPED);
+            nextBatch++;
+        }
+    }
+
+    /**
+     * The number of docs that were read ahead so far.
+     */
+    int prefetchedDocs() {
+        return prefetchedDocs.get();
+    }
+
+    /**
+     * Skips the batches that were not started yet and waits for the running batches to stop, so that the reader can be
+     * closed safely afterwards.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        boolean interrupted = false;
+        for (Batch batch : batches) {
+            if (batch.state.compareAndSet(PENDING, SKIPPED) == false && batch.state.get() == RUNNING) {
+                while (true) {
+                    try {
+                        batch.stopped.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class Batch implements Runnable {
+        private final LeafReaderContext leaf;
+        private final int[] docIds;
+        private final int start;
+        private final int end;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private final CountDownLatch stopped = new CountDownLatch(1);
+
+        Batch(LeafReaderContext leaf, int[] docIds, int start, int end) {
+            this.leaf = leaf;
+            this.docIds = docIds;
+            this.start = start;
+            this.end = end;
+        }
+
+        int firstDoc() {
+            return docIds[start];
+        }
+
+        @Override
+        public void run() {
+            if (state.compareAndSet(PENDING, RUNNING) == false) {
+                return;
+            }
+            try {
+                for (int i = start; i < end && closed == false; i++) {
+                    leaf.reader().document(docIds[i] - leaf.docBase, NO_FIELDS);
+                    prefetchedDocs.incrementAndGet();
+                }
+            } catch (IOException | RuntimeException e) {
+                // the fetch phase reports any failure when it loads the doc itself
+                logger.debug("failed to read ahead stored fields", e);
+            } finally {
+                state.set(DONE);
+                stopped.countDown();
+            }
+        }
+    }
+}
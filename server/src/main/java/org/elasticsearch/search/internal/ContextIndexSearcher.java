@@ -33,6 +33,11 @@ import org.apache.lucene.util.BitSet;
 import org.apache.lucene.util.BitSetIterator;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.SparseFixedBitSet;
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.lucene.util.CombinedBitSet;
 import org.elasticsearch.search.dfs.AggregatedDfs;
@@ -43,11 +48,17 @@ import org.elasticsearch.search.profile.query.QueryProfiler;
 import org.elasticsearch.search.profile.query.QueryTimingType;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Predicate;
 
 /**
  * Context-aware extension of {@link IndexSearcher}.
@@ -59,9 +70,21 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
      */
     private static int CHECK_CANCELLED_SCORER_INTERVAL = 1 << 11;
 
+    /**
+     * The number of documents and segments above which the leaves are split into another slice by {@link #searchConcurrently}.
+     * These are the defaults that {@link IndexSearcher} slices leaves with.
+     */
+    private static final int MAX_DOCS_PER_SLICE = 250_000;
+    private static final int MAX_SEGMENTS_PER_SLICE = 5;
+
     private AggregatedDfs aggregatedDfs;
     private QueryProfiler profiler;
     private MutableQueryTimeout cancellable;
+    @Nullable
+    private final Executor sliceExecutor;
+    private List<List<LeafReaderContext>> slices;
+    @Nullable
+    private Predicate<LeafReaderContext> leafFilter;
 
     public ContextIndexSearcher(
         IndexReader reader,
@@ -70,7 +93,22 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         QueryCachingPolicy queryCachingPolicy,
         boolean wrapWithExitableDirectoryReader
     ) throws IOException {
-        this(reader, similarity, queryCache, queryCachingPolicy, new MutableQueryTimeout(), wrapWithExitableDirectoryReader);
+        this(reader, similarity, queryCache, queryCachingPolicy, wrapWithExitableDirectoryReader, null);
+    }
+
+    /**
+     * @param sliceExecutor the executor that {@link #searchConcurrently} collects slices of the leaves on, or <code>null</code> to
+     *                      collect all leaves on the calling thread
+     */
+    public ContextIndexSearcher(
+        IndexReader reader,
+        Similarity similarity,
+        QueryCache queryCache,
+        QueryCachingPolicy queryCachingPolicy,
+        boolean wrapWithExitableDirectoryReader,
+        @Nullable Executor sliceExecutor
+    ) throws IOException {
+        this(reader, similarity, queryCache, queryCachingPolicy, new MutableQueryTimeout(), wrapWithExitableDirectoryReader, sliceExecutor);
     }
 
     private ContextIndexSearcher(
@@ -79,13 +117,15 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         QueryCache queryCache,
         QueryCachingPolicy queryCachingPolicy,
         MutableQueryTimeout cancellable,
-        boolean wrapWithExitableDirectoryReader
+        boolean wrapWithExitableDirectoryReader,
+        @Nullable Executor sliceExecutor
     ) throws IOException {
         super(wrapWithExitableDirectoryReader ? new ExitableDirectoryReader((DirectoryReader) reader, cancellable) : reader);
         setSimilarity(similarity);
         setQueryCache(queryCache);
         setQueryCachingPolicy(queryCachingPolicy);
         this.cancellable = cancellable;
+        this.sliceExecutor = sliceExecutor;
     }
 
     public void setProfiler(QueryProfiler profiler) {
@@ -121,6 +161,21 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         return this.cancellable.isEnabled();
     }
 
+    /**
+     * Restricts the collection of all searches to the leaves that match the given filter, or to all leaves if <code>null</code>.
+     * Statistics such as term and collection statistics are still computed on all leaves.
+     */
+    public void setLeafFilter(@Nullable Predicate<LeafReaderContext> leafFilter) {
+        this.leafFilter = leafFilter;
+    }
+
+    /**
+     * Returns whether searches only collect some of the leaves of this searcher, see {@link #setLeafFilter}.
+     */
+    public boolean hasLeafFilter() {
+        return leafFilter != null;
+    }
+
     public void setAggregatedDfs(AggregatedDfs aggregatedDfs) {
         this.aggregatedDfs = aggregatedDfs;
     }
@@ -164,10 +219,120 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
 
     public void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
         for (LeafReaderContext ctx : leaves) { // search each subreader
+            if (leafFilter != null && leafFilter.test(ctx) == false) {
+                continue;
+            }
             searchLeaf(ctx, weight, collector);
         }
     }
 
+    /**
+     * Returns whether {@link #searchConcurrently} splits the leaves of this searcher into more than one slice.
+     */
+    public boolean hasConcurrentSlices() {
+        return getSlices().size() > 1;
+    }
+
+    /**
+     * Searches the leaves in slices that are collected concurrently, each by its own collector which is created by the given supplier
+     * on the calling thread. The calling thread collects the first slice and any slice that the executor did not start yet, so that
+     * a busy executor never leaves the search waiting. All slices are collected when this method returns, even when it throws: the
+     * collection of a slice that fails does not stop the others, but they share the cancellation checks of this searcher, so a
+     * timeout or a cancellation stops all of them. The collectors are left to the caller to reduce, including the partial results
+     * of slices that timed out.
+     */
+    public void searchConcurrently(Query query, CheckedSupplier<Collector, IOException> collectorSupplier) throws IOException {
+        final List<List<LeafReaderContext>> slices = getSlices();
+        final List<Collector> collectors = new ArrayList<>(slices.size());
+        for (int i = 0; i < slices.size(); i++) {
+            collectors.add(collectorSupplier.get());
+        }
+        final Weight weight = createWeight(rewrite(query), collectors.get(0).scoreMode(), 1);
+        if (slices.size() == 1) {
+            search(slices.get(0), weight, collectors.get(0));
+            return;
+        }
+
+        final List<FutureTask<Void>> tasks = new ArrayList<>(slices.size() - 1);
+        for (int i = 1; i < slices.size(); i++) {
+            final List<LeafReaderContext> slice = slices.get(i);
+            final Collector collector = collectors.get(i);
+            final FutureTask<Void> task = new FutureTask<>(() -> {
+                search(slice, weight, collector);
+                return null;
+            });
+            tasks.add(task);
+            try {
+                sliceExecutor.execute(task);
+            } catch (EsRejectedExecutionException e) {
+                // the calling thread runs the slice below
+            }
+        }
+
+        Exception failure = null;
+        try {
+            search(slices.get(0), weight, collectors.get(0));
+        } catch (Exception e) {
+            failure = e;
+        }
+        for (FutureTask<Void> task : tasks) {
+            // a no-op if the executor already started the task
+            task.run();
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                failure = ExceptionsHelper.useOrSuppress(failure, (Exception) e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ThreadInterruptedException(e);
+            }
+        }
+        if (failure != null) {
+            if (failure instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw ExceptionsHelper.convertToRuntime(failure);
+        }
+    }
+
+    private List<List<LeafReaderContext>> getSlices() {
+        if (slices == null) {
+            slices = sliceExecutor == null ? List.of(getIndexReader().leaves()) : computeSlices(getIndexReader().leaves());
+        }
+        return slices;
+    }
+
+    /**
+     * Splits the given leaves into slices of at most {@link #MAX_SEGMENTS_PER_SLICE} segments, starting with the largest segments,
+     * where a slice takes no more segments once it holds more than {@link #MAX_DOCS_PER_SLICE} documents.
+     */
+    static List<List<LeafReaderContext>> computeSlices(List<LeafReaderContext> leaves) {
+        if (leaves.isEmpty()) {
+            return List.of(leaves);
+        }
+        final List<LeafReaderContext> sortedLeaves = new ArrayList<>(leaves);
+        sortedLeaves.sort(Comparator.comparingInt((LeafReaderContext leaf) -> leaf.reader().maxDoc()).reversed());
+        final List<List<LeafReaderContext>> slices = new ArrayList<>();
+        List<LeafReaderContext> slice = new ArrayList<>();
+        long docsInSlice = 0;
+        for (LeafReaderContext leaf : sortedLeaves) {
+            slice.add(leaf);
+            docsInSlice += leaf.reader().maxDoc();
+            if (docsInSlice > MAX_DOCS_PER_SLICE || slice.size() == MAX_SEGMENTS_PER_SLICE) {
+                slices.add(slice);
+                slice = new ArrayList<>();
+                docsInSlice = 0;
+            }
+        }
+        if (slice.isEmpty() == false) {
+            slices.add(slice);
+        }
+        return slices;
+    }
+
     /**
      * Lower-level search API.
      *
@@ -133,6 +133,16 @@ public abstract class FilteredSearchContext extends SearchContext {
         return in.innerHits();
     }
 
+    @Override
+    public GlobalBottomSortValues globalBottomSortValues() {
+        return in.globalBottomSortValues();
+    }
+
+    @Override
+    public void globalBottomSortValues(GlobalBottomSortValues globalBottomSortValues) {
+        in.globalBottomSortValues(globalBottomSortValues);
+    }
+
     @Override
     public SuggestionSearchContext suggest() {
         return in.suggest();
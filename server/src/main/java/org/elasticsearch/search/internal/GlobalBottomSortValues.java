@@ -0,0 +1,46 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.internal;
+
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.search.SearchSortValuesAndFormats;
+
+/**
+ * The sort values of the bottom of the top hits that the coordinating node collected for a search so far. The coordinating node
+ * keeps sending them to the shards that are still running the query phase of the search, so that these shards can skip the documents
+ * that can't make it into the top hits anymore.
+ */
+public final class GlobalBottomSortValues {
+
+    private volatile SearchSortValuesAndFormats values;
+    private long version = -1; // guarded by this
+
+    public GlobalBottomSortValues(@Nullable SearchSortValuesAndFormats values) {
+        this.values = values;
+    }
+
+    /**
+     * The current bottom sort values, or {@code null} if the coordinating node didn't collect enough hits yet.
+     */
+    @Nullable
+    public SearchSortValuesAndFormats get() {
+        return values;
+    }
+
+    /**
+     * Replaces the bottom sort values unless values with a newer version were received already, since the updates from the
+     * coordinating node may arrive out of order.
+     */
+    public synchronized void update(long version, SearchSortValuesAndFormats values) {
+        if (version > this.version) {
+            this.version = version;
+            this.values = values;
+        }
+    }
+}
@@ -66,6 +66,7 @@ public abstract class SearchContext implements Releasable {
     protected final List<Releasable> releasables = new CopyOnWriteArrayList<>();
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private InnerHitsContext innerHitsContext;
+    private GlobalBottomSortValues globalBottomSortValues;
 
     private Query rewriteQuery;
 
@@ -126,6 +127,19 @@ public abstract class SearchContext implements Releasable {
         return innerHitsContext;
     }
 
+    /**
+     * The bottom sort values of the top hits of all shards that the coordinating node keeps updating while this shard is searched, or
+     * {@code null} if they aren't tracked for this search.
+     */
+    @Nullable
+    public GlobalBottomSortValues globalBottomSortValues() {
+        return globalBottomSortValues;
+    }
+
+    public void globalBottomSortValues(GlobalBottomSortValues globalBottomSortValues) {
+        this.globalBottomSortValues = globalBottomSortValues;
+    }
+
     public abstract SuggestionSearchContext suggest();
 
     public abstract void suggest(SuggestionSearchContext suggest);
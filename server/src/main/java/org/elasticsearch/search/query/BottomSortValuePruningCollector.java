@@ -0,0 +1,166 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.FilterCollector;
+import org.apache.lucene.search.FilterLeafCollector;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSelector;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.elasticsearch.search.SearchSortValuesAndFormats;
+import org.elasticsearch.search.internal.GlobalBottomSortValues;
+
+import java.io.IOException;
+
+/**
+ * A {@link Collector} that skips the documents of a segment that can't compete with the bottom of the top hits that the coordinating
+ * node collected from all shards, see {@link GlobalBottomSortValues}. Segments whose indexed points are all worse than the primary
+ * bottom sort value are skipped entirely, and segments that are sorted by the primary sort field stop at the first document that is
+ * worse. Documents that are equal to the bottom sort value are always collected since ties are broken on the coordinating node.
+ * <p>
+ * This only applies to {@link #canPrune sorts} on long fields that index the same values in points and doc values, and it must only
+ * wrap collectors whose total hit count isn't used since the documents that it skips still match.
+ */
+final class BottomSortValuePruningCollector extends FilterCollector {
+
+    /**
+     * The number of documents after which the documents of a sorted segment are compared to the latest bottom sort value.
+     */
+    static final int REFRESH_INTERVAL = 256;
+
+    private final SortedNumericSortField sortField;
+    private final GlobalBottomSortValues bottomSortValues;
+    private final long missingValue;
+    private int prunedSegments;
+
+    BottomSortValuePruningCollector(Collector in, SortField sortField, GlobalBottomSortValues bottomSortValues) {
+        super(in);
+        assert canPrune(sortField);
+        this.sortField = (SortedNumericSortField) sortField;
+        this.bottomSortValues = bottomSortValues;
+        this.missingValue = sortField.getMissingValue() == null ? 0L : (Long) sortField.getMissingValue();
+    }
+
+    /**
+     * Returns whether the documents that are sorted by the given primary sort field can be skipped based on their points.
+     */
+    static boolean canPrune(SortField sortField) {
+        return sortField instanceof SortedNumericSortField sortedNumericSortField
+            && sortedNumericSortField.getNumericType() == SortField.Type.LONG
+            && sortField.getOptimizeSortWithPoints();
+    }
+
+    /**
+     * The number of segments that were skipped entirely.
+     */
+    int getPrunedSegments() {
+        return prunedSegments;
+    }
+
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+        final LeafReader reader = context.reader();
+        final Long bottom = bottomValue();
+        if (bottom != null && isSegmentNonCompetitive(reader, bottom)) {
+            prunedSegments++;
+            throw new CollectionTerminatedException();
+        }
+        final LeafCollector leafCollector = super.getLeafCollector(context);
+        if (isSortedBySortField(reader) == false) {
+            return leafCollector;
+        }
+        final NumericDocValues values = SortedNumericSelector.wrap(
+            DocValues.getSortedNumeric(reader, sortField.getField()),
+            sortField.getSelector(),
+            sortField.getNumericType()
+        );
+        return new FilterLeafCollector(leafCollector) {
+            private int collected;
+            private Long bottom;
+
+            @Override
+            public void collect(int doc) throws IOException {
+                if (collected++ % REFRESH_INTERVAL == 0) {
+                    bottom = bottomValue();
+                }
+                if (bottom != null) {
+                    final long value = values.advanceExact(doc) ? values.longValue() : missingValue;
+                    if (isWorse(value, bottom)) {
+                        // the segment is sorted by the sort field so all the documents that follow are worse too
+                        throw new CollectionTerminatedException();
+                    }
+                }
+                super.collect(doc);
+            }
+
+            @Override
+            public DocIdSetIterator competitiveIterator() throws IOException {
+                return in.competitiveIterator();
+            }
+        };
+    }
+
+    private Long bottomValue() {
+        final SearchSortValuesAndFormats values = bottomSortValues.get();
+        if (values == null || values.getRawSortValues().length == 0 || values.getRawSortValues()[0] instanceof Long == false) {
+            return null;
+        }
+        return (Long) values.getRawSortValues()[0];
+    }
+
+    private boolean isWorse(long value, long bottom) {
+        return sortField.getReverse() ? value < bottom : value > bottom;
+    }
+
+    private boolean isSegmentNonCompetitive(LeafReader reader, long bottom) throws IOException {
+        final PointValues points = reader.getPointValues(sortField.getField());
+        if (points == null || points.getNumDimensions() != 1 || points.getBytesPerDimension() != Long.BYTES) {
+            return false;
+        }
+        if (points.getDocCount() < reader.maxDoc() && isWorse(missingValue, bottom) == false) {
+            // the documents without a value are competitive
+            return false;
+        }
+        // whichever value of a document is selected, it is between the minimum and the maximum value of the segment
+        final long competitiveEnd = sortField.getReverse()
+            ? LongPoint.decodeDimension(points.getMaxPackedValue(), 0)
+            : LongPoint.decodeDimension(points.getMinPackedValue(), 0);
+        return isWorse(competitiveEnd, bottom);
+    }
+
+    private boolean isSortedBySortField(LeafReader reader) {
+        final Sort indexSort = reader.getMetaData().getSort();
+        if (indexSort == null || indexSort.getSort().length == 0) {
+            return false;
+        }
+        final SortField primary = indexSort.getSort()[0];
+        return primary instanceof SortedNumericSortField sortedNumericSortField
+            && sortedNumericSortField.getField().equals(sortField.getField())
+            && sortedNumericSortField.getReverse() == sortField.getReverse()
+            && sortedNumericSortField.getSelector() == sortField.getSelector()
+            && sortedNumericSortField.getNumericType() == SortField.Type.LONG
+            && missingValue == (primary.getMissingValue() == null ? 0L : (Long) primary.getMissingValue());
+    }
+
+    @Override
+    public String toString() {
+        return "bottom_sort_value_pruning(" + in + ")";
+    }
+}
@@ -25,6 +25,7 @@ import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
 import org.elasticsearch.common.util.concurrent.EWMATrackingEsThreadPoolExecutor;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.lucene.queries.SearchAfterSortedDocQuery;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchContextSourcePrinter;
@@ -40,7 +41,10 @@ import org.elasticsearch.search.suggest.SuggestPhase;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 
 import static org.elasticsearch.search.query.QueryCollectorContext.createEarlyTerminationCollectorContext;
@@ -129,8 +133,8 @@ public class QueryPhase {
             }
 
             final LinkedList<QueryCollectorContext> collectors = new LinkedList<>();
-            // whether the chain contains a collector that filters documents
-            boolean hasFilterCollector = false;
+            // whether the chain contains a collector that filters documents, a searcher that skips some leaves filters them too
+            boolean hasFilterCollector = searcher.hasLeafFilter();
             if (searchContext.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER) {
                 // add terminate_after before the filter collectors
                 // it will only be applied on documents accepted by these filter collectors
@@ -145,9 +149,13 @@ public class QueryPhase {
                 // this collector can filter documents during the collection
                 hasFilterCollector = true;
             }
+            final QueryCollectorContext queryCollectors;
             if (searchContext.queryCollectors().isEmpty() == false) {
                 // plug in additional collectors, like aggregations
-                collectors.add(createMultiCollectorContext(searchContext.queryCollectors().values()));
+                queryCollectors = createMultiCollectorContext(searchContext.queryCollectors().values());
+                collectors.add(queryCollectors);
+            } else {
+                queryCollectors = null;
             }
             if (searchContext.minimumScore() != null) {
                 // apply the minimum score after multi collector so we filter aggs as well
@@ -176,7 +184,15 @@ public class QueryPhase {
             }
 
             try {
-                boolean shouldRescore = searchWithCollector(searchContext, searcher, query, collectors, hasFilterCollector, timeoutSet);
+                boolean shouldRescore = searchWithCollector(
+                    searchContext,
+                    searcher,
+                    query,
+                    collectors,
+                    queryCollectors,
+                    hasFilterCollector,
+                    timeoutSet
+                );
                 ExecutorService executor = searchContext.indexShard().getThreadPool().executor(ThreadPool.Names.SEARCH);
                 assert executor instanceof EWMATrackingEsThreadPoolExecutor
                     || (executor instanceof EsThreadPoolExecutor == false /* in case thread pool is mocked out in tests */)
@@ -203,25 +219,51 @@ public class QueryPhase {
         ContextIndexSearcher searcher,
         Query query,
         LinkedList<QueryCollectorContext> collectors,
+        @Nullable QueryCollectorContext queryCollectors,
         boolean hasFilterCollector,
         boolean timeoutSet
     ) throws IOException {
         // create the top docs collector last when the other collectors are known
         final TopDocsCollectorContext topDocsFactory = createTopDocsCollectorContext(searchContext, hasFilterCollector);
+        final List<TopDocsCollectorContext> slices = canSearchConcurrently(searchContext, searcher, topDocsFactory)
+            ? new ArrayList<>()
+            : null;
+        final List<QueryCollectorContext> sliceCollectors = slices == null ? null : new ArrayList<>(collectors);
         // add the top docs collector, the first collector context in the chain
         collectors.addFirst(topDocsFactory);
 
-        final Collector queryCollector;
-        if (searchContext.getProfilers() != null) {
-            InternalProfileCollector profileCollector = QueryCollectorContext.createQueryCollectorWithProfiler(collectors);
-            searchContext.getProfilers().getCurrentQueryProfiler().setCollector(profileCollector);
-            queryCollector = profileCollector;
-        } else {
-            queryCollector = QueryCollectorContext.createQueryCollector(collectors);
-        }
         QuerySearchResult queryResult = searchContext.queryResult();
         try {
-            searcher.search(query, queryCollector);
+            if (slices != null) {
+                // every slice collects its own top docs and aggregations, the other collector contexts in the chain only filter documents
+                searcher.searchConcurrently(query, () -> {
+                    final boolean firstSlice = slices.isEmpty();
+                    final TopDocsCollectorContext slice = firstSlice
+                        ? topDocsFactory
+                        : createTopDocsCollectorContext(searchContext, hasFilterCollector);
+                    slices.add(slice);
+                    final List<QueryCollectorContext> chain = new ArrayList<>(sliceCollectors.size() + 1);
+                    chain.add(slice);
+                    for (QueryCollectorContext ctx : sliceCollectors) {
+                        if (ctx == queryCollectors && firstSlice == false) {
+                            chain.add(createMultiCollectorContext(List.of(AggregationPhase.newSliceCollector(searchContext))));
+                        } else {
+                            chain.add(ctx);
+                        }
+                    }
+                    return QueryCollectorContext.createQueryCollector(chain);
+                });
+            } else {
+                final Collector queryCollector;
+                if (searchContext.getProfilers() != null) {
+                    InternalProfileCollector profileCollector = QueryCollectorContext.createQueryCollectorWithProfiler(collectors);
+                    searchContext.getProfilers().getCurrentQueryProfiler().setCollector(profileCollector);
+                    queryCollector = profileCollector;
+                } else {
+                    queryCollector = QueryCollectorContext.createQueryCollector(collectors);
+                }
+                searcher.search(query, queryCollector);
+            }
         } catch (EarlyTerminatingCollector.EarlyTerminationException e) {
             queryResult.terminatedEarly(true);
         } catch (TimeExceededException e) {
@@ -236,11 +278,35 @@ public class QueryPhase {
             queryResult.terminatedEarly(false);
         }
         for (QueryCollectorContext ctx : collectors) {
-            ctx.postProcess(queryResult);
+            if (ctx == topDocsFactory && slices != null) {
+                topDocsFactory.postProcessSlices(queryResult, slices);
+            } else {
+                ctx.postProcess(queryResult);
+            }
         }
         return topDocsFactory.shouldRescore();
     }
 
+    /**
+     * Returns whether the leaves can be collected concurrently in slices. <code>terminate_after</code> and the profiler keep state
+     * across all leaves of the shard, and so do the top docs collectors of scrolls and field collapsing, so searches that use any
+     * of them are collected sequentially. Aggregations are collected in slices only if they can be reduced on the shard, see
+     * {@link AggregationPhase#canCollectInSlices(SearchContext)}.
+     */
+    private static boolean canSearchConcurrently(
+        SearchContext searchContext,
+        ContextIndexSearcher searcher,
+        TopDocsCollectorContext topDocsFactory
+    ) {
+        return searcher.hasConcurrentSlices()
+            && searchContext.getProfilers() == null
+            && (searchContext.queryCollectors().isEmpty()
+                || (searchContext.queryCollectors().keySet().equals(Set.of(AggregationPhase.class))
+                    && AggregationPhase.canCollectInSlices(searchContext)))
+            && searchContext.terminateAfter() == SearchContext.DEFAULT_TERMINATE_AFTER
+            && topDocsFactory.supportsSlices();
+    }
+
     /**
      * Returns whether collection within the provided <code>reader</code> can be early-terminated if it sorts
      * with <code>sortAndFormats</code>.
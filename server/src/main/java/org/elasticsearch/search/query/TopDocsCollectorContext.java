@@ -50,12 +50,15 @@ import org.elasticsearch.lucene.grouping.SinglePassGroupingCollector;
 import org.elasticsearch.lucene.grouping.TopFieldGroups;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.collapse.CollapseContext;
+import org.elasticsearch.search.internal.GlobalBottomSortValues;
 import org.elasticsearch.search.internal.ScrollContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.rescore.RescoreContext;
 import org.elasticsearch.search.sort.SortAndFormats;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
 
@@ -87,10 +90,45 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         return false;
     }
 
+    /**
+     * Returns true if the top docs can be collected concurrently over slices of the leaves, by one context per slice that is created
+     * with the same parameters as this one, and merged with {@link #postProcessSlices}.
+     */
+    boolean supportsSlices() {
+        return false;
+    }
+
+    /**
+     * Post-process <code>result</code> with the top docs merged from the provided <code>slices</code>, this context included, after
+     * a concurrent search execution.
+     */
+    void postProcessSlices(QuerySearchResult result, List<TopDocsCollectorContext> slices) throws IOException {
+        throw new UnsupportedOperationException("[" + getClass().getSimpleName() + "] can't be collected in slices");
+    }
+
+    /**
+     * Merges the total hits of slices that either counted the hits of their own slice or all report the same count for the shard.
+     */
+    static TotalHits mergeTotalHits(List<TotalHits> sliceTotalHits, boolean countedPerSlice) {
+        if (countedPerSlice == false) {
+            return sliceTotalHits.get(0);
+        }
+        long value = 0;
+        TotalHits.Relation relation = TotalHits.Relation.EQUAL_TO;
+        for (TotalHits totalHits : sliceTotalHits) {
+            value += totalHits.value;
+            if (totalHits.relation == TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO) {
+                relation = TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO;
+            }
+        }
+        return new TotalHits(value, relation);
+    }
+
     static class EmptyTopDocsCollectorContext extends TopDocsCollectorContext {
         private final Sort sort;
         private final Collector collector;
         private final Supplier<TotalHits> hitCountSupplier;
+        private final boolean hitsCountedPerSlice;
 
         /**
          * Ctr
@@ -112,6 +150,7 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                 this.collector = new EarlyTerminatingCollector(new TotalHitCountCollector(), 0, false);
                 // for bwc hit count is set to 0, it will be converted to -1 by the coordinating node
                 this.hitCountSupplier = () -> new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+                this.hitsCountedPerSlice = false;
             } else {
                 TotalHitCountCollector hitCountCollector = new TotalHitCountCollector();
                 // implicit total hit counts are valid only when there is no filter collector in the chain
@@ -128,9 +167,11 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                             col.hasEarlyTerminated() ? TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO : TotalHits.Relation.EQUAL_TO
                         );
                     }
+                    this.hitsCountedPerSlice = true;
                 } else {
                     this.collector = new EarlyTerminatingCollector(hitCountCollector, 0, false);
                     this.hitCountSupplier = () -> new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
+                    this.hitsCountedPerSlice = false;
                 }
             }
         }
@@ -143,7 +184,24 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
 
         @Override
         void postProcess(QuerySearchResult result) {
-            final TotalHits totalHitCount = hitCountSupplier.get();
+            postProcess(result, hitCountSupplier.get());
+        }
+
+        @Override
+        boolean supportsSlices() {
+            return true;
+        }
+
+        @Override
+        void postProcessSlices(QuerySearchResult result, List<TopDocsCollectorContext> slices) {
+            final List<TotalHits> sliceTotalHits = new ArrayList<>(slices.size());
+            for (TopDocsCollectorContext slice : slices) {
+                sliceTotalHits.add(((EmptyTopDocsCollectorContext) slice).hitCountSupplier.get());
+            }
+            postProcess(result, mergeTotalHits(sliceTotalHits, hitsCountedPerSlice));
+        }
+
+        private void postProcess(QuerySearchResult result, TotalHits totalHitCount) {
             final TopDocs topDocs;
             if (sort != null) {
                 topDocs = new TopFieldDocs(totalHitCount, Lucene.EMPTY_SCORE_DOCS, sort.getSort());
@@ -220,6 +278,7 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         protected final @Nullable SortAndFormats sortAndFormats;
         private final Collector collector;
         private final Supplier<TotalHits> totalHitsSupplier;
+        private final boolean hitsCountedPerSlice;
         private final Supplier<TopDocs> topDocsSupplier;
         private final Supplier<Float> maxScoreSupplier;
 
@@ -233,6 +292,7 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
          * @param trackMaxScore True if max score should be tracked
          * @param trackTotalHitsUpTo True if the total number of hits should be tracked
          * @param hasFilterCollector True if the collector chain contains at least one collector that can filters document
+         * @param bottomSortValues The bottom sort values of all shards that non-competitive documents are skipped against, if any
          */
         private SimpleTopDocsCollectorContext(
             IndexReader reader,
@@ -242,7 +302,8 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
             int numHits,
             boolean trackMaxScore,
             int trackTotalHitsUpTo,
-            boolean hasFilterCollector
+            boolean hasFilterCollector,
+            @Nullable GlobalBottomSortValues bottomSortValues
         ) throws IOException {
             super(REASON_SEARCH_TOP_HITS, numHits);
             this.sortAndFormats = sortAndFormats;
@@ -255,11 +316,13 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                 topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, Integer.MAX_VALUE);
                 topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
                 totalHitsSupplier = () -> topDocsSupplier.get().totalHits;
+                hitsCountedPerSlice = true;
             } else if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED) {
                 // don't compute hit counts via the collector
                 topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, 1);
                 topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
                 totalHitsSupplier = () -> new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+                hitsCountedPerSlice = false;
             } else {
                 // implicit total hit counts are valid only when there is no filter collector in the chain
                 final int hitCount = hasFilterCollector ? -1 : shortcutTotalHitCount(reader, query);
@@ -267,11 +330,13 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                     topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, trackTotalHitsUpTo);
                     topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
                     totalHitsSupplier = () -> topDocsSupplier.get().totalHits;
+                    hitsCountedPerSlice = true;
                 } else {
                     // don't compute hit counts via the collector
                     topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, 1);
                     topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
                     totalHitsSupplier = () -> new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
+                    hitsCountedPerSlice = false;
                 }
             }
             MaxScoreCollector maxScoreCollector = null;
@@ -291,7 +356,16 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                 maxScoreSupplier = () -> Float.NaN;
             }
 
-            this.collector = MultiCollector.wrap(topDocsCollector, maxScoreCollector);
+            Collector topHitsCollector = topDocsCollector;
+            if (bottomSortValues != null
+                && hitsCountedPerSlice == false
+                && sortAndFormats != null
+                && BottomSortValuePruningCollector.canPrune(sortAndFormats.sort.getSort()[0])) {
+                // the top docs collector doesn't count the total hits, so it can skip the documents that can't be top hits of all shards
+                final SortField primarySort = sortAndFormats.sort.getSort()[0];
+                topHitsCollector = new BottomSortValuePruningCollector(topDocsCollector, primarySort, bottomSortValues);
+            }
+            this.collector = MultiCollector.wrap(topHitsCollector, maxScoreCollector);
 
         }
 
@@ -318,6 +392,39 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
             final TopDocsAndMaxScore topDocs = newTopDocs();
             result.topDocs(topDocs, sortAndFormats == null ? null : sortAndFormats.formats);
         }
+
+        @Override
+        boolean supportsSlices() {
+            return true;
+        }
+
+        @Override
+        void postProcessSlices(QuerySearchResult result, List<TopDocsCollectorContext> slices) {
+            final TopDocs[] sliceTopDocs = sortAndFormats == null ? new TopDocs[slices.size()] : new TopFieldDocs[slices.size()];
+            final List<TotalHits> sliceTotalHits = new ArrayList<>(slices.size());
+            float maxScore = Float.NaN;
+            for (int i = 0; i < sliceTopDocs.length; i++) {
+                final SimpleTopDocsCollectorContext slice = (SimpleTopDocsCollectorContext) slices.get(i);
+                sliceTopDocs[i] = slice.topDocsSupplier.get();
+                sliceTotalHits.add(slice.totalHitsSupplier.get());
+                final float sliceMaxScore = slice.maxScoreSupplier.get();
+                if (Float.isNaN(maxScore) || sliceMaxScore > maxScore) {
+                    maxScore = sliceMaxScore;
+                }
+            }
+            // the doc ids of all slices are relative to the same reader, so ties are broken by doc id like in a sequential execution
+            final TopDocs merged = sortAndFormats == null
+                ? TopDocs.merge(0, numHits, sliceTopDocs)
+                : TopDocs.merge(sortAndFormats.sort, 0, numHits, (TopFieldDocs[]) sliceTopDocs);
+            final TotalHits totalHits = mergeTotalHits(sliceTotalHits, hitsCountedPerSlice);
+            final TopDocs topDocs;
+            if (merged instanceof TopFieldDocs fieldDocs) {
+                topDocs = new TopFieldDocs(totalHits, fieldDocs.scoreDocs, fieldDocs.fields);
+            } else {
+                topDocs = new TopDocs(totalHits, merged.scoreDocs);
+            }
+            result.topDocs(new TopDocsAndMaxScore(topDocs, maxScore), sortAndFormats == null ? null : sortAndFormats.formats);
+        }
     }
 
     static class ScrollingTopDocsCollectorContext extends SimpleTopDocsCollectorContext {
@@ -343,12 +450,19 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                 numHits,
                 trackMaxScore,
                 trackTotalHitsUpTo,
-                hasFilterCollector
+                hasFilterCollector,
+                null
             );
             this.scrollContext = Objects.requireNonNull(scrollContext);
             this.numberOfShards = numberOfShards;
         }
 
+        @Override
+        boolean supportsSlices() {
+            // the scroll context tracks the last emitted doc of a single collection
+            return false;
+        }
+
         @Override
         void postProcess(QuerySearchResult result) throws IOException {
             final TopDocsAndMaxScore topDocs = newTopDocs();
@@ -494,7 +608,8 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                 numDocs,
                 searchContext.trackScores(),
                 searchContext.trackTotalHitsUpTo(),
-                hasFilterCollector
+                hasFilterCollector,
+                searchContext.globalBottomSortValues()
             ) {
                 @Override
                 boolean shouldRescore() {
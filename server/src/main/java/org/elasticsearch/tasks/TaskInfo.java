@@ -12,6 +12,7 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.VersionedNamedWriteable;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.xcontent.ObjectParserHelper;
 import org.elasticsearch.core.TimeValue;
@@ -82,7 +83,13 @@ public record TaskInfo(
         out.writeString(type);
         out.writeString(action);
         out.writeOptionalString(description);
-        out.writeOptionalNamedWriteable(status);
+        if (status instanceof VersionedNamedWriteable versionedStatus
+            && VersionedNamedWriteable.shouldSerialize(out, versionedStatus) == false) {
+            // the recipient can't read this status
+            out.writeOptionalNamedWriteable(null);
+        } else {
+            out.writeOptionalNamedWriteable(status);
+        }
         out.writeLong(startTime);
         out.writeLong(runningTimeNanos);
         out.writeBoolean(cancellable);
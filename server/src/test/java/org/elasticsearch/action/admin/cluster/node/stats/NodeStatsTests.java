@@ -479,6 +479,13 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(aStats.serviceTime, bStats.serviceTime, 0.01);
                         assertEquals(aStats.responseTime, bStats.responseTime, 0.01);
                     });
+                    assertEquals(adaptiveStats.getHedgeStats().keySet(), deserializedAdaptiveStats.getHedgeStats().keySet());
+                    adaptiveStats.getHedgeStats().forEach((k, aStats) -> {
+                        ResponseCollectorService.HedgeStats bStats = deserializedAdaptiveStats.getHedgeStats().get(k);
+                        assertEquals(aStats.hedgedRequests, bStats.hedgedRequests);
+                        assertEquals(aStats.hedgeRequests, bStats.hedgeRequests);
+                        assertEquals(aStats.hedgeWins, bStats.hedgeWins);
+                    });
                 }
                 ScriptCacheStats scriptCacheStats = nodeStats.getScriptCacheStats();
                 ScriptCacheStats deserializedScriptCacheStats = deserializedNodeStats.getScriptCacheStats();
@@ -839,6 +846,7 @@ public class NodeStatsTests extends ESTestCase {
             int numNodes = randomIntBetween(0, 10);
             Map<String, Long> nodeConnections = new HashMap<>();
             Map<String, ResponseCollectorService.ComputedNodeStats> nodeStats = new HashMap<>();
+            Map<String, ResponseCollectorService.HedgeStats> hedgeStats = new HashMap<>();
             for (int i = 0; i < numNodes; i++) {
                 String nodeId = randomAlphaOfLengthBetween(3, 10);
                 // add outgoing connection info
@@ -856,8 +864,15 @@ public class NodeStatsTests extends ESTestCase {
                     );
                     nodeStats.put(nodeId, stats);
                 }
+                // add hedged requests
+                if (randomBoolean()) {
+                    long hedgedRequests = randomLongBetween(0, 100);
+                    long hedgeRequests = randomLongBetween(0, 100);
+                    long hedgeWins = randomLongBetween(0, hedgeRequests);
+                    hedgeStats.put(nodeId, new ResponseCollectorService.HedgeStats(hedgedRequests, hedgeRequests, hedgeWins));
+                }
             }
-            adaptiveSelectionStats = new AdaptiveSelectionStats(nodeConnections, nodeStats);
+            adaptiveSelectionStats = new AdaptiveSelectionStats(nodeConnections, nodeStats, hedgeStats);
         }
         ScriptCacheStats scriptCacheStats = scriptStats != null ? scriptStats.toScriptCacheStats() : null;
         IndexingPressureStats indexingPressureStats = null;
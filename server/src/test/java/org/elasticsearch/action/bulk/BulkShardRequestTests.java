@@ -8,11 +8,19 @@
 
 package org.elasticsearch.action.bulk;
 
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
 
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.apache.lucene.tests.util.TestUtil.randomSimpleString;
+import static org.hamcrest.Matchers.instanceOf;
 
 public class BulkShardRequestTests extends ESTestCase {
     public void testToString() {
@@ -31,4 +39,39 @@ public class BulkShardRequestTests extends ESTestCase {
         assertEquals("BulkShardRequest [" + shardId + "] containing [" + count + "] requests blocking until refresh", r.toString());
         assertEquals("requests[" + count + "], index[" + index + "][0], refresh[WAIT_UNTIL]", r.getDescription());
     }
+
+    public void testRetainsSourcesReadFromReleasableBytes() throws IOException {
+        final ShardId shardId = new ShardId(randomSimpleString(random(), 10), "ignored", 0);
+        final BulkItemRequest[] items = new BulkItemRequest[between(1, 10)];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new BulkItemRequest(i, new IndexRequest(shardId.getIndexName()).id("id_" + i).source("field", "value_" + i));
+        }
+        final BulkShardRequest request = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        final AtomicBoolean released = new AtomicBoolean();
+        final ReleasableBytesReference bytes;
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            request.writeTo(out);
+            bytes = new ReleasableBytesReference(out.bytes(), () -> released.set(true));
+        }
+        final BulkShardRequest read;
+        try (StreamInput in = bytes.streamInput()) {
+            read = new BulkShardRequest(in);
+        }
+        // the network layer releases the buffer once the request was handed off, the sources must stay around until the request is done
+        bytes.decRef();
+        assertFalse(released.get());
+        for (int i = 0; i < items.length; i++) {
+            final IndexRequest indexRequest = (IndexRequest) read.items()[i].request();
+            assertThat(indexRequest.source(), instanceOf(ReleasableBytesReference.class));
+            assertEquals(((IndexRequest) items[i].request()).source(), indexRequest.source());
+        }
+
+        read.incRef();
+        assertFalse(read.decRef());
+        assertFalse(released.get());
+        assertTrue(read.decRef());
+        assertTrue(released.get());
+        assertFalse(read.hasReferences());
+    }
 }
@@ -31,6 +31,7 @@ import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.bulk.stats.BulkStats;
 import org.elasticsearch.index.bulk.stats.ShardBulkStats;
@@ -48,9 +49,12 @@ import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.threadpool.ThreadPool.Names;
+import org.elasticsearch.xcontent.XContentType;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
@@ -63,12 +67,15 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.arrayWithSize;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -1068,6 +1075,184 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         latch.await();
     }
 
+    public void testDocumentPreParserKeepsSourcesAliveUntilTasksAreDone() throws Exception {
+        IndexShard shard = newStartedShard(true);
+        // create the mapping up front so that documents can be parsed ahead of time
+        indexDoc(shard, "_doc", "initial", "{\"foo\":\"bar\"}");
+
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(2, 10)];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new BulkItemRequest(i, new IndexRequest("index").id("id_" + i).source(Requests.INDEX_CONTENT_TYPE, "foo", "bar"));
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+        List<Runnable> scheduled = new ArrayList<>();
+        BulkDocumentPreParser preParser = new BulkDocumentPreParser(
+            bulkShardRequest,
+            shard,
+            scheduled::add,
+            new IndexingPressure(Settings.EMPTY),
+            items.length
+        );
+        assertThat(scheduled, hasSize(items.length));
+
+        // the bulk is done with the request, but the parsing tasks still hold on to the sources
+        bulkShardRequest.decRef();
+        assertTrue(bulkShardRequest.hasReferences());
+        // a parsing thread picks up the first document and releases its reference once it is done
+        scheduled.get(0).run();
+        assertTrue(bulkShardRequest.hasReferences());
+
+        // closing skips the documents that no parsing thread picked up yet and releases their references
+        preParser.close();
+        assertFalse(bulkShardRequest.hasReferences());
+        for (Runnable task : scheduled) {
+            task.run();
+        }
+        closeShards(shard);
+    }
+
+    public void testPerformOnPrimaryWithParallelParsing() throws Exception {
+        IndexShard shard = newStartedShard(
+            true,
+            Settings.builder().put(IndexSettings.INDEX_BULK_PARALLEL_PARSING_WINDOW_SETTING.getKey(), randomIntBetween(1, 8)).build()
+        );
+        // create the mapping up front so that documents can be parsed ahead of time
+        indexDoc(shard, "_doc", "initial", "{\"foo\":\"bar\"}");
+
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(2, 50)];
+        int failedItem = randomIntBetween(0, items.length - 1);
+        for (int i = 0; i < items.length; i++) {
+            IndexRequest writeRequest = new IndexRequest("index").id("id_" + i).opType(DocWriteRequest.OpType.INDEX);
+            if (i == failedItem) {
+                writeRequest.source("{\"foo\":", XContentType.JSON);
+            } else {
+                writeRequest.source(Requests.INDEX_CONTENT_TYPE, "foo", "bar_" + i);
+            }
+            items[i] = new BulkItemRequest(i, writeRequest);
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+        IndexingPressure indexingPressure = new IndexingPressure(Settings.EMPTY);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest,
+            shard,
+            null,
+            threadPool::absoluteTimeInMillis,
+            new NoopMappingUpdatePerformer(),
+            listener -> listener.onFailure(new IllegalStateException("no mapping update expected")),
+            new LatchedActionListener<>(ActionTestUtils.assertNoFailureListener(result -> {
+                BulkItemResponse[] responses = result.finalResponseIfSuccessful.getResponses();
+                assertThat(responses, arrayWithSize(items.length));
+                long previousSeqNo = -1;
+                for (int i = 0; i < items.length; i++) {
+                    assertThat(responses[i].getItemId(), equalTo(i));
+                    if (i == failedItem) {
+                        assertTrue(responses[i].isFailed());
+                    } else {
+                        assertFalse(responses[i].isFailed());
+                        // documents are indexed in the order of the bulk request
+                        assertThat(responses[i].getResponse().getSeqNo(), greaterThan(previousSeqNo));
+                        previousSeqNo = responses[i].getResponse().getSeqNo();
+                    }
+                }
+                // all memory held by documents parsed ahead of time is released
+                assertThat(indexingPressure.stats().getCurrentCombinedCoordinatingAndPrimaryBytes(), equalTo(0L));
+                assertThat(indexingPressure.stats().getCurrentPrimaryBytes(), equalTo(0L));
+                try {
+                    assertDocCount(shard, items.length);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                } finally {
+                    closeShards(shard);
+                }
+            }), latch),
+            threadPool,
+            Names.WRITE,
+            indexingPressure
+        );
+
+        latch.await();
+    }
+
+    public void testPerformOnPrimaryIndexesAppendOnlyItemsAsBatch() throws Exception {
+        boolean parallelParsing = randomBoolean();
+        int parallelParsingWindow = parallelParsing ? randomIntBetween(1, 8) : 0;
+        IndexShard shard = spy(
+            newStartedShard(
+                true,
+                Settings.builder().put(IndexSettings.INDEX_BULK_PARALLEL_PARSING_WINDOW_SETTING.getKey(), parallelParsingWindow).build()
+            )
+        );
+        // create the mapping up front so that the documents do not require mapping updates
+        indexDoc(shard, "_doc", "initial", "{\"foo\":\"bar\"}");
+
+        // the explicit id and the failed document leave at least one run of append only items that is indexed as a batch
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(8, 50)];
+        int failedItem = randomIntBetween(0, items.length - 1);
+        int explicitIdItem = randomValueOtherThan(failedItem, () -> randomIntBetween(0, items.length - 1));
+        for (int i = 0; i < items.length; i++) {
+            IndexRequest writeRequest = new IndexRequest("index");
+            if (i == explicitIdItem) {
+                writeRequest.id("id_" + i).opType(DocWriteRequest.OpType.INDEX);
+            } else {
+                writeRequest.opType(DocWriteRequest.OpType.CREATE).autoGenerateId();
+            }
+            if (i == failedItem) {
+                writeRequest.source("{\"foo\":", XContentType.JSON);
+            } else {
+                writeRequest.source(Requests.INDEX_CONTENT_TYPE, "foo", "bar_" + i);
+            }
+            items[i] = new BulkItemRequest(i, writeRequest);
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest,
+            shard,
+            null,
+            threadPool::absoluteTimeInMillis,
+            new NoopMappingUpdatePerformer(),
+            listener -> listener.onFailure(new IllegalStateException("no mapping update expected")),
+            new LatchedActionListener<>(ActionTestUtils.assertNoFailureListener(result -> {
+                BulkItemResponse[] responses = result.finalResponseIfSuccessful.getResponses();
+                assertThat(responses, arrayWithSize(items.length));
+                long previousSeqNo = -1;
+                for (int i = 0; i < items.length; i++) {
+                    assertThat(responses[i].getItemId(), equalTo(i));
+                    if (i == failedItem) {
+                        assertTrue(responses[i].isFailed());
+                    } else {
+                        assertFalse(responses[i].isFailed());
+                        assertThat(responses[i].getOpType(), equalTo(items[i].request().opType()));
+                        assertThat(responses[i].getResponse().getId(), equalTo(items[i].request().id()));
+                        // documents are indexed in the order of the bulk request
+                        assertThat(responses[i].getResponse().getSeqNo(), greaterThan(previousSeqNo));
+                        previousSeqNo = responses[i].getResponse().getSeqNo();
+                    }
+                }
+                // every indexed document goes through the indexing operation listeners, batched or not, which also count the initial
+                // document but not the one that failed to parse
+                assertThat(shard.indexingStats().getTotal().getIndexCount(), equalTo((long) items.length));
+                assertThat(shard.indexingStats().getTotal().getIndexCurrent(), equalTo(0L));
+                assertThat(shard.getLocalCheckpoint(), equalTo(shard.seqNoStats().getMaxSeqNo()));
+                try {
+                    assertDocCount(shard, items.length);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }), latch),
+            threadPool,
+            Names.WRITE,
+            parallelParsing ? new IndexingPressure(Settings.EMPTY) : null
+        );
+
+        latch.await();
+        verify(shard, atLeastOnce()).applyIndexOperationsOnPrimary(anyList());
+        closeShards(shard);
+    }
+
     private void randomlySetIgnoredPrimaryResponse(BulkItemRequest primaryRequest) {
         if (randomBoolean()) {
             // add a response to the request and thereby check that it is ignored for the primary.
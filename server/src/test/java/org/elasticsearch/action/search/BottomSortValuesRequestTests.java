@@ -0,0 +1,54 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.action.OriginalIndicesTests;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.search.SearchModule;
+import org.elasticsearch.search.SearchSortValuesAndFormats;
+import org.elasticsearch.search.SearchSortValuesAndFormatsTests;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class BottomSortValuesRequestTests extends ESTestCase {
+
+    public void testSerialization() throws IOException {
+        final TaskId searchTaskId = new TaskId(randomAlphaOfLength(10), randomNonNegativeLong());
+        final OriginalIndices originalIndices = OriginalIndicesTests.randomOriginalIndices();
+        final long version = randomNonNegativeLong();
+        final SearchSortValuesAndFormats bottomSortValues = SearchSortValuesAndFormatsTests.randomInstance();
+        final SearchTransportService.BottomSortValuesRequest request = new SearchTransportService.BottomSortValuesRequest(
+            searchTaskId,
+            originalIndices,
+            version,
+            bottomSortValues
+        );
+
+        final NamedWriteableRegistry namedWriteableRegistry = new NamedWriteableRegistry(
+            new SearchModule(Settings.EMPTY, Collections.emptyList()).getNamedWriteables()
+        );
+        final SearchTransportService.BottomSortValuesRequest copy = copyWriteable(
+            request,
+            namedWriteableRegistry,
+            SearchTransportService.BottomSortValuesRequest::new
+        );
+        assertThat(copy.searchTaskId(), equalTo(searchTaskId));
+        assertThat(copy.indices(), equalTo(originalIndices.indices()));
+        assertThat(copy.indicesOptions(), equalTo(originalIndices.indicesOptions()));
+        assertThat(copy.version(), equalTo(version));
+        assertThat(copy.bottomSortValues(), equalTo(bottomSortValues));
+    }
+}
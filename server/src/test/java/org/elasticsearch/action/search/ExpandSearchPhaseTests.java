@@ -11,21 +11,33 @@ package org.elasticsearch.action.search;
 import org.apache.lucene.search.TotalHits;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.InnerHitBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.AbstractSearchTestCase;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.collapse.CollapseBuilder;
+import org.elasticsearch.search.fetch.FetchSearchResult;
+import org.elasticsearch.search.fetch.QueryFetchSearchResult;
+import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.internal.ShardSearchContextId;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.transport.Transport;
 import org.hamcrest.Matchers;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -122,12 +134,17 @@ public class ExpandSearchPhaseTests extends ESTestCase {
                 1.0F
             );
             InternalSearchResponse internalSearchResponse = new InternalSearchResponse(hits, null, null, null, false, null, 1);
-            ExpandSearchPhase phase = new ExpandSearchPhase(mockSearchPhaseContext, internalSearchResponse, () -> new SearchPhase("test") {
-                @Override
-                public void run() {
-                    mockSearchPhaseContext.sendSearchResponse(internalSearchResponse, null);
+            ExpandSearchPhase phase = new ExpandSearchPhase(
+                mockSearchPhaseContext,
+                internalSearchResponse,
+                new AtomicArray<>(0),
+                () -> new SearchPhase("test") {
+                    @Override
+                    public void run() {
+                        mockSearchPhaseContext.sendSearchResponse(internalSearchResponse, null);
+                    }
                 }
-            });
+            );
 
             phase.run();
             mockSearchPhaseContext.assertNoFailure();
@@ -205,12 +222,17 @@ public class ExpandSearchPhaseTests extends ESTestCase {
             1.0F
         );
         InternalSearchResponse internalSearchResponse = new InternalSearchResponse(hits, null, null, null, false, null, 1);
-        ExpandSearchPhase phase = new ExpandSearchPhase(mockSearchPhaseContext, internalSearchResponse, () -> new SearchPhase("test") {
-            @Override
-            public void run() {
-                mockSearchPhaseContext.sendSearchResponse(internalSearchResponse, null);
+        ExpandSearchPhase phase = new ExpandSearchPhase(
+            mockSearchPhaseContext,
+            internalSearchResponse,
+            new AtomicArray<>(0),
+            () -> new SearchPhase("test") {
+                @Override
+                public void run() {
+                    mockSearchPhaseContext.sendSearchResponse(internalSearchResponse, null);
+                }
             }
-        });
+        );
         phase.run();
         assertThat(mockSearchPhaseContext.phaseFailure.get(), Matchers.instanceOf(RuntimeException.class));
         assertEquals("boom", mockSearchPhaseContext.phaseFailure.get().getMessage());
@@ -245,12 +267,17 @@ public class ExpandSearchPhaseTests extends ESTestCase {
             1.0F
         );
         InternalSearchResponse internalSearchResponse = new InternalSearchResponse(hits, null, null, null, false, null, 1);
-        ExpandSearchPhase phase = new ExpandSearchPhase(mockSearchPhaseContext, internalSearchResponse, () -> new SearchPhase("test") {
-            @Override
-            public void run() {
-                mockSearchPhaseContext.sendSearchResponse(internalSearchResponse, null);
+        ExpandSearchPhase phase = new ExpandSearchPhase(
+            mockSearchPhaseContext,
+            internalSearchResponse,
+            new AtomicArray<>(0),
+            () -> new SearchPhase("test") {
+                @Override
+                public void run() {
+                    mockSearchPhaseContext.sendSearchResponse(internalSearchResponse, null);
+                }
             }
-        });
+        );
         phase.run();
         mockSearchPhaseContext.assertNoFailure();
         assertNotNull(mockSearchPhaseContext.searchResponse.get());
@@ -273,15 +300,62 @@ public class ExpandSearchPhaseTests extends ESTestCase {
 
         SearchHits hits = new SearchHits(new SearchHit[0], new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1.0f);
         InternalSearchResponse internalSearchResponse = new InternalSearchResponse(hits, null, null, null, false, null, 1);
-        ExpandSearchPhase phase = new ExpandSearchPhase(mockSearchPhaseContext, internalSearchResponse, () -> new SearchPhase("test") {
+        ExpandSearchPhase phase = new ExpandSearchPhase(
+            mockSearchPhaseContext,
+            internalSearchResponse,
+            new AtomicArray<>(0),
+            () -> new SearchPhase("test") {
+                @Override
+                public void run() {
+                    mockSearchPhaseContext.sendSearchResponse(internalSearchResponse, null);
+                }
+            }
+        );
+        phase.run();
+        mockSearchPhaseContext.assertNoFailure();
+        assertNotNull(mockSearchPhaseContext.searchResponse.get());
+    }
+
+    public void testSkipHitsExpandedOnShard() throws IOException {
+        MockSearchPhaseContext mockSearchPhaseContext = new MockSearchPhaseContext(1);
+        mockSearchPhaseContext.searchTransport = new SearchTransportService(null, null, null) {
             @Override
-            public void run() {
-                mockSearchPhaseContext.sendSearchResponse(internalSearchResponse, null);
+            void sendExecuteMultiSearch(MultiSearchRequest request, SearchTask task, ActionListener<MultiSearchResponse> listener) {
+                fail("the shard already expanded the hits");
             }
-        });
+        };
+        mockSearchPhaseContext.getRequest()
+            .source(
+                new SearchSourceBuilder().collapse(
+                    new CollapseBuilder("someField").setInnerHits(new InnerHitBuilder().setName("foobarbaz"))
+                )
+            );
+
+        SearchHit hit = new SearchHit(
+            1,
+            "ID",
+            Collections.singletonMap("someField", new DocumentField("someField", Collections.singletonList("foo"))),
+            Collections.emptyMap()
+        );
+        SearchHits innerHits = new SearchHits(new SearchHit[0], new TotalHits(0, TotalHits.Relation.EQUAL_TO), Float.NaN);
+        hit.setInnerHits(Map.of("foobarbaz", innerHits));
+        SearchHits hits = new SearchHits(new SearchHit[] { hit }, new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1.0f);
+        InternalSearchResponse internalSearchResponse = new InternalSearchResponse(hits, null, null, null, false, null, 1);
+        ExpandSearchPhase phase = new ExpandSearchPhase(
+            mockSearchPhaseContext,
+            internalSearchResponse,
+            new AtomicArray<>(0),
+            () -> new SearchPhase("test") {
+                @Override
+                public void run() {
+                    mockSearchPhaseContext.sendSearchResponse(internalSearchResponse, null);
+                }
+            }
+        );
         phase.run();
         mockSearchPhaseContext.assertNoFailure();
         assertNotNull(mockSearchPhaseContext.searchResponse.get());
+        assertSame(innerHits, mockSearchPhaseContext.searchResponse.get().getHits().getHits()[0].getInnerHits().get("foobarbaz"));
     }
 
     public void testExpandRequestOptions() throws IOException {
@@ -316,14 +390,145 @@ public class ExpandSearchPhaseTests extends ESTestCase {
 
         SearchHits hits = new SearchHits(new SearchHit[0], new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1.0f);
         InternalSearchResponse internalSearchResponse = new InternalSearchResponse(hits, null, null, null, false, null, 1);
-        ExpandSearchPhase phase = new ExpandSearchPhase(mockSearchPhaseContext, internalSearchResponse, () -> new SearchPhase("test") {
-            @Override
-            public void run() throws IOException {
-                mockSearchPhaseContext.sendSearchResponse(internalSearchResponse, null);
+        ExpandSearchPhase phase = new ExpandSearchPhase(
+            mockSearchPhaseContext,
+            internalSearchResponse,
+            new AtomicArray<>(0),
+            () -> new SearchPhase("test") {
+                @Override
+                public void run() throws IOException {
+                    mockSearchPhaseContext.sendSearchResponse(internalSearchResponse, null);
+                }
             }
-        });
+        );
         phase.run();
         mockSearchPhaseContext.assertNoFailure();
         assertNotNull(mockSearchPhaseContext.searchResponse.get());
     }
+
+    public void testExpandOnShards() throws IOException {
+        final int numShards = randomIntBetween(3, 6);
+        MockSearchPhaseContext mockSearchPhaseContext = new MockSearchPhaseContext(numShards);
+        mockSearchPhaseContext.getRequest()
+            .source(
+                new SearchSourceBuilder().query(QueryBuilders.termQuery("foo", "bar"))
+                    .collapse(
+                        new CollapseBuilder("someField").setInnerHits(new InnerHitBuilder().setName("foobarbaz").setFrom(1).setSize(2))
+                    )
+            );
+        // each shard has two inner hits in the group "a" and one in the group "b", the last shard has no hits for the query
+        AtomicArray<SearchPhaseResult> queryResults = new AtomicArray<>(numShards);
+        for (int shard = 0; shard < numShards; shard++) {
+            SearchShardTarget shardTarget = new SearchShardTarget("node", new ShardId("index", "_na_", shard), null);
+            QuerySearchResult queryResult = shard == numShards - 1
+                ? QuerySearchResult.nullInstance()
+                : new QuerySearchResult(
+                    new ShardSearchContextId("", shard),
+                    shardTarget,
+                    new ShardSearchRequest(shardTarget.getShardId(), 0, AliasFilter.EMPTY)
+                );
+            queryResult.setShardIndex(shard);
+            queryResults.set(shard, queryResult);
+        }
+        List<Integer> expandedShards = Collections.synchronizedList(new ArrayList<>());
+        mockSearchPhaseContext.searchTransport = new SearchTransportService(null, null, null) {
+            @Override
+            void sendExecuteMultiSearch(MultiSearchRequest request, SearchTask task, ActionListener<MultiSearchResponse> listener) {
+                fail("the shards expand the hits");
+            }
+
+            @Override
+            public void sendExecuteQuery(
+                Transport.Connection connection,
+                ShardSearchRequest request,
+                SearchTask task,
+                SearchActionListener<? super SearchPhaseResult> listener
+            ) {
+                int shard = request.shardId().id();
+                expandedShards.add(shard);
+                assertEquals(1, request.numberOfShards());
+                CollapseBuilder collapse = request.source().collapse();
+                assertEquals("someField", collapse.getField());
+                assertEquals(0, collapse.getInnerHits().get(0).getFrom());
+                assertEquals(3, collapse.getInnerHits().get(0).getSize());
+                BoolQueryBuilder query = (BoolQueryBuilder) request.source().query();
+                assertThat(query.must(), Matchers.contains(QueryBuilders.termQuery("foo", "bar")));
+                BoolQueryBuilder groupsQuery = (BoolQueryBuilder) query.filter().get(0);
+                assertThat(groupsQuery.should(), Matchers.contains(QueryBuilders.termsQuery("someField", List.of("a", "b"))));
+
+                SearchShardTarget shardTarget = new SearchShardTarget("node", request.shardId(), null);
+                FetchSearchResult fetchResult = new FetchSearchResult(new ShardSearchContextId("", shard), shardTarget);
+                fetchResult.shardResult(
+                    new SearchHits(
+                        new SearchHit[] {
+                            collapsedHit(shard * 10, "a", innerHit(shard * 10, 10 - shard), innerHit(shard * 10 + 1, 5 - shard)),
+                            collapsedHit(shard * 10 + 2, "b", innerHit(shard * 10 + 2, 1)) },
+                        null,
+                        Float.NaN
+                    ),
+                    null
+                );
+                QuerySearchResult queryResult = new QuerySearchResult(new ShardSearchContextId("", shard), shardTarget, request);
+                listener.onResponse(new QueryFetchSearchResult(queryResult, fetchResult));
+            }
+        };
+
+        SearchHits hits = new SearchHits(
+            new SearchHit[] { collapsedHit(0, "a"), collapsedHit(2, "b") },
+            new TotalHits(2, TotalHits.Relation.EQUAL_TO),
+            1.0f
+        );
+        InternalSearchResponse internalSearchResponse = new InternalSearchResponse(hits, null, null, null, false, null, 1);
+        ExpandSearchPhase phase = new ExpandSearchPhase(
+            mockSearchPhaseContext,
+            internalSearchResponse,
+            queryResults,
+            () -> new SearchPhase("test") {
+                @Override
+                public void run() {
+                    mockSearchPhaseContext.sendSearchResponse(internalSearchResponse, null);
+                }
+            }
+        );
+        phase.run();
+        mockSearchPhaseContext.assertNoFailure();
+        assertThat(expandedShards, Matchers.containsInAnyOrder(IntStream.range(0, numShards - 1).boxed().toArray()));
+
+        SearchHit[] expandedHits = mockSearchPhaseContext.searchResponse.get().getHits().getHits();
+        // the inner hits are merged by score over the shards and then paged
+        SearchHits groupA = expandedHits[0].getInnerHits().get("foobarbaz");
+        assertEquals(2L * (numShards - 1), groupA.getTotalHits().value);
+        assertEquals(10f, groupA.getMaxScore(), 0f);
+        assertEquals(2, groupA.getHits().length);
+        assertEquals("10", groupA.getHits()[0].getId());
+        assertEquals(9f, groupA.getHits()[0].getScore(), 0f);
+        assertEquals(numShards > 3 ? "20" : "1", groupA.getHits()[1].getId());
+        SearchHits groupB = expandedHits[1].getInnerHits().get("foobarbaz");
+        assertEquals(numShards - 1, groupB.getTotalHits().value);
+        assertEquals(Math.min(2, numShards - 2), groupB.getHits().length);
+        // ties are broken by shard
+        assertEquals("12", groupB.getHits()[0].getId());
+    }
+
+    private static SearchHit collapsedHit(int docId, String collapseValue, SearchHit... innerHits) {
+        SearchHit hit = new SearchHit(
+            docId,
+            Integer.toString(docId),
+            Map.of("someField", new DocumentField("someField", List.of(collapseValue))),
+            Collections.emptyMap()
+        );
+        if (innerHits.length > 0) {
+            float maxScore = (float) Arrays.stream(innerHits).mapToDouble(SearchHit::getScore).max().getAsDouble();
+            hit.setInnerHits(
+                Map.of("foobarbaz", new SearchHits(innerHits, new TotalHits(innerHits.length, TotalHits.Relation.EQUAL_TO), maxScore))
+            );
+        }
+        return hit;
+    }
+
+    private static SearchHit innerHit(int docId, float score) {
+        SearchHit hit = new SearchHit(docId, Integer.toString(docId), Collections.emptyMap(), Collections.emptyMap());
+        hit.score(score);
+        return hit;
+    }
 }
@@ -39,6 +39,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.mockito.Mockito.mock;
 
 public class QueryPhaseResultConsumerTests extends ESTestCase {
@@ -126,6 +127,8 @@ public class QueryPhaseResultConsumerTests extends ESTestCase {
         assertTrue(partialReduceLatch.await(10, TimeUnit.SECONDS));
         assertNull(onPartialMergeFailure.get());
         assertEquals(8, searchProgressListener.onPartialReduce.get());
+        assertEquals(8, queryPhaseResultConsumer.getReduceStatus().getNumReducePhases());
+        assertThat(queryPhaseResultConsumer.getReduceStatus().getPartialReduceTimeInNanos(), greaterThanOrEqualTo(0L));
 
         queryPhaseResultConsumer.reduce();
         assertEquals(1, searchProgressListener.onFinalReduce.get());
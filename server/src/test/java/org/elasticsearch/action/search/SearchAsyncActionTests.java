@@ -15,18 +15,28 @@ import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.cluster.routing.RecoverySource;
 import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.cluster.routing.TestShardRouting;
 import org.elasticsearch.cluster.routing.UnassignedInfo;
+import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.DeterministicTaskQueue;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.InternalSearchResponse;
 import org.elasticsearch.search.internal.ShardSearchContextId;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.Transport;
 import org.elasticsearch.transport.TransportException;
 import org.elasticsearch.transport.TransportRequest;
@@ -394,6 +404,236 @@ public class SearchAsyncActionTests extends ESTestCase {
         assertThat(runnables, equalTo(Collections.emptyList()));
     }
 
+    public void testHedgeSlowShardRequests() throws InterruptedException {
+        SearchRequest request = new SearchRequest();
+        request.allowPartialSearchResults(true);
+        AtomicReference<TestSearchResponse> response = new AtomicReference<>();
+        ActionListener<SearchResponse> responseListener = ActionListener.wrap(
+            searchResponse -> response.set((TestSearchResponse) searchResponse),
+            (e) -> { throw new AssertionError("unexpected", e); }
+        );
+        DiscoveryNode slowNode = new DiscoveryNode("node_1", buildNewFakeTransportAddress(), Version.CURRENT);
+        DiscoveryNode fastNode = new DiscoveryNode("node_2", buildNewFakeTransportAddress(), Version.CURRENT);
+
+        Map<DiscoveryNode, Set<ShardSearchContextId>> nodeToContextMap = newConcurrentMap();
+        AtomicInteger contextIdGenerator = new AtomicInteger(0);
+        int numShards = randomIntBetween(1, 10);
+        GroupShardsIterator<SearchShardIterator> shardsIter = getShardsIter(
+            "idx",
+            new OriginalIndices(new String[] { "idx" }, SearchRequest.DEFAULT_INDICES_OPTIONS),
+            numShards,
+            true,
+            slowNode,
+            fastNode
+        );
+        SearchTransportService transportService = new SearchTransportService(null, null, null) {
+            @Override
+            public void sendFreeContext(Transport.Connection connection, ShardSearchContextId contextId, OriginalIndices originalIndices) {
+                assertTrue(nodeToContextMap.containsKey(connection.getNode()));
+                assertTrue(nodeToContextMap.get(connection.getNode()).remove(contextId));
+            }
+        };
+        Map<String, Transport.Connection> lookup = new HashMap<>();
+        lookup.put(slowNode.getId(), new MockConnection(slowNode));
+        lookup.put(fastNode.getId(), new MockConnection(fastNode));
+        Map<String, AliasFilter> aliasFilters = Collections.singletonMap("_na_", new AliasFilter(null, Strings.EMPTY_ARRAY));
+        ExecutorService executor = Executors.newFixedThreadPool(randomIntBetween(1, Runtime.getRuntime().availableProcessors()));
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        ClusterService clusterService = new ClusterService(
+            Settings.EMPTY,
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
+            threadPool
+        );
+        ResponseCollectorService responseCollectorService = new ResponseCollectorService(clusterService);
+        List<Runnable> slowResponses = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger slowFirst = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        AbstractSearchAsyncAction<TestSearchPhaseResult> asyncAction = new AbstractSearchAsyncAction<TestSearchPhaseResult>(
+            "test",
+            logger,
+            transportService,
+            (cluster, node) -> {
+                assert cluster == null : "cluster was not null: " + cluster;
+                return lookup.get(node);
+            },
+            aliasFilters,
+            Collections.emptyMap(),
+            executor,
+            request,
+            responseListener,
+            shardsIter,
+            new TransportSearchAction.SearchTimeProvider(0, 0, () -> 0),
+            ClusterState.EMPTY_STATE,
+            null,
+            new ArraySearchPhaseResults<>(shardsIter.size()),
+            request.getMaxConcurrentShardRequests(),
+            SearchResponse.Clusters.EMPTY
+        ) {
+            final Set<ShardId> queried = newConcurrentSet();
+
+            @Override
+            protected void executePhaseOnShard(
+                SearchShardIterator shardIt,
+                SearchShardTarget shard,
+                SearchActionListener<TestSearchPhaseResult> listener
+            ) {
+                Transport.Connection connection = getConnection(null, shard.getNodeId());
+                TestSearchPhaseResult testSearchPhaseResult = new TestSearchPhaseResult(
+                    new ShardSearchContextId(UUIDs.randomBase64UUID(), contextIdGenerator.incrementAndGet()),
+                    connection.getNode()
+                );
+                Set<ShardSearchContextId> ids = nodeToContextMap.computeIfAbsent(connection.getNode(), (n) -> newConcurrentSet());
+                ids.add(testSearchPhaseResult.getContextId());
+                boolean first = queried.add(shard.getShardId());
+                if (connection.getNode().equals(slowNode)) {
+                    assertTrue("the slow node must only be queried first", first);
+                    slowFirst.incrementAndGet();
+                    slowResponses.add(() -> listener.onResponse(testSearchPhaseResult));
+                } else {
+                    // respond right away so that requests to the fast node are never hedged
+                    listener.onResponse(testSearchPhaseResult);
+                }
+            }
+
+            @Override
+            protected SearchPhase getNextPhase(SearchPhaseResults<TestSearchPhaseResult> results, SearchPhaseContext context) {
+                return new SearchPhase("test") {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < results.getNumShards(); i++) {
+                            TestSearchPhaseResult result = results.getAtomicArray().get(i);
+                            assertNotNull(result);
+                            assertEquals(fastNode, result.node);
+                            sendReleaseSearchContext(result.getContextId(), new MockConnection(result.node), OriginalIndices.NONE);
+                        }
+                        responseListener.onResponse(new TestSearchResponse());
+                        latch.countDown();
+                    }
+                };
+            }
+        };
+        asyncAction.enableHedging(TimeValue.timeValueMillis(100), threadPool, responseCollectorService);
+        asyncAction.start();
+        latch.await();
+        assertNotNull(response.get());
+
+        // the slow node responds after the hedge requests, so its search contexts are released
+        assertThat(slowResponses.size(), equalTo(slowFirst.get()));
+        slowResponses.forEach(Runnable::run);
+        assertTrue(nodeToContextMap.toString(), nodeToContextMap.values().stream().allMatch(Set::isEmpty));
+
+        Map<String, ResponseCollectorService.HedgeStats> hedgeStats = responseCollectorService.getAllHedgeStats();
+        if (slowFirst.get() == 0) {
+            assertTrue(hedgeStats.toString(), hedgeStats.isEmpty());
+        } else {
+            assertThat(hedgeStats.get(slowNode.getId()).hedgedRequests, equalTo((long) slowFirst.get()));
+            assertThat(hedgeStats.get(fastNode.getId()).hedgeRequests, equalTo((long) slowFirst.get()));
+            assertThat(hedgeStats.get(fastNode.getId()).hedgeWins, equalTo((long) slowFirst.get()));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        terminate(threadPool);
+    }
+
+    public void testRetryAfterFailureGetsItsOwnHedgeDelay() {
+        SearchRequest request = new SearchRequest();
+        request.allowPartialSearchResults(true);
+        AtomicReference<TestSearchResponse> response = new AtomicReference<>();
+        ActionListener<SearchResponse> responseListener = ActionListener.wrap(
+            searchResponse -> response.set((TestSearchResponse) searchResponse),
+            (e) -> { throw new AssertionError("unexpected", e); }
+        );
+        DiscoveryNode failingNode = new DiscoveryNode("node_1", buildNewFakeTransportAddress(), Version.CURRENT);
+        DiscoveryNode retryNode = new DiscoveryNode("node_2", buildNewFakeTransportAddress(), Version.CURRENT);
+        DiscoveryNode hedgeNode = new DiscoveryNode("node_3", buildNewFakeTransportAddress(), Version.CURRENT);
+        ShardId shardId = new ShardId(new Index("idx", "_na_"), 0);
+        OriginalIndices originalIndices = new OriginalIndices(new String[] { "idx" }, SearchRequest.DEFAULT_INDICES_OPTIONS);
+        GroupShardsIterator<SearchShardIterator> shardsIter = new GroupShardsIterator<>(
+            List.of(
+                new SearchShardIterator(
+                    null,
+                    shardId,
+                    List.of(
+                        TestShardRouting.newShardRouting(shardId, failingNode.getId(), true, ShardRoutingState.STARTED),
+                        TestShardRouting.newShardRouting(shardId, retryNode.getId(), false, ShardRoutingState.STARTED),
+                        TestShardRouting.newShardRouting(shardId, hedgeNode.getId(), false, ShardRoutingState.STARTED)
+                    ),
+                    originalIndices
+                )
+            )
+        );
+        Map<String, Transport.Connection> lookup = new HashMap<>();
+        for (DiscoveryNode node : List.of(failingNode, retryNode, hedgeNode)) {
+            lookup.put(node.getId(), new MockConnection(node));
+        }
+        Map<String, AliasFilter> aliasFilters = Collections.singletonMap("_na_", new AliasFilter(null, Strings.EMPTY_ARRAY));
+        DeterministicTaskQueue deterministicTaskQueue = new DeterministicTaskQueue();
+        ThreadPool threadPool = deterministicTaskQueue.getThreadPool();
+        ClusterService clusterService = new ClusterService(
+            Settings.EMPTY,
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
+            threadPool
+        );
+        ResponseCollectorService responseCollectorService = new ResponseCollectorService(clusterService);
+        List<String> queriedNodes = Collections.synchronizedList(new ArrayList<>());
+        AbstractSearchAsyncAction<TestSearchPhaseResult> asyncAction = new AbstractSearchAsyncAction<TestSearchPhaseResult>(
+            "test",
+            logger,
+            new SearchTransportService(null, null, null),
+            (cluster, node) -> {
+                assert cluster == null : "cluster was not null: " + cluster;
+                return lookup.get(node);
+            },
+            aliasFilters,
+            Collections.emptyMap(),
+            threadPool.generic(),
+            request,
+            responseListener,
+            shardsIter,
+            new TransportSearchAction.SearchTimeProvider(0, 0, () -> 0),
+            ClusterState.EMPTY_STATE,
+            null,
+            new ArraySearchPhaseResults<>(shardsIter.size()),
+            request.getMaxConcurrentShardRequests(),
+            SearchResponse.Clusters.EMPTY
+        ) {
+            @Override
+            protected void executePhaseOnShard(
+                SearchShardIterator shardIt,
+                SearchShardTarget shard,
+                SearchActionListener<TestSearchPhaseResult> listener
+            ) {
+                queriedNodes.add(shard.getNodeId());
+                final long now = deterministicTaskQueue.getCurrentTimeMillis();
+                if (shard.getNodeId().equals(failingNode.getId())) {
+                    // fails shortly before the hedge delay is up
+                    deterministicTaskQueue.scheduleAt(now + 60, () -> listener.onFailure(new TransportException("boom")));
+                } else {
+                    // responds within the hedge delay of its own request, but after the hedge delay of the failed request
+                    final TestSearchPhaseResult result = new TestSearchPhaseResult(null, lookup.get(shard.getNodeId()).getNode());
+                    deterministicTaskQueue.scheduleAt(now + 90, () -> listener.onResponse(result));
+                }
+            }
+
+            @Override
+            protected SearchPhase getNextPhase(SearchPhaseResults<TestSearchPhaseResult> results, SearchPhaseContext context) {
+                return new SearchPhase("test") {
+                    @Override
+                    public void run() {
+                        responseListener.onResponse(new TestSearchResponse());
+                    }
+                };
+            }
+        };
+        asyncAction.enableHedging(TimeValue.timeValueMillis(100), threadPool, responseCollectorService);
+        asyncAction.start();
+        deterministicTaskQueue.runAllTasksInTimeOrder();
+
+        assertNotNull(response.get());
+        assertThat(queriedNodes, equalTo(List.of(failingNode.getId(), retryNode.getId())));
+        assertTrue(responseCollectorService.getAllHedgeStats().isEmpty());
+    }
+
     public void testFanOutAndFail() throws InterruptedException {
         SearchRequest request = new SearchRequest();
         request.allowPartialSearchResults(true);
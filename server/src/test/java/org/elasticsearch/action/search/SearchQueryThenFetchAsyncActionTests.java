@@ -32,9 +32,11 @@ import org.elasticsearch.lucene.grouping.TopFieldGroups;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.SearchSortValuesAndFormats;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.collapse.CollapseBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.GlobalBottomSortValues;
 import org.elasticsearch.search.internal.ShardSearchContextId;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.search.query.QuerySearchResult;
@@ -43,6 +45,7 @@ import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.InternalAggregationTestCase;
 import org.elasticsearch.test.VersionUtils;
 import org.elasticsearch.transport.Transport;
+import org.elasticsearch.transport.TransportResponse;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -56,6 +59,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static java.util.Collections.singletonList;
 import static org.elasticsearch.test.VersionUtils.allVersions;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
 
@@ -650,4 +654,177 @@ public class SearchQueryThenFetchAsyncActionTests extends ESTestCase {
         Exception e = expectThrows(VersionMismatchException.class, () -> action.executePhaseOnShard(shardIt, searchShardTarget, listener));
         assertThat(e.getMessage(), equalTo("One of the shards is incompatible with the required minimum version [" + minVersion + "]"));
     }
+
+    public void testBottomSortValuesPropagation() throws Exception {
+        final TransportSearchAction.SearchTimeProvider timeProvider = new TransportSearchAction.SearchTimeProvider(
+            0,
+            System.nanoTime(),
+            System::nanoTime
+        );
+
+        Map<String, Transport.Connection> lookup = new ConcurrentHashMap<>();
+        DiscoveryNode newVersionNode = new DiscoveryNode("node1", buildNewFakeTransportAddress(), Version.CURRENT);
+        DiscoveryNode oldVersionNode = new DiscoveryNode(
+            "node2",
+            buildNewFakeTransportAddress(),
+            VersionUtils.randomVersionBetween(random(), Version.V_8_0_0, VersionUtils.getPreviousVersion(Version.V_8_4_0))
+        );
+        lookup.put("node1", new SearchAsyncActionTests.MockConnection(newVersionNode));
+        lookup.put("node2", new SearchAsyncActionTests.MockConnection(oldVersionNode));
+
+        // the first shards of the index are on the new node, the others on the old node
+        final int numShardsPerNode = randomIntBetween(2, 5);
+        OriginalIndices idx = new OriginalIndices(new String[] { "idx" }, SearchRequest.DEFAULT_INDICES_OPTIONS);
+        ArrayList<SearchShardIterator> list = new ArrayList<>();
+        for (int i = 0; i < 2 * numShardsPerNode; i++) {
+            ShardRouting routing = ShardRouting.newUnassigned(
+                new ShardId(new Index("idx", "_na_"), i),
+                true,
+                RecoverySource.EmptyStoreRecoverySource.INSTANCE,
+                new UnassignedInfo(UnassignedInfo.Reason.INDEX_CREATED, "foobar")
+            );
+            routing = routing.initialize(i < numShardsPerNode ? newVersionNode.getId() : oldVersionNode.getId(), "p" + i, 0);
+            routing = routing.moveToStarted();
+            list.add(new SearchShardIterator(null, new ShardId(new Index("idx", "_na_"), i), singletonList(routing), idx));
+        }
+        GroupShardsIterator<SearchShardIterator> shardsIter = new GroupShardsIterator<>(list);
+
+        Map<Integer, SearchActionListener<? super SearchPhaseResult>> runningQueries = new ConcurrentHashMap<>();
+        Map<String, ActionListener<TransportResponse>> inFlightUpdates = new ConcurrentHashMap<>();
+        List<Long> sentVersions = Collections.synchronizedList(new ArrayList<>());
+        List<SearchSortValuesAndFormats> sentValues = Collections.synchronizedList(new ArrayList<>());
+        SearchTransportService searchTransportService = new SearchTransportService(null, null, null) {
+            @Override
+            public void sendExecuteQuery(
+                Transport.Connection connection,
+                ShardSearchRequest request,
+                SearchTask task,
+                SearchActionListener<? super SearchPhaseResult> listener
+            ) {
+                runningQueries.put(request.shardId().id(), listener);
+            }
+
+            @Override
+            public void sendBottomSortValues(
+                Transport.Connection connection,
+                SearchTask task,
+                OriginalIndices originalIndices,
+                long version,
+                SearchSortValuesAndFormats bottomSortValues,
+                ActionListener<TransportResponse> listener
+            ) {
+                assertThat("nodes before 8.4 don't get the bottom sort values", connection.getNode(), equalTo(newVersionNode));
+                assertNull("only one update is in flight per node", inFlightUpdates.put(connection.getNode().getId(), listener));
+                sentVersions.add(version);
+                sentValues.add(bottomSortValues);
+            }
+        };
+        final SearchRequest searchRequest = new SearchRequest();
+        searchRequest.setMaxConcurrentShardRequests(2 * numShardsPerNode);
+        searchRequest.source(new SearchSourceBuilder().size(1).sort(SortBuilders.fieldSort("timestamp")).trackTotalHits(false));
+        searchRequest.allowPartialSearchResults(false);
+        SearchPhaseController controller = new SearchPhaseController((t, r) -> InternalAggregationTestCase.emptyReduceContextBuilder());
+        SearchTask task = new SearchTask(0, "n/a", "n/a", () -> "test", null, Collections.emptyMap());
+        QueryPhaseResultConsumer resultConsumer = new QueryPhaseResultConsumer(
+            searchRequest,
+            EsExecutors.DIRECT_EXECUTOR_SERVICE,
+            new NoopCircuitBreaker(CircuitBreaker.REQUEST),
+            controller,
+            task::isCancelled,
+            task.getProgressListener(),
+            shardsIter.size(),
+            exc -> {}
+        );
+        CountDownLatch latch = new CountDownLatch(1);
+        SearchQueryThenFetchAsyncAction action = new SearchQueryThenFetchAsyncAction(
+            logger,
+            searchTransportService,
+            (clusterAlias, node) -> lookup.get(node),
+            Collections.singletonMap("_na_", new AliasFilter(null, Strings.EMPTY_ARRAY)),
+            Collections.emptyMap(),
+            EsExecutors.DIRECT_EXECUTOR_SERVICE,
+            resultConsumer,
+            searchRequest,
+            null,
+            shardsIter,
+            timeProvider,
+            null,
+            task,
+            SearchResponse.Clusters.EMPTY
+        ) {
+            @Override
+            protected SearchPhase getNextPhase(SearchPhaseResults<SearchPhaseResult> results, SearchPhaseContext context) {
+                return new SearchPhase("test") {
+                    @Override
+                    public void run() {
+                        latch.countDown();
+                    }
+                };
+            }
+        };
+        action.enableBottomSortValuesPropagation();
+        action.start();
+        assertThat(runningQueries.size(), equalTo(2 * numShardsPerNode));
+
+        // the first bottom is sent to the new node right away, the old node never gets it
+        respondWithSortValue(runningQueries.remove(0), 0, 100L);
+        assertThat(sentVersions.size(), equalTo(1));
+        assertThat(sentValues.get(0).getRawSortValues()[0], equalTo(100L));
+        assertTrue(inFlightUpdates.containsKey("node1"));
+
+        // every shard of the old node improves the bottom, but the update to the new node is still in flight
+        for (int i = numShardsPerNode; i < 2 * numShardsPerNode; i++) {
+            respondWithSortValue(runningQueries.remove(i), i, 100L - i);
+        }
+        assertThat(sentVersions.size(), equalTo(1));
+
+        // the latest bottom is sent once the previous update completed, with a newer version
+        inFlightUpdates.remove("node1").onResponse(TransportResponse.Empty.INSTANCE);
+        assertThat(sentVersions.size(), equalTo(2));
+        assertThat(sentValues.get(1).getRawSortValues()[0], equalTo(100L - (2 * numShardsPerNode - 1)));
+        assertThat(sentVersions.get(1), greaterThan(sentVersions.get(0)));
+
+        // nothing changed in the meantime
+        inFlightUpdates.remove("node1").onResponse(TransportResponse.Empty.INSTANCE);
+        assertThat(sentVersions.size(), equalTo(2));
+        assertTrue(inFlightUpdates.isEmpty());
+
+        for (int i = 1; i < numShardsPerNode; i++) {
+            respondWithSortValue(runningQueries.remove(i), i, 1000L);
+        }
+        latch.await();
+        assertThat(sentVersions.size(), equalTo(2));
+
+        // a shard keeps the values of the newest version, whatever the order in which the updates arrive
+        GlobalBottomSortValues bottomSortValues = new GlobalBottomSortValues(null);
+        bottomSortValues.update(sentVersions.get(1), sentValues.get(1));
+        bottomSortValues.update(sentVersions.get(0), sentValues.get(0));
+        assertThat(bottomSortValues.get(), equalTo(sentValues.get(1)));
+        bottomSortValues = new GlobalBottomSortValues(null);
+        bottomSortValues.update(sentVersions.get(0), sentValues.get(0));
+        bottomSortValues.update(sentVersions.get(1), sentValues.get(1));
+        assertThat(bottomSortValues.get(), equalTo(sentValues.get(1)));
+    }
+
+    private static void respondWithSortValue(SearchActionListener<? super SearchPhaseResult> listener, int shardId, long sortValue) {
+        QuerySearchResult queryResult = new QuerySearchResult(
+            new ShardSearchContextId("N/A", 123),
+            new SearchShardTarget("node1", new ShardId("idx", "na", shardId), null),
+            null
+        );
+        queryResult.topDocs(
+            new TopDocsAndMaxScore(
+                new TopFieldDocs(
+                    new TotalHits(1, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO),
+                    new FieldDoc[] { new FieldDoc(randomInt(1000), Float.NaN, new Object[] { sortValue }) },
+                    new SortField[] { new SortField("timestamp", SortField.Type.LONG) }
+                ),
+                Float.NaN
+            ),
+            new DocValueFormat[] { DocValueFormat.RAW }
+        );
+        queryResult.from(0);
+        queryResult.size(1);
+        listener.onResponse(queryResult);
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.action.search.SearchTask.Status;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.tasks.TaskInfo;
+import org.elasticsearch.test.AbstractWireSerializingTestCase;
+import org.elasticsearch.test.VersionUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class SearchTaskStatusTests extends AbstractWireSerializingTestCase<Status> {
+
+    @Override
+    protected Status createTestInstance() {
+        return new Status(between(0, 1000), randomNonNegativeLong(), randomNonNegativeLong());
+    }
+
+    @Override
+    protected Writeable.Reader<Status> instanceReader() {
+        return Status::new;
+    }
+
+    public void testToString() {
+        final String status = new Status(3, 2_000_000, 1024).toString();
+        assertThat(status, containsString("\"num_reduce_phases\":3"));
+        assertThat(status, containsString("\"partial_reduce_time_in_millis\":2"));
+        assertThat(status, containsString("\"peak_reduce_memory_in_bytes\":1024"));
+    }
+
+    public void testTaskInfoSerializationToOlderNodes() throws IOException {
+        final NamedWriteableRegistry registry = new NamedWriteableRegistry(
+            List.of(new NamedWriteableRegistry.Entry(Task.Status.class, Status.NAME, Status::new))
+        );
+        final Status status = createTestInstance();
+        final TaskInfo taskInfo = new TaskInfo(
+            new TaskId(randomAlphaOfLength(5), randomNonNegativeLong()),
+            "transport",
+            SearchAction.NAME,
+            randomAlphaOfLength(10),
+            status,
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            true,
+            randomBoolean(),
+            TaskId.EMPTY_TASK_ID,
+            Map.of()
+        );
+
+        final Version version = VersionUtils.randomVersionBetween(random(), Version.V_8_4_0, Version.CURRENT);
+        assertThat(copyWriteable(taskInfo, registry, TaskInfo::from, version).status(), equalTo(status));
+
+        // older nodes don't know the status, so it is left out
+        final Version oldVersion = VersionUtils.randomVersionBetween(
+            random(),
+            Version.CURRENT.minimumCompatibilityVersion(),
+            VersionUtils.getPreviousVersion(Version.V_8_4_0)
+        );
+        final TaskInfo copy = copyWriteable(taskInfo, registry, TaskInfo::from, oldVersion);
+        assertThat(copy.status(), nullValue());
+        assertThat(copy.taskId(), equalTo(taskInfo.taskId()));
+        assertThat(copy.description(), equalTo(taskInfo.description()));
+    }
+}
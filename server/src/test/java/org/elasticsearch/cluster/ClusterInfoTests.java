@@ -26,7 +26,8 @@ public class ClusterInfoTests extends ESTestCase {
             randomShardSizes(),
             randomDataSetSizes(),
             randomRoutingToDataPath(),
-            randomReservedSpace()
+            randomReservedSpace(),
+            randomWriteLoads()
         );
         BytesStreamOutput output = new BytesStreamOutput();
         clusterInfo.writeTo(output);
@@ -38,6 +39,7 @@ public class ClusterInfoTests extends ESTestCase {
         assertEquals(clusterInfo.shardDataSetSizes, result.shardDataSetSizes);
         assertEquals(clusterInfo.routingToDataPath, result.routingToDataPath);
         assertEquals(clusterInfo.reservedSpace, result.reservedSpace);
+        assertEquals(clusterInfo.shardWriteLoads, result.shardWriteLoads);
     }
 
     private static Map<String, DiskUsage> randomDiskUsage() {
@@ -79,6 +81,16 @@ public class ClusterInfoTests extends ESTestCase {
         return builder;
     }
 
+    private static Map<ShardId, Double> randomWriteLoads() {
+        int numEntries = randomIntBetween(0, 128);
+        Map<ShardId, Double> builder = new HashMap<>(numEntries);
+        for (int i = 0; i < numEntries; i++) {
+            ShardId key = new ShardId(randomAlphaOfLength(10), randomAlphaOfLength(10), between(0, Integer.MAX_VALUE));
+            builder.put(key, randomDoubleBetween(0.0, 64.0, true));
+        }
+        return builder;
+    }
+
     private static Map<ShardRouting, String> randomRoutingToDataPath() {
         int numEntries = randomIntBetween(0, 128);
         Map<ShardRouting, String> builder = new HashMap<>(numEntries);
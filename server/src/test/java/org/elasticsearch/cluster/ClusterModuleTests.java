@@ -12,6 +12,7 @@ import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.allocation.ExistingShardsAllocator;
 import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
 import org.elasticsearch.cluster.routing.allocation.ShardAllocationDecision;
+import org.elasticsearch.cluster.routing.allocation.allocator.DesiredBalanceShardsAllocator;
 import org.elasticsearch.cluster.routing.allocation.allocator.ShardsAllocator;
 import org.elasticsearch.cluster.routing.allocation.decider.AllocationDecider;
 import org.elasticsearch.cluster.routing.allocation.decider.AwarenessAllocationDecider;
@@ -40,11 +41,12 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.settings.SettingsModule;
-import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.gateway.GatewayAllocator;
 import org.elasticsearch.indices.EmptySystemIndices;
 import org.elasticsearch.plugins.ClusterPlugin;
 import org.elasticsearch.test.gateway.TestGatewayAllocator;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -57,12 +59,12 @@ import java.util.function.Supplier;
 public class ClusterModuleTests extends ModuleTestCase {
     private ClusterInfoService clusterInfoService = EmptyClusterInfoService.INSTANCE;
     private ClusterService clusterService;
-    private ThreadContext threadContext;
+    private ThreadPool threadPool;
 
     @Override
     public void setUp() throws Exception {
         super.setUp();
-        threadContext = new ThreadContext(Settings.EMPTY);
+        threadPool = new TestThreadPool(getTestName());
         clusterService = new ClusterService(
             Settings.EMPTY,
             new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
@@ -74,6 +76,7 @@ public class ClusterModuleTests extends ModuleTestCase {
     public void tearDown() throws Exception {
         super.tearDown();
         clusterService.close();
+        terminate(threadPool);
     }
 
     static class FakeAllocationDecider extends AllocationDecider {
@@ -138,7 +141,7 @@ public class ClusterModuleTests extends ModuleTestCase {
                 public Collection<AllocationDecider> createAllocationDeciders(Settings settings, ClusterSettings clusterSettings) {
                     return Collections.singletonList(new EnableAllocationDecider(settings, clusterSettings));
                 }
-            }), clusterInfoService, null, threadContext, EmptySystemIndices.INSTANCE)
+            }), clusterInfoService, null, threadPool, EmptySystemIndices.INSTANCE)
         );
         assertEquals(e.getMessage(), "Cannot specify allocation decider [" + EnableAllocationDecider.class.getName() + "] twice");
     }
@@ -149,7 +152,7 @@ public class ClusterModuleTests extends ModuleTestCase {
             public Collection<AllocationDecider> createAllocationDeciders(Settings settings, ClusterSettings clusterSettings) {
                 return Collections.singletonList(new FakeAllocationDecider());
             }
-        }), clusterInfoService, null, threadContext, EmptySystemIndices.INSTANCE);
+        }), clusterInfoService, null, threadPool, EmptySystemIndices.INSTANCE);
         assertTrue(module.deciderList.stream().anyMatch(d -> d.getClass().equals(FakeAllocationDecider.class)));
     }
 
@@ -159,7 +162,7 @@ public class ClusterModuleTests extends ModuleTestCase {
             public Map<String, Supplier<ShardsAllocator>> getShardsAllocators(Settings settings, ClusterSettings clusterSettings) {
                 return Collections.singletonMap(name, supplier);
             }
-        }), clusterInfoService, null, threadContext, EmptySystemIndices.INSTANCE);
+        }), clusterInfoService, null, threadPool, EmptySystemIndices.INSTANCE);
     }
 
     public void testRegisterShardsAllocator() {
@@ -168,6 +171,22 @@ public class ClusterModuleTests extends ModuleTestCase {
         assertEquals(FakeShardsAllocator.class, module.shardsAllocator.getClass());
     }
 
+    public void testDesiredBalanceShardsAllocator() {
+        Settings settings = Settings.builder()
+            .put(ClusterModule.SHARDS_ALLOCATOR_TYPE_SETTING.getKey(), ClusterModule.DESIRED_BALANCE_ALLOCATOR)
+            .build();
+        ClusterModule module = new ClusterModule(
+            settings,
+            clusterService,
+            Collections.emptyList(),
+            clusterInfoService,
+            null,
+            threadPool,
+            EmptySystemIndices.INSTANCE
+        );
+        assertEquals(DesiredBalanceShardsAllocator.class, module.shardsAllocator.getClass());
+    }
+
     public void testRegisterShardsAllocatorAlreadyRegistered() {
         IllegalArgumentException e = expectThrows(
             IllegalArgumentException.class,
@@ -186,7 +205,7 @@ public class ClusterModuleTests extends ModuleTestCase {
                 Collections.emptyList(),
                 clusterInfoService,
                 null,
-                threadContext,
+                threadPool,
                 EmptySystemIndices.INSTANCE
             )
         );
@@ -243,7 +262,7 @@ public class ClusterModuleTests extends ModuleTestCase {
             List.of(existingShardsAllocatorPlugin(GatewayAllocator.ALLOCATOR_NAME)),
             clusterInfoService,
             null,
-            threadContext,
+            threadPool,
             EmptySystemIndices.INSTANCE
         );
         expectThrows(IllegalArgumentException.class, () -> clusterModule.setExistingShardsAllocators(new TestGatewayAllocator()));
@@ -256,7 +275,7 @@ public class ClusterModuleTests extends ModuleTestCase {
             List.of(existingShardsAllocatorPlugin("duplicate"), existingShardsAllocatorPlugin("duplicate")),
             clusterInfoService,
             null,
-            threadContext,
+            threadPool,
             EmptySystemIndices.INSTANCE
         );
         expectThrows(IllegalArgumentException.class, () -> clusterModule.setExistingShardsAllocators(new TestGatewayAllocator()));
@@ -19,6 +19,7 @@ import org.elasticsearch.cluster.block.ClusterBlockException;
 import org.elasticsearch.cluster.coordination.NoMasterBlockService;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.allocation.DiskThresholdSettings;
 import org.elasticsearch.cluster.service.ClusterApplierService;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.cluster.service.FakeThreadPoolMasterService;
@@ -37,6 +38,8 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.elasticsearch.cluster.InternalClusterInfoService.INTERNAL_CLUSTER_INFO_UPDATE_INTERVAL_SETTING;
+import static org.elasticsearch.cluster.routing.allocation.allocator.BalancedShardsAllocator.DISK_USAGE_BALANCE_FACTOR_SETTING;
+import static org.elasticsearch.cluster.routing.allocation.allocator.BalancedShardsAllocator.WRITE_LOAD_BALANCE_FACTOR_SETTING;
 import static org.hamcrest.Matchers.equalTo;
 
 public class InternalClusterInfoServiceSchedulingTests extends ESTestCase {
@@ -50,6 +53,17 @@ public class InternalClusterInfoServiceSchedulingTests extends ESTestCase {
         if (randomBoolean()) {
             settingsBuilder.put(INTERNAL_CLUSTER_INFO_UPDATE_INTERVAL_SETTING.getKey(), randomIntBetween(10000, 60000) + "ms");
         }
+        final boolean diskThresholdEnabled = randomBoolean();
+        settingsBuilder.put(DiskThresholdSettings.CLUSTER_ROUTING_ALLOCATION_DISK_THRESHOLD_ENABLED_SETTING.getKey(), diskThresholdEnabled);
+        final boolean loadAwareBalancingEnabled = randomBoolean();
+        if (loadAwareBalancingEnabled) {
+            settingsBuilder.put(
+                randomFrom(WRITE_LOAD_BALANCE_FACTOR_SETTING, DISK_USAGE_BALANCE_FACTOR_SETTING).getKey(),
+                randomFrom(0.5f, 1.0f, 2.0f)
+            );
+        }
+        // the nodes stats are only needed by the disk threshold decider, the indices stats also by the load-aware balancer
+        final int requestsPerInterval = diskThresholdEnabled ? 2 : loadAwareBalancingEnabled ? 1 : 0;
         final Settings settings = settingsBuilder.build();
         final ClusterSettings clusterSettings = new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
         final DeterministicTaskQueue deterministicTaskQueue = new DeterministicTaskQueue();
@@ -111,7 +125,7 @@ public class InternalClusterInfoServiceSchedulingTests extends ESTestCase {
             final long duration = INTERNAL_CLUSTER_INFO_UPDATE_INTERVAL_SETTING.get(settings).millis();
             runFor(deterministicTaskQueue, duration);
             deterministicTaskQueue.runAllRunnableTasks();
-            assertThat(client.requestCount, equalTo(initialRequestCount + 2)); // should have run two client requests per interval
+            assertThat(client.requestCount, equalTo(initialRequestCount + requestsPerInterval));
         }
 
         final AtomicBoolean failMaster2 = new AtomicBoolean();
@@ -0,0 +1,137 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster;
+
+import org.elasticsearch.action.admin.indices.stats.CommonStats;
+import org.elasticsearch.action.admin.indices.stats.ShardStats;
+import org.elasticsearch.cluster.routing.RecoverySource.EmptyStoreRecoverySource;
+import org.elasticsearch.cluster.routing.RecoverySource.PeerRecoverySource;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.ShardRoutingHelper;
+import org.elasticsearch.cluster.routing.UnassignedInfo;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.IndexingStats;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.shard.ShardPath;
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+
+public class WriteLoadTrackerTests extends ESTestCase {
+
+    private final Index index = new Index("test", "_na_");
+
+    public void testWriteLoadFromIndexTimeDeltas() {
+        final WriteLoadTracker tracker = new WriteLoadTracker();
+        final ShardRouting primary = startedShard(0, true, "node1");
+        final ShardRouting replica = startedShard(0, false, "node2");
+        final ShardRouting other = startedShard(1, true, "node2");
+
+        final ShardStats[] firstStats = new ShardStats[] { stats(primary, 1000), stats(replica, 500), stats(other, 0) };
+        assertThat(tracker.onShardStats(firstStats, 0L), anEmptyMap());
+
+        final Map<ShardId, Double> writeLoads = tracker.onShardStats(
+            new ShardStats[] { stats(primary, 16000), stats(replica, 20500), stats(other, 2000) },
+            10000L
+        );
+        assertThat(writeLoads.size(), equalTo(2));
+        // the shard gets the write load of its busiest copy
+        assertThat(writeLoads.get(primary.shardId()), closeTo(2.0, 0.0001));
+        assertThat(writeLoads.get(other.shardId()), closeTo(0.2, 0.0001));
+    }
+
+    public void testSkipsCopiesWithoutPreviousSample() {
+        final WriteLoadTracker tracker = new WriteLoadTracker();
+        final ShardRouting shard = startedShard(0, true, "node1");
+        final ShardRouting newShard = startedShard(1, true, "node1");
+
+        tracker.onShardStats(new ShardStats[] { stats(shard, 1000) }, 0L);
+        Map<ShardId, Double> writeLoads = tracker.onShardStats(new ShardStats[] { stats(shard, 6000), stats(newShard, 5000) }, 5000L);
+        assertThat(writeLoads.size(), equalTo(1));
+        assertThat(writeLoads.get(shard.shardId()), closeTo(1.0, 0.0001));
+
+        writeLoads = tracker.onShardStats(new ShardStats[] { stats(shard, 6000), stats(newShard, 7500) }, 10000L);
+        assertThat(writeLoads.get(shard.shardId()), closeTo(1.0 - WriteLoadTracker.ALPHA, 0.0001));
+        assertThat(writeLoads.get(newShard.shardId()), closeTo(0.5, 0.0001));
+
+        // a shard copy that is not in the stats anymore is forgotten
+        tracker.onShardStats(new ShardStats[] { stats(newShard, 7500) }, 15000L);
+        writeLoads = tracker.onShardStats(new ShardStats[] { stats(shard, 10000) }, 20000L);
+        assertThat(writeLoads, anEmptyMap());
+    }
+
+    public void testSkipsCopiesWithDecreasingIndexTime() {
+        final WriteLoadTracker tracker = new WriteLoadTracker();
+        final ShardRouting shard = startedShard(0, true, "node1");
+
+        tracker.onShardStats(new ShardStats[] { stats(shard, 10000) }, 0L);
+        assertThat(tracker.onShardStats(new ShardStats[] { stats(shard, 100) }, 5000L), anEmptyMap());
+        final Map<ShardId, Double> writeLoads = tracker.onShardStats(new ShardStats[] { stats(shard, 1100) }, 10000L);
+        assertThat(writeLoads.get(shard.shardId()), closeTo(0.2, 0.0001));
+    }
+
+    public void testSmoothsWriteLoadOfShard() {
+        final WriteLoadTracker tracker = new WriteLoadTracker();
+        final ShardRouting shard = startedShard(0, true, "node1");
+
+        tracker.onShardStats(new ShardStats[] { stats(shard, 0) }, 0L);
+        assertThat(tracker.onShardStats(new ShardStats[] { stats(shard, 10000) }, 10000L).get(shard.shardId()), closeTo(1.0, 0.0001));
+        double expected = 1.0;
+        long indexTimeMillis = 10000;
+        for (int i = 2; i <= 10; i++) {
+            final double observed = randomDoubleBetween(0.0, 4.0, true);
+            indexTimeMillis += (long) (observed * 10000);
+            final double actual = tracker.onShardStats(new ShardStats[] { stats(shard, indexTimeMillis) }, i * 10000L)
+                .get(shard.shardId());
+            final double sampled = (double) ((long) (observed * 10000)) / 10000;
+            expected = WriteLoadTracker.ALPHA * sampled + (1 - WriteLoadTracker.ALPHA) * expected;
+            assertThat(actual, closeTo(expected, 0.0001));
+        }
+    }
+
+    public void testKeepsWriteLoadOfRelocatingShard() {
+        final WriteLoadTracker tracker = new WriteLoadTracker();
+        final ShardRouting source = startedShard(0, true, "node1");
+        final ShardRouting target = startedShard(0, true, "node2");
+
+        tracker.onShardStats(new ShardStats[] { stats(source, 0) }, 0L);
+        Map<ShardId, Double> writeLoads = tracker.onShardStats(new ShardStats[] { stats(source, 20000) }, 10000L);
+        assertThat(writeLoads.get(source.shardId()), closeTo(2.0, 0.0001));
+
+        // the new copy has no previous sample of its own yet, and must not make the shard look idle
+        writeLoads = tracker.onShardStats(new ShardStats[] { stats(target, 0) }, 20000L);
+        assertThat(writeLoads.get(target.shardId()), closeTo(2.0, 0.0001));
+
+        writeLoads = tracker.onShardStats(new ShardStats[] { stats(target, 10000) }, 30000L);
+        assertThat(writeLoads.get(target.shardId()), closeTo(WriteLoadTracker.ALPHA * 1.0 + (1 - WriteLoadTracker.ALPHA) * 2.0, 0.0001));
+    }
+
+    private ShardRouting startedShard(int id, boolean primary, String nodeId) {
+        ShardRouting shard = ShardRouting.newUnassigned(
+            new ShardId(index, id),
+            primary,
+            primary ? EmptyStoreRecoverySource.INSTANCE : PeerRecoverySource.INSTANCE,
+            new UnassignedInfo(UnassignedInfo.Reason.INDEX_CREATED, "foo")
+        );
+        shard = ShardRoutingHelper.initialize(shard, nodeId);
+        return ShardRoutingHelper.moveToStarted(shard);
+    }
+
+    private ShardStats stats(ShardRouting shard, long indexTimeInMillis) {
+        final Path path = createTempDir().resolve("indices").resolve(index.getUUID()).resolve(Integer.toString(shard.id()));
+        final CommonStats commonStats = new CommonStats();
+        commonStats.indexing = new IndexingStats(new IndexingStats.Stats(0, indexTimeInMillis, 0, 0, 0, 0, 0, 0, false, 0));
+        return new ShardStats(shard, new ShardPath(false, path, path, shard.shardId()), commonStats, null, null, null);
+    }
+}
@@ -11,14 +11,19 @@ import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ClusterStatePublicationEvent;
 import org.elasticsearch.cluster.Diff;
 import org.elasticsearch.cluster.IncompatibleClusterStateVersionException;
 import org.elasticsearch.cluster.coordination.CoordinationMetadata.VotingConfiguration;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodeRole;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.cluster.service.BatchSummary;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.compress.Compressor;
@@ -40,6 +45,8 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BytesRefRecycler;
 import org.elasticsearch.transport.BytesTransportRequest;
 import org.elasticsearch.transport.RemoteTransportException;
+import org.elasticsearch.transport.RequestHandlerRegistry;
+import org.elasticsearch.transport.TestTransportChannel;
 import org.elasticsearch.transport.TransportRequest;
 import org.elasticsearch.transport.TransportService;
 
@@ -51,6 +58,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
@@ -67,7 +75,12 @@ public class PublicationTransportHandlerTests extends ESTestCase {
         final BytesRefRecycler recycler = new BytesRefRecycler(new MockPageCacheRecycler(Settings.EMPTY));
         when(transportService.newNetworkBytesStream()).then(invocation -> new RecyclerBytesStreamOutput(recycler));
 
-        final PublicationTransportHandler handler = new PublicationTransportHandler(transportService, writableRegistry(), pu -> null);
+        final PublicationTransportHandler handler = new PublicationTransportHandler(
+            Settings.EMPTY,
+            transportService,
+            writableRegistry(),
+            pu -> null
+        );
 
         final DiscoveryNode otherNode = new DiscoveryNode("otherNode", buildNewFakeTransportAddress(), Version.CURRENT);
         final ClusterState clusterState = CoordinationStateTests.clusterState(
@@ -194,7 +207,12 @@ public class PublicationTransportHandlerTests extends ESTestCase {
                 new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
                 Collections.emptySet()
             );
-            final PublicationTransportHandler handler = new PublicationTransportHandler(transportService, writableRegistry(), pu -> null);
+            final PublicationTransportHandler handler = new PublicationTransportHandler(
+                Settings.EMPTY,
+                transportService,
+                writableRegistry(),
+                pu -> null
+            );
             transportService.start();
             transportService.acceptIncomingRequests();
 
@@ -312,4 +330,157 @@ public class PublicationTransportHandlerTests extends ESTestCase {
         }
     }
 
+    public void testChunkedFullStatePublication() throws Exception {
+        runFullStatePublication(Version.CURRENT);
+    }
+
+    public void testFullStatePublicationToNodeWithoutChunkedPublication() throws Exception {
+        runFullStatePublication(Version.V_8_3_0);
+    }
+
+    private void runFullStatePublication(Version otherNodeVersion) throws Exception {
+        final ThreadPool threadPool = new TestThreadPool("test");
+        try {
+            threadPool.getThreadContext().markAsSystemContext();
+            final DiscoveryNode localNode = new DiscoveryNode(
+                "localNode",
+                buildNewFakeTransportAddress(),
+                Collections.emptyMap(),
+                Set.of(DiscoveryNodeRole.MASTER_ROLE),
+                Version.CURRENT
+            );
+            final DiscoveryNode otherNode = new DiscoveryNode("otherNode", buildNewFakeTransportAddress(), otherNodeVersion);
+            final ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+
+            final AtomicReference<ClusterState> receivedState = new AtomicReference<>();
+            final TransportService otherTransportService = new MockTransport().createTransportService(
+                Settings.EMPTY,
+                threadPool,
+                TransportService.NOOP_TRANSPORT_INTERCEPTOR,
+                x -> otherNode,
+                clusterSettings,
+                Collections.emptySet()
+            );
+            final PublicationTransportHandler otherHandler = new PublicationTransportHandler(
+                Settings.EMPTY,
+                otherTransportService,
+                writableRegistry(),
+                publishRequest -> {
+                    final ClusterState acceptedState = publishRequest.getAcceptedState();
+                    receivedState.set(acceptedState);
+                    return new PublishWithJoinResponse(new PublishResponse(1L, acceptedState.version()), Optional.empty());
+                }
+            );
+            otherTransportService.start();
+            otherTransportService.acceptIncomingRequests();
+
+            final List<String> sentActions = new ArrayList<>();
+            final BytesRefRecycler recycler = new BytesRefRecycler(new MockPageCacheRecycler(Settings.EMPTY));
+            final MockTransport mockTransport = new MockTransport() {
+                @Override
+                @SuppressWarnings("unchecked")
+                protected void onSendRequest(long requestId, String action, TransportRequest request, DiscoveryNode node) {
+                    sentActions.add(action);
+                    final var requestHandler = (RequestHandlerRegistry<TransportRequest>) otherTransportService.getRequestHandler(action);
+                    try {
+                        requestHandler.processMessageReceived(
+                            request,
+                            new TestTransportChannel(
+                                ActionListener.wrap(response -> handleResponse(requestId, response), e -> handleRemoteError(requestId, e))
+                            )
+                        );
+                    } catch (Exception e) {
+                        handleRemoteError(requestId, e);
+                    }
+                }
+
+                @Override
+                public RecyclerBytesStreamOutput newNetworkBytesStream() {
+                    return new RecyclerBytesStreamOutput(recycler);
+                }
+            };
+            final TransportService transportService = mockTransport.createTransportService(
+                Settings.EMPTY,
+                threadPool,
+                TransportService.NOOP_TRANSPORT_INTERCEPTOR,
+                x -> localNode,
+                clusterSettings,
+                Collections.emptySet()
+            );
+            final int indicesPerChunk = between(1, 5);
+            final PublicationTransportHandler handler = new PublicationTransportHandler(
+                Settings.builder().put(PublicationTransportHandler.PUBLISH_INDICES_PER_CHUNK_SETTING.getKey(), indicesPerChunk).build(),
+                transportService,
+                writableRegistry(),
+                pu -> null
+            );
+            transportService.start();
+            transportService.acceptIncomingRequests();
+
+            final int numIndices = between(indicesPerChunk + 1, 20);
+            final Metadata.Builder metadata = Metadata.builder();
+            final RoutingTable.Builder routingTable = RoutingTable.builder();
+            for (int i = 0; i < numIndices; i++) {
+                final IndexMetadata indexMetadata = IndexMetadata.builder("index-" + i)
+                    .settings(settings(Version.CURRENT))
+                    .numberOfShards(between(1, 3))
+                    .numberOfReplicas(between(0, 1))
+                    .putMapping("{\"properties\":{\"field-" + (i % 3) + "\":{\"type\":\"keyword\"}}}")
+                    .build();
+                metadata.put(indexMetadata, false);
+                if (randomBoolean()) {
+                    routingTable.addAsNew(indexMetadata);
+                }
+            }
+            final ClusterState prevClusterState = ClusterState.builder(ClusterName.DEFAULT)
+                .nodes(DiscoveryNodes.builder().add(localNode).localNodeId(localNode.getId()).masterNodeId(localNode.getId()))
+                .build();
+            final ClusterState nextClusterState = ClusterState.builder(prevClusterState)
+                .incrementVersion()
+                .nodes(DiscoveryNodes.builder(prevClusterState.nodes()).add(otherNode))
+                .metadata(metadata)
+                .routingTable(routingTable.build())
+                .build();
+
+            final PublicationTransportHandler.PublicationContext context = handler.newPublicationContext(
+                new ClusterStatePublicationEvent(new BatchSummary("test"), prevClusterState, nextClusterState, 0L, 0L)
+            );
+            final PlainActionFuture<PublishWithJoinResponse> future = PlainActionFuture.newFuture();
+            context.sendPublishRequest(otherNode, new PublishRequest(nextClusterState), future);
+            future.get(10, TimeUnit.SECONDS);
+            context.decRef();
+
+            final boolean chunked = otherNodeVersion.onOrAfter(PublicationTransportHandler.CHUNKED_PUBLICATION_VERSION);
+            if (chunked) {
+                final int chunks = (numIndices + indicesPerChunk - 1) / indicesPerChunk;
+                assertThat(sentActions.size(), equalTo(chunks + 1));
+                for (int i = 0; i < chunks; i++) {
+                    assertThat(sentActions.get(i), equalTo(PublicationTransportHandler.PUBLISH_STATE_CHUNK_ACTION_NAME));
+                }
+                assertThat(sentActions.get(chunks), equalTo(PublicationTransportHandler.PUBLISH_STATE_ACTION_NAME));
+            } else {
+                // nodes that don't know about chunks get the whole state in a single request
+                assertThat(sentActions, equalTo(List.of(PublicationTransportHandler.PUBLISH_STATE_ACTION_NAME)));
+            }
+
+            final ClusterState received = receivedState.get();
+            assertThat(received.stateUUID(), equalTo(nextClusterState.stateUUID()));
+            assertThat(received.version(), equalTo(nextClusterState.version()));
+            assertThat(received.metadata().indices().keySet(), equalTo(nextClusterState.metadata().indices().keySet()));
+            assertThat(received.routingTable().indicesRouting(), equalTo(nextClusterState.routingTable().indicesRouting()));
+            for (int i = 0; i < numIndices; i++) {
+                final IndexMetadata indexMetadata = nextClusterState.metadata().index("index-" + i);
+                final IndexMetadata receivedIndexMetadata = received.metadata().index("index-" + i);
+                assertThat(receivedIndexMetadata.getSettings(), equalTo(indexMetadata.getSettings()));
+                assertThat(receivedIndexMetadata.mapping(), equalTo(indexMetadata.mapping()));
+                if (chunked) {
+                    // the indices share their mappings even if they were sent in different chunks
+                    assertSame(receivedIndexMetadata.mapping(), received.metadata().index("index-" + (i % 3)).mapping());
+                }
+            }
+            assertThat(otherHandler.stats().getFullClusterStateReceivedCount(), equalTo(1L));
+        } finally {
+            assertTrue(ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS));
+        }
+    }
 }
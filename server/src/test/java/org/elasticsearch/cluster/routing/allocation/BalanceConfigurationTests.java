@@ -313,7 +313,19 @@ public class BalanceConfigurationTests extends ESAllocationTestCase {
         service.applySettings(settings.build());
         assertThat(allocator.getIndexBalance(), Matchers.equalTo(0.5f));
         assertThat(allocator.getShardBalance(), Matchers.equalTo(0.1f));
+        assertThat(allocator.getWriteLoadBalance(), Matchers.equalTo(0.0f));
+        assertThat(allocator.getDiskUsageBalance(), Matchers.equalTo(0.0f));
         assertThat(allocator.getThreshold(), Matchers.equalTo(3.0f));
+
+        settings = Settings.builder();
+        settings.put(BalancedShardsAllocator.INDEX_BALANCE_FACTOR_SETTING.getKey(), 0.5);
+        settings.put(BalancedShardsAllocator.WRITE_LOAD_BALANCE_FACTOR_SETTING.getKey(), 2.0);
+        settings.put(BalancedShardsAllocator.DISK_USAGE_BALANCE_FACTOR_SETTING.getKey(), 0.3);
+        service.applySettings(settings.build());
+        assertThat(allocator.getIndexBalance(), Matchers.equalTo(0.5f));
+        assertThat(allocator.getShardBalance(), Matchers.equalTo(0.45f));
+        assertThat(allocator.getWriteLoadBalance(), Matchers.equalTo(2.0f));
+        assertThat(allocator.getDiskUsageBalance(), Matchers.equalTo(0.3f));
     }
 
     public void testNoRebalanceOnPrimaryOverload() {
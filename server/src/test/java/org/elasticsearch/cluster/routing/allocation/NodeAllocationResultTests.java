@@ -11,8 +11,10 @@ package org.elasticsearch.cluster.routing.allocation;
 import org.elasticsearch.Version;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.allocation.NodeAllocationResult.ShardStoreInfo;
+import org.elasticsearch.cluster.routing.allocation.NodeAllocationResult.WeightBreakdown;
 import org.elasticsearch.cluster.routing.allocation.decider.Decision;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
@@ -64,6 +66,29 @@ public class NodeAllocationResultTests extends ESTestCase {
         assertEquals(allocId, explanation.getShardStoreInfo().getAllocationId());
     }
 
+    public void testWeightBreakdown() throws IOException {
+        DiscoveryNode node = new DiscoveryNode("node1", buildNewFakeTransportAddress(), emptyMap(), emptySet(), Version.CURRENT);
+        Decision decision = randomFrom(Decision.YES, Decision.THROTTLE, Decision.NO);
+        WeightBreakdown weightBreakdown = new WeightBreakdown(randomFloat(), randomFloat(), randomFloat(), randomFloat());
+        NodeAllocationResult explanation = new NodeAllocationResult(node, decision, 1, weightBreakdown);
+        float weight = weightBreakdown.getShardBalance() + weightBreakdown.getIndexBalance() + weightBreakdown.getWriteLoadBalance()
+            + weightBreakdown.getDiskUsageBalance();
+        assertEquals(weight, weightBreakdown.getWeight(), 0.0f);
+        BytesStreamOutput output = new BytesStreamOutput();
+        explanation.writeTo(output);
+        NodeAllocationResult readExplanation = new NodeAllocationResult(output.bytes().streamInput());
+        assertNodeExplanationEquals(explanation, readExplanation);
+
+        output = new BytesStreamOutput();
+        output.setVersion(Version.V_8_3_0);
+        explanation.writeTo(output);
+        StreamInput in = output.bytes().streamInput();
+        in.setVersion(Version.V_8_3_0);
+        readExplanation = new NodeAllocationResult(in);
+        assertNull(readExplanation.getWeightBreakdown());
+        assertEquals(1, readExplanation.getWeightRanking());
+    }
+
     private void assertNodeExplanationEquals(NodeAllocationResult expl1, NodeAllocationResult expl2) {
         assertEquals(expl1.getNode(), expl2.getNode());
         assertEquals(expl1.getCanAllocateDecision(), expl2.getCanAllocateDecision());
@@ -76,5 +101,13 @@ public class NodeAllocationResultTests extends ESTestCase {
         } else {
             assertNull(expl2.getShardStoreInfo());
         }
+        if (expl1.getWeightBreakdown() != null) {
+            assertEquals(expl1.getWeightBreakdown().getShardBalance(), expl2.getWeightBreakdown().getShardBalance(), 0.0f);
+            assertEquals(expl1.getWeightBreakdown().getIndexBalance(), expl2.getWeightBreakdown().getIndexBalance(), 0.0f);
+            assertEquals(expl1.getWeightBreakdown().getWriteLoadBalance(), expl2.getWeightBreakdown().getWriteLoadBalance(), 0.0f);
+            assertEquals(expl1.getWeightBreakdown().getDiskUsageBalance(), expl2.getWeightBreakdown().getDiskUsageBalance(), 0.0f);
+        } else {
+            assertNull(expl2.getWeightBreakdown());
+        }
     }
 }
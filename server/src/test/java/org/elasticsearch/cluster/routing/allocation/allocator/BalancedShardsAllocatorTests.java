@@ -15,18 +15,29 @@ import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ESAllocationTestCase;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
 import org.elasticsearch.cluster.routing.RoutingNodes;
 import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.cluster.routing.TestShardRouting;
 import org.elasticsearch.cluster.routing.allocation.AllocateUnassignedDecision;
+import org.elasticsearch.cluster.routing.allocation.AllocationService;
+import org.elasticsearch.cluster.routing.allocation.NodeAllocationResult;
 import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
 import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.snapshots.SnapshotShardSizeInfo;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
 
 public class BalancedShardsAllocatorTests extends ESAllocationTestCase {
 
@@ -67,4 +78,216 @@ public class BalancedShardsAllocatorTests extends ESAllocationTestCase {
         assertNotNull(allocateDecision.getTargetNode().getId(), assignedShards.get(0).currentNodeId());
     }
 
+    public void testAllocateUnassignedByWriteLoad() {
+        ClusterState clusterState = createClusterState(Map.of("hot", "node-0", "cold-1", "node-1", "cold-2", "node-1"), "new");
+        ClusterInfo clusterInfo = clusterInfoWithWriteLoads(clusterState, Map.of("hot", 4.0));
+        ShardRouting shard = clusterState.routingTable().index("new").shard(0).primaryShard();
+
+        // counting shards only, the new shard goes to the node with the fewest shards
+        AllocateUnassignedDecision decision = new BalancedShardsAllocator(Settings.EMPTY).decideShardAllocation(
+            shard,
+            newRoutingAllocation(clusterState, clusterInfo)
+        ).getAllocateDecision();
+        assertEquals("node-0", decision.getTargetNode().getId());
+        for (NodeAllocationResult result : decision.getNodeDecisions()) {
+            assertNull(result.getWeightBreakdown());
+        }
+
+        // the write load of the hot shard makes the node with more but idle shards the better one
+        BalancedShardsAllocator allocator = new BalancedShardsAllocator(
+            Settings.builder().put(BalancedShardsAllocator.WRITE_LOAD_BALANCE_FACTOR_SETTING.getKey(), 1.0f).build()
+        );
+        decision = allocator.decideShardAllocation(shard, newRoutingAllocation(clusterState, clusterInfo)).getAllocateDecision();
+        assertEquals("node-1", decision.getTargetNode().getId());
+        assertEquals(2, decision.getNodeDecisions().size());
+        for (NodeAllocationResult result : decision.getNodeDecisions()) {
+            NodeAllocationResult.WeightBreakdown weightBreakdown = result.getWeightBreakdown();
+            assertNotNull(weightBreakdown);
+            assertEquals(0.0f, weightBreakdown.getDiskUsageBalance(), 0.0f);
+            if (result.getNode().getId().equals("node-0")) {
+                assertEquals(2, result.getWeightRanking());
+                assertThat(weightBreakdown.getShardBalance(), lessThan(0.0f));
+                assertThat(weightBreakdown.getWriteLoadBalance(), greaterThan(0.0f));
+            } else {
+                assertEquals(1, result.getWeightRanking());
+                assertEquals(0.0f, weightBreakdown.getShardBalance(), 0.0001f);
+                assertThat(weightBreakdown.getWriteLoadBalance(), lessThan(0.0f));
+            }
+        }
+    }
+
+    public void testDiskUsageIsMeasuredInAverageShardSizes() {
+        ClusterState clusterState = createClusterState(
+            Map.of("big-1", "node-0", "big-2", "node-0", "small-1", "node-1", "small-2", "node-1"),
+            "new"
+        );
+        // the weights must not depend on the unit the sizes are expressed in
+        final long scale = randomFrom(1L, 1L << 10, 1L << 30);
+        Map<String, Long> shardSizes = new HashMap<>();
+        for (String index : List.of("big-1", "big-2", "small-1", "small-2")) {
+            shardSizes.put("[" + index + "][0][p]", (index.startsWith("big") ? 1000L : 10L) * scale);
+        }
+        ClusterInfo clusterInfo = new ClusterInfo(Map.of(), Map.of(), shardSizes, Map.of(), Map.of(), Map.of());
+        ShardRouting shard = clusterState.routingTable().index("new").shard(0).primaryShard();
+
+        BalancedShardsAllocator allocator = new BalancedShardsAllocator(
+            Settings.builder()
+                .put(BalancedShardsAllocator.INDEX_BALANCE_FACTOR_SETTING.getKey(), 0.55f)
+                .put(BalancedShardsAllocator.SHARD_BALANCE_FACTOR_SETTING.getKey(), 0.45f)
+                .put(BalancedShardsAllocator.DISK_USAGE_BALANCE_FACTOR_SETTING.getKey(), 1.0f)
+                .build()
+        );
+        AllocateUnassignedDecision decision = allocator.decideShardAllocation(shard, newRoutingAllocation(clusterState, clusterInfo))
+            .getAllocateDecision();
+        assertEquals("node-1", decision.getTargetNode().getId());
+        // 5 shards of 2020 bytes make an average shard size of 404 bytes, node-0 uses 990 bytes more than the average of 1010 bytes
+        final float expectedDiskUsageBalance = 0.5f * 990f / 404f;
+        for (NodeAllocationResult result : decision.getNodeDecisions()) {
+            final float sign = result.getNode().getId().equals("node-0") ? 1f : -1f;
+            assertEquals(sign * expectedDiskUsageBalance, result.getWeightBreakdown().getDiskUsageBalance(), 0.0001f);
+        }
+    }
+
+    public void testRebalanceByWriteLoad() {
+        ClusterState clusterState = createClusterState(
+            Map.of("hot-1", "node-0", "hot-2", "node-0", "cold-1", "node-1", "cold-2", "node-1")
+        );
+        ClusterInfo clusterInfo = clusterInfoWithWriteLoads(clusterState, Map.of("hot-1", 4.0, "hot-2", 4.0));
+
+        // both nodes hold the same number of shards
+        RoutingAllocation allocation = newRoutingAllocation(clusterState, clusterInfo);
+        new BalancedShardsAllocator(Settings.EMPTY).allocate(allocation);
+        assertEquals(0, allocation.routingNodes().getRelocatingShardCount());
+
+        // but one of the hot shards should move next to the cold ones
+        allocation = newRoutingAllocation(clusterState, clusterInfo);
+        new BalancedShardsAllocator(
+            Settings.builder().put(BalancedShardsAllocator.WRITE_LOAD_BALANCE_FACTOR_SETTING.getKey(), 1.0f).build()
+        ).allocate(allocation);
+        assertEquals(1, allocation.routingNodes().getRelocatingShardCount());
+        ShardRouting relocatingShard = allocation.routingNodes().node("node-0").shardsWithState(ShardRoutingState.RELOCATING).get(0);
+        assertTrue(relocatingShard.getIndexName().startsWith("hot-"));
+        assertEquals("node-1", relocatingShard.relocatingNodeId());
+    }
+
+    public void testRebalanceByLoadConverges() {
+        final DiscoveryNodes.Builder nodes = DiscoveryNodes.builder();
+        final int numNodes = randomIntBetween(2, 6);
+        for (int i = 0; i < numNodes; i++) {
+            nodes.add(newNode("node-" + i));
+        }
+        final Metadata.Builder metadata = Metadata.builder();
+        final RoutingTable.Builder routingTable = RoutingTable.builder();
+        final Map<ShardId, Double> shardWriteLoads = new HashMap<>();
+        final Map<String, Long> shardSizes = new HashMap<>();
+        final int numIndices = randomIntBetween(1, 10);
+        for (int i = 0; i < numIndices; i++) {
+            IndexMetadata indexMetadata = IndexMetadata.builder("index-" + i)
+                .settings(settings(Version.CURRENT))
+                .numberOfShards(randomIntBetween(1, 4))
+                .numberOfReplicas(randomIntBetween(0, 1))
+                .build();
+            metadata.put(indexMetadata, false);
+            routingTable.addAsNew(indexMetadata);
+            for (int shard = 0; shard < indexMetadata.getNumberOfShards(); shard++) {
+                ShardId shardId = new ShardId(indexMetadata.getIndex(), shard);
+                // shards of very different weights, some of which are idle
+                shardWriteLoads.put(shardId, randomBoolean() ? 0.0 : randomDoubleBetween(0.0, 8.0, true));
+                long shardSize = randomLongBetween(0L, 1000L);
+                shardSizes.put(shardId + "[p]", shardSize);
+                shardSizes.put(shardId + "[r]", shardSize);
+            }
+        }
+        ClusterState clusterState = ClusterState.builder(ClusterState.EMPTY_STATE)
+            .nodes(nodes)
+            .metadata(metadata)
+            .routingTable(routingTable)
+            .build();
+        final ClusterInfo clusterInfo = new ClusterInfo(Map.of(), Map.of(), shardSizes, Map.of(), Map.of(), Map.of(), shardWriteLoads);
+        final AllocationService allocationService = createAllocationService(
+            Settings.builder()
+                .put(BalancedShardsAllocator.WRITE_LOAD_BALANCE_FACTOR_SETTING.getKey(), randomIntBetween(1, 4))
+                .put(BalancedShardsAllocator.DISK_USAGE_BALANCE_FACTOR_SETTING.getKey(), randomFrom(0.0f, 0.5f, 2.0f))
+                .put(BalancedShardsAllocator.THRESHOLD_SETTING.getKey(), randomFrom(0.0f, 0.5f, 1.0f))
+                .build(),
+            () -> clusterInfo
+        );
+
+        // reroute and start the shards until the balancer stops moving them
+        clusterState = allocationService.reroute(clusterState, "initial allocation");
+        int reroutes = 0;
+        ClusterState lastClusterState;
+        do {
+            assertThat("the balancer keeps relocating shards", reroutes++, lessThan(1000));
+            lastClusterState = clusterState;
+            clusterState = startInitializingShardsAndReroute(allocationService, clusterState);
+        } while (lastClusterState.equals(clusterState) == false);
+
+        assertEquals(0, clusterState.getRoutingNodes().unassigned().size());
+        assertEquals(0, clusterState.getRoutingNodes().getRelocatingShardCount());
+        for (int i = 0; i < 3; i++) {
+            ClusterState reroutedState = allocationService.reroute(clusterState, "reroute again");
+            assertSame("no further relocations once balanced", clusterState, reroutedState);
+        }
+    }
+
+    private static ClusterState createClusterState(Map<String, String> assignedIndices, String... unassignedIndices) {
+        Metadata.Builder metadata = Metadata.builder();
+        RoutingTable.Builder routingTable = RoutingTable.builder();
+        for (Map.Entry<String, String> assignedIndex : assignedIndices.entrySet()) {
+            IndexMetadata indexMetadata = IndexMetadata.builder(assignedIndex.getKey())
+                .settings(settings(Version.CURRENT))
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .build();
+            metadata.put(indexMetadata, false);
+            routingTable.add(
+                IndexRoutingTable.builder(indexMetadata.getIndex())
+                    .addShard(
+                        TestShardRouting.newShardRouting(
+                            new ShardId(indexMetadata.getIndex(), 0),
+                            assignedIndex.getValue(),
+                            true,
+                            ShardRoutingState.STARTED
+                        )
+                    )
+            );
+        }
+        for (String unassignedIndex : unassignedIndices) {
+            IndexMetadata indexMetadata = IndexMetadata.builder(unassignedIndex)
+                .settings(settings(Version.CURRENT))
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .build();
+            metadata.put(indexMetadata, false);
+            routingTable.addAsNew(indexMetadata);
+        }
+        return ClusterState.builder(ClusterState.EMPTY_STATE)
+            .nodes(DiscoveryNodes.builder().add(newNode("node-0")).add(newNode("node-1")))
+            .metadata(metadata)
+            .routingTable(routingTable)
+            .build();
+    }
+
+    private static ClusterInfo clusterInfoWithWriteLoads(ClusterState clusterState, Map<String, Double> indexWriteLoads) {
+        Map<ShardId, Double> shardWriteLoads = new HashMap<>();
+        for (Map.Entry<String, Double> indexWriteLoad : indexWriteLoads.entrySet()) {
+            ShardId shardId = new ShardId(clusterState.metadata().index(indexWriteLoad.getKey()).getIndex(), 0);
+            shardWriteLoads.put(shardId, indexWriteLoad.getValue());
+        }
+        return new ClusterInfo(Map.of(), Map.of(), Map.of(), Map.of(), Map.of(), Map.of(), shardWriteLoads);
+    }
+
+    private static RoutingAllocation newRoutingAllocation(ClusterState clusterState, ClusterInfo clusterInfo) {
+        RoutingAllocation allocation = new RoutingAllocation(
+            new AllocationDeciders(Collections.emptyList()),
+            RoutingNodes.mutable(clusterState.routingTable(), clusterState.nodes()),
+            clusterState,
+            clusterInfo,
+            SnapshotShardSizeInfo.EMPTY,
+            System.nanoTime()
+        );
+        allocation.debugDecision(true);
+        return allocation;
+    }
 }
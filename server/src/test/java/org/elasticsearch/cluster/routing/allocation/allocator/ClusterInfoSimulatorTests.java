@@ -0,0 +1,55 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.allocator;
+
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.DiskUsage;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.cluster.routing.TestShardRouting;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class ClusterInfoSimulatorTests extends ESTestCase {
+
+    public void testMovesShardSizeBetweenNodes() {
+        final ShardId shardId = new ShardId("index", "_na_", 0);
+        final Map<String, DiskUsage> diskUsages = Map.of(
+            "node-0",
+            new DiskUsage("node-0", "node-0", "/data", 1000L, 500L),
+            "node-1",
+            new DiskUsage("node-1", "node-1", "/data", 1000L, 1000L)
+        );
+        final Map<String, Long> shardSizes = Map.of("[index][0][p]", 100L);
+        final ClusterInfo clusterInfo = new ClusterInfo(diskUsages, diskUsages, shardSizes, Map.of(), Map.of(), Map.of());
+        final ClusterInfoSimulator simulator = new ClusterInfoSimulator(clusterInfo);
+
+        final ShardRouting relocationTarget = TestShardRouting.newShardRouting(shardId, "node-0", true, ShardRoutingState.STARTED)
+            .relocate("node-1", 100L)
+            .getTargetRelocatingShard();
+        simulator.simulateShardStarted(relocationTarget);
+        ClusterInfo simulated = simulator.getClusterInfo();
+        assertThat(simulated.getNodeLeastAvailableDiskUsages().get("node-0").getFreeBytes(), equalTo(600L));
+        assertThat(simulated.getNodeLeastAvailableDiskUsages().get("node-1").getFreeBytes(), equalTo(900L));
+        assertThat(simulated.getNodeMostAvailableDiskUsages().get("node-1").getFreeBytes(), equalTo(900L));
+        assertThat("the original cluster info is unchanged", clusterInfo.getNodeLeastAvailableDiskUsages(), equalTo(diskUsages));
+
+        // a new copy only takes space on its node, and one of unknown size keeps its expected size from then on
+        final ShardRouting newReplica = TestShardRouting.newShardRouting(shardId, null, false, ShardRoutingState.UNASSIGNED)
+            .initialize("node-0", null, 50L);
+        simulator.simulateShardStarted(newReplica);
+        simulated = simulator.getClusterInfo();
+        assertThat(simulated.getNodeLeastAvailableDiskUsages().get("node-0").getFreeBytes(), equalTo(550L));
+        assertThat(simulated.getShardSize(newReplica), equalTo(50L));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+
+package org.elasticsearch.cluster.routing.allocation.allocator;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.ClusterInfoService;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.DiskUsage;
+import org.elasticsearch.cluster.ESAllocationTestCase;
+import org.elasticsearch.cluster.EmptyClusterInfoService;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.allocation.AllocationService;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.DeterministicTaskQueue;
+import org.elasticsearch.test.gateway.TestGatewayAllocator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class DesiredBalanceShardsAllocatorTests extends ESAllocationTestCase {
+
+    private final DeterministicTaskQueue deterministicTaskQueue = new DeterministicTaskQueue();
+    private final AtomicInteger reroutes = new AtomicInteger();
+
+    public void testMovesShardsToDesiredBalanceInBoundedBatches() {
+        final Settings settings = Settings.builder()
+            .put(DesiredBalanceShardsAllocator.MAX_MOVES_PER_REROUTE_SETTING.getKey(), 1)
+            .build();
+        final DesiredBalanceShardsAllocator allocator = createAllocator(settings);
+        final AllocationService allocationService = createAllocationService(settings, allocator);
+
+        ClusterState clusterState = createClusterState(6);
+        clusterState = applyStartedShardsUntilNoChange(allocationService.reroute(clusterState, "initial"), allocationService);
+        deterministicTaskQueue.runAllRunnableTasks();
+        assertThat(allocator.getDesiredBalance().assignments().size(), equalTo(6));
+
+        clusterState = ClusterState.builder(clusterState)
+            .nodes(DiscoveryNodes.builder(clusterState.nodes()).add(newNode("node-1")))
+            .build();
+        clusterState = allocationService.reroute(clusterState, "node added");
+        assertThat("shards only move once the desired balance is computed", relocatingShards(clusterState), equalTo(0));
+
+        final int reroutesBefore = reroutes.get();
+        deterministicTaskQueue.runAllRunnableTasks();
+        assertThat("a new desired balance triggers a reroute", reroutes.get(), equalTo(reroutesBefore + 1));
+        assertTrue(allocator.getStats().lastComputationConverged());
+        assertThat(
+            allocator.getDesiredBalance().assignments().values().stream().filter(nodeIds -> nodeIds.contains("node-1")).count(),
+            equalTo(3L)
+        );
+
+        clusterState = allocationService.reroute(clusterState, "desired balance changed");
+        assertThat(relocatingShards(clusterState), equalTo(1));
+        assertThat(allocator.getStats().shardsMoved(), equalTo(1L));
+        assertThat(allocator.getStats().undesiredShards(), equalTo(3L));
+
+        for (int moves = 1; moves < 3; moves++) {
+            clusterState = startInitializingShardsAndReroute(allocationService, clusterState);
+            assertThat(relocatingShards(clusterState), equalTo(1));
+        }
+        clusterState = startInitializingShardsAndReroute(allocationService, clusterState);
+        assertThat(relocatingShards(clusterState), equalTo(0));
+        assertThat(clusterState.getRoutingNodes().node("node-0").size(), equalTo(3));
+        assertThat(clusterState.getRoutingNodes().node("node-1").size(), equalTo(3));
+        assertThat(allocator.getStats().shardsMoved(), equalTo(3L));
+        assertThat(allocator.getStats().undesiredShards(), equalTo(0L));
+
+        final int reroutesAfterMoves = reroutes.get();
+        deterministicTaskQueue.runAllRunnableTasks();
+        assertThat("an unchanged desired balance does not trigger a reroute", reroutes.get(), equalTo(reroutesAfterMoves));
+    }
+
+    public void testOnlyComputesLatestInput() {
+        final DesiredBalanceShardsAllocator allocator = createAllocator(Settings.EMPTY);
+        final AllocationService allocationService = createAllocationService(Settings.EMPTY, allocator);
+
+        ClusterState clusterState = allocationService.reroute(createClusterState(between(1, 10)), "initial");
+        final int reroutesWhileComputing = between(1, 5);
+        for (int i = 0; i < reroutesWhileComputing; i++) {
+            clusterState = allocationService.reroute(clusterState, "reroute");
+        }
+        assertTrue(allocator.getStats().computationActive());
+        deterministicTaskQueue.runAllRunnableTasks();
+
+        final DesiredBalanceStats stats = allocator.getStats();
+        assertFalse(stats.computationActive());
+        assertThat(stats.computationsSubmitted(), equalTo(reroutesWhileComputing + 1L));
+        assertThat(stats.computationsExecuted(), greaterThan(0L));
+        assertThat(stats.computationsExecuted(), lessThan(stats.computationsSubmitted()));
+        assertThat(stats.computationsConverged(), equalTo(stats.computationsExecuted()));
+    }
+
+    public void testDesiredBalanceAccountsForDiskUsageOfMovedShards() {
+        final DesiredBalanceShardsAllocator allocator = createAllocator(Settings.EMPTY);
+        // node-1 only has room for one of the shards below the high watermark
+        final Map<String, DiskUsage> diskUsages = Map.of(
+            "node-0",
+            new DiskUsage("node-0", "node-0", "/data", 1000L, 940L),
+            "node-1",
+            new DiskUsage("node-1", "node-1", "/data", 20L, 20L),
+            "node-2",
+            new DiskUsage("node-2", "node-2", "/data", 1000L, 1000L)
+        );
+        final Map<String, Long> shardSizes = new HashMap<>();
+        for (int shard = 0; shard < 6; shard++) {
+            shardSizes.put("[test][" + shard + "][p]", 10L);
+        }
+        final ClusterInfo clusterInfo = new ClusterInfo(diskUsages, diskUsages, shardSizes, Map.of(), Map.of(), Map.of());
+        final AllocationService allocationService = createAllocationService(Settings.EMPTY, allocator, () -> clusterInfo);
+
+        ClusterState clusterState = createClusterState(6);
+        clusterState = applyStartedShardsUntilNoChange(allocationService.reroute(clusterState, "initial"), allocationService);
+        clusterState = ClusterState.builder(clusterState)
+            .nodes(DiscoveryNodes.builder(clusterState.nodes()).add(newNode("node-1")).add(newNode("node-2")))
+            .build();
+        allocationService.reroute(clusterState, "nodes added");
+        deterministicTaskQueue.runAllRunnableTasks();
+
+        // the computation starts the shards that it moves, so the disk usage of the cluster info no longer accounts for them
+        assertTrue(allocator.getStats().lastComputationConverged());
+        assertThat(desiredShards(allocator, "node-1"), equalTo(1L));
+        assertThat(desiredShards(allocator, "node-0") + desiredShards(allocator, "node-2"), equalTo(5L));
+    }
+
+    private DesiredBalanceShardsAllocator createAllocator(Settings settings) {
+        final ClusterSettings clusterSettings = new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        return new DesiredBalanceShardsAllocator(
+            settings,
+            clusterSettings,
+            deterministicTaskQueue.getThreadPool(),
+            () -> (reason, priority, listener) -> reroutes.incrementAndGet()
+        );
+    }
+
+    private static AllocationService createAllocationService(Settings settings, DesiredBalanceShardsAllocator allocator) {
+        return createAllocationService(settings, allocator, EmptyClusterInfoService.INSTANCE);
+    }
+
+    private static AllocationService createAllocationService(
+        Settings settings,
+        DesiredBalanceShardsAllocator allocator,
+        ClusterInfoService clusterInfoService
+    ) {
+        final ClusterSettings clusterSettings = new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        return new MockAllocationService(
+            randomAllocationDeciders(settings, clusterSettings, random()),
+            new TestGatewayAllocator(),
+            allocator,
+            clusterInfoService,
+            SNAPSHOT_INFO_SERVICE_WITH_NO_SHARD_SIZES
+        );
+    }
+
+    private static ClusterState createClusterState(int numberOfShards) {
+        final Metadata metadata = Metadata.builder()
+            .put(IndexMetadata.builder("test").settings(settings(Version.CURRENT)).numberOfShards(numberOfShards).numberOfReplicas(0))
+            .build();
+        return ClusterState.builder(ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
+            .metadata(metadata)
+            .routingTable(RoutingTable.builder().addAsNew(metadata.index("test")).build())
+            .nodes(DiscoveryNodes.builder().add(newNode("node-0")))
+            .build();
+    }
+
+    private static long desiredShards(DesiredBalanceShardsAllocator allocator, String nodeId) {
+        return allocator.getDesiredBalance().assignments().values().stream().filter(nodeIds -> nodeIds.contains(nodeId)).count();
+    }
+
+    private static int relocatingShards(ClusterState clusterState) {
+        return clusterState.getRoutingNodes().shards(ShardRouting::relocating).size();
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+
+package org.elasticsearch.cluster.routing.allocation.allocator;
+
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.test.AbstractWireSerializingTestCase;
+
+public class DesiredBalanceStatsTests extends AbstractWireSerializingTestCase<DesiredBalanceStats> {
+
+    @Override
+    protected Writeable.Reader<DesiredBalanceStats> instanceReader() {
+        return DesiredBalanceStats::readFrom;
+    }
+
+    @Override
+    protected DesiredBalanceStats createTestInstance() {
+        return new DesiredBalanceStats(
+            randomBoolean(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomBoolean(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong()
+        );
+    }
+}
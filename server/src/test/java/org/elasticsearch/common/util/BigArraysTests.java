@@ -12,9 +12,11 @@ import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.breaker.PreallocatedCircuitBreakerService;
+import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
@@ -22,6 +24,7 @@ import org.elasticsearch.test.ESTestCase;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -29,13 +32,18 @@ import java.util.List;
 import java.util.function.Function;
 
 import static org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService.REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class BigArraysTests extends ESTestCase {
-    private final BigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+    private final BigArrays bigArrays = new MockBigArrays(
+        new MockPageCacheRecycler(Settings.builder().put(PageCacheRecycler.OFF_HEAP_SETTING.getKey(), randomBoolean()).build()),
+        new NoneCircuitBreakerService()
+    );
 
     public void testByteArrayGrowth() {
         final int totalLen = randomIntBetween(1, 4000000);
@@ -449,6 +457,134 @@ public class BigArraysTests extends ESTestCase {
         }
     }
 
+    public void testOffHeapArrays() {
+        final long maxSize = 1 << 22;
+        HierarchyCircuitBreakerService hcbs = new HierarchyCircuitBreakerService(
+            Settings.builder()
+                .put(REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), maxSize, ByteSizeUnit.BYTES)
+                .put(HierarchyCircuitBreakerService.USE_REAL_MEMORY_USAGE_SETTING.getKey(), false)
+                .build(),
+            Collections.emptyList(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS)
+        );
+        PageCacheRecycler recycler = new MockPageCacheRecycler(
+            Settings.builder().put(PageCacheRecycler.OFF_HEAP_SETTING.getKey(), true).build()
+        );
+        assertTrue(recycler.isOffHeap());
+        BigArrays bigArrays = new BigArrays(recycler, hcbs, CircuitBreaker.REQUEST).withCircuitBreaking();
+        CircuitBreaker breaker = hcbs.getBreaker(CircuitBreaker.REQUEST);
+
+        final long size = randomIntBetween(PageCacheRecycler.LONG_PAGE_SIZE + 1, 10 * PageCacheRecycler.LONG_PAGE_SIZE);
+        LongArray longs = bigArrays.newLongArray(size);
+        DoubleArray doubles = bigArrays.newDoubleArray(size);
+        ByteArray bytes = bigArrays.newByteArray(size * Long.BYTES);
+        assertThat(longs, instanceOf(DirectBigLongArray.class));
+        assertThat(doubles, instanceOf(DirectBigDoubleArray.class));
+        assertThat(bytes, instanceOf(DirectBigByteArray.class));
+        assertEquals(DirectBigLongArray.estimateRamBytes(size), longs.ramBytesUsed());
+        assertEquals(longs.ramBytesUsed() + doubles.ramBytesUsed() + bytes.ramBytesUsed(), breaker.getUsed());
+
+        final long newSize = size + randomIntBetween(1, 2 * PageCacheRecycler.LONG_PAGE_SIZE);
+        longs = bigArrays.grow(longs, newSize);
+        doubles = bigArrays.grow(doubles, newSize);
+        bytes = bigArrays.grow(bytes, newSize * Long.BYTES);
+        for (long i = 0; i < newSize; ++i) {
+            longs.set(i, i);
+            doubles.increment(i, i / 2.0);
+            bytes.set(i, (byte) i);
+        }
+        for (long i = 0; i < newSize; ++i) {
+            assertEquals(i, longs.get(i));
+            assertEquals(i / 2.0, doubles.get(i), 0d);
+            assertEquals((byte) i, bytes.get(i));
+        }
+        assertEquals(longs.ramBytesUsed() + doubles.ramBytesUsed() + bytes.ramBytesUsed(), breaker.getUsed());
+
+        Releasables.close(longs, doubles, bytes);
+        assertEquals(0, breaker.getUsed());
+    }
+
+    public void testOffHeapPagesFallBackToHeapPagesPastTheLimit() {
+        final int maxDirectPages = randomIntBetween(1, 3);
+        PageCacheRecycler recycler = new MockPageCacheRecycler(
+            Settings.builder()
+                .put(PageCacheRecycler.OFF_HEAP_SETTING.getKey(), true)
+                .put(PageCacheRecycler.LIMIT_OFF_HEAP_SETTING.getKey(), maxDirectPages * PageCacheRecycler.PAGE_SIZE_IN_BYTES + "b")
+                .build()
+        );
+        final List<Releasable> pages = new ArrayList<>();
+        for (int i = 0; i < maxDirectPages; i++) {
+            final Recycler.V<ByteBuffer> page = recycler.directBytePage(randomBoolean());
+            assertNotNull(page);
+            assertTrue(page.v().isDirect());
+            pages.add(page);
+        }
+        assertNull(recycler.directBytePage(randomBoolean()));
+        // released direct pages are handed out again
+        pages.remove(0).close();
+        final Recycler.V<ByteBuffer> reused = recycler.directBytePage(randomBoolean());
+        assertNotNull(reused);
+        pages.add(reused);
+        Releasables.close(pages);
+
+        // arrays that need more pages than the limit allows mix direct and heap pages
+        BigArrays bigArrays = new BigArrays(recycler, null, CircuitBreaker.REQUEST);
+        final long size = randomIntBetween((maxDirectPages + 1) * PageCacheRecycler.LONG_PAGE_SIZE, 10 * PageCacheRecycler.LONG_PAGE_SIZE);
+        LongArray longs = bigArrays.newLongArray(size);
+        assertThat(longs, instanceOf(DirectBigLongArray.class));
+        for (long i = 0; i < size; ++i) {
+            longs.set(i, i);
+        }
+        for (long i = 0; i < size; ++i) {
+            assertEquals(i, longs.get(i));
+        }
+        longs.close();
+        pages.clear();
+        for (int i = 0; i < maxDirectPages; i++) {
+            final Recycler.V<ByteBuffer> page = recycler.directBytePage(randomBoolean());
+            assertNotNull("closing the array releases its direct pages", page);
+            pages.add(page);
+        }
+        Releasables.close(pages);
+    }
+
+    public void testOffHeapLimitMayNotExceedMaxDirectMemory() {
+        final String limit = (Runtime.getRuntime().maxMemory() * 4) + "b";
+        IllegalArgumentException e = expectThrows(
+            IllegalArgumentException.class,
+            () -> new PageCacheRecycler(
+                Settings.builder()
+                    .put(PageCacheRecycler.OFF_HEAP_SETTING.getKey(), true)
+                    .put(PageCacheRecycler.LIMIT_OFF_HEAP_SETTING.getKey(), limit)
+                    .build()
+            )
+        );
+        assertThat(e.getMessage(), containsString("exceeds the maximum direct memory of the JVM"));
+    }
+
+    public void testHeapByteArrayStaysOnHeap() {
+        PageCacheRecycler recycler = new MockPageCacheRecycler(
+            Settings.builder().put(PageCacheRecycler.OFF_HEAP_SETTING.getKey(), true).build()
+        );
+        BigArrays bigArrays = new BigArrays(recycler, null, CircuitBreaker.REQUEST);
+        final boolean big = randomBoolean();
+        ByteArray bytes = bigArrays.newHeapByteArray(
+            big ? randomIntBetween(PageCacheRecycler.BYTE_PAGE_SIZE + 1, 3 * PageCacheRecycler.BYTE_PAGE_SIZE) : randomIntBetween(1, 100),
+            randomBoolean()
+        );
+        final long newSize = randomIntBetween(3 * PageCacheRecycler.BYTE_PAGE_SIZE + 1, 10 * PageCacheRecycler.BYTE_PAGE_SIZE);
+        bytes = bigArrays.grow(bytes, newSize);
+        assertThat(bytes, instanceOf(BigByteArray.class));
+        for (long i = 0; i < newSize; ++i) {
+            bytes.set(i, (byte) i);
+        }
+        // a slice within a page is a reference into the page rather than a copy
+        final BytesRef ref = new BytesRef();
+        assertFalse(bytes.get(PageCacheRecycler.BYTE_PAGE_SIZE, 10, ref));
+        assertEquals((byte) PageCacheRecycler.BYTE_PAGE_SIZE, ref.bytes[ref.offset]);
+        bytes.close();
+    }
+
     private List<BigArraysHelper> bigArrayCreators(final long maxSize, final boolean withBreaking) {
         final BigArrays byteBigArrays = newBigArraysInstance(maxSize, withBreaking);
         BigArraysHelper byteHelper = new BigArraysHelper(
@@ -87,6 +87,7 @@ import static org.elasticsearch.gateway.PersistedClusterStateService.INDEX_TYPE_
 import static org.elasticsearch.gateway.PersistedClusterStateService.IS_LAST_PAGE;
 import static org.elasticsearch.gateway.PersistedClusterStateService.IS_NOT_LAST_PAGE;
 import static org.elasticsearch.gateway.PersistedClusterStateService.LAST_PAGE_FIELD_NAME;
+import static org.elasticsearch.gateway.PersistedClusterStateService.MAPPING_TYPE_NAME;
 import static org.elasticsearch.gateway.PersistedClusterStateService.METADATA_DIRECTORY_NAME;
 import static org.elasticsearch.gateway.PersistedClusterStateService.PAGE_FIELD_NAME;
 import static org.elasticsearch.gateway.PersistedClusterStateService.TYPE_FIELD_NAME;
@@ -987,6 +988,90 @@ public class PersistedClusterStateServiceTests extends ESTestCase {
         }
     }
 
+    public void testPersistsSharedMappingsOnce() throws IOException {
+        final Path dataPath = createTempDir();
+        try (NodeEnvironment nodeEnvironment = newNodeEnvironment(new Path[] { dataPath })) {
+            final PersistedClusterStateService persistedClusterStateService = newPersistedClusterStateService(nodeEnvironment);
+            final IndexMetadata shared1 = indexWithMapping("shared-1", """
+                {"_doc":{"properties":{"shared":{"type":"keyword"}}}}""");
+            final IndexMetadata shared2 = indexWithMapping("shared-2", """
+                {"_doc":{"properties":{"shared":{"type":"keyword"}}}}""");
+            final IndexMetadata other = indexWithMapping("other", """
+                {"_doc":{"properties":{"other":{"type":"keyword"}}}}""");
+            final IndexMetadata added = indexWithMapping("added", """
+                {"_doc":{"properties":{"added":{"type":"keyword"}}}}""");
+
+            try (Writer writer = persistedClusterStateService.createWriter()) {
+                final ClusterState clusterState = loadPersistedClusterState(persistedClusterStateService);
+                writeState(
+                    writer,
+                    0L,
+                    ClusterState.builder(clusterState)
+                        .metadata(
+                            Metadata.builder(clusterState.metadata())
+                                .put(shared1, false)
+                                .put(shared2, false)
+                                .put(other, false)
+                        )
+                        .incrementVersion()
+                        .build(),
+                    clusterState
+                );
+            }
+            assertThat(countMappingDocuments(dataPath), equalTo(2));
+
+            try (Writer writer = persistedClusterStateService.createWriter()) {
+                final ClusterState clusterState = loadPersistedClusterState(persistedClusterStateService);
+                final Metadata metadata = clusterState.metadata();
+                assertThat(metadata.getMappingsByHash().size(), equalTo(2));
+                assertSame(metadata.index("shared-1").mapping(), metadata.index("shared-2").mapping());
+                assertThat(metadata.index("shared-1").mapping().source(), equalTo(shared1.mapping().source()));
+                assertThat(metadata.index("other").mapping().source(), equalTo(other.mapping().source()));
+
+                writer.writeFullStateAndCommit(0L, clusterState);
+                writer.writeIncrementalStateAndCommit(
+                    0L,
+                    clusterState,
+                    ClusterState.builder(clusterState)
+                        .metadata(Metadata.builder(metadata).remove("other").put(added, false))
+                        .incrementVersion()
+                        .build()
+                );
+            }
+            assertThat(countMappingDocuments(dataPath), equalTo(2));
+
+            final Metadata metadata = loadPersistedClusterState(persistedClusterStateService).metadata();
+            assertThat(metadata.indices().size(), equalTo(3));
+            assertSame(metadata.index("shared-1").mapping(), metadata.index("shared-2").mapping());
+            assertThat(metadata.index("added").mapping().source(), equalTo(added.mapping().source()));
+            assertThat(metadata.index("other"), nullValue());
+        }
+    }
+
+    private static IndexMetadata indexWithMapping(String name, String mapping) {
+        return IndexMetadata.builder(name)
+            .settings(
+                Settings.builder()
+                    .put(IndexMetadata.INDEX_NUMBER_OF_SHARDS_SETTING.getKey(), 1)
+                    .put(IndexMetadata.INDEX_NUMBER_OF_REPLICAS_SETTING.getKey(), 0)
+                    .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                    .put(IndexMetadata.SETTING_INDEX_UUID, UUIDs.randomBase64UUID(random()))
+            )
+            .putMapping(mapping)
+            .build();
+    }
+
+    private static int countMappingDocuments(Path dataPath) throws IOException {
+        try (
+            Directory directory = new NIOFSDirectory(dataPath.resolve(METADATA_DIRECTORY_NAME));
+            DirectoryReader reader = DirectoryReader.open(directory)
+        ) {
+            final IndexSearcher indexSearcher = new IndexSearcher(reader);
+            indexSearcher.setQueryCache(null);
+            return indexSearcher.count(new TermQuery(new Term(TYPE_FIELD_NAME, MAPPING_TYPE_NAME)));
+        }
+    }
+
     public void testReloadsMetadataAcrossMultipleSegments() throws IOException {
         try (NodeEnvironment nodeEnvironment = newNodeEnvironment(createDataPaths())) {
             final PersistedClusterStateService persistedClusterStateService = newPersistedClusterStateService(nodeEnvironment);
@@ -1194,7 +1279,7 @@ public class PersistedClusterStateServiceTests extends ESTestCase {
                         Level.WARN,
                         """
                             writing full cluster state took [*] which is above the warn threshold of [*]; \
-                            wrote global metadata and metadata for [0] indices"""
+                            wrote global metadata, [0] mappings, and metadata for [0] indices"""
                     )
                 );
 
@@ -1210,7 +1295,7 @@ public class PersistedClusterStateServiceTests extends ESTestCase {
                         Level.WARN,
                         """
                             writing full cluster state took [*] which is above the warn threshold of [*]; \
-                            wrote global metadata and metadata for [0] indices"""
+                            wrote global metadata, [0] mappings, and metadata for [0] indices"""
                     )
                 );
 
@@ -1244,7 +1329,7 @@ public class PersistedClusterStateServiceTests extends ESTestCase {
                         Level.WARN,
                         """
                             writing full cluster state took [*] which is above the warn threshold of [*]; \
-                            wrote global metadata and metadata for [0] indices"""
+                            wrote global metadata, [0] mappings, and metadata for [0] indices"""
                     )
                 );
 
@@ -1277,8 +1362,8 @@ public class PersistedClusterStateServiceTests extends ESTestCase {
                         Level.WARN,
                         """
                             writing cluster state took [*] which is above the warn threshold of [*]; [skipped writing] global metadata, \
-                            wrote metadata for [1] new indices and [0] existing indices, removed metadata for [0] indices and \
-                            skipped [0] unchanged indices"""
+                            wrote [0] new mappings, removed [0] mappings, wrote metadata for [1] new indices and [0] existing indices, \
+                            removed metadata for [0] indices and skipped [0] unchanged indices"""
                     )
                 );
 
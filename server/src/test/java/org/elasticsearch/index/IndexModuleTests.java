@@ -197,7 +197,10 @@ public class IndexModuleTests extends ESTestCase {
             module.indexSettings().getMode().buildNoFieldDataIdFieldMapper(),
             null,
             indexDeletionListener,
-            emptyMap()
+            emptyMap(),
+            null,
+            null,
+            null
         );
     }
 
@@ -4365,6 +4365,152 @@ public class InternalEngineTests extends EngineTestCase {
         }
     }
 
+    public void testIndexAppendOnlyBatch() throws IOException {
+        final int numDocs = randomIntBetween(2, 100);
+        final List<Engine.Index> operations = new ArrayList<>(numDocs);
+        for (int i = 0; i < numDocs; i++) {
+            final ParsedDocument doc = testParsedDocument(
+                Integer.toString(i),
+                null,
+                testDocumentWithTextField(),
+                new BytesArray("{}".getBytes(Charset.defaultCharset())),
+                null
+            );
+            operations.add(appendOnlyPrimary(doc, false, i));
+        }
+        final List<Engine.IndexResult> results = engine.indexBatch(operations);
+        assertThat(results.size(), equalTo(numDocs));
+        for (int i = 0; i < numDocs; i++) {
+            final Engine.IndexResult result = results.get(i);
+            assertThat(result.getResultType(), equalTo(Engine.Result.Type.SUCCESS));
+            assertThat(result.getSeqNo(), equalTo((long) i));
+            assertThat(result.getId(), equalTo(Integer.toString(i)));
+            assertTrue(result.isCreated());
+            assertNotNull(result.getTranslogLocation());
+            assertEquals(
+                new Translog.Index(operations.get(i), result),
+                getTranslog(engine).readOperation(result.getTranslogLocation(), result.getSeqNo())
+            );
+        }
+        assertLuceneOperations(engine, numDocs, 0, 0);
+        assertEquals(0, engine.getNumVersionLookups());
+        assertThat(engine.getProcessedLocalCheckpoint(), equalTo((long) numDocs - 1));
+        assertThat(engine.getTranslogStats().getUncommittedOperations(), equalTo(numDocs));
+        engine.refresh("test");
+        try (Engine.Searcher searcher = engine.acquireSearcher("test")) {
+            assertEquals(numDocs, searcher.count(new MatchAllDocsQuery()));
+        }
+    }
+
+    public void testGetFromCompressedTranslogBatch() throws IOException {
+        final IndexMetadata indexMetadata = IndexMetadata.builder(defaultSettings.getIndexMetadata())
+            .settings(
+                Settings.builder()
+                    .put(defaultSettings.getSettings())
+                    .put(IndexSettings.INDEX_TRANSLOG_COMPRESSION_ENABLED_SETTING.getKey(), true)
+            )
+            .build();
+        final IndexSettings indexSettings = IndexSettingsModule.newIndexSettings(indexMetadata);
+        final MapperService mapperService = createMapperService();
+        try (
+            Store store = createStore();
+            InternalEngine engine = createEngine(config(indexSettings, store, createTempDir(), newMergePolicy(), null))
+        ) {
+            // the first realtime get makes the engine track the translog locations of the documents
+            engine.index(indexForDoc(createParsedDoc("first", idFieldType, null)));
+            try (
+                Engine.GetResult get = engine.get(
+                    new Engine.Get(true, true, "first"),
+                    mapperService.mappingLookup(),
+                    mapperService.documentParser(),
+                    searcher -> searcher
+                )
+            ) {
+                assertTrue(get.exists());
+            }
+            final long lastRefreshedCheckpoint = engine.lastRefreshedCheckpoint();
+
+            final int numDocs = randomIntBetween(5, 20);
+            final List<Engine.Index> operations = new ArrayList<>(numDocs);
+            for (int i = 0; i < numDocs; i++) {
+                operations.add(appendOnlyPrimary(createParsedDoc(Integer.toString(i), idFieldType, null), false, i));
+            }
+            final List<Engine.IndexResult> results = engine.indexBatch(operations);
+            assertThat(engine.getTranslogStats().getCompressionStats().getBatches(), equalTo(1L));
+            for (Engine.IndexResult result : results) {
+                assertThat(result.getTranslogLocation(), equalTo(results.get(0).getTranslogLocation()));
+            }
+
+            final long translogGetCount = engine.translogGetCount.get();
+            final String id = Integer.toString(randomIntBetween(0, numDocs - 1));
+            try (
+                Engine.GetResult get = engine.get(
+                    new Engine.Get(true, true, id),
+                    mapperService.mappingLookup(),
+                    mapperService.documentParser(),
+                    searcher -> searcher
+                )
+            ) {
+                assertTrue(get.exists());
+                assertThat(get.docIdAndVersion().seqNo, equalTo(results.get(Integer.parseInt(id)).getSeqNo()));
+            }
+            // the document is read from the compressed batch rather than from a refreshed searcher
+            assertThat(engine.translogGetCount.get(), equalTo(translogGetCount + 1));
+            assertThat(engine.lastRefreshedCheckpoint(), equalTo(lastRefreshedCheckpoint));
+        }
+    }
+
+    public void testIndexBatchWithRetriesConcurrently() throws InterruptedException, IOException {
+        Thread[] thread = new Thread[randomIntBetween(3, 5)];
+        int numDocs = randomIntBetween(1000, 10000);
+        List<Engine.Index> docs = new ArrayList<>();
+        final boolean create = randomBoolean();
+        for (int i = 0; i < numDocs; i++) {
+            final ParsedDocument doc = testParsedDocument(
+                Integer.toString(i),
+                null,
+                testDocumentWithTextField(),
+                new BytesArray("{}".getBytes(Charset.defaultCharset())),
+                null
+            );
+            docs.add(appendOnlyPrimary(doc, false, i, create));
+            if (rarely()) {
+                docs.add(appendOnlyPrimary(doc, true, i, create));
+            }
+        }
+        Collections.shuffle(docs, random());
+        final int batchSize = randomIntBetween(2, 50);
+        CountDownLatch startGun = new CountDownLatch(thread.length);
+        AtomicInteger offset = new AtomicInteger(0);
+        for (int i = 0; i < thread.length; i++) {
+            thread[i] = new Thread(() -> {
+                startGun.countDown();
+                try {
+                    startGun.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                int from;
+                while ((from = offset.getAndAdd(batchSize)) < docs.size()) {
+                    try {
+                        engine.indexBatch(docs.subList(from, Math.min(from + batchSize, docs.size())));
+                    } catch (IOException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            });
+            thread[i].start();
+        }
+        for (int i = 0; i < thread.length; i++) {
+            thread[i].join();
+        }
+        engine.refresh("test");
+        try (Engine.Searcher searcher = engine.acquireSearcher("test")) {
+            assertEquals(numDocs, searcher.count(new MatchAllDocsQuery()));
+        }
+        assertThat(engine.getProcessedLocalCheckpoint(), equalTo(engine.getSeqNoStats(-1).getMaxSeqNo()));
+    }
+
     public void testEngineMaxTimestampIsInitialized() throws IOException {
 
         final AtomicLong globalCheckpoint = new AtomicLong(SequenceNumbers.NO_OPS_PERFORMED);
@@ -13,8 +13,13 @@ import org.apache.lucene.tests.util.TestUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.Constants;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
@@ -101,8 +106,12 @@ public class LiveVersionMapTests extends ESTestCase {
         return BytesRef.deepCopyOf(builder.get());
     }
 
+    private static LiveVersionMap randomLiveVersionMap() {
+        return new LiveVersionMap(randomFrom(EngineConfig.VersionMapType.values()), BigArrays.NON_RECYCLING_INSTANCE);
+    }
+
     public void testBasics() throws IOException {
-        LiveVersionMap map = new LiveVersionMap();
+        LiveVersionMap map = randomLiveVersionMap();
         try (Releasable r = map.acquireLock(uid("test"))) {
             Translog.Location tlogLoc = randomTranslogLocation();
             map.putIndexUnderLock(uid("test"), new IndexVersionValue(tlogLoc, 1, 1, 1));
@@ -134,7 +143,7 @@ public class LiveVersionMapTests extends ESTestCase {
         List<BytesRef> keyList = new ArrayList<>(keySet);
         ConcurrentHashMap<BytesRef, VersionValue> values = new ConcurrentHashMap<>();
         ConcurrentHashMap<BytesRef, DeleteVersionValue> deletes = new ConcurrentHashMap<>();
-        LiveVersionMap map = new LiveVersionMap();
+        LiveVersionMap map = randomLiveVersionMap();
         int numThreads = randomIntBetween(2, 5);
 
         Thread[] threads = new Thread[numThreads];
@@ -271,6 +280,52 @@ public class LiveVersionMapTests extends ESTestCase {
         assertThat(map.getAllTombstones().entrySet(), empty());
     }
 
+    public void testPagedMapReleasesMemory() throws IOException {
+        final MockBigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+        final LiveVersionMap map = new LiveVersionMap(EngineConfig.VersionMapType.PAGED, bigArrays);
+        final Map<BytesRef, IndexVersionValue> expected = new HashMap<>();
+        final int numDocs = randomIntBetween(1, 1000);
+        for (int i = 0; i < numDocs; i++) {
+            final BytesRef uid = uid(TestUtil.randomSimpleString(random(), 1, 10));
+            final IndexVersionValue value = new IndexVersionValue(
+                randomBoolean() ? null : randomTranslogLocation(),
+                randomNonNegativeLong(),
+                randomNonNegativeLong(),
+                randomNonNegativeLong()
+            );
+            try (Releasable r = map.acquireLock(uid)) {
+                map.putIndexUnderLock(uid, value);
+                expected.put(uid, value);
+                assertEquals(value, map.getUnderLock(uid));
+            }
+        }
+        assertEquals(expected, map.getAllCurrent());
+        map.beforeRefresh();
+        for (Map.Entry<BytesRef, IndexVersionValue> entry : expected.entrySet()) {
+            try (Releasable r = map.acquireLock(entry.getKey())) {
+                assertEquals(entry.getValue(), map.getUnderLock(entry.getKey()));
+            }
+        }
+        final BytesRef deleted = randomFrom(expected.keySet());
+        try (Releasable r = map.acquireLock(deleted)) {
+            map.putDeleteUnderLock(deleted, new DeleteVersionValue(1, 1, 1, 1));
+            assertEquals(new DeleteVersionValue(1, 1, 1, 1), map.getUnderLock(deleted));
+        }
+        map.afterRefresh(randomBoolean());
+        assertThat(map.getAllCurrent().size(), equalTo(0));
+        for (BytesRef uid : expected.keySet()) {
+            try (Releasable r = map.acquireLock(uid)) {
+                if (uid.equals(deleted)) {
+                    assertEquals(new DeleteVersionValue(1, 1, 1, 1), map.getUnderLock(uid));
+                } else {
+                    assertNull(map.getUnderLock(uid));
+                }
+            }
+        }
+        // clearing the map releases the pages of the current map, MockBigArrays checks that all pages are released
+        map.clear();
+    }
+
     public void testCarryOnSafeAccess() throws IOException {
         LiveVersionMap map = new LiveVersionMap();
         assertFalse(map.isUnsafe());
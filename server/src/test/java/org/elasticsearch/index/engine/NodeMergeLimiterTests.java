@@ -0,0 +1,193 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class NodeMergeLimiterTests extends ESTestCase {
+
+    private static NodeMergeLimiter newLimiter(Settings settings) {
+        return new NodeMergeLimiter(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+    }
+
+    public void testUnlimitedByDefault() {
+        final NodeMergeLimiter limiter = newLimiter(Settings.EMPTY);
+        final int numMerges = randomIntBetween(1, 20);
+        final Releasable[] releasables = new Releasable[numMerges];
+        for (int i = 0; i < numMerges; i++) {
+            releasables[i] = limiter.acquire(randomNonNegativeLong(), () -> false);
+        }
+        assertThat(limiter.queued(), equalTo(0));
+        for (Releasable releasable : releasables) {
+            releasable.close();
+        }
+    }
+
+    public void testAdmitsSmallestMergesFirst() throws Exception {
+        final NodeMergeLimiter limiter = newLimiter(
+            Settings.builder().put(NodeMergeLimiter.MAX_CONCURRENT_MERGES_SETTING.getKey(), 1).build()
+        );
+        final Releasable running = limiter.acquire(1000, () -> false);
+
+        final List<Long> admitted = new CopyOnWriteArrayList<>();
+        final long[] sizes = new long[] { 300, 100, 200 };
+        final Thread[] threads = new Thread[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            final long size = sizes[i];
+            threads[i] = new Thread(() -> {
+                try (Releasable ignored = limiter.acquire(size, () -> false)) {
+                    admitted.add(size);
+                }
+            });
+            threads[i].start();
+            final int expectedQueued = i + 1;
+            assertBusy(() -> assertThat(limiter.queued(), equalTo(expectedQueued)));
+        }
+        assertTrue(admitted.isEmpty());
+
+        running.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(admitted, equalTo(List.of(100L, 200L, 300L)));
+        assertThat(limiter.queued(), equalTo(0));
+    }
+
+    public void testAdmitsMergesThatWaitedTooLongFirst() throws Exception {
+        final AtomicLong relativeTimeInNanos = new AtomicLong();
+        final Settings settings = Settings.builder()
+            .put(NodeMergeLimiter.MAX_CONCURRENT_MERGES_SETTING.getKey(), 1)
+            .put(NodeMergeLimiter.MAX_QUEUE_TIME_SETTING.getKey(), "10s")
+            .build();
+        final NodeMergeLimiter limiter = new NodeMergeLimiter(
+            settings,
+            new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
+            relativeTimeInNanos::get
+        );
+        Releasable running = limiter.acquire(100, () -> false);
+
+        final PlainActionFuture<Releasable> largeMerge = new PlainActionFuture<>();
+        final Thread largeMergeThread = new Thread(() -> largeMerge.onResponse(limiter.acquire(1_000_000, () -> false)));
+        largeMergeThread.start();
+        assertBusy(() -> assertThat(limiter.queued(), equalTo(1)));
+
+        // a steady stream of smaller merges goes first while the large merge has not waited too long
+        final int smallMerges = randomIntBetween(1, 5);
+        for (int i = 0; i < smallMerges; i++) {
+            relativeTimeInNanos.addAndGet(TimeValue.timeValueSeconds(1).nanos());
+            final PlainActionFuture<Releasable> smallMerge = new PlainActionFuture<>();
+            final Thread smallMergeThread = new Thread(() -> smallMerge.onResponse(limiter.acquire(100, () -> false)));
+            smallMergeThread.start();
+            assertBusy(() -> assertThat(limiter.queued(), equalTo(2)));
+            running.close();
+            running = smallMerge.actionGet();
+            smallMergeThread.join();
+            assertFalse(largeMerge.isDone());
+        }
+
+        // once it waited too long, the large merge goes ahead of the smaller merges that arrived after it
+        relativeTimeInNanos.addAndGet(TimeValue.timeValueSeconds(10).nanos());
+        final PlainActionFuture<Releasable> smallMerge = new PlainActionFuture<>();
+        final Thread smallMergeThread = new Thread(() -> smallMerge.onResponse(limiter.acquire(100, () -> false)));
+        smallMergeThread.start();
+        assertBusy(() -> assertThat(limiter.queued(), equalTo(2)));
+        running.close();
+        final Releasable largeMergeRunning = largeMerge.actionGet();
+        assertThat(limiter.queued(), equalTo(1));
+        assertFalse(smallMerge.isDone());
+        largeMergeRunning.close();
+        largeMergeThread.join();
+        smallMerge.actionGet().close();
+        smallMergeThread.join();
+        assertThat(limiter.queued(), equalTo(0));
+    }
+
+    public void testRaisingTheLimitAdmitsQueuedMerges() throws Exception {
+        final NodeMergeLimiter limiter = newLimiter(
+            Settings.builder().put(NodeMergeLimiter.MAX_CONCURRENT_MERGES_SETTING.getKey(), 1).build()
+        );
+        final Releasable running = limiter.acquire(randomNonNegativeLong(), () -> false);
+        final AtomicBoolean admitted = new AtomicBoolean();
+        final Thread thread = new Thread(() -> {
+            try (Releasable ignored = limiter.acquire(randomNonNegativeLong(), () -> false)) {
+                admitted.set(true);
+            }
+        });
+        thread.start();
+        assertBusy(() -> assertThat(limiter.queued(), equalTo(1)));
+
+        limiter.setMaxConcurrentMerges(randomBoolean() ? 0 : 2);
+        thread.join();
+        assertTrue(admitted.get());
+        running.close();
+    }
+
+    public void testAbortedMergesLeaveTheQueue() throws Exception {
+        final NodeMergeLimiter limiter = newLimiter(
+            Settings.builder().put(NodeMergeLimiter.MAX_CONCURRENT_MERGES_SETTING.getKey(), 1).build()
+        );
+        final Releasable running = limiter.acquire(randomNonNegativeLong(), () -> false);
+        final AtomicBoolean aborted = new AtomicBoolean();
+        final Thread thread = new Thread(() -> limiter.acquire(randomNonNegativeLong(), aborted::get).close());
+        thread.start();
+        assertBusy(() -> assertThat(limiter.queued(), equalTo(1)));
+
+        aborted.set(true);
+        thread.join();
+        assertThat(limiter.queued(), equalTo(0));
+
+        // the aborted merge did not take up the slot of the running merge
+        running.close();
+        limiter.acquire(randomNonNegativeLong(), () -> false).close();
+    }
+
+    public void testTracksThrottledTime() throws Exception {
+        final NodeMergeLimiter limiter = newLimiter(
+            Settings.builder().put(NodeMergeLimiter.MAX_BYTES_PER_SEC_SETTING.getKey(), "1mb").build()
+        );
+        final CounterMetric throttledTimeInNanos = new CounterMetric();
+        try (Directory directory = limiter.wrapForMerge(new ByteBuffersDirectory(), throttledTimeInNanos)) {
+            try (IndexOutput output = directory.createOutput("test", IOContext.DEFAULT)) {
+                final byte[] bytes = new byte[1024];
+                for (int i = 0; i < 256; i++) {
+                    output.writeBytes(bytes, bytes.length);
+                }
+            }
+        }
+        assertThat(throttledTimeInNanos.count(), greaterThan(0L));
+
+        limiter.setMaxBytesPerSec(ByteSizeValue.ZERO);
+        final CounterMetric unthrottledTimeInNanos = new CounterMetric();
+        try (Directory directory = limiter.wrapForMerge(new ByteBuffersDirectory(), unthrottledTimeInNanos)) {
+            try (IndexOutput output = directory.createOutput("test", IOContext.DEFAULT)) {
+                output.writeBytes(new byte[1024 * 1024], 1024 * 1024);
+            }
+        }
+        assertThat(unthrottledTimeInNanos.count(), equalTo(0L));
+    }
+}
@@ -14,12 +14,17 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.util.Map;
 
 public class FieldDataStatsTests extends ESTestCase {
 
     public void testSerialize() throws IOException {
         FieldMemoryStats map = randomBoolean() ? null : FieldMemoryStatsTests.randomFieldMemoryStats();
-        FieldDataStats stats = new FieldDataStats(randomNonNegativeLong(), randomNonNegativeLong(), map);
+        GlobalOrdinalsStats globalOrdinals = new GlobalOrdinalsStats(
+            randomGlobalOrdinalsStats(),
+            randomBoolean() ? null : Map.of(randomAlphaOfLength(5), randomGlobalOrdinalsStats())
+        );
+        FieldDataStats stats = new FieldDataStats(randomNonNegativeLong(), randomNonNegativeLong(), map, globalOrdinals);
         BytesStreamOutput out = new BytesStreamOutput();
         stats.writeTo(out);
         StreamInput input = out.bytes().streamInput();
@@ -28,5 +33,26 @@ public class FieldDataStatsTests extends ESTestCase {
         assertEquals(stats.getEvictions(), read.getEvictions());
         assertEquals(stats.getMemorySize(), read.getMemorySize());
         assertEquals(stats.getFields(), read.getFields());
+        assertEquals(stats.getGlobalOrdinals(), read.getGlobalOrdinals());
+    }
+
+    public void testAdd() {
+        FieldDataStats stats = new FieldDataStats();
+        GlobalOrdinalsStats.Stats first = new GlobalOrdinalsStats.Stats(3, 2, 10, 100);
+        GlobalOrdinalsStats.Stats second = new GlobalOrdinalsStats.Stats(1, 0, 5, 50);
+        stats.add(new FieldDataStats(100, 0, null, new GlobalOrdinalsStats(first, Map.of("field", first))));
+        stats.add(new FieldDataStats(50, 1, null, new GlobalOrdinalsStats(second, Map.of("field", second))));
+        assertEquals(new GlobalOrdinalsStats.Stats(4, 2, 15, 150), stats.getGlobalOrdinals().getTotal());
+        assertEquals(Map.of("field", new GlobalOrdinalsStats.Stats(4, 2, 15, 150)), stats.getGlobalOrdinals().getFields());
+        assertEquals(new GlobalOrdinalsStats.Stats(3, 2, 10, 100), first);
+    }
+
+    private static GlobalOrdinalsStats.Stats randomGlobalOrdinalsStats() {
+        return new GlobalOrdinalsStats.Stats(
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong()
+        );
     }
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.fielddata.ordinals;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.OrdinalMap;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.fielddata.LeafOrdinalsFieldData;
+import org.elasticsearch.index.fielddata.plain.AbstractLeafOrdinalsFieldData;
+import org.elasticsearch.search.aggregations.support.CoreValuesSourceType;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class IncrementalOrdinalMapTests extends ESTestCase {
+
+    public void testMatchesOrdinalMap() throws IOException {
+        try (
+            Directory dir = newDirectory();
+            IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig(null).setMergePolicy(NoMergePolicy.INSTANCE))
+        ) {
+            addSegments(writer, between(2, 5));
+            DirectoryReader reader = DirectoryReader.open(writer);
+            GlobalOrdinalMap previous = GlobalOrdinalMap.of(OrdinalMap.build(null, subs(reader), PackedInts.DEFAULT));
+            int rounds = between(1, 5);
+            for (int round = 0; round < rounds; round++) {
+                addSegments(writer, between(1, 3));
+                DirectoryReader newReader = DirectoryReader.openIfChanged(reader, writer);
+                assertNotNull(newReader);
+                SortedSetDocValues[] subs = subs(newReader);
+                GlobalOrdinalMap incremental = IncrementalOrdinalMap.build(previous, currentSegments(reader, newReader), subs);
+                assertSameGlobalOrdinals(incremental, OrdinalMap.build(null, subs, PackedInts.DEFAULT), newReader);
+                reader.close();
+                reader = newReader;
+                previous = incremental;
+            }
+            reader.close();
+        }
+    }
+
+    public void testLazyOrdinalMapIsAccountedInBreaker() throws IOException {
+        try (
+            Directory dir = newDirectory();
+            IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig(null).setMergePolicy(NoMergePolicy.INSTANCE))
+        ) {
+            addSegments(writer, between(2, 5));
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                final LeafOrdinalsFieldData[] segments = new LeafOrdinalsFieldData[reader.leaves().size()];
+                for (int i = 0; i < segments.length; i++) {
+                    final LeafReader leaf = reader.leaves().get(i).reader();
+                    segments[i] = new AbstractLeafOrdinalsFieldData(null) {
+                        @Override
+                        public SortedSetDocValues getOrdinalsValues() {
+                            try {
+                                return DocValues.getSortedSet(leaf, "field");
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+
+                        @Override
+                        public long ramBytesUsed() {
+                            return 0;
+                        }
+
+                        @Override
+                        public Collection<Accountable> getChildResources() {
+                            return Collections.emptyList();
+                        }
+
+                        @Override
+                        public void close() {}
+                    };
+                }
+                final OrdinalMap expected = OrdinalMap.build(null, subs(reader), PackedInts.DEFAULT);
+
+                final AtomicLong used = new AtomicLong();
+                final long limit = randomBoolean() ? Long.MAX_VALUE : between(0, (int) expected.ramBytesUsed() - 1);
+                final CircuitBreaker breaker = new NoopCircuitBreaker(CircuitBreaker.FIELDDATA) {
+                    @Override
+                    public void addEstimateBytesAndMaybeBreak(long bytes, String label) throws CircuitBreakingException {
+                        if (used.get() + bytes > limit) {
+                            throw new CircuitBreakingException("test error", bytes, limit, getDurability());
+                        }
+                        used.addAndGet(bytes);
+                    }
+
+                    @Override
+                    public void addWithoutBreaking(long bytes) {
+                        used.addAndGet(bytes);
+                    }
+                };
+                // global ordinals that were built incrementally build their Lucene OrdinalMap when it is first needed
+                final GlobalOrdinalsIndexFieldData globalOrdinals = new GlobalOrdinalsIndexFieldData(
+                    "field",
+                    CoreValuesSourceType.KEYWORD,
+                    segments,
+                    new IndexReader.CacheKey[segments.length],
+                    GlobalOrdinalMap.of(expected),
+                    null,
+                    breaker,
+                    expected.ramBytesUsed(),
+                    TimeValue.ZERO,
+                    true,
+                    null
+                );
+                if (limit == Long.MAX_VALUE) {
+                    assertThat(globalOrdinals.getOrdinalMap().getValueCount(), equalTo(expected.getValueCount()));
+                    assertThat(used.get(), equalTo(globalOrdinals.getOrdinalMap().ramBytesUsed()));
+                    globalOrdinals.onRemoval();
+                    assertThat(used.get(), equalTo(0L));
+                } else {
+                    expectThrows(CircuitBreakingException.class, globalOrdinals::getOrdinalMap);
+                    assertThat(used.get(), equalTo(0L));
+                }
+            }
+        }
+    }
+
+    private void addSegments(IndexWriter writer, int numSegments) throws IOException {
+        for (int segment = 0; segment < numSegments; segment++) {
+            int numDocs = between(1, 50);
+            for (int i = 0; i < numDocs; i++) {
+                Document doc = new Document();
+                int numValues = between(0, 3);
+                for (int j = 0; j < numValues; j++) {
+                    doc.add(new SortedSetDocValuesField("field", new BytesRef(randomAlphaOfLength(between(1, 3)))));
+                }
+                writer.addDocument(doc);
+            }
+            writer.flush();
+        }
+    }
+
+    private static SortedSetDocValues[] subs(IndexReader reader) throws IOException {
+        SortedSetDocValues[] subs = new SortedSetDocValues[reader.leaves().size()];
+        for (int i = 0; i < subs.length; i++) {
+            subs[i] = DocValues.getSortedSet(reader.leaves().get(i).reader(), "field");
+        }
+        return subs;
+    }
+
+    private static int[] currentSegments(IndexReader previousReader, IndexReader reader) {
+        Map<IndexReader.CacheKey, Integer> segments = new HashMap<>();
+        for (int i = 0; i < reader.leaves().size(); i++) {
+            segments.put(reader.leaves().get(i).reader().getCoreCacheHelper().getKey(), i);
+        }
+        int[] currentSegments = new int[previousReader.leaves().size()];
+        for (int i = 0; i < currentSegments.length; i++) {
+            Integer segment = segments.get(previousReader.leaves().get(i).reader().getCoreCacheHelper().getKey());
+            assertNotNull(segment);
+            currentSegments[i] = segment;
+        }
+        return currentSegments;
+    }
+
+    private static void assertSameGlobalOrdinals(GlobalOrdinalMap actual, OrdinalMap expected, IndexReader reader) throws IOException {
+        assertThat(actual.getValueCount(), equalTo(expected.getValueCount()));
+        SortedSetDocValues[] subs = subs(reader);
+        for (int segment = 0; segment < subs.length; segment++) {
+            for (long ord = 0; ord < subs[segment].getValueCount(); ord++) {
+                assertThat(actual.getGlobalOrds(segment).get(ord), equalTo(expected.getGlobalOrds(segment).get(ord)));
+            }
+        }
+        for (long globalOrd = 0; globalOrd < actual.getValueCount(); globalOrd++) {
+            int expectedSegment = expected.getFirstSegmentNumber(globalOrd);
+            BytesRef expectedTerm = BytesRef.deepCopyOf(subs[expectedSegment].lookupOrd(expected.getFirstSegmentOrd(globalOrd)));
+            int actualSegment = actual.getFirstSegmentNumber(globalOrd);
+            long actualSegmentOrd = actual.getFirstSegmentOrd(globalOrd);
+            assertThat(subs[actualSegment].lookupOrd(actualSegmentOrd), equalTo(expectedTerm));
+            assertThat(actual.getGlobalOrds(actualSegment).get(actualSegmentOrd), equalTo(globalOrd));
+        }
+    }
+}
@@ -130,6 +130,20 @@ public class InnerHitBuilderTests extends ESTestCase {
         }
     }
 
+    public void testShallowCopy() {
+        for (int runs = 0; runs < NUMBER_OF_TESTBUILDERS; runs++) {
+            InnerHitBuilder original = randomInnerHits();
+            InnerHitBuilder copy = original.shallowCopy();
+            assertThat(copy, not(sameInstance(original)));
+            assertThat(copy, equalTo(original));
+            int from = original.getFrom();
+            int size = original.getSize();
+            copy.setFrom(from + 1).setSize(size + 1);
+            assertThat(original.getFrom(), equalTo(from));
+            assertThat(original.getSize(), equalTo(size));
+        }
+    }
+
     public static InnerHitBuilder randomNestedInnerHits() {
         InnerHitBuilder innerHitBuilder = randomInnerHits();
         innerHitBuilder.setSeqNoAndPrimaryTerm(false); // not supported by nested queries
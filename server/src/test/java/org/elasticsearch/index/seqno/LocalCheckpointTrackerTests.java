@@ -17,8 +17,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -249,6 +251,50 @@ public class LocalCheckpointTrackerTests extends ESTestCase {
         }
     }
 
+    public void testConcurrentDuplicates() throws InterruptedException {
+        Thread[] threads = new Thread[randomIntBetween(2, 8)];
+        final int maxOps = BIT_SET_SIZE * randomIntBetween(1, 4) + randomIntBetween(0, BIT_SET_SIZE - 1);
+        final boolean persisted = randomBoolean();
+        final CyclicBarrier barrier = new CyclicBarrier(threads.length);
+        for (int t = 0; t < threads.length; t++) {
+            final int threadId = t;
+            // every thread marks all sequence numbers, like a recovery that replays operations that were also replicated
+            final List<Integer> seqNos = IntStream.range(0, maxOps).boxed().collect(Collectors.toList());
+            Collections.shuffle(seqNos, random());
+            threads[t] = new Thread(new AbstractRunnable() {
+                @Override
+                public void onFailure(Exception e) {
+                    throw new ElasticsearchException("failure in background thread", e);
+                }
+
+                @Override
+                protected void doRun() throws Exception {
+                    barrier.await();
+                    for (int seqNo : seqNos) {
+                        if (persisted) {
+                            tracker.markSeqNoAsPersisted(seqNo);
+                        } else {
+                            tracker.markSeqNoAsProcessed(seqNo);
+                            assertThat(tracker.hasProcessed(seqNo), equalTo(true));
+                        }
+                    }
+                }
+            }, "testConcurrentDuplicates_" + threadId);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(tracker.getMaxSeqNo(), equalTo(maxOps - 1L));
+        final AtomicLong checkpoint = persisted ? tracker.persistedCheckpoint : tracker.processedCheckpoint;
+        final Map<Long, LocalCheckpointTracker.AtomicBitSet> bitSets = persisted ? tracker.persistedSeqNo : tracker.processedSeqNo;
+        assertThat(checkpoint.get(), equalTo(maxOps - 1L));
+        assertThat(bitSets.size(), is(oneOf(0, 1)));
+        if (bitSets.size() == 1) {
+            assertThat(bitSets.keySet().iterator().next(), equalTo(checkpoint.get() / BIT_SET_SIZE));
+        }
+    }
+
     public void testContains() {
         final long maxSeqNo = randomLongBetween(SequenceNumbers.NO_OPS_PERFORMED, 100);
         final long localCheckpoint = randomLongBetween(SequenceNumbers.NO_OPS_PERFORMED, maxSeqNo);
@@ -28,7 +28,8 @@ public class TranslogHeaderTests extends ESTestCase {
 
     public void testCurrentHeaderVersion() throws Exception {
         final String translogUUID = UUIDs.randomBase64UUID();
-        final TranslogHeader outHeader = new TranslogHeader(translogUUID, randomNonNegativeLong());
+        final boolean compressedBatches = randomBoolean();
+        final TranslogHeader outHeader = new TranslogHeader(translogUUID, randomNonNegativeLong(), compressedBatches);
         final long generation = randomNonNegativeLong();
         final Path translogFile = createTempDir().resolve(Translog.getFilename(generation));
         try (FileChannel channel = FileChannel.open(translogFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
@@ -37,6 +38,12 @@ public class TranslogHeaderTests extends ESTestCase {
         }
         try (FileChannel channel = FileChannel.open(translogFile, StandardOpenOption.READ)) {
             final TranslogHeader inHeader = TranslogHeader.read(translogUUID, translogFile, channel);
+            // only files that may hold compressed batches use the new version
+            assertThat(
+                inHeader.getVersion(),
+                equalTo(compressedBatches ? TranslogHeader.VERSION_COMPRESSED_BATCHES : TranslogHeader.CURRENT_VERSION)
+            );
+            assertThat(inHeader.supportsCompressedBatches(), equalTo(compressedBatches));
             assertThat(inHeader.getTranslogUUID(), equalTo(translogUUID));
             assertThat(inHeader.getPrimaryTerm(), equalTo(outHeader.getPrimaryTerm()));
             assertThat(inHeader.sizeInBytes(), equalTo((int) channel.position()));
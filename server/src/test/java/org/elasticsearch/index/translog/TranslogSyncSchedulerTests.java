@@ -0,0 +1,249 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.apache.lucene.store.AlreadyClosedException;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class TranslogSyncSchedulerTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+
+    @Before
+    public void createThreadPool() {
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @After
+    public void terminateThreadPool() {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+    }
+
+    private static Settings enabledSettings() {
+        return enabledSettings("5ms");
+    }
+
+    private static Settings enabledSettings(String maxWait) {
+        return Settings.builder()
+            .put(TranslogSyncScheduler.ENABLED_SETTING.getKey(), true)
+            .put(TranslogSyncScheduler.MAX_WAIT_SETTING.getKey(), maxWait)
+            .build();
+    }
+
+    private TranslogSyncScheduler newScheduler(Settings settings) {
+        return new TranslogSyncScheduler(settings, threadPool.getThreadContext(), threadPool.generic());
+    }
+
+    public void testDisabledByDefault() {
+        final TranslogSyncScheduler scheduler = newScheduler(Settings.EMPTY);
+        assertFalse(scheduler.isEnabled());
+        scheduler.close();
+    }
+
+    public void testCoalescesSyncsPerTarget() throws Exception {
+        final TranslogSyncScheduler scheduler = newScheduler(enabledSettings());
+        try {
+            final Path dataPath = createTempDir();
+            final int numTargets = randomIntBetween(1, 4);
+            final AtomicInteger[] syncCalls = new AtomicInteger[numTargets];
+            final List<List<Translog.Location>> syncedLocations = new CopyOnWriteArrayList<>();
+            final TranslogSyncScheduler.Target[] targets = new TranslogSyncScheduler.Target[numTargets];
+            for (int i = 0; i < numTargets; i++) {
+                final AtomicInteger calls = syncCalls[i] = new AtomicInteger();
+                targets[i] = scheduler.newTarget(dataPath, locations -> {
+                    calls.incrementAndGet();
+                    syncedLocations.add(locations.collect(Collectors.toList()));
+                });
+            }
+
+            final int numThreads = randomIntBetween(2, 8);
+            final int syncsPerThread = randomIntBetween(10, 100);
+            final CountDownLatch done = new CountDownLatch(numThreads * syncsPerThread);
+            final AtomicReference<Exception> failure = new AtomicReference<>();
+            final Thread[] threads = new Thread[numThreads];
+            for (int t = 0; t < numThreads; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < syncsPerThread; i++) {
+                        final TranslogSyncScheduler.Target target = randomFrom(targets);
+                        target.sync(new Translog.Location(1, randomNonNegativeLong() % 1_000_000, 1), e -> {
+                            if (e != null) {
+                                failure.set(e);
+                            }
+                            done.countDown();
+                        });
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertNull(failure.get());
+
+            long totalSyncs = 0;
+            long totalWaiters = 0;
+            for (int i = 0; i < numTargets; i++) {
+                final TranslogStats.GroupCommitStats stats = targets[i].stats();
+                assertThat(stats.getSyncs(), equalTo((long) syncCalls[i].get()));
+                assertThat(stats.getSyncs(), lessThanOrEqualTo(stats.getWaiters()));
+                long histogramCount = 0;
+                for (long count : stats.getWaitTimeHistogram()) {
+                    histogramCount += count;
+                }
+                assertThat(histogramCount, equalTo(stats.getWaiters()));
+                totalSyncs += stats.getSyncs();
+                totalWaiters += stats.getWaiters();
+            }
+            assertThat(totalWaiters, equalTo((long) numThreads * syncsPerThread));
+            assertThat(totalSyncs, equalTo((long) syncedLocations.size()));
+            assertThat(totalSyncs, greaterThan(0L));
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    public void testFailureIsPassedToAllWaitersOfTarget() throws Exception {
+        final TranslogSyncScheduler scheduler = newScheduler(enabledSettings());
+        try {
+            final IOException exception = new IOException("simulated");
+            final TranslogSyncScheduler.Target target = scheduler.newTarget(createTempDir(), locations -> { throw exception; });
+            final int numSyncs = randomIntBetween(1, 10);
+            final CountDownLatch done = new CountDownLatch(numSyncs);
+            final List<Exception> failures = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < numSyncs; i++) {
+                target.sync(new Translog.Location(1, i, 1), e -> {
+                    failures.add(e);
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertThat(failures.size(), equalTo(numSyncs));
+            for (Exception failure : failures) {
+                assertThat(failure, sameInstance(exception));
+            }
+            assertThat(target.stats().getSyncs(), equalTo(0L));
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    public void testCoalescesSequentialSyncsOfTheSameShard() throws Exception {
+        final TranslogSyncScheduler scheduler = newScheduler(enabledSettings("100ms"));
+        try {
+            final AtomicInteger syncCalls = new AtomicInteger();
+            final TranslogSyncScheduler.Target target = scheduler.newTarget(createTempDir(), locations -> syncCalls.incrementAndGet());
+            // a single thread never has a sync in flight when it asks for the next one, so without the window each would fsync
+            final int numSyncs = randomIntBetween(10, 50);
+            final CountDownLatch done = new CountDownLatch(numSyncs);
+            for (int i = 0; i < numSyncs; i++) {
+                target.sync(new Translog.Location(1, i, 1), e -> done.countDown());
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertThat(syncCalls.get(), lessThan(numSyncs));
+            assertThat(target.stats().getWaiters(), equalTo((long) numSyncs));
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    public void testSyncsShardsOfABatchInParallel() throws Exception {
+        final TranslogSyncScheduler scheduler = newScheduler(enabledSettings("100ms"));
+        try {
+            final Path dataPath = createTempDir();
+            final CountDownLatch secondSynced = new CountDownLatch(1);
+            // the first shard only completes its fsync once the second shard completed its own
+            final TranslogSyncScheduler.Target first = scheduler.newTarget(dataPath, locations -> {
+                try {
+                    assertTrue(secondSynced.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            final TranslogSyncScheduler.Target second = scheduler.newTarget(dataPath, locations -> {});
+            final List<Exception> failures = new CopyOnWriteArrayList<>();
+            final CountDownLatch done = new CountDownLatch(2);
+            first.sync(new Translog.Location(1, 0, 1), e -> {
+                if (e != null) {
+                    failures.add(e);
+                }
+                done.countDown();
+            });
+            second.sync(new Translog.Location(1, 0, 1), e -> {
+                if (e != null) {
+                    failures.add(e);
+                }
+                secondSynced.countDown();
+                done.countDown();
+            });
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertThat(failures, equalTo(List.of()));
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    public void testRejectsSyncsOnceClosed() throws Exception {
+        final TranslogSyncScheduler scheduler = newScheduler(enabledSettings());
+        final TranslogSyncScheduler.Target target = scheduler.newTarget(createTempDir(), locations -> {});
+        final CountDownLatch done = new CountDownLatch(1);
+        target.sync(new Translog.Location(1, 0, 1), e -> done.countDown());
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        scheduler.close();
+        expectThrows(AlreadyClosedException.class, () -> target.sync(new Translog.Location(1, 1, 1), e -> fail()));
+    }
+
+    public void testHistogramBuckets() {
+        assertThat(TranslogSyncScheduler.bucket(0), equalTo(0));
+        assertThat(TranslogSyncScheduler.bucket(1), equalTo(1));
+        assertThat(TranslogSyncScheduler.bucket(4), equalTo(2));
+        assertThat(TranslogSyncScheduler.bucket(99), equalTo(6));
+        assertThat(TranslogSyncScheduler.bucket(100), equalTo(7));
+        assertThat(TranslogSyncScheduler.bucket(Long.MAX_VALUE), equalTo(7));
+    }
+
+    public void testStatsSerialization() throws IOException {
+        final long[] histogram = new long[TranslogSyncScheduler.WAIT_TIME_HISTOGRAM_BOUNDS_MILLIS.length + 1];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = randomNonNegativeLong() % 1000;
+        }
+        final TranslogStats stats = new TranslogStats(1, 2, 3, 4, 5);
+        stats.addGroupCommitStats(new TranslogStats.GroupCommitStats(randomLongBetween(1, 1000), 1000, 10, histogram));
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            stats.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                final TranslogStats read = new TranslogStats(in);
+                assertThat(read.getGroupCommitStats(), equalTo(stats.getGroupCommitStats()));
+            }
+        }
+    }
+}
@@ -121,6 +121,7 @@ import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static org.elasticsearch.common.util.BigArrays.NON_RECYCLING_INSTANCE;
+import static org.elasticsearch.index.IndexSettingsTests.newIndexMeta;
 import static org.elasticsearch.index.translog.SnapshotMatchers.containsOperationsInAnyOrder;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.Matchers.contains;
@@ -134,6 +135,7 @@ import static org.hamcrest.Matchers.hasToString;
 import static org.hamcrest.Matchers.in;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
@@ -670,6 +672,183 @@ public class TranslogTests extends ESTestCase {
         assertNull(translog.readOperation(new Location(100, 0, 0)));
     }
 
+    public void testAddBatch() throws IOException {
+        final List<Translog.Operation> ops = new ArrayList<>();
+        if (randomBoolean()) {
+            translog.add(new Translog.Index("0", 0, primaryTerm.get(), new byte[] { 0 }));
+            ops.add(new Translog.Index("0", 0, primaryTerm.get(), new byte[] { 0 }));
+        }
+        final List<Translog.Operation> batch = new ArrayList<>();
+        final int numOps = randomIntBetween(1, 20);
+        for (int i = 0; i < numOps; i++) {
+            final int seqNo = ops.size();
+            batch.add(
+                switch (randomIntBetween(0, 2)) {
+                    case 0 -> new Translog.Index(
+                        Integer.toString(seqNo),
+                        seqNo,
+                        primaryTerm.get(),
+                        randomByteArrayOfLength(between(1, 100))
+                    );
+                    case 1 -> new Translog.Delete(Integer.toString(seqNo), seqNo, primaryTerm.get());
+                    default -> new Translog.NoOp(seqNo, primaryTerm.get(), randomAlphaOfLength(8));
+                }
+            );
+            ops.add(batch.get(i));
+        }
+        final List<Translog.Location> locations = translog.add(batch);
+        assertThat(locations.size(), equalTo(numOps));
+        for (int i = 0; i < numOps; i++) {
+            assertEquals(batch.get(i), translog.readOperation(locations.get(i)));
+            if (i > 0) {
+                final Translog.Location previous = locations.get(i - 1);
+                assertThat(locations.get(i).translogLocation, equalTo(previous.translogLocation + previous.size));
+            }
+        }
+        try (Translog.Snapshot snapshot = translog.newSnapshot()) {
+            assertThat(snapshot, SnapshotMatchers.equalsTo(ops));
+        }
+        assertThat(translog.stats().getUncommittedOperations(), equalTo(ops.size()));
+    }
+
+    public void testAddCompressedBatch() throws IOException {
+        final Path path = createTempDir();
+        final Settings settings = Settings.builder()
+            .put(IndexMetadata.SETTING_VERSION_CREATED, org.elasticsearch.Version.CURRENT)
+            .put(IndexSettings.INDEX_TRANSLOG_COMPRESSION_ENABLED_SETTING.getKey(), true)
+            .put(IndexSettings.INDEX_TRANSLOG_MMAP_READS_SETTING.getKey(), randomBoolean())
+            .build();
+        final List<Translog.Operation> ops = new ArrayList<>();
+        final String translogUUID;
+        try (Translog compressingTranslog = createTranslog(getTranslogConfig(path, settings))) {
+            translogUUID = compressingTranslog.getTranslogUUID();
+            final int generations = randomIntBetween(1, 3);
+            long seqNo = 0;
+            long uncompressedSize = 0;
+            for (int gen = 0; gen < generations; gen++) {
+                final int numBatches = randomIntBetween(1, 5);
+                for (int b = 0; b < numBatches; b++) {
+                    if (randomBoolean()) {
+                        addToTranslogAndList(compressingTranslog, ops, new Translog.NoOp(seqNo, primaryTerm.get(), "single"));
+                        seqNo++;
+                    }
+                    final List<Translog.Operation> batch = new ArrayList<>();
+                    final int numOps = randomIntBetween(2, 50);
+                    for (int i = 0; i < numOps; i++) {
+                        // documents of the same batch are alike, like log lines are
+                        final String source = "{\"message\":\"GET /index.html HTTP/1.1 200\",\"host\":\"host-" + seqNo % 3 + "\"}";
+                        final byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+                        batch.add(new Translog.Index(Long.toString(seqNo), seqNo, primaryTerm.get(), bytes));
+                        seqNo++;
+                    }
+                    final long sizeBefore = compressingTranslog.getCurrent().sizeInBytes();
+                    final List<Translog.Location> locations = compressingTranslog.add(batch);
+                    assertThat(locations.size(), equalTo(numOps));
+                    final Translog.Location location = locations.get(0);
+                    for (Translog.Location other : locations) {
+                        assertThat(other, equalTo(location));
+                    }
+                    assertThat(location.translogLocation, equalTo(sizeBefore));
+                    // operations of a batch are read back by their sequence number
+                    assertNull(compressingTranslog.readOperation(location));
+                    for (Translog.Operation op : batch) {
+                        assertEquals(op, compressingTranslog.readOperation(location, op.seqNo()));
+                    }
+                    assertNull(compressingTranslog.readOperation(location, seqNo));
+                    long uncompressedBatchSize = 0;
+                    for (Translog.Operation op : batch) {
+                        final BytesStreamOutput out = new BytesStreamOutput();
+                        Translog.writeOperationNoSize(new BufferedChecksumStreamOutput(out), op);
+                        uncompressedBatchSize += Integer.BYTES + out.size();
+                    }
+                    assertThat((long) location.size, lessThan(uncompressedBatchSize));
+                    uncompressedSize += uncompressedBatchSize;
+                    ops.addAll(batch);
+                }
+                if (randomBoolean()) {
+                    compressingTranslog.rollGeneration();
+                }
+            }
+            try (Translog.Snapshot snapshot = compressingTranslog.newSnapshot()) {
+                assertThat(snapshot, containsOperationsInAnyOrder(ops));
+            }
+            final TranslogStats stats = compressingTranslog.stats();
+            assertThat(stats.estimatedNumberOfOperations(), equalTo(ops.size()));
+            final TranslogStats.CompressionStats compressionStats = stats.getCompressionStats();
+            assertThat(compressionStats.getUncompressedSizeInBytes(), equalTo(uncompressedSize));
+            assertThat(compressionStats.getCompressedSizeInBytes(), lessThan(uncompressedSize));
+            assertThat(compressionStats.getCompressionRatio(), greaterThan(1.0));
+
+            final BytesStreamOutput out = new BytesStreamOutput();
+            out.setVersion(org.elasticsearch.Version.CURRENT);
+            stats.writeTo(out);
+            final StreamInput in = out.bytes().streamInput();
+            in.setVersion(org.elasticsearch.Version.CURRENT);
+            assertThat(new TranslogStats(in).getCompressionStats(), equalTo(compressionStats));
+        }
+        // compressed batches survive reopening the translog
+        try (
+            Translog reopened = openTranslog(getTranslogConfig(path, settings), translogUUID);
+            Translog.Snapshot snapshot = reopened.newSnapshot()
+        ) {
+            assertThat(snapshot, containsOperationsInAnyOrder(ops));
+        }
+    }
+
+    public void testCompressionIsOnlyEnabledForNewTranslogFiles() throws IOException {
+        final Path path = createTempDir();
+        final Settings settings = Settings.builder().put(IndexMetadata.SETTING_VERSION_CREATED, org.elasticsearch.Version.CURRENT).build();
+        final TranslogConfig config = getTranslogConfig(path, settings);
+        try (Translog translog = createTranslog(config)) {
+            final List<Translog.Operation> batch = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                final byte[] source = "{\"message\":\"GET /index.html HTTP/1.1 200\"}".getBytes(StandardCharsets.UTF_8);
+                batch.add(new Translog.Index(Integer.toString(i), i, primaryTerm.get(), source));
+            }
+            config.getIndexSettings()
+                .updateIndexMetadata(
+                    newIndexMeta(
+                        "index",
+                        Settings.builder()
+                            .put(settings)
+                            .put(IndexSettings.INDEX_TRANSLOG_COMPRESSION_ENABLED_SETTING.getKey(), true)
+                            .build()
+                    )
+                );
+            // the current file was created without compression and keeps the previous format
+            assertFalse(translog.getCurrent().supportsCompressedBatches());
+            translog.add(batch.subList(0, 5));
+            assertThat(translog.stats().getCompressionStats(), equalTo(TranslogStats.CompressionStats.EMPTY));
+
+            translog.rollGeneration();
+            assertTrue(translog.getCurrent().supportsCompressedBatches());
+            translog.add(batch.subList(5, 10));
+            assertThat(translog.stats().getCompressionStats().getBatches(), equalTo(1L));
+            try (Translog.Snapshot snapshot = translog.newSnapshot()) {
+                assertThat(snapshot, containsOperationsInAnyOrder(batch));
+            }
+        }
+    }
+
+    public void testCompressedBatchIsNotWrittenIfItDoesNotCompress() throws IOException {
+        final Path path = createTempDir();
+        final Settings settings = Settings.builder()
+            .put(IndexMetadata.SETTING_VERSION_CREATED, org.elasticsearch.Version.CURRENT)
+            .put(IndexSettings.INDEX_TRANSLOG_COMPRESSION_ENABLED_SETTING.getKey(), true)
+            .build();
+        try (Translog compressingTranslog = createTranslog(getTranslogConfig(path, settings))) {
+            final List<Translog.Operation> batch = List.of(
+                new Translog.Index("0", 0, primaryTerm.get(), randomByteArrayOfLength(between(1, 100))),
+                new Translog.Index("1", 1, primaryTerm.get(), randomByteArrayOfLength(between(1, 100)))
+            );
+            final List<Translog.Location> locations = compressingTranslog.add(batch);
+            assertThat(locations.get(1).translogLocation, equalTo(locations.get(0).translogLocation + locations.get(0).size));
+            assertEquals(batch.get(0), compressingTranslog.readOperation(locations.get(0)));
+            assertEquals(batch.get(1), compressingTranslog.readOperation(locations.get(1)));
+            assertThat(compressingTranslog.stats().getCompressionStats(), equalTo(TranslogStats.CompressionStats.EMPTY));
+        }
+    }
+
     public void testSnapshotWithNewTranslog() throws IOException {
         List<Closeable> toClose = new ArrayList<>();
         try {
@@ -699,6 +878,76 @@ public class TranslogTests extends ESTestCase {
         }
     }
 
+    public void testMappedSnapshotOfSealedGenerations() throws IOException {
+        final Path path = createTempDir();
+        final Settings settings = Settings.builder()
+            .put(IndexMetadata.SETTING_VERSION_CREATED, org.elasticsearch.Version.CURRENT)
+            .put(IndexSettings.INDEX_TRANSLOG_MMAP_READS_SETTING.getKey(), true)
+            .build();
+        final List<Translog.Operation> ops = new ArrayList<>();
+        try (Translog mappedTranslog = createTranslog(getTranslogConfig(path, settings))) {
+            final int generations = randomIntBetween(1, 5);
+            long seqNo = 0;
+            for (int gen = 0; gen < generations; gen++) {
+                final int numOps = randomIntBetween(1, 50);
+                for (int i = 0; i < numOps; i++) {
+                    final String id = Long.toString(seqNo);
+                    final Translog.Operation op = switch (randomIntBetween(0, 2)) {
+                        case 0 -> new Translog.Index(id, seqNo, primaryTerm.get(), randomByteArrayOfLength(between(1, 2048)));
+                        case 1 -> new Translog.Delete(id, seqNo, primaryTerm.get());
+                        default -> new Translog.NoOp(seqNo, primaryTerm.get(), randomAlphaOfLength(8));
+                    };
+                    addToTranslogAndList(mappedTranslog, ops, op);
+                    seqNo++;
+                }
+                mappedTranslog.rollGeneration();
+            }
+            // ops of the current generation are still read through the channel
+            addToTranslogAndList(mappedTranslog, ops, new Translog.Index(Long.toString(seqNo), seqNo, primaryTerm.get(), new byte[] { 1 }));
+            for (int i = 0; i < 2; i++) {
+                // the second snapshot reuses the mapping of the first one
+                try (Translog.Snapshot snapshot = mappedTranslog.newSnapshot()) {
+                    assertThat(snapshot, containsOperationsInAnyOrder(ops));
+                    assertThat(snapshot.totalOperations(), equalTo(ops.size()));
+                }
+            }
+        }
+    }
+
+    public void testMappedSnapshotsHoldOnToTheMapping() throws IOException {
+        final long generation = translog.currentFileGeneration();
+        final int numOps = randomIntBetween(1, 20);
+        for (int i = 0; i < numOps; i++) {
+            translog.add(new Translog.Index(Integer.toString(i), i, primaryTerm.get(), new byte[] { (byte) i }));
+        }
+        translog.rollGeneration();
+        final TranslogReader reader = translog.openReader(
+            translog.location().resolve(Translog.getFilename(generation)),
+            Checkpoint.read(translog.location().resolve(Translog.getCommitCheckpointFileName(generation)))
+        );
+        final TranslogSnapshot first = reader.newMappedSnapshot();
+        final TranslogSnapshot second = reader.newMappedSnapshot();
+        assertNotNull(first.next());
+
+        // closing the reader only unmaps the file once the snapshots that read through the mapping are closed too
+        reader.close();
+        expectThrows(AlreadyClosedException.class, reader::newMappedSnapshot);
+        for (int i = 1; i < numOps; i++) {
+            assertNotNull(first.next());
+        }
+        assertNull(first.next());
+        first.close();
+        expectThrows(AlreadyClosedException.class, first::next);
+
+        int secondOps = 0;
+        while (second.next() != null) {
+            secondOps++;
+        }
+        assertThat(secondOps, equalTo(numOps));
+        second.close();
+        second.close(); // closing twice is a no-op
+    }
+
     public void testSnapshotOnClosedTranslog() throws IOException {
         assertTrue(Files.exists(translogDir.resolve(Translog.getFilename(1))));
         translog.add(new Translog.Index("1", 0, primaryTerm.get(), new byte[] { 1 }));
@@ -0,0 +1,73 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AdaptiveRefreshPolicyTests extends ESTestCase {
+
+    private static final long NODE_BUFFER_SIZE = 100 * 1024 * 1024;
+
+    private final AtomicLong nodeBufferBytesUsed = new AtomicLong();
+
+    private AdaptiveRefreshPolicy newPolicy(Settings settings, ClusterSettings clusterSettings) {
+        return new AdaptiveRefreshPolicy(settings, clusterSettings, nodeBufferBytesUsed::get, NODE_BUFFER_SIZE);
+    }
+
+    private static ClusterSettings clusterSettings(Settings settings) {
+        return new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+    }
+
+    public void testDisabledByDefault() {
+        final AdaptiveRefreshPolicy policy = newPolicy(Settings.EMPTY, clusterSettings(Settings.EMPTY));
+        assertFalse(policy.shouldDeferRefresh(0, false, 0, randomBoolean()));
+    }
+
+    public void testDefersRefreshesNobodyWaitsFor() {
+        final Settings settings = Settings.builder()
+            .put(AdaptiveRefreshPolicy.ENABLED_SETTING.getKey(), true)
+            .put(AdaptiveRefreshPolicy.MIN_BUFFER_SIZE_SETTING.getKey(), "1mb")
+            .put(AdaptiveRefreshPolicy.MAX_DELAY_SETTING.getKey(), "10s")
+            .build();
+        final AdaptiveRefreshPolicy policy = newPolicy(settings, clusterSettings(settings));
+
+        assertTrue(policy.shouldDeferRefresh(0, false, 1024, false));
+        assertTrue(policy.shouldDeferRefresh(9_999, false, 1024, false));
+        // searched shards and shards with large buffers are refreshed unless indexing is throttled
+        assertFalse(policy.shouldDeferRefresh(0, true, 1024, false));
+        assertFalse(policy.shouldDeferRefresh(0, false, 1024 * 1024, false));
+        assertTrue(policy.shouldDeferRefresh(0, true, 1024 * 1024, true));
+        // never defer for longer than the max delay
+        assertFalse(policy.shouldDeferRefresh(10_000, false, 1024, randomBoolean()));
+        // never defer while the node runs short of indexing buffer
+        nodeBufferBytesUsed.set(NODE_BUFFER_SIZE / 2 + 1);
+        assertFalse(policy.shouldDeferRefresh(0, false, 1024, randomBoolean()));
+    }
+
+    public void testDynamicUpdates() {
+        final ClusterSettings clusterSettings = clusterSettings(Settings.EMPTY);
+        final AdaptiveRefreshPolicy policy = newPolicy(Settings.EMPTY, clusterSettings);
+        assertFalse(policy.shouldDeferRefresh(0, false, 1024, false));
+
+        clusterSettings.applySettings(
+            Settings.builder()
+                .put(AdaptiveRefreshPolicy.ENABLED_SETTING.getKey(), true)
+                .put(AdaptiveRefreshPolicy.MIN_BUFFER_SIZE_SETTING.getKey(), "512b")
+                .put(AdaptiveRefreshPolicy.MAX_DELAY_SETTING.getKey(), "1s")
+                .build()
+        );
+        assertFalse(policy.shouldDeferRefresh(0, false, 1024, false));
+        assertTrue(policy.shouldDeferRefresh(0, false, 256, false));
+        assertFalse(policy.shouldDeferRefresh(1_000, false, 256, false));
+    }
+}
@@ -15,6 +15,7 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.TermQuery;
@@ -432,6 +433,63 @@ public class IndicesRequestCacheTests extends ESTestCase {
 
     }
 
+    public void testSegmentsResult() throws Exception {
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+        TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+
+        writer.addDocument(newDoc(0, "foo"));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        TermQueryBuilder termQuery = new TermQueryBuilder("id", "0");
+        BytesReference termBytes = XContentHelper.toXContent(termQuery, XContentType.JSON, false);
+        assertNull(cache.getSegmentsResult(entity, mappingKey, reader, termBytes));
+
+        BytesReference value = new Loader(reader, 0).get();
+        cache.putSegmentsResult(entity, mappingKey, reader, termBytes, value);
+        assertEquals(1, cache.count());
+        assertTrue(requestCacheStats.stats().getMemorySize().getBytes() > value.length());
+        MappingLookup.CacheKey otherMappingKey = MappingLookup.fromMappers(Mapping.EMPTY, emptyList(), emptyList(), emptyList())
+            .cacheKey();
+        assertNull(cache.getSegmentsResult(entity, otherMappingKey, reader, termBytes));
+
+        // a new segment is not covered by the result
+        writer.addDocument(newDoc(1, "bar"));
+        DirectoryReader secondReader = DirectoryReader.openIfChanged(reader, writer);
+        assertEquals(2, secondReader.leaves().size());
+        IndicesRequestCache.SegmentsResult segmentsResult = cache.getSegmentsResult(entity, mappingKey, secondReader, termBytes);
+        assertNotNull(segmentsResult);
+        assertEquals(1, segmentsResult.coveredLeaves().cardinality());
+        assertTrue(segmentsResult.coveredLeaves().get(reader.leaves().get(0).ord));
+        assertEquals("foo", segmentsResult.result().streamInput().readString());
+
+        // deletions in a covered segment make the result stale
+        writer.deleteDocuments(new Term("id", "0"));
+        DirectoryReader thirdReader = DirectoryReader.openIfChanged(secondReader, writer);
+        assertNull(cache.getSegmentsResult(entity, mappingKey, thirdReader, termBytes));
+
+        // the result is replaced by the result of a later reader
+        cache.putSegmentsResult(entity, mappingKey, thirdReader, termBytes, new Loader(thirdReader, 1).get());
+        assertEquals(1, cache.count());
+        segmentsResult = cache.getSegmentsResult(entity, mappingKey, thirdReader, termBytes);
+        assertNotNull(segmentsResult);
+        assertEquals(thirdReader.leaves().size(), segmentsResult.coveredLeaves().cardinality());
+        assertEquals("bar", segmentsResult.result().streamInput().readString());
+
+        // the result outlives its reader but not its shard
+        IOUtils.close(reader, secondReader);
+        cache.cleanCache();
+        assertEquals(1, cache.count());
+        cache.clear(entity);
+        assertEquals(0, cache.count());
+        assertEquals(0L, requestCacheStats.stats().getMemorySize().getBytes());
+
+        IOUtils.close(thirdReader, writer, dir, cache);
+    }
+
     public void testInvalidate() throws Exception {
         ShardRequestCache requestCacheStats = new ShardRequestCache();
         IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
@@ -0,0 +1,128 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+
+package org.elasticsearch.lucene.grouping;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.mapper.KeywordFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class PerGroupCollectorTests extends ESTestCase {
+
+    public void testKeyword() throws IOException {
+        this.<BytesRef>assertPerGroup(
+            new KeywordFieldMapper.KeywordFieldType("group"),
+            group -> new BytesRef("group" + group),
+            (doc, value) -> doc.add(new SortedDocValuesField("group", value))
+        );
+    }
+
+    public void testNumeric() throws IOException {
+        this.<Long>assertPerGroup(
+            new NumberFieldMapper.NumberFieldType("group", NumberFieldMapper.NumberType.LONG),
+            group -> (long) group,
+            (doc, value) -> doc.add(new NumericDocValuesField("group", value))
+        );
+    }
+
+    private <T> void assertPerGroup(MappedFieldType fieldType, Function<Integer, T> groupValue, DocValueAdder<T> adder)
+        throws IOException {
+        final int numGroups = between(1, 10);
+        final int numDocs = between(1, 1000);
+        // the group of each doc, null if it has no value
+        final List<T> docGroups = new ArrayList<>();
+        try (Directory dir = newDirectory()) {
+            // no merges, so that the doc ids are in the order of the docs
+            try (IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                for (int i = 0; i < numDocs; i++) {
+                    Document doc = new Document();
+                    T value = rarely() ? null : groupValue.apply(between(0, numGroups - 1));
+                    if (value != null) {
+                        adder.add(doc, value);
+                    }
+                    docGroups.add(value);
+                    writer.addDocument(doc);
+                    if (rarely()) {
+                        writer.commit();
+                    }
+                }
+            }
+            try (IndexReader reader = DirectoryReader.open(dir)) {
+                final Map<Object, CountingCollector> collectors = new HashMap<>();
+                for (int group = 0; group < numGroups; group++) {
+                    if (randomBoolean()) {
+                        collectors.put(groupValue.apply(group), new CountingCollector());
+                    }
+                }
+                if (randomBoolean()) {
+                    collectors.put(null, new CountingCollector());
+                }
+                new IndexSearcher(reader).search(new MatchAllDocsQuery(), PerGroupCollector.create(fieldType, collectors));
+
+                for (Map.Entry<Object, CountingCollector> entry : collectors.entrySet()) {
+                    long expected = docGroups.stream().filter(g -> Objects.equals(g, entry.getKey())).count();
+                    assertThat(entry.getValue().count, equalTo((int) expected));
+                }
+
+                final int[] docs = new int[between(1, numDocs)];
+                for (int i = 0; i < docs.length; i++) {
+                    docs[i] = between(0, numDocs - 1);
+                }
+                final Object[] groupValues = PerGroupCollector.groupValues(reader, fieldType, docs, docs.length);
+                for (int i = 0; i < docs.length; i++) {
+                    assertThat(groupValues[i], equalTo(docGroups.get(docs[i])));
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface DocValueAdder<T> {
+        void add(Document doc, T value);
+    }
+
+    private static class CountingCollector extends SimpleCollector {
+        private int count;
+
+        @Override
+        public void collect(int doc) {
+            count++;
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+    }
+}
@@ -28,6 +28,9 @@ import java.util.concurrent.CountDownLatch;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class ResponseCollectorServiceTests extends ESTestCase {
 
@@ -137,4 +140,57 @@ public class ResponseCollectorServiceTests extends ESTestCase {
         assertTrue(nodeStats.containsKey("node1"));
         assertFalse(nodeStats.containsKey("node2"));
     }
+
+    public void testResponseTimePercentile() {
+        for (int i = 1; i < ResponseCollectorService.MIN_RESPONSE_TIME_SAMPLES; i++) {
+            collector.addNodeStatistics(randomFrom("node1", "node2"), 1, i, 1);
+            assertThat(collector.responseTimePercentile(randomDoubleBetween(0, 100, true)), equalTo(-1L));
+        }
+        // only the most recent response times count
+        for (int i = 0; i < ResponseCollectorService.RESPONSE_TIME_WINDOW; i++) {
+            collector.addNodeStatistics(randomFrom("node1", "node2"), 1, 1_000_000, 1);
+        }
+        for (int i = 0; i < ResponseCollectorService.RESPONSE_TIME_WINDOW; i++) {
+            collector.addNodeStatistics(randomFrom("node1", "node2"), 1, i + 1, 1);
+        }
+        assertThat(collector.responseTimePercentile(0), equalTo(1L));
+        assertPercentile(collector.responseTimePercentile(50), ResponseCollectorService.RESPONSE_TIME_WINDOW / 2L);
+        assertPercentile(collector.responseTimePercentile(100), ResponseCollectorService.RESPONSE_TIME_WINDOW);
+    }
+
+    public void testResponseTimeBuckets() {
+        for (int i = 0; i < 1000; i++) {
+            final long responseTime = randomFrom(randomLongBetween(0, 100), randomNonNegativeLong());
+            final int bucket = ResponseCollectorService.bucket(responseTime);
+            assertPercentile(ResponseCollectorService.bucketUpperBound(bucket), responseTime);
+            if (bucket > 0) {
+                assertThat(ResponseCollectorService.bucketUpperBound(bucket - 1), lessThan(responseTime));
+            }
+        }
+        assertThat(ResponseCollectorService.bucketUpperBound(ResponseCollectorService.bucket(Long.MAX_VALUE)), equalTo(Long.MAX_VALUE));
+    }
+
+    private static void assertPercentile(long actual, long expected) {
+        assertThat(actual, greaterThanOrEqualTo(expected));
+        assertThat(actual, lessThanOrEqualTo(expected + expected / 8));
+    }
+
+    public void testHedgeStats() {
+        collector.addHedgedRequest("node1", "node2");
+        collector.addHedgedRequest("node1", "node3");
+        collector.addHedgeWin("node2");
+
+        Map<String, ResponseCollectorService.HedgeStats> hedgeStats = collector.getAllHedgeStats();
+        assertThat(hedgeStats.get("node1").hedgedRequests, equalTo(2L));
+        assertThat(hedgeStats.get("node1").hedgeRequests, equalTo(0L));
+        assertThat(hedgeStats.get("node2").hedgedRequests, equalTo(0L));
+        assertThat(hedgeStats.get("node2").hedgeRequests, equalTo(1L));
+        assertThat(hedgeStats.get("node2").hedgeWins, equalTo(1L));
+        assertThat(hedgeStats.get("node3").hedgeRequests, equalTo(1L));
+        assertThat(hedgeStats.get("node3").hedgeWins, equalTo(0L));
+        assertThat(collector.getAdaptiveStats(Map.of()).getHedgeStats().keySet(), equalTo(hedgeStats.keySet()));
+
+        collector.removeNode("node1");
+        assertFalse(collector.getAllHedgeStats().containsKey("node1"));
+    }
 }
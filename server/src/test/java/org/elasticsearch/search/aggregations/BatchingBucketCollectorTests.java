@@ -0,0 +1,139 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.tests.index.RandomIndexWriter;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class BatchingBucketCollectorTests extends ESTestCase {
+
+    public void testCollectsAllDocsInBatches() throws IOException {
+        try (Directory directory = newDirectory()) {
+            int numDocs = between(1, 2000);
+            try (RandomIndexWriter iw = new RandomIndexWriter(random(), directory)) {
+                for (int i = 0; i < numDocs; i++) {
+                    iw.addDocument(new Document());
+                    if (rarely()) {
+                        iw.commit();
+                    }
+                }
+            }
+            try (IndexReader reader = DirectoryReader.open(directory)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                RecordingBucketCollector recording = new RecordingBucketCollector();
+                BatchingBucketCollector collector = new BatchingBucketCollector(recording);
+                collector.preCollection();
+                searcher.search(new MatchAllDocsQuery(), collector);
+                collector.postCollection();
+
+                assertThat(recording.docs.size(), equalTo(numDocs));
+                for (int i = 1; i < recording.docs.size(); i++) {
+                    assertThat(recording.docs.get(i), equalTo(recording.docs.get(i - 1) + 1));
+                }
+                for (int batchSize : recording.batchSizes) {
+                    assertThat(batchSize, lessThanOrEqualTo(BatchingBucketCollector.BATCH_SIZE));
+                }
+                assertTrue(recording.postCollected);
+            }
+        }
+    }
+
+    public void testPassesDocsThroughToCollectorsWithoutBatches() throws IOException {
+        try (Directory directory = newDirectory()) {
+            int numDocs = between(1, 1000);
+            try (RandomIndexWriter iw = new RandomIndexWriter(random(), directory)) {
+                for (int i = 0; i < numDocs; i++) {
+                    iw.addDocument(new Document());
+                }
+            }
+            try (IndexReader reader = DirectoryReader.open(directory)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                RecordingBucketCollector recording = new RecordingBucketCollector(false);
+                BatchingBucketCollector collector = new BatchingBucketCollector(recording);
+                collector.preCollection();
+                searcher.search(new MatchAllDocsQuery(), collector);
+                collector.postCollection();
+
+                assertThat(recording.docs.size(), equalTo(numDocs));
+                assertTrue(recording.batchSizes.isEmpty());
+            }
+        }
+    }
+
+    private static class RecordingBucketCollector extends BucketCollector {
+        private final boolean collectsBatches;
+        private final List<Integer> docs = new ArrayList<>();
+        private final List<Integer> batchSizes = new ArrayList<>();
+        private boolean postCollected;
+
+        RecordingBucketCollector() {
+            this(true);
+        }
+
+        RecordingBucketCollector(boolean collectsBatches) {
+            this.collectsBatches = collectsBatches;
+        }
+
+        @Override
+        public LeafBucketCollector getLeafCollector(AggregationExecutionContext aggCtx) {
+            final LeafReaderContext ctx = aggCtx.getLeafReaderContext();
+            return new LeafBucketCollector() {
+                @Override
+                public void collect(int doc, long owningBucketOrd) {
+                    assertFalse("docs should be collected in batches", collectsBatches);
+                    docs.add(ctx.docBase + doc);
+                }
+
+                @Override
+                public boolean collectsBatches() {
+                    return collectsBatches;
+                }
+
+                @Override
+                public void collect(int[] batch, int count, long owningBucketOrd) {
+                    assertFalse(postCollected);
+                    batchSizes.add(count);
+                    for (int i = 0; i < count; i++) {
+                        assertThat(batch[i], lessThan(ctx.reader().maxDoc()));
+                        docs.add(ctx.docBase + batch[i]);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void preCollection() {}
+
+        @Override
+        public void postCollection() {
+            postCollected = true;
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+    }
+}
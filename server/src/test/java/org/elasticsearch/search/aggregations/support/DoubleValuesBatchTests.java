@@ -0,0 +1,107 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations.support;
+
+import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class DoubleValuesBatchTests extends ESTestCase {
+
+    public void testMultiValued() throws IOException {
+        double[][] docValues = new double[between(1, 500)][];
+        for (int doc = 0; doc < docValues.length; doc++) {
+            docValues[doc] = new double[between(0, 3)];
+            for (int i = 0; i < docValues[doc].length; i++) {
+                docValues[doc][i] = randomDouble();
+            }
+        }
+        assertBatches(docValues, new DoubleValuesBatch(multiValued(docValues)));
+    }
+
+    public void testSingleValued() throws IOException {
+        double[][] docValues = new double[between(1, 500)][];
+        for (int doc = 0; doc < docValues.length; doc++) {
+            docValues[doc] = randomBoolean() ? new double[] { randomDouble() } : new double[0];
+        }
+        DoubleValuesBatch batch = new DoubleValuesBatch(FieldData.singleton(new NumericDoubleValues() {
+            int doc;
+
+            @Override
+            public boolean advanceExact(int target) {
+                doc = target;
+                return docValues[doc].length > 0;
+            }
+
+            @Override
+            public double doubleValue() {
+                return docValues[doc][0];
+            }
+        }));
+        assertBatches(docValues, batch);
+    }
+
+    private void assertBatches(double[][] docValues, DoubleValuesBatch batch) throws IOException {
+        int[] docs = new int[docValues.length];
+        int doc = 0;
+        while (doc < docValues.length) {
+            int count = 0;
+            int batchSize = between(1, 64);
+            for (; doc < docValues.length && count < batchSize; doc++) {
+                if (randomBoolean()) {
+                    docs[count++] = doc;
+                }
+            }
+            int numValues = batch.read(docs, count);
+            List<Double> expected = new ArrayList<>();
+            List<Double> actual = new ArrayList<>();
+            int v = 0;
+            for (int i = 0; i < count; i++) {
+                assertThat(batch.valueCounts()[i], equalTo(docValues[docs[i]].length));
+                for (double value : docValues[docs[i]]) {
+                    expected.add(value);
+                    actual.add(batch.values()[v++]);
+                }
+            }
+            assertThat(numValues, equalTo(v));
+            assertThat(actual, equalTo(expected));
+        }
+    }
+
+    private static SortedNumericDoubleValues multiValued(double[][] docValues) {
+        return new SortedNumericDoubleValues() {
+            int doc;
+            int i;
+
+            @Override
+            public boolean advanceExact(int target) {
+                doc = target;
+                i = 0;
+                return docValues[doc].length > 0;
+            }
+
+            @Override
+            public double nextValue() {
+                return docValues[doc][i++];
+            }
+
+            @Override
+            public int docValueCount() {
+                return docValues[doc].length;
+            }
+        };
+    }
+}
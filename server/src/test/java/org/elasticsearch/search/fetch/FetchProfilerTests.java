@@ -39,4 +39,16 @@ public class FetchProfilerTests extends ESTestCase {
         ProfileResult copy = copyWriteable(result, new NamedWriteableRegistry(List.of()), ProfileResult::new);
         assertMap(copy.getDebugInfo(), matchesMap().entry("stored_fields", List.of("_id", "_routing", "_source")));
     }
+
+    public void testPrefetch() {
+        FetchProfiler profiler = new FetchProfiler();
+        profiler.startPrefetching();
+        profiler.stopPrefetching();
+        profiler.startPrefetching();
+        profiler.stopPrefetching();
+        profiler.prefetchedDocs(42);
+        ProfileResult result = profiler.finish();
+        assertThat(result.getTimeBreakdown().get("prefetch_count"), equalTo(2L));
+        assertMap(result.getDebugInfo(), matchesMap().entry("prefetched_docs", 42));
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.fetch;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.tests.index.RandomIndexWriter;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class StoredFieldsPrefetcherTests extends ESTestCase {
+
+    public void testReadsAheadBatchesThatWereNotReached() throws IOException {
+        try (Directory directory = newDirectory()) {
+            int numDocs = between(StoredFieldsPrefetcher.BATCH_SIZE + 1, 1000);
+            try (RandomIndexWriter iw = new RandomIndexWriter(random(), directory)) {
+                for (int i = 0; i < numDocs; i++) {
+                    Document doc = new Document();
+                    doc.add(new StoredField("field", randomAlphaOfLength(10)));
+                    iw.addDocument(doc);
+                    if (rarely()) {
+                        iw.commit();
+                    }
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                int[] docIds = IntStream.range(0, numDocs).filter(i -> randomBoolean()).toArray();
+                List<Runnable> tasks = new ArrayList<>();
+                StoredFieldsPrefetcher prefetcher = new StoredFieldsPrefetcher(reader.leaves(), docIds, tasks::add);
+                List<Integer> batchStarts = batchStarts(reader, docIds);
+                // the fetch phase loads the first batch itself
+                assertThat(tasks.size(), equalTo(Math.max(0, batchStarts.size() - 1)));
+
+                int reached = docIds.length == 0 ? 0 : between(0, docIds.length - 1);
+                if (docIds.length > 0) {
+                    prefetcher.skipTo(docIds[reached]);
+                }
+                tasks.forEach(Runnable::run);
+                prefetcher.close();
+                // only the batches that start after the reached doc were read ahead
+                int expected = 0;
+                for (int batch = 1; batch < batchStarts.size(); batch++) {
+                    int start = batchStarts.get(batch);
+                    int end = batch + 1 < batchStarts.size() ? batchStarts.get(batch + 1) : docIds.length;
+                    if (docIds[start] > docIds[reached]) {
+                        expected += end - start;
+                    }
+                }
+                assertThat(prefetcher.prefetchedDocs(), equalTo(expected));
+            }
+        }
+    }
+
+    public void testCloseSkipsPendingBatches() throws IOException {
+        try (Directory directory = newDirectory()) {
+            try (RandomIndexWriter iw = new RandomIndexWriter(random(), directory)) {
+                for (int i = 0; i < 3 * StoredFieldsPrefetcher.BATCH_SIZE; i++) {
+                    Document doc = new Document();
+                    doc.add(new StoredField("field", i));
+                    iw.addDocument(doc);
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                int[] docIds = IntStream.range(0, reader.maxDoc()).toArray();
+                List<Runnable> tasks = new ArrayList<>();
+                StoredFieldsPrefetcher prefetcher = new StoredFieldsPrefetcher(reader.leaves(), docIds, tasks::add);
+                assertFalse(tasks.isEmpty());
+                prefetcher.close();
+                tasks.forEach(Runnable::run);
+                assertThat(prefetcher.prefetchedDocs(), equalTo(0));
+            }
+        }
+    }
+
+    /**
+     * The index of the first doc of each batch: a batch has at most {@link StoredFieldsPrefetcher#BATCH_SIZE} docs of a single leaf.
+     */
+    private static List<Integer> batchStarts(DirectoryReader reader, int[] docIds) {
+        List<Integer> starts = new ArrayList<>();
+        int start = 0;
+        while (start < docIds.length) {
+            starts.add(start);
+            int leafEnd = leafEnd(reader, docIds[start]);
+            int end = start + 1;
+            while (end < docIds.length && end - start < StoredFieldsPrefetcher.BATCH_SIZE && docIds[end] < leafEnd) {
+                end++;
+            }
+            start = end;
+        }
+        return starts;
+    }
+
+    private static int leafEnd(DirectoryReader reader, int docId) {
+        return reader.leaves()
+            .stream()
+            .filter(leaf -> docId < leaf.docBase + leaf.reader().maxDoc())
+            .findFirst()
+            .map(leaf -> leaf.docBase + leaf.reader().maxDoc())
+            .orElseThrow();
+    }
+}
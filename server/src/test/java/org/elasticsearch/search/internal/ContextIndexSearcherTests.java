@@ -40,6 +40,7 @@ import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHitCountCollector;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.Accountable;
@@ -52,27 +53,36 @@ import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.lucene.index.SequentialStoredFieldsLeafReader;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.cache.bitset.BitsetFilterCache;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.lucene.util.CombinedBitSet;
 import org.elasticsearch.search.aggregations.LeafBucketCollector;
+import org.elasticsearch.tasks.TaskCancelledException;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.IndexSettingsModule;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.elasticsearch.search.internal.ContextIndexSearcher.intersectScorerAndBitSet;
 import static org.elasticsearch.search.internal.ExitableDirectoryReader.ExitableLeafReader;
 import static org.elasticsearch.search.internal.ExitableDirectoryReader.ExitablePointValues;
 import static org.elasticsearch.search.internal.ExitableDirectoryReader.ExitableTerms;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class ContextIndexSearcherTests extends ESTestCase {
     public void testIntersectScorerAndRoleBits() throws Exception {
@@ -271,6 +281,161 @@ public class ContextIndexSearcherTests extends ESTestCase {
         IOUtils.close(reader, w, dir);
     }
 
+    public void testComputeSlices() throws IOException {
+        try (Directory dir = newDirectory()) {
+            final int numSegments = randomIntBetween(1, 20);
+            try (IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                for (int i = 0; i < numSegments; i++) {
+                    final int numDocs = randomIntBetween(1, 10);
+                    for (int j = 0; j < numDocs; j++) {
+                        w.addDocument(new Document());
+                    }
+                    w.commit();
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                final List<List<LeafReaderContext>> slices = ContextIndexSearcher.computeSlices(reader.leaves());
+                assertThat(slices.size(), equalTo((reader.leaves().size() + 4) / 5));
+                final Set<LeafReaderContext> sliced = Collections.newSetFromMap(new IdentityHashMap<>());
+                int previousMinDocs = Integer.MAX_VALUE;
+                for (List<LeafReaderContext> slice : slices) {
+                    assertThat(slice.size(), lessThanOrEqualTo(5));
+                    for (LeafReaderContext leaf : slice) {
+                        // the largest segments come first
+                        assertThat(leaf.reader().maxDoc(), lessThanOrEqualTo(previousMinDocs));
+                        previousMinDocs = leaf.reader().maxDoc();
+                        assertTrue(sliced.add(leaf));
+                    }
+                }
+                assertThat(sliced.size(), equalTo(reader.leaves().size()));
+            }
+        }
+    }
+
+    public void testSearchConcurrently() throws Exception {
+        try (Directory dir = newDirectory()) {
+            int totalDocs = 0;
+            try (IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                final int numSegments = randomIntBetween(6, 30);
+                for (int i = 0; i < numSegments; i++) {
+                    final int numDocs = randomIntBetween(1, 10);
+                    for (int j = 0; j < numDocs; j++) {
+                        Document doc = new Document();
+                        doc.add(new StringField("foo", randomBoolean() ? "bar" : "baz", Field.Store.NO));
+                        w.addDocument(doc);
+                    }
+                    totalDocs += numDocs;
+                    w.commit();
+                }
+            }
+            final ThreadPoolExecutor executor = EsExecutors.newFixed(
+                "testSearchConcurrently",
+                randomIntBetween(1, 4),
+                randomIntBetween(1, 10),
+                EsExecutors.daemonThreadFactory("slice"),
+                new ThreadContext(Settings.EMPTY),
+                false
+            );
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                final ContextIndexSearcher searcher = new ContextIndexSearcher(
+                    reader,
+                    IndexSearcher.getDefaultSimilarity(),
+                    IndexSearcher.getDefaultQueryCache(),
+                    IndexSearcher.getDefaultQueryCachingPolicy(),
+                    true,
+                    executor
+                );
+                assertTrue(searcher.hasConcurrentSlices());
+
+                final List<TotalHitCountCollector> collectors = new ArrayList<>();
+                searcher.searchConcurrently(new MatchAllDocsQuery(), () -> {
+                    final TotalHitCountCollector collector = new TotalHitCountCollector();
+                    collectors.add(collector);
+                    return collector;
+                });
+                assertThat(collectors.size(), greaterThan(1));
+                assertThat(collectors.stream().mapToInt(TotalHitCountCollector::getTotalHits).sum(), equalTo(totalDocs));
+
+                final AtomicBoolean cancelled = new AtomicBoolean(true);
+                searcher.addQueryCancellation(() -> {
+                    if (cancelled.get()) {
+                        throw new TaskCancelledException("simulated");
+                    }
+                });
+                expectThrows(
+                    TaskCancelledException.class,
+                    () -> searcher.searchConcurrently(new TermQuery(new Term("foo", "bar")), TotalHitCountCollector::new)
+                );
+            } finally {
+                terminate(executor);
+            }
+        }
+    }
+
+    public void testSearchConcurrentlyWithoutExecutor() throws IOException {
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                for (int i = 0; i < 10; i++) {
+                    w.addDocument(new Document());
+                    w.commit();
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                final ContextIndexSearcher searcher = new ContextIndexSearcher(
+                    reader,
+                    IndexSearcher.getDefaultSimilarity(),
+                    IndexSearcher.getDefaultQueryCache(),
+                    IndexSearcher.getDefaultQueryCachingPolicy(),
+                    true
+                );
+                assertFalse(searcher.hasConcurrentSlices());
+                final List<TotalHitCountCollector> collectors = new ArrayList<>();
+                searcher.searchConcurrently(new MatchAllDocsQuery(), () -> {
+                    final TotalHitCountCollector collector = new TotalHitCountCollector();
+                    collectors.add(collector);
+                    return collector;
+                });
+                assertThat(collectors.size(), equalTo(1));
+                assertThat(collectors.get(0).getTotalHits(), equalTo(10));
+            }
+        }
+    }
+
+    public void testLeafFilter() throws IOException {
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                for (int i = 0; i < 10; i++) {
+                    w.addDocument(new Document());
+                    w.commit();
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                final ContextIndexSearcher searcher = new ContextIndexSearcher(
+                    reader,
+                    IndexSearcher.getDefaultSimilarity(),
+                    IndexSearcher.getDefaultQueryCache(),
+                    IndexSearcher.getDefaultQueryCachingPolicy(),
+                    true
+                );
+                assertFalse(searcher.hasLeafFilter());
+                searcher.setLeafFilter(leaf -> leaf.ord % 2 == 0);
+                assertTrue(searcher.hasLeafFilter());
+                assertThat(searcher.count(new MatchAllDocsQuery()), equalTo(5));
+                final List<TotalHitCountCollector> collectors = new ArrayList<>();
+                searcher.searchConcurrently(new MatchAllDocsQuery(), () -> {
+                    final TotalHitCountCollector collector = new TotalHitCountCollector();
+                    collectors.add(collector);
+                    return collector;
+                });
+                assertThat(collectors.get(0).getTotalHits(), equalTo(5));
+
+                searcher.setLeafFilter(null);
+                assertFalse(searcher.hasLeafFilter());
+                assertThat(searcher.count(new MatchAllDocsQuery()), equalTo(10));
+            }
+        }
+    }
+
     private SparseFixedBitSet query(LeafReaderContext leaf, String field, String value) throws IOException {
         SparseFixedBitSet sparseFixedBitSet = new SparseFixedBitSet(leaf.reader().maxDoc());
         TermsEnum tenum = leaf.reader().terms(field).iterator();
@@ -0,0 +1,180 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.SearchSortValuesAndFormats;
+import org.elasticsearch.search.internal.GlobalBottomSortValues;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class BottomSortValuePruningCollectorTests extends ESTestCase {
+
+    public void testCanPrune() {
+        assertTrue(BottomSortValuePruningCollector.canPrune(new SortedNumericSortField("f", SortField.Type.LONG)));
+        assertFalse(BottomSortValuePruningCollector.canPrune(new SortedNumericSortField("f", SortField.Type.DOUBLE)));
+        assertFalse(BottomSortValuePruningCollector.canPrune(new SortField("f", SortField.Type.LONG)));
+        SortField sortField = new SortedNumericSortField("f", SortField.Type.LONG);
+        sortField.setOptimizeSortWithPoints(false);
+        assertFalse(BottomSortValuePruningCollector.canPrune(sortField));
+    }
+
+    public void testSkipsNonCompetitiveSegments() throws IOException {
+        final boolean reverse = randomBoolean();
+        final boolean missingValues = randomBoolean();
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                for (int segment = 0; segment < 3; segment++) {
+                    for (int value = segment * 100; value < (segment + 1) * 100; value++) {
+                        writer.addDocument(doc(value));
+                    }
+                    if (missingValues) {
+                        writer.addDocument(new Document());
+                    }
+                    writer.commit();
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                assertThat(reader.leaves().size(), equalTo(3));
+                // only the segment with the values from 200 to 299 (ascending) or from 0 to 99 (descending) can't compete
+                final long bottom = reverse ? 150 : 149;
+                final SortField sortField = new SortedNumericSortField("f", SortField.Type.LONG, reverse);
+                final RecordingCollector recording = new RecordingCollector();
+                final BottomSortValuePruningCollector collector = new BottomSortValuePruningCollector(
+                    recording,
+                    sortField,
+                    bottomSortValues(bottom)
+                );
+                new IndexSearcher(reader).search(new MatchAllDocsQuery(), collector);
+
+                // the docs without a value sort as 0, so they are only non competitive in descending order
+                final int expectedPrunedSegments = missingValues && reverse == false ? 0 : 1;
+                assertThat(collector.getPrunedSegments(), equalTo(expectedPrunedSegments));
+                assertThat(recording.docs.size(), equalTo(reader.maxDoc() - expectedPrunedSegments * (missingValues ? 101 : 100)));
+            }
+        }
+    }
+
+    public void testStopsSortedSegmentAtFirstNonCompetitiveDoc() throws IOException {
+        final boolean reverse = randomBoolean();
+        final int numDocs = between(1000, 3000);
+        final List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < numDocs; i++) {
+            values.add(i);
+        }
+        Collections.shuffle(values, random());
+        try (Directory dir = newDirectory()) {
+            final IndexWriterConfig config = new IndexWriterConfig().setIndexSort(
+                new Sort(new SortedNumericSortField("f", SortField.Type.LONG, reverse))
+            );
+            try (IndexWriter writer = new IndexWriter(dir, config)) {
+                for (int value : values) {
+                    writer.addDocument(doc(value));
+                }
+                writer.forceMerge(1);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                final int bottom = between(0, numDocs - 1);
+                final SortField sortField = new SortedNumericSortField("f", SortField.Type.LONG, reverse);
+                final RecordingCollector recording = new RecordingCollector();
+                final BottomSortValuePruningCollector collector = new BottomSortValuePruningCollector(
+                    recording,
+                    sortField,
+                    bottomSortValues(bottom)
+                );
+                new IndexSearcher(reader).search(new MatchAllDocsQuery(), collector);
+
+                assertThat(collector.getPrunedSegments(), equalTo(0));
+                // the docs that are equal to the bottom are collected too
+                assertThat(recording.docs.size(), equalTo(reverse ? numDocs - bottom : bottom + 1));
+            }
+        }
+    }
+
+    public void testCollectsAllDocsWithoutBottom() throws IOException {
+        try (Directory dir = newDirectory()) {
+            final int numDocs = between(1, 500);
+            try (IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig())) {
+                for (int i = 0; i < numDocs; i++) {
+                    writer.addDocument(doc(randomLongBetween(-1000, 1000)));
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                final RecordingCollector recording = new RecordingCollector();
+                final BottomSortValuePruningCollector collector = new BottomSortValuePruningCollector(
+                    recording,
+                    new SortedNumericSortField("f", SortField.Type.LONG),
+                    new GlobalBottomSortValues(null)
+                );
+                new IndexSearcher(reader).search(new MatchAllDocsQuery(), collector);
+                assertThat(recording.docs.size(), equalTo(numDocs));
+            }
+        }
+    }
+
+    public void testIgnoresOutdatedUpdates() {
+        final GlobalBottomSortValues bottomSortValues = new GlobalBottomSortValues(null);
+        final SearchSortValuesAndFormats first = sortValues(10);
+        final SearchSortValuesAndFormats second = sortValues(5);
+        bottomSortValues.update(2, second);
+        bottomSortValues.update(1, first);
+        assertSame(second, bottomSortValues.get());
+    }
+
+    private static Document doc(long value) {
+        final Document doc = new Document();
+        doc.add(new LongPoint("f", value));
+        doc.add(new SortedNumericDocValuesField("f", value));
+        return doc;
+    }
+
+    private static GlobalBottomSortValues bottomSortValues(long bottom) {
+        return new GlobalBottomSortValues(sortValues(bottom));
+    }
+
+    private static SearchSortValuesAndFormats sortValues(long bottom) {
+        return new SearchSortValuesAndFormats(new Object[] { bottom }, new DocValueFormat[] { DocValueFormat.RAW });
+    }
+
+    private static class RecordingCollector extends SimpleCollector {
+        private final List<Integer> docs = new ArrayList<>();
+
+        @Override
+        public void collect(int doc) {
+            docs.add(doc);
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+    }
+}
@@ -58,6 +58,10 @@ import org.apache.lucene.tests.index.RandomIndexWriter;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.elasticsearch.action.search.SearchShardTask;
+import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.index.mapper.DateFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.NumberFieldMapper;
@@ -81,6 +85,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static org.elasticsearch.search.query.TopDocsCollectorContext.hasInfMaxScore;
 import static org.hamcrest.Matchers.anyOf;
@@ -895,6 +900,105 @@ public class QueryPhaseTests extends IndexShardTestCase {
         dir.close();
     }
 
+    public void testConcurrentSegmentSearch() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriterConfig iwc = newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+        RandomIndexWriter w = new RandomIndexWriter(random(), dir, iwc);
+        final int numSegments = randomIntBetween(6, 20);
+        for (int i = 0; i < numSegments; i++) {
+            final int numDocs = randomIntBetween(1, 20);
+            for (int j = 0; j < numDocs; j++) {
+                Document doc = new Document();
+                doc.add(new StringField("foo", randomBoolean() ? "bar" : "baz", Store.NO));
+                doc.add(new NumericDocValuesField("rank", randomIntBetween(0, 10)));
+                w.addDocument(doc);
+            }
+            w.commit();
+        }
+        w.close();
+
+        IndexReader reader = DirectoryReader.open(dir);
+        final ThreadPoolExecutor executor = EsExecutors.newFixed(
+            "testConcurrentSegmentSearch",
+            randomIntBetween(1, 4),
+            1000,
+            EsExecutors.daemonThreadFactory("slice"),
+            new ThreadContext(Settings.EMPTY),
+            false
+        );
+        try {
+            for (int i = 0; i < 20; i++) {
+                final Query query = randomBoolean() ? new MatchAllDocsQuery() : new TermQuery(new Term("foo", "bar"));
+                final SortAndFormats sort = randomBoolean()
+                    ? null
+                    : new SortAndFormats(
+                        new Sort(new SortField("rank", SortField.Type.LONG)),
+                        new DocValueFormat[] { DocValueFormat.RAW }
+                    );
+                final int size = randomIntBetween(0, 30);
+                final int trackTotalHitsUpTo = randomFrom(
+                    SearchContext.TRACK_TOTAL_HITS_ACCURATE,
+                    SearchContext.TRACK_TOTAL_HITS_DISABLED,
+                    randomIntBetween(1, 50)
+                );
+                final boolean postFilter = randomBoolean();
+
+                final ContextIndexSearcher concurrentSearcher = new ContextIndexSearcher(
+                    reader,
+                    IndexSearcher.getDefaultSimilarity(),
+                    IndexSearcher.getDefaultQueryCache(),
+                    IndexSearcher.getDefaultQueryCachingPolicy(),
+                    true,
+                    executor
+                );
+                assertTrue(concurrentSearcher.hasConcurrentSlices());
+                final ContextIndexSearcher searcher = newContextSearcher(reader);
+                final TopDocsAndMaxScore expected = executeQuery(searcher, query, sort, size, trackTotalHitsUpTo, postFilter);
+                final TopDocsAndMaxScore actual = executeQuery(concurrentSearcher, query, sort, size, trackTotalHitsUpTo, postFilter);
+
+                assertThat(actual.topDocs.scoreDocs.length, equalTo(expected.topDocs.scoreDocs.length));
+                for (int j = 0; j < expected.topDocs.scoreDocs.length; j++) {
+                    assertThat(actual.topDocs.scoreDocs[j].doc, equalTo(expected.topDocs.scoreDocs[j].doc));
+                    assertThat(actual.topDocs.scoreDocs[j].score, equalTo(expected.topDocs.scoreDocs[j].score));
+                }
+                assertThat(actual.maxScore, equalTo(expected.maxScore));
+                final long count = newContextSearcher(reader).count(query);
+                if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_ACCURATE) {
+                    assertThat(actual.topDocs.totalHits, equalTo(expected.topDocs.totalHits));
+                } else if (actual.topDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO) {
+                    assertThat(actual.topDocs.totalHits.value, equalTo(count));
+                } else if (trackTotalHitsUpTo != SearchContext.TRACK_TOTAL_HITS_DISABLED) {
+                    assertThat(actual.topDocs.totalHits.value, greaterThanOrEqualTo((long) Math.min(trackTotalHitsUpTo, count)));
+                }
+            }
+        } finally {
+            terminate(executor);
+            reader.close();
+            dir.close();
+        }
+    }
+
+    private TopDocsAndMaxScore executeQuery(
+        ContextIndexSearcher searcher,
+        Query query,
+        SortAndFormats sort,
+        int size,
+        int trackTotalHitsUpTo,
+        boolean postFilter
+    ) {
+        TestSearchContext context = new TestSearchContext(null, indexShard, searcher);
+        context.parsedQuery(new ParsedQuery(query));
+        if (postFilter) {
+            context.parsedPostFilter(new ParsedQuery(new MatchAllDocsQuery()));
+        }
+        context.sort(sort);
+        context.setSize(size);
+        context.trackTotalHitsUpTo(trackTotalHitsUpTo);
+        context.setTask(new SearchShardTask(123L, "", "", "", null, Collections.emptyMap()));
+        QueryPhase.executeInternal(context);
+        return context.queryResult().topDocs();
+    }
+
     public void testCancellationDuringRewrite() throws IOException {
         try (Directory dir = newDirectory(); RandomIndexWriter w = new RandomIndexWriter(random(), dir, newIndexWriterConfig())) {
 
@@ -1166,6 +1166,7 @@ public class AbstractCoordinatorTestCase extends ESTestCase {
                             );
                             case JoinValidationService.JOIN_VALIDATE_ACTION_NAME,
                                  PublicationTransportHandler.PUBLISH_STATE_ACTION_NAME,
+                                 PublicationTransportHandler.PUBLISH_STATE_CHUNK_ACTION_NAME,
                                  Coordinator.COMMIT_STATE_ACTION_NAME -> assertThat(
                                 action,
                                 chanType,
@@ -166,6 +166,15 @@ public class MockBigArrays extends BigArrays {
         return array;
     }
 
+    @Override
+    public ByteArray newHeapByteArray(long size, boolean clearOnResize) {
+        final ByteArrayWrapper array = new ByteArrayWrapper(super.newHeapByteArray(size, clearOnResize), clearOnResize);
+        if (clearOnResize == false) {
+            array.randomizeContent(0, size);
+        }
+        return array;
+    }
+
     @Override
     public ByteArray resize(ByteArray array, long size) {
         ByteArrayWrapper arr = (ByteArrayWrapper) array;
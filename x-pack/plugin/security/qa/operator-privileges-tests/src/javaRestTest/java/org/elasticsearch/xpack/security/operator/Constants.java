@@ -20,6 +20,7 @@ public class Constants {
         "cluster:admin/component_template/get",
         "cluster:admin/component_template/put",
         "cluster:admin/deprecation/cache/reset",
+        "cluster:admin/desired_balance/get",
         // Desired nodes APIs
         "cluster:admin/desired_nodes/get",
         "cluster:admin/desired_nodes/update",
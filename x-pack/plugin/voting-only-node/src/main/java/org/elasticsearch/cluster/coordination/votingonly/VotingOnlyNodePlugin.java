@@ -226,19 +226,28 @@ public class VotingOnlyNodePlugin extends Plugin implements DiscoveryPlugin, Net
                         }
                     });
                 } else {
-                    threadPoolSupplier.get()
-                        .generic()
-                        .execute(
-                            () -> handler.handleException(
-                                new TransportException(
-                                    new ElasticsearchException("voting-only node skipping publication to " + destinationNode)
-                                )
-                            )
-                        );
+                    skipPublication(destinationNode, handler);
+                }
+            } else if (action.equals(PublicationTransportHandler.PUBLISH_STATE_CHUNK_ACTION_NAME)) {
+                if (isFullMasterNode(connection.getNode())) {
+                    sender.sendRequest(connection, action, request, options, handler);
+                } else {
+                    // the publication to this node is skipped anyway, so there is no point in sending it the chunks of a full state
+                    skipPublication(connection.getNode(), handler);
                 }
             } else {
                 sender.sendRequest(connection, action, request, options, handler);
             }
         }
+
+        private void skipPublication(DiscoveryNode destinationNode, TransportResponseHandler<?> handler) {
+            threadPoolSupplier.get()
+                .generic()
+                .execute(
+                    () -> handler.handleException(
+                        new TransportException(new ElasticsearchException("voting-only node skipping publication to " + destinationNode))
+                    )
+                );
+        }
     }
 }